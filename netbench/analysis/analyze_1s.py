@@ -2,6 +2,7 @@ import numpy as np
 import csv
 import sys
 import os
+import shutil
 
 
 ##################################
@@ -227,6 +228,13 @@ def analyze_port_utilization():
             for key, value in sorted(statistics.items()):
                 outfile.write(str(key) + "=" + str(value) + "\n")
 
-# Call analysis functions
-analyze_flow_completion()
+# Call analysis functions (the per-flow log only exists if enable_log_flow_completion_per_flow=true,
+# else the flow completion statistics written by the simulator (of all flows, not only those started in [0.5s, 1.5s)) are used)
+if os.path.isfile(run_folder_path + '/flow_completion.csv.log'):
+    analyze_flow_completion()
+elif os.path.isfile(run_folder_path + '/flow_completion.statistics'):
+    print('No per-flow log, copying flow_completion.statistics of the simulator...')
+    shutil.copyfile(run_folder_path + '/flow_completion.statistics', analysis_folder_path + '/flow_completion.statistics')
+else:
+    print('No flow completion log or statistics found: flow completion analysis is skipped.')
 analyze_port_utilization()
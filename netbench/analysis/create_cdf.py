@@ -130,4 +130,8 @@ def analyze_flow_completion_cdfs():
                     if plot_y_vals[k] == 1 and plot_y_vals[k + 1] == 1:
                         break
 
-analyze_flow_completion_cdfs()
\ No newline at end of file
+# Call analysis functions (the per-flow log only exists if enable_log_flow_completion_per_flow=true)
+if os.path.isfile(run_folder_path + '/flow_completion.csv.log'):
+    analyze_flow_completion_cdfs()
+else:
+    print('No per-flow log flow_completion.csv.log (enable_log_flow_completion_per_flow=false): CDFs are skipped.')
@@ -0,0 +1,22 @@
+package ch.ethz.systems.netbench.core;
+
+/**
+ * Access to the simulation time for benchmarks which call into network
+ * components directly, without running the event loop of the simulator.
+ */
+public class BenchmarkClock {
+
+    private BenchmarkClock() {
+        // Only static class
+    }
+
+    /**
+     * Set the current simulation time as if the simulator had arrived at it.
+     *
+     * @param timeNs    Simulation time in nanoseconds
+     */
+    public static void setCurrentTime(long timeNs) {
+        SimulationContext.current().now = timeNs;
+    }
+
+}
@@ -0,0 +1,89 @@
+package ch.ethz.systems.netbench.core;
+
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an event insert and poll through the {@link Simulator} using the
+ * classic hold model: the queue is filled with a number of pending events,
+ * each of which on triggering registers a new one an exponentially
+ * distributed time later.
+ *
+ * Every operation polls and triggers an event; all but the last pending
+ * ones insert a new event, such that the queue is empty at the end.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulatorBenchmark {
+
+    private static final int OPERATIONS = 1000000;
+    private static final double MEAN_GAP_NS = 1000.0;
+
+    @Param({"heap", "ladder"})
+    public String eventQueue;
+
+    @Param({"1000", "100000"})
+    public int pending;
+
+    private Random random;
+    private long remaining;
+
+    private class HoldEvent extends Event {
+
+        HoldEvent(long timeFromNowNs) {
+            super(timeFromNowNs);
+        }
+
+        @Override
+        public void trigger() {
+            remaining--;
+            if (remaining >= pending) {
+                Simulator.registerEvent(new HoldEvent(nextGapNs()));
+            }
+        }
+
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        NBProperties configuration = new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN);
+        configuration.overrideProperty("simulator_event_queue", eventQueue);
+        Simulator.setup(42, configuration);
+        random = new Random(42);
+        remaining = OPERATIONS;
+        for (int i = 0; i < pending; i++) {
+            Simulator.registerEvent(new HoldEvent(nextGapNs()));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        Simulator.reset();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long holdInsertPoll() {
+        Simulator.runNs(Long.MAX_VALUE - 1);
+        return remaining;
+    }
+
+    /**
+     * Draw the exponentially distributed time between an event and the next one it registers.
+     *
+     * @return  Time from now in nanoseconds
+     */
+    private long nextGapNs() {
+        return (long) (-Math.log(random.nextDouble()) * MEAN_GAP_NS * pending);
+    }
+
+}
@@ -0,0 +1,76 @@
+package ch.ethz.systems.netbench.core.eventqueue;
+
+import ch.ethz.systems.netbench.core.network.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a hold operation on the event queue implementations themselves,
+ * without the simulator around them: the queue is filled with a number of pending
+ * events, after which every operation polls the first event and inserts a new one
+ * an exponentially distributed time later.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventQueueBenchmark {
+
+    private static final int OPERATIONS = 1000000;
+    private static final double MEAN_GAP_NS = 1000.0;
+
+    @Param({"heap", "ladder"})
+    public String eventQueue;
+
+    @Param({"1000", "100000", "1000000"})
+    public int pending;
+
+    private EventQueue queue;
+    private Random random;
+
+    private static class HoldEvent extends Event {
+
+        HoldEvent(long time) {
+            super(time);
+        }
+
+        @Override
+        public void trigger() {
+            // Nothing happens
+        }
+
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        queue = eventQueue.equals("ladder") ? new LadderEventQueue() : new HeapEventQueue();
+        random = new Random(42);
+        for (int i = 0; i < pending; i++) {
+            queue.add(new HoldEvent(nextGapNs()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int hold() {
+        for (int i = 0; i < OPERATIONS; i++) {
+            Event event = queue.poll();
+            queue.add(new HoldEvent(event.getTime() + nextGapNs()));
+        }
+        return queue.size();
+    }
+
+    /**
+     * Draw the exponentially distributed time between a polled event and the one inserted for it.
+     *
+     * @return  Time gap in nanoseconds
+     */
+    private long nextGapNs() {
+        return (long) (-Math.log(random.nextDouble()) * MEAN_GAP_NS * pending);
+    }
+
+}
@@ -0,0 +1,122 @@
+package ch.ethz.systems.netbench.core.network;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Minimal network components to isolate a single component in a benchmark.
+ */
+public class BenchmarkNetwork {
+
+    private BenchmarkNetwork() {
+        // Only static class
+    }
+
+    /**
+     * Intermediary which does not adapt packets.
+     */
+    public static class PassIntermediary extends Intermediary {
+
+        @Override
+        public Packet adaptOutgoing(Packet packet) {
+            return packet;
+        }
+
+        @Override
+        public Packet adaptIncoming(Packet packet) {
+            return packet;
+        }
+
+    }
+
+    /**
+     * Network device which drops everything it receives.
+     */
+    public static class SinkDevice extends NetworkDevice {
+
+        public SinkDevice(int identifier) {
+            super(identifier, null, new PassIntermediary());
+        }
+
+        @Override
+        public void receive(Packet genericPacket) {
+            // Nothing happens
+        }
+
+        @Override
+        protected void receiveFromIntermediary(Packet genericPacket) {
+            // Nothing happens
+        }
+
+    }
+
+    /**
+     * Link of which every transmission fails, such that a dispatched
+     * packet does not create an arrival event.
+     */
+    public static class FailingLink extends Link {
+
+        private final long bandwidthBitPerNs;
+
+        public FailingLink(long bandwidthBitPerNs) {
+            this.bandwidthBitPerNs = bandwidthBitPerNs;
+        }
+
+        @Override
+        public long getDelayNs() {
+            return 1;
+        }
+
+        @Override
+        public long getBandwidthBitPerNs() {
+            return bandwidthBitPerNs;
+        }
+
+        @Override
+        public boolean doesNextTransmissionFail(long packetSizeBits) {
+            return true;
+        }
+
+    }
+
+    /**
+     * Output port which always accepts the packet into its queue.
+     */
+    public static class UnboundedOutputPort extends OutputPort {
+
+        public UnboundedOutputPort(NetworkDevice ownNetworkDevice, NetworkDevice targetNetworkDevice, Link link, Queue<Packet> queue) {
+            super(ownNetworkDevice, targetNetworkDevice, link, queue);
+        }
+
+        @Override
+        public void enqueue(Packet packet) {
+            guaranteedEnqueue(packet);
+        }
+
+    }
+
+    /**
+     * Output port which only counts the packets enqueued to it, such that
+     * the forwarding decision of its network device is measured.
+     */
+    public static class CountingOutputPort extends OutputPort {
+
+        private long enqueued;
+
+        public CountingOutputPort(NetworkDevice ownNetworkDevice, NetworkDevice targetNetworkDevice) {
+            super(ownNetworkDevice, targetNetworkDevice, new FailingLink(1), new ArrayDeque<Packet>());
+            this.enqueued = 0;
+        }
+
+        @Override
+        public void enqueue(Packet packet) {
+            enqueued++;
+        }
+
+        public long getEnqueued() {
+            return enqueued;
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+package ch.ethz.systems.netbench.core.network;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.BenchmarkNetwork.FailingLink;
+import ch.ethz.systems.netbench.core.network.BenchmarkNetwork.SinkDevice;
+import ch.ethz.systems.netbench.core.network.BenchmarkNetwork.UnboundedOutputPort;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-packet cost of the output port queueing path ({@link OutputPort#guaranteedEnqueue(Packet)}
+ * followed by {@link OutputPort#dispatch(Packet)}), including the dispatch events, with the
+ * {@link RingBufferQueue} compared to the previous default port queue ({@link LinkedBlockingQueue}).
+ *
+ * A single port is given bursts of packets, each of which is fully dispatched
+ * before the next burst arrives. The transmissions are set to fail, such that
+ * no arrival events are created and mostly the port itself is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputPortBenchmark {
+
+    private static final int PACKETS = 1048576;
+    private static final long PACKET_SIZE_BIT = 12000;
+
+    @Param({"1", "64", "1024"})
+    public int burst;
+
+    @Param({"ring_buffer", "linked_blocking"})
+    public String queue;
+
+    private OutputPort port;
+    private Packet[] burstPackets;
+
+    private static class BenchmarkPacket extends Packet {
+
+        BenchmarkPacket(long flowId) {
+            super(flowId, PACKET_SIZE_BIT);
+        }
+
+    }
+
+    private class BurstEvent extends Event {
+
+        private final long remainingBursts;
+
+        BurstEvent(long timeFromNowNs, long remainingBursts) {
+            super(timeFromNowNs);
+            this.remainingBursts = remainingBursts;
+        }
+
+        @Override
+        public void trigger() {
+            for (Packet packet : burstPackets) {
+                port.enqueue(packet);
+            }
+            if (remainingBursts > 1) {
+                Simulator.registerEvent(new BurstEvent(burstPackets.length + 1, remainingBursts - 1));
+            }
+        }
+
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        Simulator.setup(42, new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN));
+
+        // Each packet takes a nanosecond to transmit
+        Queue<Packet> portQueue = queue.equals("linked_blocking") ? new LinkedBlockingQueue<Packet>() : new RingBufferQueue<Packet>();
+        port = new UnboundedOutputPort(new SinkDevice(0), new SinkDevice(1), new FailingLink(PACKET_SIZE_BIT), portQueue);
+        burstPackets = new Packet[burst];
+        for (int i = 0; i < burst; i++) {
+            burstPackets[i] = new BenchmarkPacket(i);
+        }
+        Simulator.registerEvent(new BurstEvent(0, PACKETS / burst));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        Simulator.reset();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PACKETS)
+    public int enqueueDispatch() {
+        Simulator.runNs(Long.MAX_VALUE - 1);
+        return port.getQueueSize();
+    }
+
+}
@@ -0,0 +1,131 @@
+package ch.ethz.systems.netbench.core.network;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.BenchmarkNetwork.PassIntermediary;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packets bouncing back and forth between two network devices, with newly
+ * created packet events compared to pooled ones (simulator_event_pooling).
+ * Every hop goes through {@link OutputPort#guaranteedEnqueue(Packet)},
+ * {@link OutputPort#dispatch(Packet)} and {@link NetworkDevice#receive(Packet)}.
+ *
+ * The hops per second are reported as the secondary result "hops". The packets
+ * themselves are reused, so nearly all allocation is of events; run with
+ * "-prof gc" to obtain the bytes allocated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketEventPoolingBenchmark {
+
+    private static final long PACKET_SIZE_BIT = 12000;
+
+    private static final long RUNTIME_NS = 10000000;
+
+    @Param({"false", "true"})
+    public boolean pooling;
+
+    @Param({"1", "64"})
+    public int packets;
+
+    private BounceDevice[] devices;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Hops {
+
+        public long hops;
+
+        @Setup(Level.Iteration)
+        public void clean() {
+            hops = 0;
+        }
+
+    }
+
+    /**
+     * Sends every packet it receives back to the other device.
+     */
+    private static class BounceDevice extends NetworkDevice {
+
+        private long numReceived = 0;
+
+        BounceDevice(int identifier) {
+            super(identifier, null, new PassIntermediary());
+        }
+
+        @Override
+        public void receive(Packet genericPacket) {
+            numReceived++;
+            targetIdToOutputPort.get(1 - identifier).enqueue(genericPacket);
+        }
+
+        @Override
+        protected void receiveFromIntermediary(Packet genericPacket) {
+            // Nothing happens
+        }
+
+    }
+
+    private static class BenchmarkLink extends Link {
+
+        @Override
+        public long getDelayNs() {
+            return 100;
+        }
+
+        @Override
+        public long getBandwidthBitPerNs() {
+            return PACKET_SIZE_BIT;
+        }
+
+        @Override
+        public boolean doesNextTransmissionFail(long packetSizeBits) {
+            return false;
+        }
+
+    }
+
+    private static class BenchmarkPacket extends Packet {
+
+        BenchmarkPacket(long flowId) {
+            super(flowId, PACKET_SIZE_BIT);
+        }
+
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        NBProperties configuration = new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN);
+        configuration.overrideProperty("simulator_event_pooling", String.valueOf(pooling));
+        Simulator.setup(42, configuration);
+
+        devices = new BounceDevice[]{new BounceDevice(0), new BounceDevice(1)};
+        devices[0].addConnection(new BenchmarkNetwork.UnboundedOutputPort(devices[0], devices[1], new BenchmarkLink(), new RingBufferQueue<Packet>()));
+        devices[1].addConnection(new BenchmarkNetwork.UnboundedOutputPort(devices[1], devices[0], new BenchmarkLink(), new RingBufferQueue<Packet>()));
+        for (int i = 0; i < packets; i++) {
+            Simulator.registerEvent(new PacketArrivalEvent(i, new BenchmarkPacket(i), devices[i % 2]));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        Simulator.reset();
+    }
+
+    @Benchmark
+    public void bounce(Hops hops) {
+        Simulator.runNs(RUNTIME_NS);
+        hops.hops += devices[0].numReceived + devices[1].numReceived;
+    }
+
+}
@@ -0,0 +1,91 @@
+package ch.ethz.systems.netbench.core.run;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.run.infrastructure.BaseInitializer;
+import ch.ethz.systems.netbench.core.utility.UnitConverter;
+
+import java.io.File;
+
+/**
+ * Simulation run for benchmarks, set up as by {@link MainFromProperties} (without
+ * topology extension, reconfiguration and analysis), such that only the run
+ * itself needs to be measured.
+ */
+public class BenchmarkRun {
+
+    private final long runtimeNs;
+    private final long finishWhenFirstFlowsFinish;
+
+    /**
+     * Set up the simulator with the infrastructure, routing state and traffic of the run.
+     * The run folder is placed in the temporary directory and thrown away at {@link #close()}.
+     *
+     * @param fileName      Run configuration properties file (e.g. example/runs/test_n2.properties)
+     * @param overrides     Properties to override (key=value)
+     */
+    public BenchmarkRun(String fileName, String... overrides) {
+
+        // Configuration
+        NBProperties runConfiguration = new NBProperties(
+                fileName,
+                BaseAllowedProperties.LOG,
+                BaseAllowedProperties.PROPERTIES_RUN,
+                BaseAllowedProperties.EXTENSION,
+                BaseAllowedProperties.EXPERIMENTAL
+        );
+        runConfiguration.overrideProperty("run_folder_base_dir", System.getProperty("java.io.tmpdir") + File.separator + "netbench_benchmark");
+        for (String override : overrides) {
+            int index = override.indexOf('=');
+            runConfiguration.overrideProperty(override.substring(0, index), override.substring(index + 1));
+        }
+        this.runtimeNs = runConfiguration.isPropertyDefined("run_time_ns")
+                ? runConfiguration.getLongPropertyOrFail("run_time_ns")
+                : UnitConverter.convertSecondsToNanoseconds(runConfiguration.getDoublePropertyOrFail("run_time_s"));
+        this.finishWhenFirstFlowsFinish = runConfiguration.getLongPropertyWithDefault("finish_when_first_flows_finish", -1);
+
+        // Setup simulator
+        Simulator.setup(runConfiguration.getLongPropertyOrFail("seed"), runConfiguration);
+
+        // Infrastructure
+        BaseInitializer initializer = new BaseInitializer(
+                InfrastructureSelector.selectOutputPortGenerator(),
+                InfrastructureSelector.selectNetworkDeviceGenerator(),
+                InfrastructureSelector.selectLinkGenerator(),
+                InfrastructureSelector.selectTransportLayerGenerator()
+        );
+        initializer.createInfrastructure();
+
+        // Routing state
+        RoutingSelector.selectPopulator(initializer.getIdToNetworkDevice()).populateRoutingTables();
+
+        // Traffic
+        TrafficSelector.selectPlanner(initializer.getIdToTransportLayer()).createPlan(runtimeNs);
+
+    }
+
+    /**
+     * Run the simulation (sequentially).
+     */
+    public void run() {
+        Simulator.runNs(runtimeNs, finishWhenFirstFlowsFinish);
+    }
+
+    /**
+     * Retrieve the running time.
+     *
+     * @return  Running time in nanoseconds
+     */
+    public long getRuntimeNs() {
+        return runtimeNs;
+    }
+
+    /**
+     * Clean up the simulator and throw away the logs of the run.
+     */
+    public void close() {
+        Simulator.reset();
+    }
+
+}
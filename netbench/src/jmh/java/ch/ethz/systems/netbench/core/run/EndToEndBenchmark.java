@@ -0,0 +1,74 @@
+package ch.ethz.systems.netbench.core.run;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulated time per wall-clock time of a complete run on the bundled example topologies:
+ * DCTCP over ECMP switches, with Poisson arrivals of web search flows between all servers.
+ * Setting up the run (infrastructure, routing state and traffic plan) is not measured.
+ *
+ * The simulated nanoseconds per second are reported as the secondary result
+ * "simulatedNs"; the path of the topology is relative to the netbench directory,
+ * from which the benchmarks must thus be run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    private static final String BASE_PROPERTIES = "example/runs/test_ecmp_n5.properties";
+
+    @Param({"fat_tree/fat_tree_k4.topology", "fat_tree/fat_tree_k8.topology", "xpander/xpander_n100_d10.topology"})
+    public String topology;
+
+    @Param({"1000000"})
+    public long runTimeNs;
+
+    @Param({"50000"})
+    public int flowStartsPerS;
+
+    private BenchmarkRun run;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class SimulatedTime {
+
+        public long simulatedNs;
+
+        @Setup(Level.Iteration)
+        public void clean() {
+            simulatedNs = 0;
+        }
+
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        run = new BenchmarkRun(
+                BASE_PROPERTIES,
+                "scenario_topology_file=example/topologies/" + topology,
+                "run_time_s=" + (runTimeNs / 1e9),
+                "traffic=poisson_arrival",
+                "traffic_lambda_flow_starts_per_s=" + flowStartsPerS,
+                "traffic_flow_size_dist=pfabric_web_search_lower_bound",
+                "enable_log_flow_completion_per_flow=false"
+        );
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        run.close();
+    }
+
+    @Benchmark
+    public void run(SimulatedTime simulatedTime) {
+        run.run();
+        simulatedTime.simulatedNs += run.getRuntimeNs();
+    }
+
+}
@@ -0,0 +1,79 @@
+package ch.ethz.systems.netbench.ext.ecmp;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.BenchmarkNetwork.CountingOutputPort;
+import ch.ethz.systems.netbench.core.network.BenchmarkNetwork.PassIntermediary;
+import ch.ethz.systems.netbench.core.network.BenchmarkNetwork.SinkDevice;
+import ch.ethz.systems.netbench.core.network.Packet;
+import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-packet cost of the forwarding decision of {@link EcmpSwitch#receive(Packet)}.
+ *
+ * The switch is connected to a number of neighbors, each of which is a destination
+ * reachable via several of them. The output ports only count the packets, such
+ * that no events are created.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EcmpSwitchBenchmark {
+
+    private static final int NUM_NEIGHBORS = 16;
+    private static final int NUM_PACKETS = 4096;
+
+    @Param({"1", "4"})
+    public int pathsPerDestination;
+
+    private EcmpSwitch device;
+    private Packet[] packets;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Simulator.setup(42, new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN));
+
+        // Switch 0 with neighbors 1 to N, of which each can be reached via the next neighbors
+        device = new EcmpSwitch(0, null, NUM_NEIGHBORS + 1, new PassIntermediary());
+        for (int i = 1; i <= NUM_NEIGHBORS; i++) {
+            device.addConnection(new CountingOutputPort(device, new SinkDevice(i)));
+        }
+        for (int i = 1; i <= NUM_NEIGHBORS; i++) {
+            for (int j = 0; j < pathsPerDestination; j++) {
+                device.addDestinationToNextSwitch(i, 1 + (i - 1 + j) % NUM_NEIGHBORS);
+            }
+        }
+
+        // Packets of different flows to random destinations
+        Random random = new Random(42);
+        packets = new Packet[NUM_PACKETS];
+        for (int i = 0; i < NUM_PACKETS; i++) {
+            packets[i] = new FullExtTcpPacket(
+                    i, 1380, NUM_NEIGHBORS + 1 + random.nextInt(1000), 1 + random.nextInt(NUM_NEIGHBORS), 100, 80, 80,
+                    0, 0, false, false, false, false, false, false, false, false, false, 0, 0
+            );
+        }
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Simulator.reset();
+    }
+
+    @Benchmark
+    public void receive() {
+        device.receive(packets[next]);
+        next = (next + 1) & (NUM_PACKETS - 1);
+    }
+
+}
@@ -0,0 +1,78 @@
+package ch.ethz.systems.netbench.ext.poissontraffic;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-draw cost of a traffic pair out of the all-to-all pair probabilities of a
+ * number of nodes, using the {@link RandomCollection} compared to the
+ * {@link RandomPairCollection} with either method of drawing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomCollectionBenchmark {
+
+    @Param({"32", "231", "1024"})
+    public int numNodes;
+
+    private RandomCollection<ImmutablePair<Integer, Integer>> randomCollection;
+    private RandomPairCollection cumulativeCollection;
+    private RandomPairCollection aliasCollection;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        randomCollection = new RandomCollection<>(new Random(42));
+        cumulativeCollection = new RandomPairCollection(new Random(42), RandomPairCollection.Method.CUMULATIVE);
+        aliasCollection = new RandomPairCollection(new Random(42), RandomPairCollection.Method.ALIAS);
+
+        // Skewed weights, normalized to a total of 1
+        Random random = new Random(42);
+        double[] weights = new double[numNodes * (numNodes - 1)];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1.0 + 9.0 * random.nextDouble();
+            total += weights[i];
+        }
+        int index = 0;
+        for (int src = 0; src < numNodes; src++) {
+            for (int dst = 0; dst < numNodes; dst++) {
+                if (src != dst) {
+                    double weight = weights[index++] / total;
+                    randomCollection.add(weight, new ImmutablePair<>(src, dst));
+                    cumulativeCollection.add(weight, src, dst);
+                    aliasCollection.add(weight, src, dst);
+                }
+            }
+        }
+        cumulativeCollection.prepare();
+        aliasCollection.prepare();
+    }
+
+    @Benchmark
+    public ImmutablePair<Integer, Integer> randomCollectionNext() {
+        return randomCollection.next();
+    }
+
+    @Benchmark
+    public void randomPairCollectionCumulativeNext(Blackhole blackhole) {
+        cumulativeCollection.next();
+        blackhole.consume(cumulativeCollection.getDrawnSrcId());
+        blackhole.consume(cumulativeCollection.getDrawnDstId());
+    }
+
+    @Benchmark
+    public void randomPairCollectionAliasNext(Blackhole blackhole) {
+        aliasCollection.next();
+        blackhole.consume(aliasCollection.getDrawnSrcId());
+        blackhole.consume(aliasCollection.getDrawnDstId());
+    }
+
+}
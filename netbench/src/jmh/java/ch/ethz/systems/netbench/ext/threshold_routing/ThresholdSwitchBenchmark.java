@@ -0,0 +1,105 @@
+package ch.ethz.systems.netbench.ext.threshold_routing;
+
+import ch.ethz.systems.netbench.core.BenchmarkClock;
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.BenchmarkNetwork.CountingOutputPort;
+import ch.ethz.systems.netbench.core.network.BenchmarkNetwork.PassIntermediary;
+import ch.ethz.systems.netbench.core.network.BenchmarkNetwork.SinkDevice;
+import ch.ethz.systems.netbench.core.network.Packet;
+import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-packet cost of the forwarding decision of {@link ThresholdSwitch#receive(Packet)}.
+ *
+ * The switch is connected to a number of neighbors, each of which is a destination.
+ * (a) Threshold: packets originate at the switch itself and are matched to the threshold
+ *     routing table of their destination, sending them directly as long as the token
+ *     bucket allows, and else over one of the other neighbors (per flow);
+ * (b) Transit: packets of other sources go directly to their destination.
+ *
+ * The simulation time advances a fixed interval per packet, such that the token
+ * buckets refill. The output ports only count the packets, such that no events are created.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThresholdSwitchBenchmark {
+
+    private static final int NUM_NEIGHBORS = 16;
+    private static final int NUM_SOURCES = 64;
+    private static final int NUM_PACKETS = 4096;
+    private static final int NUM_ECMP_PATHS = 3;
+    private static final long PACKET_INTERVAL_NS = 100;
+
+    // Packets of 1440 bytes every 100ns is 115.2 Gbit/s, of which a third fits the threshold
+    private static final double THRESHOLD_BPS = 38.4e9;
+
+    @Param({"threshold", "transit"})
+    public String path;
+
+    private ThresholdSwitch device;
+    private Packet[] packets;
+    private int next;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Simulator.setup(42, new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN));
+
+        // Switch 0 with neighbors 1 to N, and other sources beyond
+        int numNodes = 1 + NUM_NEIGHBORS + NUM_SOURCES;
+        device = new ThresholdSwitch(0, null, numNodes, new PassIntermediary());
+        for (int i = 1; i <= NUM_NEIGHBORS; i++) {
+            device.addConnection(new CountingOutputPort(device, new SinkDevice(i)));
+        }
+
+        // Threshold routing table of each destination: directly, else over the next neighbors
+        for (int i = 1; i <= NUM_NEIGHBORS; i++) {
+            List<Integer> ecmpPaths = new ArrayList<>();
+            for (int j = 1; j <= NUM_ECMP_PATHS; j++) {
+                ecmpPaths.add(1 + (i - 1 + j) % NUM_NEIGHBORS);
+            }
+            device.addThresholdTableEntry(i, THRESHOLD_BPS, i, ecmpPaths);
+            device.addSrcDstToThresholdTableId(0, i, i);
+        }
+        device.compileThresholdRoutingTables();
+
+        // Packets of different flows to random destinations
+        Random random = new Random(42);
+        packets = new Packet[NUM_PACKETS];
+        for (int i = 0; i < NUM_PACKETS; i++) {
+            int sourceId = path.equals("threshold") ? 0 : 1 + NUM_NEIGHBORS + random.nextInt(NUM_SOURCES);
+            packets[i] = new FullExtTcpPacket(
+                    i % 256, 1380, sourceId, 1 + random.nextInt(NUM_NEIGHBORS), 100, 80, 80,
+                    0, 0, false, false, false, false, false, false, false, false, false, 0, 0
+            );
+        }
+        next = 0;
+        now = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Simulator.reset();
+    }
+
+    @Benchmark
+    public void receive() {
+        now += PACKET_INTERVAL_NS;
+        BenchmarkClock.setCurrentTime(now);
+        device.receive(packets[next]);
+        next = (next + 1) & (NUM_PACKETS - 1);
+    }
+
+}
@@ -0,0 +1,54 @@
+package ch.ethz.systems.netbench.ext.threshold_routing;
+
+import ch.ethz.systems.netbench.core.BenchmarkClock;
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-packet cost of {@link TokenBucket#TryConsumeBucket(long)}, with the simulation
+ * time advancing a fixed interval per packet such that the bucket is refilled
+ * once every few packets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBucketBenchmark {
+
+    private static final long PACKET_SIZE_BIT = 11520;
+    private static final long PACKET_INTERVAL_NS = 100;
+
+    // Offered load in proportion to the rate of the bucket
+    @Param({"0.5", "3.0"})
+    public double overload;
+
+    private TokenBucket bucket;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Simulator.setup(42, new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN));
+        double rateBps = PACKET_SIZE_BIT * 1e9 / PACKET_INTERVAL_NS / overload;
+        bucket = new TokenBucket(2 * (long) rateBps * TokenBucket.PERIOD, rateBps);
+        now = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Simulator.reset();
+    }
+
+    @Benchmark
+    public boolean tryConsumeBucket() {
+        now += PACKET_INTERVAL_NS;
+        BenchmarkClock.setCurrentTime(now);
+        return bucket.TryConsumeBucket(PACKET_SIZE_BIT);
+    }
+
+}
@@ -0,0 +1,57 @@
+package ch.ethz.systems.netbench.xpt.simple.simpledctcp;
+
+import ch.ethz.systems.netbench.core.run.BenchmarkRun;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-segment cost of a DCTCP flow between two directly connected servers, which is
+ * dominated by the acknowledgment processing of the {@link SimpleDctcpSocket} sender
+ * (selective acknowledgments, window growth and ECN fraction) and the acknowledging
+ * receiver. The ECN threshold is low, such that the acknowledgments are regularly marked.
+ *
+ * The run configuration is relative to the netbench directory, from which the
+ * benchmarks must thus be run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleDctcpSocketBenchmark {
+
+    private static final int SEGMENTS = 1000;
+    private static final long SEGMENT_SIZE_BYTE = 1380;
+
+    private BenchmarkRun run;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        run = new BenchmarkRun(
+                "example/runs/test_n2.properties",
+                "run_time_ns=1000000000",
+                "transport_layer=simple_dctcp",
+                "network_device=ecmp_switch",
+                "network_device_routing=ecmp",
+                "network_device_intermediary=identity",
+                "output_port_ecn_threshold_k_bytes=5000",
+                "traffic_pair_flow_size_byte=" + (SEGMENTS * SEGMENT_SIZE_BYTE),
+                "finish_when_first_flows_finish=1",
+                "enable_log_flow_completion_per_flow=false"
+        );
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        run.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SEGMENTS)
+    public void flow() {
+        run.run();
+    }
+
+}
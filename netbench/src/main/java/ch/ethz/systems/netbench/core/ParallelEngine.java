@@ -0,0 +1,617 @@
+package ch.ethz.systems.netbench.core;
+
+import ch.ethz.systems.netbench.core.eventqueue.EventQueue;
+import ch.ethz.systems.netbench.core.network.Event;
+import ch.ethz.systems.netbench.core.network.NetworkDevice;
+import ch.ethz.systems.netbench.core.network.OutputPort;
+import ch.ethz.systems.netbench.core.network.PacketArrivalEvent;
+import ch.ethz.systems.netbench.core.network.PacketDispatchedEvent;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.core.run.traffic.FlowArrivalStreamEvent;
+import ch.ethz.systems.netbench.core.run.traffic.FlowStartEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conservative parallel discrete event engine.
+ *
+ * The network devices are divided into partitions (e.g. pods), each of which
+ * has its own event queue and worker thread. The only events which may cross
+ * partitions are packet arrivals, which take at least the smallest link delay
+ * between two partitions (the lookahead). As such, all partitions can safely
+ * process their events up until the earliest pending event time plus the
+ * lookahead, after which they synchronize (a window). Packet arrivals for other
+ * partitions are kept in a mailbox until the end of the window.
+ *
+ * Events which cannot be attributed to a network device (e.g. reconfiguration
+ * timers) are kept in a global queue and triggered in between windows while
+ * all partitions are paused, such that they can touch any state.
+ *
+ * Events created during a window receive a provisional identifier. At the end of
+ * the window the processed events of all partitions are merged in (time, identifier)
+ * order, which is the order of the sequential engine, and the events each one
+ * created are assigned the identifiers the sequential engine would have given them.
+ * Because ties are broken by these identifiers, the outcome is identical to the
+ * sequential engine. Effects on state shared by partitions (logs, statistics,
+ * other devices) are deferred to this merge, and as such replayed in sequential order.
+ *
+ * Not supported are: streaming flow arrivals (flows must be planned up front, to
+ * assign their flow identifiers), events other than packet arrivals which are scheduled
+ * by one partition for another, and transport layers which keep their own static state.
+ */
+class ParallelEngine {
+
+    // Identifiers of events created in a window are provisional and above all assigned ones
+    private static final long PROVISIONAL_EVENT_ID_BASE = 1L << 62;
+
+    // Busy-wait iterations before yielding the processor at a window barrier
+    private static final int SPIN_LIMIT = 1000;
+
+    // Partitions and the partition of each network device (indexed by identifier)
+    private final Partition[] partitions;
+    private final int[] deviceToPartition;
+    private final long lookaheadNs;
+
+    // Events not attributable to a network device
+    private final EventQueue globalQueue;
+
+    // Time of the coordinator (the thread which runs the engine)
+    private long now;
+
+    // Window bound: events strictly before (boundTime, boundEventId) are processed
+    private long boundTime;
+    private long boundEventId;
+
+    // Window barrier
+    private volatile long windowGeneration;
+    private volatile boolean stopped;
+    private final AtomicInteger partitionsDone;
+
+    /**
+     * Create the parallel engine.
+     *
+     * @param partitionDevices      Network devices of each partition
+     * @param eventQueues           Empty event queue for each partition and one for the global events
+     */
+    ParallelEngine(List<List<NetworkDevice>> partitionDevices, EventQueue[] eventQueues) {
+        int numPartitions = partitionDevices.size();
+        if (numPartitions < 1 || eventQueues.length != numPartitions + 1) {
+            throw new IllegalArgumentException("Parallel engine requires at least one partition and an event queue for each (and the global one).");
+        }
+
+        // Partition of each device
+        int maxId = -1;
+        for (List<NetworkDevice> devices : partitionDevices) {
+            for (NetworkDevice device : devices) {
+                maxId = Math.max(maxId, device.getIdentifier());
+            }
+        }
+        this.deviceToPartition = new int[maxId + 1];
+        Arrays.fill(this.deviceToPartition, -1);
+        for (int p = 0; p < numPartitions; p++) {
+            for (NetworkDevice device : partitionDevices.get(p)) {
+                if (deviceToPartition[device.getIdentifier()] != -1) {
+                    throw new IllegalArgumentException("Network device " + device.getIdentifier() + " is in more than one partition.");
+                }
+                deviceToPartition[device.getIdentifier()] = p;
+            }
+        }
+
+        // Lookahead is the smallest link delay between partitions
+        long lookahead = Long.MAX_VALUE;
+        for (int p = 0; p < numPartitions; p++) {
+            for (NetworkDevice device : partitionDevices.get(p)) {
+                for (OutputPort port : device.getOutputPorts()) {
+                    if (partitionOf(port.getTargetDevice()) != p) {
+                        lookahead = Math.min(lookahead, port.getLink().getDelayNs());
+                    }
+                }
+            }
+        }
+        if (lookahead <= 0) {
+            throw new IllegalArgumentException("Parallel engine requires a positive link delay between partitions (lookahead: " + lookahead + "ns).");
+        }
+        this.lookaheadNs = lookahead;
+
+        this.partitions = new Partition[numPartitions];
+        for (int p = 0; p < numPartitions; p++) {
+            this.partitions[p] = new Partition(p, eventQueues[p]);
+        }
+        this.globalQueue = eventQueues[numPartitions];
+        this.partitionsDone = new AtomicInteger(0);
+        this.stopped = false;
+        this.windowGeneration = 0;
+        this.now = 0;
+    }
+
+    /**
+     * Retrieve the lookahead, the smallest link delay between partitions.
+     *
+     * @return  Lookahead in nanoseconds
+     */
+    long getLookaheadNs() {
+        return lookaheadNs;
+    }
+
+    /**
+     * Run all events up to and including the runtime.
+     *
+     * @param initialEvents         Sequential event queue, of which all events are taken over
+     * @param runtimeNs             Running time in ns
+     * @param progressIntervalNs    Simulation time interval at which to show progress
+     */
+    void run(EventQueue initialEvents, long runtimeNs, long progressIntervalNs) {
+
+        // Take over the planned events, assigning flow identifiers in the order the flows would start
+        while (!initialEvents.isEmpty()) {
+            Event event = initialEvents.poll();
+            if (event instanceof FlowArrivalStreamEvent) {
+                throw new IllegalStateException("Streaming flow arrivals are not supported by the parallel engine.");
+            }
+            if (event instanceof FlowStartEvent) {
+                ((FlowStartEvent) event).assignFlowId(TransportLayer.reserveFlowId());
+            }
+            register(event);
+        }
+
+        // Start the workers, which run in the context of the run of the coordinator
+        SimulationContext context = SimulationContext.current();
+        Worker[] workers = new Worker[partitions.length];
+        for (int p = 0; p < partitions.length; p++) {
+            workers[p] = new Worker(partitions[p], context);
+            workers[p].setDaemon(true);
+            workers[p].start();
+        }
+
+        try {
+            long realTime = System.currentTimeMillis();
+            long nextProgressLog = progressIntervalNs;
+            while (true) {
+
+                // Earliest event of the partitions
+                Event head = null;
+                for (Partition partition : partitions) {
+                    Event e = partition.queue.peek();
+                    if (e != null && (head == null || e.compareTo(head) < 0)) {
+                        head = e;
+                    }
+                }
+
+                // Global event goes first if it is the earliest
+                Event global = globalQueue.peek();
+                if (global != null && (head == null || global.compareTo(head) < 0)) {
+                    if (global.getTime() > runtimeNs) {
+                        break;
+                    }
+                    globalQueue.poll();
+                    now = global.getTime();
+                    global.trigger();
+                    continue;
+                }
+                if (head == null || head.getTime() > runtimeNs) {
+                    break;
+                }
+
+                // Window until the earliest cross-partition arrival, the next global event or the end
+                long bound = Math.min(head.getTime() + Math.min(lookaheadNs, runtimeNs), runtimeNs + 1);
+                long boundId = Long.MIN_VALUE;
+                if (global != null && global.getTime() < bound) {
+                    bound = global.getTime();
+                    boundId = global.getEventId();
+                }
+                runWindow(bound, boundId);
+                mergeWindow();
+                deliverMailboxes();
+
+                // Log elapsed time
+                if (now > nextProgressLog) {
+                    while (now > nextProgressLog) {
+                        nextProgressLog += progressIntervalNs;
+                    }
+                    long realTimeNow = System.currentTimeMillis();
+                    System.out.println("Elapsed 0.01s simulation in " + ((realTimeNow - realTime) / 1000.0) + "s real (total progress: " + ((((double) now) / ((double) runtimeNs)) * 100) + "%).");
+                    realTime = realTimeNow;
+                }
+
+            }
+        } finally {
+            stopped = true;
+            windowGeneration++;
+        }
+
+    }
+
+    /**
+     * Let all partitions process their events before the bound, and wait until they are done.
+     *
+     * @param bound     Bound time
+     * @param boundId   Bound event identifier (events at the bound time with a lower identifier are processed)
+     */
+    private void runWindow(long bound, long boundId) {
+        boundTime = bound;
+        boundEventId = boundId;
+        partitionsDone.set(0);
+        windowGeneration++;
+        int spins = 0;
+        while (partitionsDone.get() < partitions.length) {
+            if (++spins > SPIN_LIMIT) {
+                Thread.yield();
+            }
+        }
+        for (Partition partition : partitions) {
+            if (partition.failure != null) {
+                Throwable failure = partition.failure;
+                partition.failure = null;
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                } else if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                throw new RuntimeException(failure);
+            }
+        }
+    }
+
+    /**
+     * Merge the processed events of all partitions in sequential order, assigning
+     * the identifiers of the events they created and applying their deferred effects.
+     */
+    private void mergeWindow() {
+        for (Partition partition : partitions) {
+            partition.mergeCursor = 0;
+        }
+        while (true) {
+
+            // Earliest processed event not yet merged
+            Partition earliest = null;
+            for (Partition partition : partitions) {
+                if (partition.mergeCursor < partition.numProcessed && (earliest == null
+                        || partition.processed[partition.mergeCursor].compareTo(earliest.processed[earliest.mergeCursor]) < 0)) {
+                    earliest = partition;
+                }
+            }
+            if (earliest == null) {
+                break;
+            }
+
+            int idx = earliest.mergeCursor++;
+            now = earliest.processed[idx].getTime();
+            for (int i = idx == 0 ? 0 : earliest.createdEnd[idx - 1]; i < earliest.createdEnd[idx]; i++) {
+                earliest.created[i].assignNextEventId();
+            }
+            for (int i = idx == 0 ? 0 : earliest.effectsEnd[idx - 1]; i < earliest.effectsEnd[idx]; i++) {
+                earliest.effects[i].run();
+            }
+
+        }
+        for (Partition partition : partitions) {
+            partition.clearLog();
+        }
+    }
+
+    /**
+     * Hand over the packet arrivals for other partitions.
+     */
+    private void deliverMailboxes() {
+        for (Partition partition : partitions) {
+            for (Event event : partition.mailbox) {
+                partitions[partitionOf(((PacketArrivalEvent) event).getArrivalNetworkDevice())].queue.add(event);
+            }
+            partition.mailbox.clear();
+        }
+    }
+
+    /**
+     * Register an event.
+     *
+     * @param event     Event instance
+     */
+    void register(Event event) {
+        Partition current = currentPartition();
+        if (current != null) {
+            current.register(event);
+            return;
+        }
+        checkFlowId(event);
+        int p = attribute(event);
+        if (p < 0) {
+            globalQueue.add(event);
+        } else {
+            partitions[p].queue.add(event);
+        }
+    }
+
+    /**
+     * Cancel an event.
+     *
+     * @param event     Event instance
+     */
+    void cancel(Event event) {
+        Partition current = currentPartition();
+        if (current != null) {
+            current.queue.remove(event);
+            return;
+        }
+        int p = attribute(event);
+        if (p < 0) {
+            globalQueue.remove(event);
+        } else {
+            partitions[p].queue.remove(event);
+        }
+    }
+
+    /**
+     * Retrieve the total amount of pending events.
+     *
+     * @return  Number of events
+     */
+    int size() {
+        int size = globalQueue.size();
+        for (Partition partition : partitions) {
+            size += partition.queue.size() + partition.mailbox.size();
+        }
+        return size;
+    }
+
+    /**
+     * Retrieve the current time of the calling thread.
+     *
+     * @return  Current time in nanoseconds
+     */
+    long getCurrentTime() {
+        Partition current = currentPartition();
+        return current != null ? current.now : now;
+    }
+
+    /**
+     * Check whether the calling thread is a partition worker.
+     *
+     * @return  True iff called from within a partition
+     */
+    boolean isRunningInPartition() {
+        return Thread.currentThread() instanceof Worker;
+    }
+
+    /**
+     * Retrieve a provisional identifier for an event created within a partition.
+     *
+     * @param event     Event instance
+     *
+     * @return  Provisional event identifier
+     */
+    long provisionalEventId(Event event) {
+        return currentPartition().provisionalEventId(event);
+    }
+
+    /**
+     * Run an action on state shared by partitions. Within a partition it is
+     * deferred until the end of the window, else it is run immediately.
+     *
+     * @param action    Action
+     */
+    void runSerially(Runnable action) {
+        Partition current = currentPartition();
+        if (current != null) {
+            current.defer(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Run an action on the state of a network device. Within a partition it
+     * is deferred until the end of the window if the device is in another
+     * partition, else it is run immediately.
+     *
+     * @param device    Network device
+     * @param action    Action
+     */
+    void runAtDevice(NetworkDevice device, Runnable action) {
+        Partition current = currentPartition();
+        if (current != null && partitionOf(device) != current.index) {
+            current.defer(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Determine the partition of the calling thread.
+     *
+     * @return  Partition, or null if not called from within a partition
+     */
+    private Partition currentPartition() {
+        Thread thread = Thread.currentThread();
+        return thread instanceof Worker ? ((Worker) thread).partition : null;
+    }
+
+    /**
+     * Determine the partition of a network device.
+     *
+     * @param device    Network device
+     *
+     * @return  Partition index
+     */
+    private int partitionOf(NetworkDevice device) {
+        int id = device.getIdentifier();
+        int p = id < deviceToPartition.length ? deviceToPartition[id] : -1;
+        if (p < 0) {
+            throw new IllegalArgumentException("Network device " + id + " is not in any partition.");
+        }
+        return p;
+    }
+
+    /**
+     * Determine the partition in which an event has to be triggered.
+     *
+     * @param event     Event instance
+     *
+     * @return  Partition index, or -1 if it is a global event
+     */
+    private int attribute(Event event) {
+        if (event instanceof PacketArrivalEvent) {
+            return partitionOf(((PacketArrivalEvent) event).getArrivalNetworkDevice());
+        } else if (event instanceof PacketDispatchedEvent) {
+            return partitionOf(((PacketDispatchedEvent) event).getDispatchPort().getOwnDevice());
+        } else if (event instanceof FlowStartEvent) {
+            return partitionOf(((FlowStartEvent) event).getTransportLayer().getNetworkDevice());
+        }
+        return -1;
+    }
+
+    /**
+     * Make sure flow starts registered during the run had their flow identifier assigned.
+     *
+     * @param event     Event instance
+     */
+    private static void checkFlowId(Event event) {
+        if (event instanceof FlowStartEvent && !((FlowStartEvent) event).hasFlowId()) {
+            throw new IllegalStateException("Flows started during the run are not supported by the parallel engine.");
+        }
+    }
+
+    /**
+     * Partition of the network with its own event queue.
+     */
+    private class Partition {
+
+        private final int index;
+        private final EventQueue queue;
+        private final List<Event> mailbox;
+        private long now;
+        private volatile Throwable failure;
+
+        // Log of the window: processed events, the events they created and their deferred effects
+        // (the end indices of those created by and deferred by processed event i are at index i)
+        private Event[] processed;
+        private int[] createdEnd;
+        private int[] effectsEnd;
+        private int numProcessed;
+        private Event[] created;
+        private int numCreated;
+        private Runnable[] effects;
+        private int numEffects;
+        private int mergeCursor;
+
+        private Partition(int index, EventQueue queue) {
+            this.index = index;
+            this.queue = queue;
+            this.mailbox = new ArrayList<>();
+            this.now = 0;
+            this.processed = new Event[64];
+            this.createdEnd = new int[64];
+            this.effectsEnd = new int[64];
+            this.created = new Event[64];
+            this.effects = new Runnable[64];
+        }
+
+        /**
+         * Process all events before the window bound.
+         */
+        private void runWindow() {
+            long bound = boundTime;
+            long boundId = boundEventId;
+            while (!queue.isEmpty()) {
+                Event event = queue.peek();
+                long time = event.getTime();
+                if (time > bound || (time == bound && event.getEventId() >= boundId)) {
+                    break;
+                }
+                queue.poll();
+                now = time;
+                if (numProcessed == processed.length) {
+                    processed = Arrays.copyOf(processed, numProcessed * 2);
+                    createdEnd = Arrays.copyOf(createdEnd, numProcessed * 2);
+                    effectsEnd = Arrays.copyOf(effectsEnd, numProcessed * 2);
+                }
+                processed[numProcessed] = event;
+                event.trigger();
+                createdEnd[numProcessed] = numCreated;
+                effectsEnd[numProcessed] = numEffects;
+                numProcessed++;
+            }
+        }
+
+        private void register(Event event) {
+            checkFlowId(event);
+            if (event instanceof PacketArrivalEvent) {
+                int target = partitionOf(((PacketArrivalEvent) event).getArrivalNetworkDevice());
+                if (target != index) {
+                    if (event.getTime() < boundTime) {
+                        throw new IllegalStateException("Packet arrival " + event + " for another partition is within the lookahead of " + lookaheadNs + "ns.");
+                    }
+                    mailbox.add(event);
+                    return;
+                }
+            }
+            queue.add(event);
+        }
+
+        private long provisionalEventId(Event event) {
+            if (numCreated == created.length) {
+                created = Arrays.copyOf(created, numCreated * 2);
+            }
+            created[numCreated] = event;
+            return PROVISIONAL_EVENT_ID_BASE + numCreated++;
+        }
+
+        private void defer(Runnable action) {
+            if (numEffects == effects.length) {
+                effects = Arrays.copyOf(effects, numEffects * 2);
+            }
+            effects[numEffects++] = action;
+        }
+
+        private void clearLog() {
+            Arrays.fill(processed, 0, numProcessed, null);
+            Arrays.fill(created, 0, numCreated, null);
+            Arrays.fill(effects, 0, numEffects, null);
+            numProcessed = 0;
+            numCreated = 0;
+            numEffects = 0;
+        }
+
+    }
+
+    /**
+     * Worker thread of a partition, which processes a window each time the coordinator starts one.
+     */
+    private class Worker extends SimulationThread {
+
+        private final Partition partition;
+        private long seenGeneration;
+
+        private Worker(Partition partition, SimulationContext context) {
+            super("netbench-partition-" + partition.index, context);
+            this.partition = partition;
+            this.seenGeneration = windowGeneration;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                int spins = 0;
+                while (windowGeneration == seenGeneration) {
+                    if (++spins > SPIN_LIMIT) {
+                        Thread.yield();
+                    }
+                }
+                seenGeneration = windowGeneration;
+                if (stopped) {
+                    return;
+                }
+                try {
+                    partition.runWindow();
+                } catch (Throwable t) {
+                    partition.failure = t;
+                }
+                partitionsDone.incrementAndGet();
+            }
+        }
+
+    }
+
+}
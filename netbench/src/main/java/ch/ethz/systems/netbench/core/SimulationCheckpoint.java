@@ -0,0 +1,284 @@
+package ch.ethz.systems.netbench.core;
+
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.eventqueue.EventQueue;
+import ch.ethz.systems.netbench.core.log.SimulationLogger;
+import ch.ethz.systems.netbench.core.network.FlowFinishedListener;
+import ch.ethz.systems.netbench.core.network.NetworkDevice;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.core.random.RandomManager;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Checkpoint of the full state of a run at a point in time, such that a run can
+ * be continued from it instead of simulating again up to that point. It captures
+ * the pending events and, through them, the network devices, output ports, queues,
+ * transport layers and sockets, together with the random number generators and the
+ * accumulated logger state (e.g. the flow completion statistics).
+ *
+ * The checkpoint is written using Java serialization, which recurses along the
+ * references between the objects (e.g. from device to output port to device), and
+ * as such needs a stack of which the depth grows with the network. It is therefore
+ * saved and restored on a separate thread with a large stack.
+ *
+ * Log files are not part of
+ * it: a restored run writes its own logs, which as such contain only what is
+ * logged after the checkpoint (except for the accumulated logger state).
+ *
+ * The configuration is not part of it either: the restored run continues with its own
+ * run configuration. Properties which are only read during the initialization (e.g.
+ * the topology or traffic) keep their effect of the checkpoint, whereas properties
+ * read during the run take effect immediately. {@link #isPropertyChanged(String)}
+ * is offered to re-apply initialization properties which have been changed, and
+ * {@link #findChangedProperties(String, String...)} to check them before restoring.
+ * The properties are written ahead of the checkpoint in the file for the latter.
+ */
+public final class SimulationCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Stack size of the thread saving or restoring the checkpoint (only reserved, used as far as needed)
+    private static final long STACK_SIZE_BYTES = 1L << 30;
+
+    // Simulator state
+    private final long timeNs;
+    private final long nextEventId;
+    private final EventQueue eventQueue;
+    private final Set<Long> finishedFlows;
+    private final List<FlowFinishedListener> flowFinishedListeners;
+    private final Map<Integer, List<FlowFinishedListener>> endpointFlowFinishedListeners;
+    private final RandomManager randomManager;
+    private final long nextFlowId;
+    private final Map<Long, TransportLayer> flowIdToReceiver;
+    private final Set<Long> valiantCountedFlows;
+    private final SimulationLogger.Accumulators loggerAccumulators;
+
+    // Infrastructure
+    private final Map<Integer, NetworkDevice> idToNetworkDevice;
+    private final Map<Integer, TransportLayer> idToTransportLayer;
+
+    // Run configuration properties of the checkpoint
+    private final Map<String, String> properties;
+
+    private SimulationCheckpoint(SimulationContext c, Map<Integer, NetworkDevice> idToNetworkDevice, Map<Integer, TransportLayer> idToTransportLayer) {
+        this.timeNs = c.now;
+        this.nextEventId = c.nextEventId;
+        this.eventQueue = c.eventQueue;
+        this.finishedFlows = new HashSet<>(c.finishedFlows);
+        this.flowFinishedListeners = new ArrayList<>(c.flowFinishedListeners);
+        this.endpointFlowFinishedListeners = new HashMap<>();
+        for (Map.Entry<Integer, List<FlowFinishedListener>> entry : c.endpointFlowFinishedListeners.entrySet()) {
+            this.endpointFlowFinishedListeners.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        this.randomManager = c.randomManager;
+        this.nextFlowId = c.peekFlowId();
+        this.flowIdToReceiver = new HashMap<>(c.getFlowIdToReceiver());
+        this.valiantCountedFlows = new HashSet<>(c.getValiantCountedFlows());
+        this.loggerAccumulators = SimulationLogger.getAccumulators();
+        this.idToNetworkDevice = idToNetworkDevice;
+        this.idToTransportLayer = idToTransportLayer;
+        this.properties = new HashMap<>();
+        if (c.configuration != null) {
+            for (String key : c.configuration.stringPropertyNames()) {
+                this.properties.put(key, c.configuration.getProperty(key));
+            }
+        }
+    }
+
+    /**
+     * Save the state of the run at the current time to a checkpoint file.
+     * Cannot be called while the simulator is running.
+     *
+     * @param fileName              Checkpoint file name
+     * @param idToNetworkDevice     Mapping of identifier to network device
+     * @param idToTransportLayer    Mapping of identifier to transport layer
+     */
+    public static void save(final String fileName, Map<Integer, NetworkDevice> idToNetworkDevice, Map<Integer, TransportLayer> idToTransportLayer) {
+        SimulationContext c = SimulationContext.current();
+        if (c.parallelEngine != null) {
+            throw new IllegalStateException("A checkpoint cannot be saved during a parallel run.");
+        }
+        final SimulationCheckpoint checkpoint = new SimulationCheckpoint(c, idToNetworkDevice, idToTransportLayer);
+        runWithLargeStack(new Runnable() {
+            @Override
+            public void run() {
+                try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+                    out.writeObject(checkpoint.properties);
+                    out.writeObject(checkpoint);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to save checkpoint to " + fileName + ".", e);
+                }
+            }
+        });
+        SimulationLogger.logInfo("CHECKPOINT_SAVED", fileName + " (at " + c.now + "ns)");
+    }
+
+    /**
+     * Restore the state of a run from a checkpoint file, after which the run continues
+     * from the time of the checkpoint. The simulator must have been setup, with nothing
+     * planned yet.
+     *
+     * @param fileName  Checkpoint file name
+     *
+     * @return  Restored checkpoint
+     */
+    public static SimulationCheckpoint restore(final String fileName) {
+        SimulationContext c = SimulationContext.current();
+        if (!c.isSetup || !c.eventQueue.isEmpty()) {
+            throw new IllegalStateException("A checkpoint can only be restored into a simulator which has been setup, and of which the event queue is empty.");
+        }
+
+        // Components which are bound to the logs re-attach to those of this run while being read
+        final SimulationCheckpoint[] read = new SimulationCheckpoint[1];
+        runWithLargeStack(new Runnable() {
+            @Override
+            public void run() {
+                try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+                    in.readObject();
+                    read[0] = (SimulationCheckpoint) in.readObject();
+                } catch (IOException | ClassNotFoundException e) {
+                    throw new RuntimeException("Failed to restore checkpoint from " + fileName + ".", e);
+                }
+            }
+        });
+        SimulationCheckpoint checkpoint = read[0];
+
+        // Simulator state
+        c.now = checkpoint.timeNs;
+        c.nextEventId = checkpoint.nextEventId;
+        c.eventQueue = checkpoint.eventQueue;
+        c.finishedFlows.clear();
+        c.finishedFlows.addAll(checkpoint.finishedFlows);
+        c.flowFinishedListeners.clear();
+        c.flowFinishedListeners.addAll(checkpoint.flowFinishedListeners);
+        c.endpointFlowFinishedListeners.clear();
+        c.endpointFlowFinishedListeners.putAll(checkpoint.endpointFlowFinishedListeners);
+        c.randomManager = checkpoint.randomManager;
+        c.restoreFlows(checkpoint.nextFlowId, checkpoint.flowIdToReceiver);
+        c.getValiantCountedFlows().clear();
+        c.getValiantCountedFlows().addAll(checkpoint.valiantCountedFlows);
+        SimulationLogger.restoreAccumulators(checkpoint.loggerAccumulators);
+
+        SimulationLogger.logInfo("CHECKPOINT_RESTORED", fileName + " (at " + c.now + "ns)");
+        return checkpoint;
+    }
+
+    /**
+     * Run the task on a thread with a large stack, in the simulation context of
+     * the calling thread, and wait for it to finish.
+     *
+     * @param task  Task (any exception it throws is rethrown)
+     */
+    private static void runWithLargeStack(Runnable task) {
+        final Throwable[] thrown = new Throwable[1];
+        Thread thread = new SimulationThread(task, "checkpoint", STACK_SIZE_BYTES, SimulationContext.current());
+        thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread t, Throwable e) {
+                thrown[0] = e;
+            }
+        });
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the checkpoint thread.", e);
+        }
+        if (thrown[0] instanceof RuntimeException) {
+            throw (RuntimeException) thrown[0];
+        } else if (thrown[0] instanceof Error) {
+            throw (Error) thrown[0];
+        } else if (thrown[0] != null) {
+            throw new RuntimeException(thrown[0]);
+        }
+    }
+
+    /**
+     * Retrieve the time of the checkpoint.
+     *
+     * @return  Time in nanoseconds since simulation start
+     */
+    public long getTimeNs() {
+        return timeNs;
+    }
+
+    /**
+     * Retrieve the network devices of the checkpoint.
+     *
+     * @return  Mapping of identifier to network device
+     */
+    public Map<Integer, NetworkDevice> getIdToNetworkDevice() {
+        return idToNetworkDevice;
+    }
+
+    /**
+     * Retrieve the transport layers of the checkpoint.
+     *
+     * @return  Mapping of identifier to transport layer
+     */
+    public Map<Integer, TransportLayer> getIdToTransportLayer() {
+        return idToTransportLayer;
+    }
+
+    /**
+     * Check whether the value of a property of the current run configuration
+     * differs from that of the run of which the checkpoint was saved.
+     *
+     * @param key   Property key
+     *
+     * @return  True iff changed (including if only defined in one of both)
+     */
+    public boolean isPropertyChanged(String key) {
+        return isPropertyChanged(properties, key);
+    }
+
+    /**
+     * Find which of the properties of the current run configuration differ from those
+     * of the run of which the checkpoint was saved, without restoring the checkpoint.
+     *
+     * @param fileName  Checkpoint file name
+     * @param keys      Property keys
+     *
+     * @return  Changed property keys (including if only defined in one of both), in the given order
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> findChangedProperties(String fileName, String... keys) {
+        Map<String, String> properties;
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            properties = (Map<String, String>) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Failed to read checkpoint properties from " + fileName + ".", e);
+        }
+        List<String> changed = new ArrayList<>();
+        for (String key : keys) {
+            if (isPropertyChanged(properties, key)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Check whether the value of a property of the current run configuration differs from that of the saved properties.
+     *
+     * @param properties    Saved properties
+     * @param key           Property key
+     *
+     * @return  True iff changed (including if only defined in one of both)
+     */
+    private static boolean isPropertyChanged(Map<String, String> properties, String key) {
+        NBProperties configuration = Simulator.getConfiguration();
+        String value = configuration == null ? null : configuration.getProperty(key);
+        return !Objects.equals(value, properties.get(key));
+    }
+
+}
@@ -0,0 +1,197 @@
+package ch.ethz.systems.netbench.core;
+
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.eventqueue.EventQueue;
+import ch.ethz.systems.netbench.core.eventqueue.HeapEventQueue;
+import ch.ethz.systems.netbench.core.log.SimulationLogger;
+import ch.ethz.systems.netbench.core.network.Event;
+import ch.ethz.systems.netbench.core.network.FlowFinishedListener;
+import ch.ethz.systems.netbench.core.network.PacketEventPool;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.core.random.RandomManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * All state of a single simulation run which the static services
+ * ({@link Simulator}, {@link SimulationLogger}, {@link TransportLayer})
+ * operate on.
+ *
+ * The context of a run is that of the {@link SimulationThread} running it,
+ * or the default context for any other thread. As such, multiple runs can
+ * be executed concurrently in one JVM, each in its own simulation thread.
+ */
+public final class SimulationContext {
+
+    // Context of all threads which are not simulation threads
+    private static final SimulationContext DEFAULT = new SimulationContext();
+
+    // Main ordered event queue (run variable)
+    EventQueue eventQueue = new HeapEventQueue();
+
+    // Current time in ns in the simulation (run variable)
+    long now;
+
+    // Parallel engine, only set during a parallel run (run variable)
+    ParallelEngine parallelEngine = null;
+
+    // Threshold to end
+    long finishFlowIdThreshold;
+    final Set<Long> finishedFlows = new HashSet<>();
+
+    // Listeners to flows finishing (run variable)
+    final List<FlowFinishedListener> flowFinishedListeners = new ArrayList<>();
+
+    // Listeners to the flows finishing of which a network device is an end point (run variable)
+    final Map<Integer, List<FlowFinishedListener>> endpointFlowFinishedListeners = new HashMap<>();
+
+    // Whether the simulator is setup
+    boolean isSetup = false;
+
+    // Randomness manager
+    RandomManager randomManager;
+
+    // Configuration
+    NBProperties configuration;
+
+    // Next event identifier, added for absolute determinism in the event queue (not reset)
+    long nextEventId = 0;
+
+    // Flow identifiers and the transport layer receiving each flow (run variable)
+    private long flowIdCounter = 0;
+    private final Map<Long, TransportLayer> flowIdToReceiver = new ConcurrentHashMap<>();
+
+    // Flows of which the choice of valiant node has been counted (run variable)
+    private final Set<Long> valiantCountedFlows = new HashSet<>();
+
+    // Pool of packet events (run variable)
+    private final PacketEventPool packetEventPool = new PacketEventPool();
+
+    // Logger state
+    private final SimulationLogger.State loggerState = new SimulationLogger.State();
+
+    /**
+     * Retrieve the context of the run of the calling thread.
+     *
+     * @return  Simulation context
+     */
+    public static SimulationContext current() {
+        Thread thread = Thread.currentThread();
+        if (thread instanceof SimulationThread) {
+            SimulationContext context = ((SimulationThread) thread).getContext();
+            if (context != null) {
+                return context;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Retrieve the current time in nanoseconds since simulation start.
+     * Same as {@link Simulator#getCurrentTime()}, for callers which already hold the context.
+     *
+     * @return  Current time in nanoseconds
+     */
+    public long getCurrentTime() {
+        if (parallelEngine != null) {
+            return parallelEngine.getCurrentTime();
+        }
+        return now;
+    }
+
+    /**
+     * Take the next identifier for an event. Same as {@link Simulator#takeEventId(Event)},
+     * for callers which already hold the context.
+     *
+     * @param event     Event instance
+     *
+     * @return  Event identifier
+     */
+    public long takeEventId(Event event) {
+        if (parallelEngine != null && parallelEngine.isRunningInPartition()) {
+            return parallelEngine.provisionalEventId(event);
+        }
+        return nextEventId++;
+    }
+
+    /**
+     * Take the next flow identifier.
+     *
+     * @return  Flow identifier
+     */
+    public long takeFlowId() {
+        return flowIdCounter++;
+    }
+
+    /**
+     * Retrieve the mapping of flow identifier to the transport layer receiving it.
+     *
+     * @return  Flow identifier to receiving transport layer
+     */
+    public Map<Long, TransportLayer> getFlowIdToReceiver() {
+        return flowIdToReceiver;
+    }
+
+    /**
+     * Reset the flow identifiers and receivers.
+     */
+    public void resetFlows() {
+        flowIdCounter = 0;
+        flowIdToReceiver.clear();
+    }
+
+    /**
+     * Retrieve the next flow identifier, without taking it.
+     *
+     * @return  Next flow identifier
+     */
+    long peekFlowId() {
+        return flowIdCounter;
+    }
+
+    /**
+     * Restore the flow identifiers and receivers (e.g. from a checkpoint).
+     *
+     * @param nextFlowId        Next flow identifier
+     * @param flowIdToReceiver  Mapping of flow identifier to the transport layer receiving it
+     */
+    void restoreFlows(long nextFlowId, Map<Long, TransportLayer> flowIdToReceiver) {
+        this.flowIdCounter = nextFlowId;
+        this.flowIdToReceiver.clear();
+        this.flowIdToReceiver.putAll(flowIdToReceiver);
+    }
+
+    /**
+     * Retrieve the flows of which the choice of valiant node has been counted.
+     *
+     * @return  Set of flow identifiers
+     */
+    public Set<Long> getValiantCountedFlows() {
+        return valiantCountedFlows;
+    }
+
+    /**
+     * Retrieve the pool of packet events.
+     *
+     * @return  Packet event pool
+     */
+    public PacketEventPool getPacketEventPool() {
+        return packetEventPool;
+    }
+
+    /**
+     * Retrieve the logger state.
+     *
+     * @return  Logger state
+     */
+    public SimulationLogger.State getLoggerState() {
+        return loggerState;
+    }
+
+}
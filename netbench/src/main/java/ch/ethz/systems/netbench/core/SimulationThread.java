@@ -0,0 +1,47 @@
+package ch.ethz.systems.netbench.core;
+
+/**
+ * Thread which runs simulations in its own {@link SimulationContext}.
+ *
+ * The context is looked up on every access of the simulator state (e.g. the
+ * creation of each event), and as such is a plain field: it must be set before
+ * the thread is started, or by the thread itself.
+ */
+public class SimulationThread extends Thread {
+
+    private SimulationContext context;
+
+    public SimulationThread(Runnable target, String name) {
+        super(target, name);
+    }
+
+    protected SimulationThread(String name, SimulationContext context) {
+        super(name);
+        this.context = context;
+    }
+
+    SimulationThread(Runnable target, String name, long stackSize, SimulationContext context) {
+        super(null, target, name, stackSize);
+        this.context = context;
+    }
+
+    /**
+     * Retrieve the context of the simulation the thread runs.
+     *
+     * @return  Simulation context (null if none set, in which case the default context is used)
+     */
+    public SimulationContext getContext() {
+        return context;
+    }
+
+    /**
+     * Set the context of the simulations the thread runs from now on.
+     * Only to be called before the thread is started, or by the thread itself.
+     *
+     * @param context   Simulation context
+     */
+    public void setContext(SimulationContext context) {
+        this.context = context;
+    }
+
+}
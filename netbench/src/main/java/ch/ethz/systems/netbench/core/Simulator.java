@@ -1,15 +1,20 @@
 package ch.ethz.systems.netbench.core;
 
 import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.config.exceptions.PropertyValueInvalidException;
+import ch.ethz.systems.netbench.core.eventqueue.EventQueue;
+import ch.ethz.systems.netbench.core.eventqueue.HeapEventQueue;
+import ch.ethz.systems.netbench.core.eventqueue.LadderEventQueue;
 import ch.ethz.systems.netbench.core.log.SimulationLogger;
 import ch.ethz.systems.netbench.core.network.Event;
+import ch.ethz.systems.netbench.core.network.FlowFinishedListener;
+import ch.ethz.systems.netbench.core.network.NetworkDevice;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
 import ch.ethz.systems.netbench.core.random.RandomManager;
 
-import java.util.HashSet;
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * The simulator is responsible for offering general
@@ -23,25 +28,6 @@ public class Simulator {
     // Time interval at which to show the percentage of progress
     private static final long PROGRESS_SHOW_INTERVAL_NS = 10000000L; // 0.01s = 10mss
 
-    // Main ordered event queue (run variable)
-    private static PriorityQueue<Event> eventQueue = new PriorityQueue<>();
-
-    // Current time in ns in the simulation (run variable)
-    private static long now;
-
-    // Threshold to end
-    private static long finishFlowIdThreshold;
-    private static final Set<Long> finishedFlows = new HashSet<>();
-
-    // Whether the simulator is setup
-    private static boolean isSetup = false;
-
-    // Randomness manager
-    private static RandomManager randomManager;
-
-    // Configuration
-    private static NBProperties configuration;
-
     private Simulator() {
         // Static class only
     }
@@ -61,7 +47,8 @@ public class Simulator {
      * @return  Run configuration properties
      */
     public static NBProperties getConfiguration() {
-        return configuration;
+        SimulationContext c = SimulationContext.current();
+        return c.configuration;
     }
 
     /**
@@ -85,8 +72,10 @@ public class Simulator {
      */
     public static void setup(long seed, NBProperties configuration) {
 
+        SimulationContext c = SimulationContext.current();
+
         // Prevent double setup
-        if (isSetup) {
+        if (c.isSetup) {
             throw new RuntimeException("The simulator can only be setup once. Call reset() before setting it up again.");
         }
 
@@ -101,17 +90,48 @@ public class Simulator {
             SimulationLogger.logInfo("Seed randomly chosen", "FALSE");
         }
         SimulationLogger.logInfo("Seed", String.valueOf(seed));
-        randomManager = new RandomManager(seed);
+        c.randomManager = new RandomManager(seed);
 
         // Internal state reset
-        now = 0;
-        eventQueue.clear();
+        c.now = 0;
+        c.eventQueue = selectEventQueue(configuration);
 
         // Configuration
-        Simulator.configuration = configuration;
+        c.configuration = configuration;
+
+        // Recycling of packet events
+        c.getPacketEventPool().setEnabled(configuration != null && configuration.getBooleanPropertyWithDefault("simulator_event_pooling", false));
 
         // It is now officially setup
-        isSetup = true;
+        c.isSetup = true;
+
+    }
+
+    /**
+     * Select the event queue implementation.
+     *
+     * Selected using following property:
+     * simulator_event_queue=heap (default) | ladder
+     *
+     * @param configuration     Configuration instance (can be null)
+     *
+     * @return  Empty event queue
+     */
+    static EventQueue selectEventQueue(NBProperties configuration) {
+
+        String type = configuration == null ? "heap" : configuration.getPropertyWithDefault("simulator_event_queue", "heap");
+        switch (type) {
+
+            case "heap":
+                return new HeapEventQueue();
+
+            case "ladder":
+                return new LadderEventQueue();
+
+            default:
+                throw new PropertyValueInvalidException(configuration, "simulator_event_queue");
+
+        }
 
     }
 
@@ -128,7 +148,8 @@ public class Simulator {
      * @return  Independent random number generator
      */
     public static Random selectIndependentRandom(String name) {
-        return randomManager.getRandom(name);
+        SimulationContext c = SimulationContext.current();
+        return c.randomManager.getRandom(name);
     }
 
     /**
@@ -151,11 +172,33 @@ public class Simulator {
      */
     public static void runNs(long runtimeNanoseconds, long flowsFromStartToFinish) {
 
+        SimulationContext c = SimulationContext.current();
+
         // Reset run variables (queue is not cleared because it has to start somewhere, e.g. flow start events)
-        now = 0;
+        c.now = 0;
+
+        resumeNs(runtimeNanoseconds, flowsFromStartToFinish);
+
+    }
+
+    /**
+     * Continue the simulator from the current time (e.g. that of a restored checkpoint)
+     * until at most the specified time, or until the first N flows have been finished.
+     *
+     * @param runtimeNanoseconds        Time in ns until which to run (since simulation start)
+     * @param flowsFromStartToFinish    Number of flows from start to finish (see {@link #runNs(long, long)})
+     *
+     * @return  True iff it ended because the first N flows have been finished
+     */
+    public static boolean resumeNs(long runtimeNanoseconds, long flowsFromStartToFinish) {
+
+        SimulationContext c = SimulationContext.current();
+        if (runtimeNanoseconds < c.now) {
+            throw new IllegalArgumentException("Cannot run until " + runtimeNanoseconds + "ns, as the simulation is already at " + c.now + "ns.");
+        }
 
         // Finish flow threshold, if it is negative the flow finish will be very far in the future
-        finishFlowIdThreshold = flowsFromStartToFinish;
+        c.finishFlowIdThreshold = flowsFromStartToFinish;
         if (flowsFromStartToFinish <= 0) {
             flowsFromStartToFinish = Long.MAX_VALUE;
         }
@@ -166,27 +209,29 @@ public class Simulator {
         // Time loop
         long startTime = System.currentTimeMillis();
         long realTime = System.currentTimeMillis();
-        long nextProgressLog = PROGRESS_SHOW_INTERVAL_NS;
+        long nextProgressLog = c.now + PROGRESS_SHOW_INTERVAL_NS;
         boolean endedDueToFlowThreshold = false;
-        while (!eventQueue.isEmpty() && now <= runtimeNanoseconds) {
+        while (!c.eventQueue.isEmpty() && c.now <= runtimeNanoseconds) {
 
             // Go to next event
-            Event event = eventQueue.peek();
-            now = event.getTime();
-            if (now <= runtimeNanoseconds) {
+            Event event = c.eventQueue.peek();
+            c.now = event.getTime();
+            if (c.now <= runtimeNanoseconds) {
+
+                // Taken out before triggering, such that it can no longer be cancelled
+                c.eventQueue.poll();
                 event.trigger();
-                eventQueue.poll();
             }
 
             // Log elapsed time
-            if (now > nextProgressLog) {
+            if (c.now > nextProgressLog) {
                 nextProgressLog += PROGRESS_SHOW_INTERVAL_NS;
                 long realTimeNow = System.currentTimeMillis();
-                System.out.println("Elapsed 0.01s simulation in " + ((realTimeNow - realTime) / 1000.0) + "s real (total progress: " + ((((double) now) / ((double) runtimeNanoseconds)) * 100) + "%).");
+                System.out.println("Elapsed 0.01s simulation in " + ((realTimeNow - realTime) / 1000.0) + "s real (total progress: " + ((((double) c.now) / ((double) runtimeNanoseconds)) * 100) + "%).");
                 realTime = realTimeNow;
             }
 
-            if (finishedFlows.size() >= flowsFromStartToFinish) {
+            if (c.finishedFlows.size() >= flowsFromStartToFinish) {
                 endedDueToFlowThreshold = true;
                 break;
             }
@@ -196,32 +241,275 @@ public class Simulator {
         // Make sure run ends at the final time if it ended because there were no
         // more events or the runtime was exceeded
         if (!endedDueToFlowThreshold) {
-            now = runtimeNanoseconds;
+            c.now = runtimeNanoseconds;
         }
 
         // Log end
         System.out.println("Simulation finished (simulated " + (runtimeNanoseconds / 1e9) + "s in a real-world time of " + ((System.currentTimeMillis() - startTime) / 1000.0) + "s).");
 
+        return endedDueToFlowThreshold;
+
+    }
+
+    /**
+     * Run the simulator for the specified amount of time with the parallel engine,
+     * in which each partition of network devices is run by its own thread.
+     * The outcome is identical to {@link #runNs(long)}; see {@link ParallelEngine}
+     * for what is not supported.
+     *
+     * @param runtimeNanoseconds    Running time in ns
+     * @param partitions            Network devices of each partition (all devices must be in one)
+     */
+    public static void runParallelNs(long runtimeNanoseconds, List<List<NetworkDevice>> partitions) {
+
+        SimulationContext c = SimulationContext.current();
+
+        // Events triggered within partitions are referenced until the end of the window
+        if (c.getPacketEventPool().isEnabled()) {
+            throw new IllegalStateException("The pooling of events is not supported by the parallel engine.");
+        }
+
+        // Reset run variables
+        c.now = 0;
+        c.finishFlowIdThreshold = -1;
+
+        // An event queue for each partition and for the global events
+        EventQueue[] eventQueues = new EventQueue[partitions.size() + 1];
+        for (int i = 0; i < eventQueues.length; i++) {
+            eventQueues[i] = selectEventQueue(c.configuration);
+        }
+        ParallelEngine engine = new ParallelEngine(partitions, eventQueues);
+
+        // Log start
+        System.out.println("Starting parallel simulation (total time: " + runtimeNanoseconds + "ns, partitions: " + partitions.size() + ", lookahead: " + engine.getLookaheadNs() + "ns);...");
+
+        // Run with all events taken over by the engine
+        long startTime = System.currentTimeMillis();
+        c.parallelEngine = engine;
+        try {
+            engine.run(c.eventQueue, runtimeNanoseconds, PROGRESS_SHOW_INTERVAL_NS);
+        } finally {
+            c.parallelEngine = null;
+        }
+        c.now = runtimeNanoseconds;
+
+        // Log end
+        System.out.println("Simulation finished (simulated " + (runtimeNanoseconds / 1e9) + "s in a real-world time of " + ((System.currentTimeMillis() - startTime) / 1000.0) + "s).");
+
+    }
+
+    /**
+     * Check whether the caller runs within a partition of the parallel engine.
+     *
+     * @return  True iff called from within a partition
+     */
+    public static boolean isRunningInPartition() {
+        SimulationContext c = SimulationContext.current();
+        return c.parallelEngine != null && c.parallelEngine.isRunningInPartition();
+    }
+
+    /**
+     * Take the next identifier for an event, which is provisional if the event is
+     * created within a partition of the parallel engine. Only to be used by {@link Event}.
+     *
+     * @param event     Event instance
+     *
+     * @return  Event identifier
+     */
+    public static long takeEventId(Event event) {
+        return SimulationContext.current().takeEventId(event);
+    }
+
+    /**
+     * Run an action which changes state shared by all network devices (e.g. logs).
+     * Within a partition of the parallel engine it is deferred until the end of
+     * the window, where it is run in the order of the sequential engine; else
+     * it is run immediately.
+     *
+     * @param action    Action
+     */
+    public static void runSerially(Runnable action) {
+        SimulationContext c = SimulationContext.current();
+        if (c.parallelEngine != null) {
+            c.parallelEngine.runSerially(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Run an action which changes the state of a network device. Within a partition
+     * of the parallel engine it is deferred as in {@link #runSerially(Runnable)} if
+     * the device belongs to another partition; else it is run immediately.
+     *
+     * @param device    Network device of which the state is changed
+     * @param action    Action
+     */
+    public static void runAtDevice(NetworkDevice device, Runnable action) {
+        SimulationContext c = SimulationContext.current();
+        if (c.parallelEngine != null) {
+            c.parallelEngine.runAtDevice(device, action);
+        } else {
+            action.run();
+        }
     }
 
     /**
      * Register to the simulator that a flow has been finished.
      *
-     * @param flowId    Flow identifier
+     * @param flowId        Flow identifier
+     * @param endpointA     Network device identifier of one end point of the flow
+     * @param endpointB     Network device identifier of the other end point of the flow
+     */
+    public static void registerFlowFinished(final long flowId, final int endpointA, final int endpointB) {
+        SimulationContext c = SimulationContext.current();
+        boolean inPartition = c.parallelEngine != null && c.parallelEngine.isRunningInPartition();
+        if (!inPartition && flowId < c.finishFlowIdThreshold) {
+            c.finishedFlows.add(flowId);
+        }
+        for (FlowFinishedListener listener : c.flowFinishedListeners) {
+            notifyFlowFinished(inPartition, listener, flowId, endpointA, endpointB);
+        }
+        notifyEndpointFlowFinished(c, inPartition, endpointA, flowId, endpointA, endpointB);
+        if (endpointB != endpointA) {
+            notifyEndpointFlowFinished(c, inPartition, endpointB, flowId, endpointA, endpointB);
+        }
+    }
+
+    /**
+     * Notify the listeners registered for one end point of a finished flow.
+     *
+     * @param c             Simulation context
+     * @param inPartition   True iff called within a partition of the parallel engine
+     * @param endpointId    Network device identifier of the end point
+     * @param flowId        Flow identifier
+     * @param endpointA     Network device identifier of one end point of the flow
+     * @param endpointB     Network device identifier of the other end point of the flow
      */
-    public static void registerFlowFinished(long flowId) {
-        if (flowId < finishFlowIdThreshold) {
-            finishedFlows.add(flowId);
+    private static void notifyEndpointFlowFinished(SimulationContext c, boolean inPartition, int endpointId, long flowId, int endpointA, int endpointB) {
+        List<FlowFinishedListener> listeners = c.endpointFlowFinishedListeners.get(endpointId);
+        if (listeners != null) {
+            for (FlowFinishedListener listener : listeners) {
+                notifyFlowFinished(inPartition, listener, flowId, endpointA, endpointB);
+            }
         }
     }
 
+    /**
+     * Notify a listener of a finished flow. Within a partition of the parallel engine,
+     * it is run at the listener if it is a network device, else serially.
+     *
+     * @param inPartition   True iff called within a partition of the parallel engine
+     * @param listener      Listener instance
+     * @param flowId        Flow identifier
+     * @param endpointA     Network device identifier of one end point of the flow
+     * @param endpointB     Network device identifier of the other end point of the flow
+     */
+    private static void notifyFlowFinished(boolean inPartition, final FlowFinishedListener listener, final long flowId, final int endpointA, final int endpointB) {
+        if (!inPartition) {
+            listener.flowFinished(flowId, endpointA, endpointB);
+            return;
+        }
+        Runnable action = new Runnable() {
+            @Override
+            public void run() {
+                listener.flowFinished(flowId, endpointA, endpointB);
+            }
+        };
+        if (listener instanceof NetworkDevice) {
+            runAtDevice((NetworkDevice) listener, action);
+        } else {
+            runSerially(action);
+        }
+    }
+
+    /**
+     * Register a listener to be notified of every flow that finishes.
+     *
+     * @param listener  Listener instance
+     */
+    public static void registerFlowFinishedListener(FlowFinishedListener listener) {
+        SimulationContext c = SimulationContext.current();
+        c.flowFinishedListeners.add(listener);
+    }
+
+    /**
+     * Register a listener to be notified only of the flows that finish of which
+     * the given network device is an end point, such that per-device state is
+     * released without every device being notified of every flow.
+     *
+     * @param endpointId    Network device identifier of the end point
+     * @param listener      Listener instance
+     */
+    public static void registerFlowFinishedListener(int endpointId, FlowFinishedListener listener) {
+        SimulationContext c = SimulationContext.current();
+        List<FlowFinishedListener> listeners = c.endpointFlowFinishedListeners.get(endpointId);
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            c.endpointFlowFinishedListeners.put(endpointId, listeners);
+        }
+        listeners.add(listener);
+    }
+
     /**
      * Register an event in the simulation.
      *
      * @param event     Event instance
      */
     public static void registerEvent(Event event) {
-        eventQueue.add(event);
+        SimulationContext c = SimulationContext.current();
+        if (c.parallelEngine != null) {
+            c.parallelEngine.register(event);
+        } else {
+            c.eventQueue.add(event);
+        }
+    }
+
+    /**
+     * Cancel an event in the simulation, removing it from the event queue.
+     * Cancelling an event which is no longer pending has no effect.
+     *
+     * @param event     Event instance
+     */
+    public static void cancelEvent(Event event) {
+        SimulationContext c = SimulationContext.current();
+        if (c.parallelEngine != null) {
+            c.parallelEngine.cancel(event);
+        } else {
+            c.eventQueue.remove(event);
+        }
+    }
+
+    /**
+     * Cancel all pending events of the given type, removing them from the event queue.
+     * It goes over the entire queue, and as such is not meant to be called during a run.
+     *
+     * @param eventClass    Event type (including subclasses)
+     *
+     * @return  Number of events cancelled
+     */
+    public static int cancelEvents(Class<? extends Event> eventClass) {
+        SimulationContext c = SimulationContext.current();
+        if (c.parallelEngine != null) {
+            throw new IllegalStateException("Events cannot be cancelled by type during a parallel run.");
+        }
+
+        // Take out all events, and put those which remain into a new queue
+        List<Event> pending = new ArrayList<>(c.eventQueue.size());
+        while (!c.eventQueue.isEmpty()) {
+            pending.add(c.eventQueue.poll());
+        }
+        c.eventQueue = selectEventQueue(c.configuration);
+        int numCancelled = 0;
+        for (Event event : pending) {
+            if (eventClass.isInstance(event)) {
+                numCancelled++;
+            } else {
+                c.eventQueue.add(event);
+            }
+        }
+        return numCancelled;
+
     }
 
     /**
@@ -233,7 +521,7 @@ public class Simulator {
      * @return  Time in nanoseconds
      */
     public static long getTimeFromNow(long nanoseconds) {
-        return now + nanoseconds;
+        return getCurrentTime() + nanoseconds;
     }
 
     /**
@@ -242,7 +530,7 @@ public class Simulator {
      * @return  Current time in nanoseconds
      */
     public static long getCurrentTime() {
-        return now;
+        return SimulationContext.current().getCurrentTime();
     }
 
     /**
@@ -251,7 +539,11 @@ public class Simulator {
      * @return  Number of events
      */
     public static int getEventSize() {
-        return eventQueue.size();
+        SimulationContext c = SimulationContext.current();
+        if (c.parallelEngine != null) {
+            return c.parallelEngine.size();
+        }
+        return c.eventQueue.size();
     }
 
     /**
@@ -268,6 +560,8 @@ public class Simulator {
      */
     public static void reset(boolean throwawayLogs) {
 
+        SimulationContext c = SimulationContext.current();
+
         // Close logger
         if (throwawayLogs) {
             SimulationLogger.closeAndThrowaway();
@@ -276,20 +570,24 @@ public class Simulator {
         }
 
         // Reset random number generation
-        randomManager = null;
+        c.randomManager = null;
 
         // Reset any run variables
-        now = 0;
-        eventQueue.clear();
-        finishedFlows.clear();
+        c.now = 0;
+        c.eventQueue.clear();
+        c.finishedFlows.clear();
+        c.flowFinishedListeners.clear();
+        c.endpointFlowFinishedListeners.clear();
         TransportLayer.staticReset();
-        finishFlowIdThreshold = -1;
+        c.getValiantCountedFlows().clear();
+        c.getPacketEventPool().setEnabled(false);
+        c.finishFlowIdThreshold = -1;
 
         // Reset configuration
-        configuration = null;
+        c.configuration = null;
 
         // No longer setup
-        isSetup = false;
+        c.isSetup = false;
 
     }
 
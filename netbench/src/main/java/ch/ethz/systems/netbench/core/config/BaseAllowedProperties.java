@@ -8,9 +8,16 @@ public class BaseAllowedProperties {
 
     public static final String[] LOG = new String[]{
             "enable_log_port_queue_state",
+            "log_port_queue_state_mode",
+            "log_port_queue_state_bucket_ns",
+            "log_port_queue_state_histogram_bins",
+            "log_port_queue_state_histogram_bin_bits",
             "enable_log_flow_throughput",
+            "enable_log_flow_completion_per_flow",
+            "enable_log_flow_completion_per_pod_pair",
             "enable_generate_human_readable_flow_completion_log",
             "enable_record_resend",
+            "enable_log_binary",
     };
 
     public static final String[] PROPERTIES_RUN = new String[] {
@@ -27,16 +34,25 @@ public class BaseAllowedProperties {
             "analysis_command",
             "finish_when_first_flows_finish",
             "pod_egress",    //  pod link 
+            "simulator_event_queue",
+            "simulator_engine",
+            "simulator_parallel_partitions",
+            "simulator_event_pooling",
+            "checkpoint_save_filename",
+            "checkpoint_save_time_ns",
+            "checkpoint_load_filename",
 
             // Infrastructure
             "transport_layer",
             "network_device",
             "network_device_intermediary",
             "output_port",
+            "output_port_packet_train_max_packets",
             "link",
 
             // Routing
             "network_device_routing",
+            "routing_shortest_path_algorithm",
 
             // Traffic
             "traffic",
@@ -69,6 +85,14 @@ public class BaseAllowedProperties {
             "traffic_flow_size_dist_pareto_shape",
             "traffic_flow_size_dist_pareto_mean_kilobytes",
             "traffic_pareto_skew_shape",
+            "traffic_arrivals_streaming",
+            "traffic_pair_sampling",
+            "traffic_pair_sampling_hierarchical",
+            "traffic_plan_slices",
+
+            // Hybrid packet/fluid transport
+            "hybrid_background_flow_size_threshold_byte",
+            "hybrid_background_max_link_utilization",
 
             // Flowlet
             "FLOWLET_GAP_NS",
@@ -86,6 +110,7 @@ public class BaseAllowedProperties {
 
             //  's threshold routing module
             "threshold_path_weights_filename",
+            "threshold_flow_state_idle_timeout_ns",
 
             // for bandwidth steering during simulations
             "reconfiguration_events_filename",
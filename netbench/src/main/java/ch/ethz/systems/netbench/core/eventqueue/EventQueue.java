@@ -0,0 +1,64 @@
+package ch.ethz.systems.netbench.core.eventqueue;
+
+import ch.ethz.systems.netbench.core.network.Event;
+
+/**
+ * Pending event set of the simulator.
+ *
+ * Implementations must hand out events in exactly the order
+ * defined by {@link Event#compareTo(Event)}, i.e. by time and
+ * on equal time by creation order, such that runs with the same
+ * seed are identical regardless of the chosen implementation.
+ */
+public interface EventQueue {
+
+    /**
+     * Add an event to the queue.
+     *
+     * @param event     Event instance
+     */
+    void add(Event event);
+
+    /**
+     * Retrieve, but do not remove, the first event.
+     *
+     * @return  First event, or null if the queue is empty
+     */
+    Event peek();
+
+    /**
+     * Retrieve and remove the first event.
+     *
+     * @return  First event, or null if the queue is empty
+     */
+    Event poll();
+
+    /**
+     * Remove a pending event from the queue, such that it will not be triggered.
+     *
+     * @param event     Event instance
+     *
+     * @return  True iff the event was pending in the queue
+     */
+    boolean remove(Event event);
+
+    /**
+     * Retrieve the amount of events in the queue.
+     *
+     * @return  Number of events
+     */
+    int size();
+
+    /**
+     * Check whether the queue is empty.
+     *
+     * @return  True iff there are no events in the queue
+     */
+    boolean isEmpty();
+
+    /**
+     * Remove all events from the queue.
+     */
+    void clear();
+
+}
@@ -0,0 +1,147 @@
+package ch.ethz.systems.netbench.core.eventqueue;
+
+import ch.ethz.systems.netbench.core.network.Event;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Event queue backed by an indexed binary heap (O(log n) insert, poll and remove).
+ *
+ * Each event keeps track of its own position in the heap,
+ * such that it can be removed without searching for it.
+ */
+public class HeapEventQueue implements EventQueue, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Event[] heap;
+    private int size;
+
+    public HeapEventQueue() {
+        this.heap = new Event[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    @Override
+    public void add(Event event) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        siftUp(size, event);
+        size++;
+    }
+
+    @Override
+    public Event peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    @Override
+    public Event poll() {
+        if (size == 0) {
+            return null;
+        }
+        Event first = heap[0];
+        removeAt(0);
+        return first;
+    }
+
+    @Override
+    public boolean remove(Event event) {
+        int i = event.getQueueIndex();
+        if (i < 0 || i >= size || heap[i] != event) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].setQueueIndex(Event.NOT_QUEUED);
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Remove the event at the given position, filling the gap with the last event.
+     *
+     * @param i     Heap position
+     */
+    private void removeAt(int i) {
+        heap[i].setQueueIndex(Event.NOT_QUEUED);
+        size--;
+        Event last = heap[size];
+        heap[size] = null;
+        if (i != size) {
+            siftDown(i, last);
+            if (heap[i] == last) {
+                siftUp(i, last);
+            }
+        }
+    }
+
+    /**
+     * Place the event at the given position or above it.
+     *
+     * @param i         Heap position
+     * @param event     Event instance
+     */
+    private void siftUp(int i, Event event) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            Event e = heap[parent];
+            if (event.compareTo(e) >= 0) {
+                break;
+            }
+            heap[i] = e;
+            e.setQueueIndex(i);
+            i = parent;
+        }
+        heap[i] = event;
+        event.setQueueIndex(i);
+    }
+
+    /**
+     * Place the event at the given position or below it.
+     *
+     * @param i         Heap position
+     * @param event     Event instance
+     */
+    private void siftDown(int i, Event event) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            Event c = heap[child];
+            int right = child + 1;
+            if (right < size && c.compareTo(heap[right]) > 0) {
+                child = right;
+                c = heap[child];
+            }
+            if (event.compareTo(c) <= 0) {
+                break;
+            }
+            heap[i] = c;
+            c.setQueueIndex(i);
+            i = child;
+        }
+        heap[i] = event;
+        event.setQueueIndex(i);
+    }
+
+}
@@ -0,0 +1,332 @@
+package ch.ethz.systems.netbench.core.eventqueue;
+
+import ch.ethz.systems.netbench.core.network.Event;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+
+/**
+ * Ladder queue (Tang, Goh and Thng, 2005) with amortized O(1) insert and poll.
+ *
+ * The queue is split into three tiers:
+ *
+ * (1) Top: unsorted list of all events at or beyond <i>topStart</i>;
+ * (2) Ladder: rungs of time buckets, each finer rung spanning a single
+ *     bucket of the rung above it;
+ * (3) Bottom: small sorted structure holding the events that are up next.
+ *
+ * Events only get sorted once they reach the bottom, at which point the
+ * regular {@link Event#compareTo(Event) (time, eid)} ordering is applied, so the
+ * output sequence is identical to that of the {@link HeapEventQueue}.
+ *
+ * Removed events are only marked as cancelled (O(1)) and are discarded
+ * once they are moved further down the ladder.
+ */
+public class LadderEventQueue implements EventQueue, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // A bucket with more events than this is spawned into a finer rung
+    // instead of being transferred to the bottom
+    private static final int THRESHOLD = 50;
+
+    // Maximum amount of rungs in the ladder
+    private static final int MAX_RUNGS = 8;
+
+    // Queue index of events which are pending, respectively removed but still stored
+    private static final int PENDING = 0;
+    private static final int CANCELLED = -2;
+
+    // Top tier
+    private final ArrayList<Event> top;
+    private long topStart;
+    private long topMin;
+    private long topMax;
+
+    // Ladder tier
+    private final Rung[] rungs;
+    private int numRungs;
+
+    // Bottom tier
+    private final PriorityQueue<Event> bottom;
+
+    // Total amount of pending events
+    private int size;
+
+    public LadderEventQueue() {
+        this.top = new ArrayList<>();
+        this.rungs = new Rung[MAX_RUNGS];
+        for (int i = 0; i < MAX_RUNGS; i++) {
+            this.rungs[i] = new Rung();
+        }
+        this.bottom = new PriorityQueue<>();
+        this.clear();
+    }
+
+    @Override
+    public void add(Event event) {
+        size++;
+        event.setQueueIndex(PENDING);
+        long time = event.getTime();
+
+        // Far enough in the future to be left unsorted
+        if (time >= topStart) {
+            if (top.isEmpty()) {
+                topMin = time;
+                topMax = time;
+            } else if (time < topMin) {
+                topMin = time;
+            } else if (time > topMax) {
+                topMax = time;
+            }
+            top.add(event);
+            return;
+        }
+
+        // Into the coarsest rung whose unvisited buckets cover it
+        for (int i = 0; i < numRungs; i++) {
+            if (time >= rungs[i].currentStart()) {
+                rungs[i].insert(event);
+                return;
+            }
+        }
+
+        // Up next
+        bottom.add(event);
+    }
+
+    @Override
+    public Event peek() {
+        return fillBottom() ? bottom.peek() : null;
+    }
+
+    @Override
+    public Event poll() {
+        if (!fillBottom()) {
+            return null;
+        }
+        size--;
+        Event event = bottom.poll();
+        event.setQueueIndex(Event.NOT_QUEUED);
+        return event;
+    }
+
+    @Override
+    public boolean remove(Event event) {
+        if (event.getQueueIndex() != PENDING) {
+            return false;
+        }
+        event.setQueueIndex(CANCELLED);
+        size--;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (Event event : top) {
+            event.setQueueIndex(Event.NOT_QUEUED);
+        }
+        for (int i = 0; i < numRungs; i++) {
+            for (ArrayList<Event> bucket : rungs[i].buckets) {
+                if (bucket != null) {
+                    for (Event event : bucket) {
+                        event.setQueueIndex(Event.NOT_QUEUED);
+                    }
+                }
+            }
+        }
+        for (Event event : bottom) {
+            event.setQueueIndex(Event.NOT_QUEUED);
+        }
+        top.clear();
+        topStart = Long.MIN_VALUE;
+        topMin = Long.MAX_VALUE;
+        topMax = Long.MIN_VALUE;
+        for (int i = 0; i < numRungs; i++) {
+            rungs[i].release();
+        }
+        numRungs = 0;
+        bottom.clear();
+        size = 0;
+    }
+
+    /**
+     * Make sure the bottom contains the next events, moving them down
+     * from the ladder (or top) if it has run empty.
+     *
+     * @return  True iff the bottom is non-empty afterwards (with a pending event first)
+     */
+    private boolean fillBottom() {
+        while (true) {
+
+            // Discard cancelled events up front
+            Event first;
+            while ((first = bottom.peek()) != null && first.getQueueIndex() == CANCELLED) {
+                bottom.poll().setQueueIndex(Event.NOT_QUEUED);
+            }
+            if (first != null) {
+                return true;
+            }
+
+            // Ladder is empty, so the top has to be moved down
+            if (numRungs == 0) {
+
+                if (top.isEmpty()) {
+                    return false;
+                }
+
+                if (top.size() <= THRESHOLD || topMin == topMax) {
+                    moveToBottom(top);
+                    topStart = topMax + 1;
+                } else {
+                    long width = ceilDiv(topMax - topMin + 1, top.size());
+                    int numBuckets = (int) ceilDiv(topMax - topMin + 1, width);
+                    Rung rung = spawnRung(topMin, width, numBuckets);
+                    moveToRung(top, rung);
+                    topStart = topMin + numBuckets * width;
+                }
+                top.clear();
+                topMin = Long.MAX_VALUE;
+                topMax = Long.MIN_VALUE;
+                continue;
+
+            }
+
+            // Drop the finest rung if it has been fully visited
+            Rung rung = rungs[numRungs - 1];
+            if (rung.count == 0) {
+                rung.release();
+                numRungs--;
+                continue;
+            }
+
+            // Take out the first non-empty bucket
+            while (rung.buckets[rung.cur] == null || rung.buckets[rung.cur].isEmpty()) {
+                rung.cur++;
+            }
+            ArrayList<Event> bucket = rung.buckets[rung.cur];
+            long bucketStart = rung.currentStart();
+            rung.buckets[rung.cur] = null;
+            rung.cur++;
+            rung.count -= bucket.size();
+
+            // Either refine it into a new rung or sort it into the bottom
+            if (bucket.size() > THRESHOLD && rung.width > 1 && numRungs < MAX_RUNGS) {
+                long width = ceilDiv(rung.width, bucket.size());
+                int numBuckets = (int) ceilDiv(rung.width, width);
+                Rung child = spawnRung(bucketStart, width, numBuckets);
+                moveToRung(bucket, child);
+            } else {
+                moveToBottom(bucket);
+            }
+
+        }
+    }
+
+    /**
+     * Move the pending events to the bottom, discarding the cancelled ones.
+     *
+     * @param events    Events
+     */
+    private void moveToBottom(ArrayList<Event> events) {
+        for (Event event : events) {
+            if (event.getQueueIndex() == CANCELLED) {
+                event.setQueueIndex(Event.NOT_QUEUED);
+            } else {
+                bottom.add(event);
+            }
+        }
+    }
+
+    /**
+     * Move the pending events into a rung, discarding the cancelled ones.
+     *
+     * @param events    Events
+     * @param rung      Rung
+     */
+    private void moveToRung(ArrayList<Event> events, Rung rung) {
+        for (Event event : events) {
+            if (event.getQueueIndex() == CANCELLED) {
+                event.setQueueIndex(Event.NOT_QUEUED);
+            } else {
+                rung.insert(event);
+            }
+        }
+    }
+
+    /**
+     * Add a new finest rung to the ladder.
+     *
+     * @param start         Start time of the first bucket
+     * @param width         Time width of each bucket
+     * @param numBuckets    Number of buckets
+     *
+     * @return  Rung instance
+     */
+    private Rung spawnRung(long start, long width, int numBuckets) {
+        Rung rung = rungs[numRungs];
+        rung.reset(start, width, numBuckets);
+        numRungs++;
+        return rung;
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return (a + b - 1) / b;
+    }
+
+    /**
+     * Single rung of the ladder, which divides a time span into equally sized buckets.
+     */
+    private static class Rung implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long start;
+        private long width;
+        private int cur;
+        private int count;
+        private ArrayList<Event>[] buckets;
+
+        @SuppressWarnings("unchecked")
+        void reset(long start, long width, int numBuckets) {
+            this.start = start;
+            this.width = width;
+            this.cur = 0;
+            this.count = 0;
+            this.buckets = (ArrayList<Event>[]) new ArrayList<?>[numBuckets];
+        }
+
+        void release() {
+            this.buckets = null;
+            this.count = 0;
+        }
+
+        long currentStart() {
+            return start + cur * width;
+        }
+
+        void insert(Event event) {
+            int idx = (int) ((event.getTime() - start) / width);
+            ArrayList<Event> bucket = buckets[idx];
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                buckets[idx] = bucket;
+            }
+            bucket.add(event);
+            count++;
+        }
+
+    }
+
+}
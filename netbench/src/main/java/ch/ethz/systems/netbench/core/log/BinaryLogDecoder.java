@@ -0,0 +1,115 @@
+package ch.ethz.systems.netbench.core.log;
+
+import java.io.*;
+
+/**
+ * Decoder of binary logs written by {@link BinaryLogWriter}.
+ * Reproduces exactly the CSV log that would have been written
+ * if binary logging was not enabled.
+ *
+ * Usage: java -cp NetBench.jar ch.ethz.systems.netbench.core.log.BinaryLogDecoder port_queue_length.bin.log port_queue_length.csv.log
+ */
+public class BinaryLogDecoder {
+
+    private BinaryLogDecoder() {
+        // Static class only
+    }
+
+    public static void main(String args[]) {
+        if (args.length != 2) {
+            throw new RuntimeException("Expecting two arguments: [input binary log file] [output CSV log file]");
+        }
+        long numRecords = decodeToCsv(args[0], args[1]);
+        System.out.println("Decoded " + numRecords + " records.");
+    }
+
+    /**
+     * Decode a binary log to its CSV layout.
+     *
+     * @param binaryFileName    Input binary log file name
+     * @param csvFileName       Output CSV log file name
+     *
+     * @return  Number of records decoded
+     */
+    public static long decodeToCsv(String binaryFileName, String csvFileName) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(binaryFileName), 1 << 16));
+             BufferedWriter out = new BufferedWriter(new FileWriter(csvFileName), 1 << 16)) {
+
+            // Header
+            if (in.readInt() != BinaryLogWriter.MAGIC || in.readInt() != BinaryLogWriter.VERSION) {
+                throw new IOException("File " + binaryFileName + " is not a binary log file (version " + BinaryLogWriter.VERSION + ").");
+            }
+            int numColumns = in.readInt();
+            out.write(in.readUTF());
+
+            // Blocks
+            long numRecords = 0;
+            long[][] columns = new long[numColumns][0];
+            StringBuilder line = new StringBuilder();
+            while (true) {
+
+                // Number of records in block (or end of file)
+                int blockRecords;
+                try {
+                    blockRecords = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (columns[0].length < blockRecords) {
+                    columns = new long[numColumns][blockRecords];
+                }
+
+                // Decode column-wise
+                for (int c = 0; c < numColumns; c++) {
+                    long previous = 0;
+                    for (int i = 0; i < blockRecords; i++) {
+                        long zigzag = readVarLong(in);
+                        previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                        columns[c][i] = previous;
+                    }
+                }
+
+                // Write row-wise
+                for (int i = 0; i < blockRecords; i++) {
+                    line.setLength(0);
+                    for (int c = 0; c < numColumns; c++) {
+                        if (c != 0) {
+                            line.append(',');
+                        }
+                        line.append(columns[c][i]);
+                    }
+                    line.append('\n');
+                    out.append(line);
+                }
+                numRecords += blockRecords;
+
+            }
+
+            return numRecords;
+
+        } catch (IOException e) {
+            throw new LogFailureException(e);
+        }
+    }
+
+    /**
+     * Read a variable-length encoded long (7 bits per byte, least significant first).
+     *
+     * @param in    Input stream
+     *
+     * @return  Encoded value
+     */
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+}
@@ -0,0 +1,242 @@
+package ch.ethz.systems.netbench.core.log;
+
+import java.io.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Asynchronous writer of a compact binary columnar log.
+ *
+ * Records consist of a fixed number of integral columns. The simulation
+ * thread only copies the values of a record into reusable primitive
+ * batch buffers; full batches are handed to a background thread which
+ * encodes and writes them. The {@link BinaryLogDecoder} converts the
+ * binary log back into the exact CSV text of the regular log.
+ *
+ * File layout:
+ * [header] int magic, int version, int numColumns, UTF csvHeader
+ * [block]  int numRecords, then per column for each record the
+ *          zig-zag variable-length encoded delta to the previous record
+ *          (the first record of a block is a delta to zero)
+ */
+public class BinaryLogWriter {
+
+    // Format
+    static final int MAGIC = 0x4E424C47; // "NBLG"
+    static final int VERSION = 1;
+
+    // Amount of records per batch and amount of batches in circulation
+    private static final int BATCH_RECORDS = 8192;
+    private static final int NUM_BATCHES = 4;
+
+    // Batch signalling the writer thread to stop
+    private static final Batch POISON = new Batch(0, 0);
+
+    private final int numColumns;
+    private final BlockingQueue<Batch> filled;
+    private final BlockingQueue<Batch> free;
+    private final Thread writerThread;
+    private volatile IOException failure;
+
+    // Batch currently being filled by the simulation thread
+    private Batch current;
+
+    /**
+     * Open a binary log file and start its background writer thread.
+     *
+     * @param fileName      Binary log file name
+     * @param numColumns    Number of columns of each record
+     * @param csvHeader     Header text of the CSV layout (empty if the CSV has none)
+     */
+    BinaryLogWriter(String fileName, int numColumns, String csvHeader) {
+        this.numColumns = numColumns;
+        this.filled = new ArrayBlockingQueue<>(NUM_BATCHES);
+        this.free = new ArrayBlockingQueue<>(NUM_BATCHES);
+        for (int i = 0; i < NUM_BATCHES - 1; i++) {
+            free.add(new Batch(numColumns, BATCH_RECORDS));
+        }
+        this.current = new Batch(numColumns, BATCH_RECORDS);
+
+        final DataOutputStream out;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(numColumns);
+            out.writeUTF(csvHeader);
+        } catch (IOException e) {
+            throw new LogFailureException(e);
+        }
+
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop(out);
+            }
+        }, "binary-log-writer-" + new File(fileName).getName());
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Log a record of five columns.
+     */
+    void write(long c0, long c1, long c2, long c3, long c4) {
+        assert(numColumns == 5);
+        long[][] columns = current.columns;
+        int i = current.numRecords;
+        columns[0][i] = c0;
+        columns[1][i] = c1;
+        columns[2][i] = c2;
+        columns[3][i] = c3;
+        columns[4][i] = c4;
+        recordAdded();
+    }
+
+    /**
+     * Log a record of six columns.
+     */
+    void write(long c0, long c1, long c2, long c3, long c4, long c5) {
+        assert(numColumns == 6);
+        long[][] columns = current.columns;
+        int i = current.numRecords;
+        columns[0][i] = c0;
+        columns[1][i] = c1;
+        columns[2][i] = c2;
+        columns[3][i] = c3;
+        columns[4][i] = c4;
+        columns[5][i] = c5;
+        recordAdded();
+    }
+
+    /**
+     * Write out all remaining records, stop the writer thread and close the file.
+     */
+    void close() {
+        if (current.numRecords > 0) {
+            handOver(current);
+        }
+        handOver(POISON);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LogFailureException(e);
+        }
+        checkFailure();
+    }
+
+    /**
+     * Hand over the current batch once it is full.
+     */
+    private void recordAdded() {
+        current.numRecords++;
+        if (current.numRecords == BATCH_RECORDS) {
+            handOver(current);
+            try {
+                current = free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LogFailureException(e);
+            }
+            current.numRecords = 0;
+        }
+    }
+
+    /**
+     * Hand a batch over to the writer thread.
+     *
+     * @param batch     Batch (or poison)
+     */
+    private void handOver(Batch batch) {
+        checkFailure();
+        try {
+            filled.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LogFailureException(e);
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new LogFailureException(failure);
+        }
+    }
+
+    /**
+     * Main loop of the writer thread: encode and write batches until poisoned.
+     *
+     * @param out   Output stream (header already written)
+     */
+    private void writeLoop(DataOutputStream out) {
+        byte[] buffer = new byte[10 * numColumns * BATCH_RECORDS];
+        try {
+            while (true) {
+                Batch batch = filled.take();
+                if (batch == POISON) {
+                    break;
+                }
+
+                // Encode block
+                int pos = 0;
+                for (int c = 0; c < numColumns; c++) {
+                    long[] column = batch.columns[c];
+                    long previous = 0;
+                    for (int i = 0; i < batch.numRecords; i++) {
+                        long delta = column[i] - previous;
+                        previous = column[i];
+                        long zigzag = (delta << 1) ^ (delta >> 63);
+                        while ((zigzag & ~0x7FL) != 0) {
+                            buffer[pos++] = (byte) ((zigzag & 0x7F) | 0x80);
+                            zigzag >>>= 7;
+                        }
+                        buffer[pos++] = (byte) zigzag;
+                    }
+                }
+                out.writeInt(batch.numRecords);
+                out.write(buffer, 0, pos);
+
+                free.put(batch);
+            }
+            out.close();
+        } catch (IOException e) {
+            failure = e;
+            drain();
+        } catch (InterruptedException e) {
+            failure = new IOException("Binary log writer thread was interrupted");
+            drain();
+        }
+    }
+
+    /**
+     * After failure keep recycling batches so that the simulation
+     * thread does not block and can observe the failure.
+     */
+    private void drain() {
+        try {
+            Batch batch;
+            while ((batch = filled.take()) != POISON) {
+                free.put(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reusable column-wise record buffer.
+     */
+    private static class Batch {
+
+        private final long[][] columns;
+        private int numRecords;
+
+        Batch(int numColumns, int capacity) {
+            this.columns = new long[numColumns][capacity];
+            this.numRecords = 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package ch.ethz.systems.netbench.core.log;
+
+/**
+ * Level-gated diagnostic output, intended for messages on hot paths
+ * (e.g. per packet or per flow) which are normally not wanted.
+ *
+ * The level is fixed when the class is loaded, set using the JVM option
+ * -Dnetbench.debug_level=off (default) | debug | trace. Call sites guard
+ * the message with the corresponding flag, e.g.:
+ *
+ * if (DebugLog.TRACE) {
+ *     DebugLog.log("Packet dropped at " + id);
+ * }
+ *
+ * As the flags are static final, the JIT compiler eliminates the
+ * disabled messages including the building of their strings.
+ */
+public final class DebugLog {
+
+    // Level set for this JVM
+    private static final int LEVEL = parseLevel(System.getProperty("netbench.debug_level", "off"));
+
+    // Whether messages of the level are enabled
+    public static final boolean DEBUG = LEVEL >= 1;
+    public static final boolean TRACE = LEVEL >= 2;
+
+    private DebugLog() {
+        // Static class only
+    }
+
+    /**
+     * Print a diagnostic message (which is thus copied to the console log of the run).
+     * Only to be called if the level of the message is enabled.
+     *
+     * @param message   Message
+     */
+    public static void log(String message) {
+        System.out.println(message);
+    }
+
+    /**
+     * Convert the level name to its number.
+     *
+     * @param level     Level name
+     *
+     * @return  Level number
+     */
+    private static int parseLevel(String level) {
+        switch (level) {
+
+            case "off":
+                return 0;
+
+            case "debug":
+                return 1;
+
+            case "trace":
+                return 2;
+
+            default:
+                throw new IllegalArgumentException("Invalid debug level: " + level + " (expected off, debug or trace).");
+
+        }
+    }
+
+}
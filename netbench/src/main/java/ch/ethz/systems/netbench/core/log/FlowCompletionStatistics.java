@@ -0,0 +1,260 @@
+package ch.ethz.systems.netbench.core.log;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.GraphDetails;
+import ch.ethz.systems.netbench.core.run.PartitionSelector;
+import ch.ethz.systems.netbench.core.utility.LogHistogram;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Streaming aggregation of the flow completion times, which produces the same
+ * statistics as the flow completion analysis of analysis/analyze.py without
+ * retaining every flow. Means are exact; percentiles are nearest-rank (not
+ * interpolated) and taken from logarithmic histograms, and as such have a
+ * relative error of at most 0.2%.
+ *
+ * Statistics are kept per flow size class and, if enabled, per pair of source
+ * and destination pod (servers belong to the pod of their ToR).
+ *
+ * Selected using following properties:
+ * enable_log_flow_completion_per_pod_pair=...  (default: false)
+ * pod_id_filename=...                          (required if per pod pair, lines of "network_device_id,pod_id")
+ */
+class FlowCompletionStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Precision of the histograms
+    private static final int PRECISION_BITS = 8;
+
+    // Flow size classes (same as the analysis): name, lowest size (inclusive, -1 if none), highest size (exclusive, -1 if none)
+    private static final String[] CLASS_NAME = new String[]{"all", "less_100KB", "less_2.4349MB", "geq_100KB", "geq_2.4349MB", "geq_1MB", "geq_10MB"};
+    private static final long[] CLASS_LOW = new long[]{-1, -1, -1, 100000, 2434900, 1000000, 10000000};
+    private static final long[] CLASS_HIGH = new long[]{-1, 100000, 2434900, -1, -1, -1, -1};
+
+    /**
+     * Statistics of a group of flows.
+     */
+    private static class Group implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long numFlows = 0;
+        private final LogHistogram fctNs = new LogHistogram(PRECISION_BITS);
+        private final LogHistogram throughputKbps = new LogHistogram(PRECISION_BITS);
+
+    }
+
+    // General statistics
+    private final Set<Integer> sources = new HashSet<>();
+    private final Set<Integer> targets = new HashSet<>();
+    private double sumSizeBytes = 0;
+    private double sumSquaredSizeBytes = 0;
+
+    // Statistics of each flow size class
+    private final Group[] classes;
+
+    // Statistics of each pod pair (only if the pods are given)
+    private final String podIdFilename;
+    private Map<Integer, Integer> nodeToPod = null;
+    private final Map<Long, Group> podPairs = new HashMap<>();
+
+    /**
+     * Create empty flow completion statistics.
+     *
+     * @param podIdFilename     Pod file name (null if no statistics per pod pair)
+     */
+    FlowCompletionStatistics(String podIdFilename) {
+        this.podIdFilename = podIdFilename;
+        this.classes = new Group[CLASS_NAME.length];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new Group();
+        }
+    }
+
+    /**
+     * Register the start of a flow.
+     *
+     * @param sourceId      Source node identifier
+     * @param targetId      Target node identifier
+     * @param sizeByte      Flow size in bytes
+     */
+    void flowStarted(int sourceId, int targetId, long sizeByte) {
+        sources.add(sourceId);
+        targets.add(targetId);
+        sumSizeBytes += sizeByte;
+        sumSquaredSizeBytes += (double) sizeByte * sizeByte;
+        for (int i = 0; i < classes.length; i++) {
+            if (inClass(i, sizeByte)) {
+                classes[i].numFlows++;
+            }
+        }
+        Group podPair = podPairGroup(sourceId, targetId);
+        if (podPair != null) {
+            podPair.numFlows++;
+        }
+    }
+
+    /**
+     * Register the completion of a flow.
+     *
+     * @param sourceId      Source node identifier
+     * @param targetId      Target node identifier
+     * @param sizeByte      Flow size in bytes
+     * @param durationNs    Flow completion time in nanoseconds
+     */
+    void flowCompleted(int sourceId, int targetId, long sizeByte, long durationNs) {
+        long throughputKbps = durationNs == 0 ? 0 : Math.round(sizeByte * 8e6 / durationNs);
+        for (int i = 0; i < classes.length; i++) {
+            if (inClass(i, sizeByte)) {
+                classes[i].fctNs.record(durationNs);
+                classes[i].throughputKbps.record(throughputKbps);
+            }
+        }
+        Group podPair = podPairGroup(sourceId, targetId);
+        if (podPair != null) {
+            podPair.fctNs.record(durationNs);
+            podPair.throughputKbps.record(throughputKbps);
+        }
+    }
+
+    /**
+     * Write the statistics as sorted lines of key=value.
+     *
+     * @param writer    Writer
+     */
+    void write(BufferedWriter writer) throws IOException {
+        Map<String, String> statistics = new TreeMap<>();
+
+        // General
+        long numFlows = classes[0].numFlows;
+        statistics.put("general_num_flows", String.valueOf(numFlows));
+        statistics.put("general_num_unique_sources", String.valueOf(sources.size()));
+        statistics.put("general_num_unique_targets", String.valueOf(targets.size()));
+        if (numFlows > 0) {
+            double mean = sumSizeBytes / numFlows;
+            statistics.put("general_flow_size_bytes_mean", String.valueOf(mean));
+            statistics.put("general_flow_size_bytes_std", String.valueOf(Math.sqrt(Math.max(0, sumSquaredSizeBytes / numFlows - mean * mean))));
+        }
+
+        // Flow size classes
+        for (int i = 0; i < classes.length; i++) {
+            putGroup(statistics, CLASS_NAME[i], classes[i], true);
+        }
+
+        // Pod pairs
+        for (Map.Entry<Long, Group> entry : podPairs.entrySet()) {
+            putGroup(statistics, "pod_" + (entry.getKey() >> 32) + "_to_" + (int) (long) entry.getKey(), entry.getValue(), false);
+        }
+
+        for (Map.Entry<String, String> entry : statistics.entrySet()) {
+            writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+        }
+    }
+
+    /**
+     * Add the statistics of a group of flows.
+     *
+     * @param statistics    Statistics
+     * @param name          Group name (key prefix)
+     * @param group         Group
+     * @param extended      True iff also milliseconds and throughput statistics are added
+     */
+    private static void putGroup(Map<String, String> statistics, String name, Group group, boolean extended) {
+        long numFinished = group.fctNs.getCount();
+        statistics.put(name + "_num_flows", String.valueOf(group.numFlows));
+        statistics.put(name + "_num_finished_flows", String.valueOf(numFinished));
+        statistics.put(name + "_num_unfinished_flows", String.valueOf(group.numFlows - numFinished));
+        if (numFinished == 0) {
+            statistics.put(name + "_flows_completed_fraction", "0");
+            return;
+        }
+        statistics.put(name + "_flows_completed_fraction", String.valueOf((double) numFinished / group.numFlows));
+        double[] fctNs = new double[]{group.fctNs.getMean(), group.fctNs.getPercentile(50), group.fctNs.getPercentile(99), group.fctNs.getPercentile(99.9)};
+        String[] fctNames = new String[]{"mean", "median", "99th", "99.9th"};
+        for (int j = 0; j < fctNs.length; j++) {
+            statistics.put(name + "_" + fctNames[j] + "_fct_ns", String.valueOf(fctNs[j]));
+            if (extended) {
+                statistics.put(name + "_" + fctNames[j] + "_fct_ms", String.valueOf(fctNs[j] / 1000000));
+            }
+        }
+        if (extended) {
+            LogHistogram throughput = group.throughputKbps;
+            statistics.put(name + "_throughput_mean_Gbps", String.valueOf(throughput.getMean() / 1e6));
+            statistics.put(name + "_throughput_median_Gbps", String.valueOf(throughput.getPercentile(50) / 1e6));
+            statistics.put(name + "_throughput_99th_Gbps", String.valueOf(throughput.getPercentile(99) / 1e6));
+            statistics.put(name + "_throughput_99.9th_Gbps", String.valueOf(throughput.getPercentile(99.9) / 1e6));
+            statistics.put(name + "_throughput_1th_Gbps", String.valueOf(throughput.getPercentile(1) / 1e6));
+            statistics.put(name + "_throughput_0.1th_Gbps", String.valueOf(throughput.getPercentile(0.1) / 1e6));
+        }
+    }
+
+    /**
+     * Check whether a flow size is in a flow size class.
+     *
+     * @param i         Flow size class index
+     * @param sizeByte  Flow size in bytes
+     *
+     * @return  True iff in the class
+     */
+    private static boolean inClass(int i, long sizeByte) {
+        return (CLASS_LOW[i] == -1 || sizeByte >= CLASS_LOW[i]) && (CLASS_HIGH[i] == -1 || sizeByte < CLASS_HIGH[i]);
+    }
+
+    /**
+     * Retrieve the statistics of the pod pair of a flow.
+     *
+     * @param sourceId      Source node identifier
+     * @param targetId      Target node identifier
+     *
+     * @return  Pod pair statistics (null if there are no pods, or a node has no pod)
+     */
+    private Group podPairGroup(int sourceId, int targetId) {
+        if (podIdFilename == null) {
+            return null;
+        }
+        if (nodeToPod == null) {
+            nodeToPod = PartitionSelector.readPodIds(podIdFilename);
+        }
+        Integer sourcePod = podOf(sourceId);
+        Integer targetPod = podOf(targetId);
+        if (sourcePod == null || targetPod == null) {
+            return null;
+        }
+        long key = ((long) sourcePod << 32) | (targetPod & 0xFFFFFFFFL);
+        Group group = podPairs.get(key);
+        if (group == null) {
+            group = new Group();
+            podPairs.put(key, group);
+        }
+        return group;
+    }
+
+    /**
+     * Determine the pod of a node.
+     *
+     * @param nodeId    Node identifier
+     *
+     * @return  Pod identifier (null if none)
+     */
+    private Integer podOf(int nodeId) {
+        Integer pod = nodeToPod.get(nodeId);
+        if (pod == null) {
+            GraphDetails details = Simulator.getConfiguration().getGraphDetails();
+            Integer torId = details.getServerNodeIds().contains(nodeId) ? details.getTorIdOfServer(nodeId) : null;
+            if (torId != null) {
+                pod = nodeToPod.get(torId);
+            }
+        }
+        return pod;
+    }
+
+}
@@ -2,9 +2,13 @@ package ch.ethz.systems.netbench.core.log;
 
 import ch.ethz.systems.netbench.core.Simulator;
 
+import java.io.Serializable;
+
 import static ch.ethz.systems.netbench.core.Simulator.getConfiguration;
 
-public class FlowLogger {
+public class FlowLogger implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // Every how many packets does it write the interval
     // of throughput
@@ -64,7 +68,11 @@ public class FlowLogger {
             receivedBytes = 0;
             measureStartTime = Simulator.getCurrentTime();
             if (flowSizeByte == totalBytesReceived) {
+                boolean firstCompletion = flowEndTime == -1;
                 flowEndTime = Simulator.getCurrentTime();
+                if (firstCompletion) {
+                    SimulationLogger.logFlowCompleted(this);
+                }
             }
         }
     }
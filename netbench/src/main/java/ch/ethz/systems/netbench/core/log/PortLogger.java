@@ -1,9 +1,15 @@
 package ch.ethz.systems.netbench.core.log;
 
 import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.config.exceptions.PropertyValueInvalidException;
 import ch.ethz.systems.netbench.core.network.OutputPort;
 
-public class PortLogger {
+import java.io.Serializable;
+
+public class PortLogger implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // Port information
     private final int ownId;
@@ -20,9 +26,18 @@ public class PortLogger {
     private final boolean logQueueStateEnabled;
     private long iterator = 0;
 
+    // Queue state aggregation (null if the queue state is sampled instead)
+    private final PortQueueStateAggregator queueStateAggregator;
+
     /**
      * Create logger for the given port.
      *
+     * The queue state, if enabled, is logged as selected using following properties:
+     * log_port_queue_state_mode=sampled (default, every 30th change) | aggregated
+     * log_port_queue_state_bucket_ns=...              (aggregated only, default: 100000)
+     * log_port_queue_state_histogram_bins=...         (aggregated only, default: 16)
+     * log_port_queue_state_histogram_bin_bits=...     (aggregated only, default: 12000)
+     *
      * @param port  Output port instance
      */
     public PortLogger(OutputPort port) {
@@ -30,7 +45,38 @@ public class PortLogger {
         this.targetId = port.getTargetId();
         this.attachedToServer = port.getOwnDevice().isServer() || port.getTargetDevice().isServer();
         SimulationLogger.registerPortLogger(this);
-        this.logQueueStateEnabled = Simulator.getConfiguration().getBooleanPropertyWithDefault("enable_log_port_queue_state", false);
+        NBProperties configuration = Simulator.getConfiguration();
+        this.logQueueStateEnabled = configuration.getBooleanPropertyWithDefault("enable_log_port_queue_state", false);
+        this.queueStateAggregator = logQueueStateEnabled ? selectQueueStateAggregator(configuration) : null;
+    }
+
+    /**
+     * Select how the queue state is logged.
+     *
+     * @param configuration     Run configuration
+     *
+     * @return  Queue state aggregator (null if sampled)
+     */
+    private PortQueueStateAggregator selectQueueStateAggregator(NBProperties configuration) {
+        switch (configuration.getPropertyWithDefault("log_port_queue_state_mode", "sampled")) {
+
+            case "sampled":
+                return null;
+
+            case "aggregated":
+                return new PortQueueStateAggregator(
+                        ownId,
+                        targetId,
+                        configuration.getLongPropertyWithDefault("log_port_queue_state_bucket_ns", 100000L),
+                        configuration.getIntegerPropertyWithDefault("log_port_queue_state_histogram_bins", 16),
+                        configuration.getLongPropertyWithDefault("log_port_queue_state_histogram_bin_bits", 12000L),
+                        SimulationLogger.getPortQueueStateAggregateWriter()
+                );
+
+            default:
+                throw new PropertyValueInvalidException(configuration, "log_port_queue_state_mode");
+
+        }
     }
 
     /**
@@ -40,7 +86,9 @@ public class PortLogger {
      * @param bufferOccupiedBits    Amount of bits occupied in the buffer
      */
     public void logQueueState(int length, long bufferOccupiedBits) {
-        if (this.logQueueStateEnabled) {
+        if (this.queueStateAggregator != null) {
+            queueStateAggregator.update(Simulator.getCurrentTime(), bufferOccupiedBits);
+        } else if (this.logQueueStateEnabled) {
             iterator++;
             if (iterator % STATISTIC_SAMPLE_RATE == 0) { // TODO: get rid of statistic sample rate?
                 SimulationLogger.logPortQueueState(ownId, targetId, length, bufferOccupiedBits, Simulator.getCurrentTime());
@@ -48,6 +96,24 @@ public class PortLogger {
         }
     }
 
+    /**
+     * Check whether the queue state is logged.
+     *
+     * @return  True iff the queue state is logged
+     */
+    public boolean isLogQueueStateEnabled() {
+        return logQueueStateEnabled;
+    }
+
+    /**
+     * Finish the log of the queue state at the end of the run.
+     */
+    void finishQueueState() {
+        if (this.queueStateAggregator != null) {
+            queueStateAggregator.finish(Simulator.getCurrentTime());
+        }
+    }
+
     /**
      * Log the change the state of the port.
      *
@@ -0,0 +1,171 @@
+package ch.ethz.systems.netbench.core.log;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Streaming aggregator of the buffer occupancy of a single output port.
+ *
+ * Time is divided into buckets of fixed duration. For each bucket it keeps
+ * the time-weighted mean, the maximum and a histogram of the time spent
+ * at each buffer occupancy, which are exact as every change is accounted for.
+ * Once a bucket has passed, it is written as a single row, unless the buffer
+ * was empty during the entire bucket.
+ *
+ * Row: ownId,targetId,bucketStartNs,bucketDurationNs,meanBufferOccupiedBits,maxBufferOccupiedBits,histogramNs
+ * where histogramNs are the nanoseconds spent in each histogram bin separated
+ * by semicolons; bin i covers [i * binBits, (i + 1) * binBits), except the
+ * last bin which covers everything from there on.
+ */
+class PortQueueStateAggregator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Header of the aggregated port queue state log
+    static final String HEADER = "ownId,targetId,bucketStartNs,bucketDurationNs,meanBufferOccupiedBits,maxBufferOccupiedBits,histogramNs\n";
+
+    // Port information
+    private final int ownId;
+    private final int targetId;
+
+    // Settings
+    private final long bucketNs;
+    private final long binBits;
+    private transient BufferedWriter writer;
+
+    // Current bucket
+    private long bucketStart = 0;
+    private long bucketEnd;
+    private long lastChangeTime = 0;
+    private long currentBits = 0;
+    private long maxBits = 0;
+    private long weightedBitsNs = 0;
+    private final long[] histogramNs;
+
+    /**
+     * Create aggregator of the buffer occupancy of an output port, which is empty at time zero.
+     *
+     * @param ownId         Own network device identifier
+     * @param targetId      Target network device identifier
+     * @param bucketNs      Bucket duration in nanoseconds
+     * @param numBins       Number of histogram bins
+     * @param binBits       Width of a histogram bin in bits
+     * @param writer        Writer of the rows
+     */
+    PortQueueStateAggregator(int ownId, int targetId, long bucketNs, int numBins, long binBits, BufferedWriter writer) {
+        if (bucketNs <= 0 || numBins <= 0 || binBits <= 0) {
+            throw new IllegalArgumentException("Bucket duration (" + bucketNs + "ns), number of bins (" + numBins + ") and bin width (" + binBits + " bits) must be positive.");
+        }
+        this.ownId = ownId;
+        this.targetId = targetId;
+        this.bucketNs = bucketNs;
+        this.binBits = binBits;
+        this.writer = writer;
+        this.bucketEnd = bucketNs;
+        this.histogramNs = new long[numBins];
+    }
+
+    /**
+     * Read the aggregator of a restored checkpoint, which from then on writes its rows to the log of the current run.
+     *
+     * @param in    Object input stream
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.writer = SimulationLogger.getPortQueueStateAggregateWriter();
+    }
+
+    /**
+     * Register a change of the buffer occupancy.
+     *
+     * @param timeNs                Current time in nanoseconds
+     * @param bufferOccupiedBits    Amount of bits occupied in the buffer from now on
+     */
+    void update(long timeNs, long bufferOccupiedBits) {
+        advanceTo(timeNs);
+        currentBits = bufferOccupiedBits;
+        if (bufferOccupiedBits > maxBits) {
+            maxBits = bufferOccupiedBits;
+        }
+    }
+
+    /**
+     * Write the last (partial) bucket up until the given time.
+     *
+     * @param timeNs    Current time in nanoseconds
+     */
+    void finish(long timeNs) {
+        advanceTo(timeNs);
+        if (timeNs > bucketStart) {
+            writeBucket(timeNs - bucketStart);
+        }
+    }
+
+    /**
+     * Account for the current buffer occupancy until the given time,
+     * writing all buckets which end before or at that time.
+     *
+     * @param timeNs    Time in nanoseconds
+     */
+    private void advanceTo(long timeNs) {
+        while (timeNs >= bucketEnd) {
+            accumulate(bucketEnd - lastChangeTime);
+            writeBucket(bucketNs);
+            bucketStart = bucketEnd;
+            bucketEnd += bucketNs;
+            lastChangeTime = bucketStart;
+            maxBits = currentBits;
+            weightedBitsNs = 0;
+            Arrays.fill(histogramNs, 0);
+
+            // Empty buckets are not written, so can be skipped at once
+            if (currentBits == 0 && timeNs >= bucketEnd) {
+                bucketStart = (timeNs / bucketNs) * bucketNs;
+                bucketEnd = bucketStart + bucketNs;
+                lastChangeTime = bucketStart;
+            }
+        }
+        accumulate(timeNs - lastChangeTime);
+        lastChangeTime = timeNs;
+    }
+
+    /**
+     * Account for the current buffer occupancy during the given duration.
+     *
+     * @param durationNs    Duration in nanoseconds
+     */
+    private void accumulate(long durationNs) {
+        weightedBitsNs += currentBits * durationNs;
+        histogramNs[(int) Math.min(currentBits / binBits, histogramNs.length - 1)] += durationNs;
+    }
+
+    /**
+     * Write the current bucket as row, unless the buffer was empty all along.
+     *
+     * @param durationNs    Duration of the bucket in nanoseconds
+     */
+    private void writeBucket(long durationNs) {
+        if (maxBits == 0) {
+            return;
+        }
+        StringBuilder row = new StringBuilder();
+        row.append(ownId).append(',').append(targetId).append(',').append(bucketStart).append(',').append(durationNs).append(',');
+        row.append((double) weightedBitsNs / durationNs).append(',').append(maxBits).append(',');
+        for (int i = 0; i < histogramNs.length; i++) {
+            if (i > 0) {
+                row.append(';');
+            }
+            row.append(histogramNs[i]);
+        }
+        row.append('\n');
+        try {
+            writer.write(row.toString());
+        } catch (IOException e) {
+            throw new LogFailureException(e);
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package ch.ethz.systems.netbench.core.log;
 
+import ch.ethz.systems.netbench.core.SimulationContext;
 import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.config.NBProperties;
 import ch.ethz.systems.netbench.core.run.MainFromProperties;
@@ -11,47 +12,117 @@ import java.util.*;
 
 public class SimulationLogger {
 
-    // Main token identifying the run log folder
-    private static String runFolderName;
-    private static String baseDir;
-
-    // Access to files for logging (are kept open during simulation run)
-    private static BufferedWriter writerRunInfoFile;
-    private static BufferedWriter writerFlowCompletionCsvFile;
-    private static BufferedWriter writerFlowThroughputFile;
-    private static BufferedWriter writerFlowCompletionFile;
-    private static BufferedWriter writerPortQueueStateFile;
-    private static BufferedWriter writerPortUtilizationFile;
-    private static BufferedWriter writerPortUtilizationCsvFile;
-    private static Map<String, BufferedWriter> writersAdded = new HashMap<>();
-
-    // Specific component loggers
-    private static List<PortLogger> portLoggers = new ArrayList<>();
-    private static List<FlowLogger> flowLoggers = new ArrayList<>();
-    private static List<LoggerCallback> callbacks = new ArrayList<>();
-
-    // Statistic counters
-    private static Map<String, Long> statisticCounters = new HashMap<>();
-
-    // Print streams used
+    // Header of the port queue state log
+    private static final String PORT_QUEUE_STATE_HEADER = "ownId,targetId,queueLength,bufferOccupiedBits,absTimeNs\n";
+
+    /**
+     * Logger state of a single run, which is kept in its {@link SimulationContext simulation context}.
+     */
+    public static final class State {
+
+        // Main token identifying the run log folder
+        private String runFolderName;
+        private String baseDir;
+
+        // Access to files for logging (are kept open during simulation run)
+        private BufferedWriter writerRunInfoFile;
+        private BufferedWriter writerFlowCompletionCsvFile;
+        private BufferedWriter writerFlowThroughputFile;
+        private BufferedWriter writerFlowCompletionFile;
+        private BufferedWriter writerPortQueueStateFile;
+        private BufferedWriter writerPortUtilizationFile;
+        private BufferedWriter writerPortUtilizationCsvFile;
+        private final Map<String, BufferedWriter> writersAdded = new HashMap<>();
+
+        // Binary log writers (only used if binary logging is enabled)
+        private BinaryLogWriter binaryFlowThroughputLog;
+        private BinaryLogWriter binaryPortQueueStateLog;
+
+        // Specific component loggers
+        private final List<PortLogger> portLoggers = new ArrayList<>();
+        private final List<FlowLogger> flowLoggers = new ArrayList<>();
+        private final List<LoggerCallback> callbacks = new ArrayList<>();
+
+        // Aggregated flow completion statistics
+        private FlowCompletionStatistics flowCompletionStatistics = new FlowCompletionStatistics(null);
+
+        // Statistic counters
+        private final Map<String, Long> statisticCounters = new HashMap<>();
+
+        // Console output of the run (copied from the standard output and error streams)
+        private OutputStream consoleFileOutputStream;
+
+        // Settings
+        private boolean logFlowCompletionPerFlowEnabled;
+        private boolean logHumanReadableFlowCompletionEnabled;
+        private boolean logBinaryEnabled;
+
+    }
+
+    /**
+     * Logger state of a run which is accumulated during the simulation, i.e. the component
+     * loggers and statistics, without any of the log files. It is carried over when the
+     * run is saved to and restored from a checkpoint.
+     */
+    public static final class Accumulators implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<PortLogger> portLoggers;
+        private final List<FlowLogger> flowLoggers;
+        private final List<LoggerCallback> callbacks;
+        private final FlowCompletionStatistics flowCompletionStatistics;
+        private final Map<String, Long> statisticCounters;
+
+        private Accumulators(State s) {
+            this.portLoggers = new ArrayList<>(s.portLoggers);
+            this.flowLoggers = new ArrayList<>(s.flowLoggers);
+            this.callbacks = new ArrayList<>(s.callbacks);
+            this.flowCompletionStatistics = s.flowCompletionStatistics;
+            this.statisticCounters = new HashMap<>(s.statisticCounters);
+        }
+
+    }
+
+    // Console output of all runs, which copies to the console file of the run of the printing thread.
+    // These are shared by all runs, as the standard streams they replace are of the whole JVM.
+    // They are only accessed while holding the class lock (open and close of the console),
+    // counting the runs with an open console, such that the streams are diverted once for
+    // all concurrent runs and set back by the last one to close.
     private static PrintStream originalOutOutputStream;
     private static PrintStream originalErrOutputStream;
-    private static OutputStream underlyingFileOutputStream;
+    private static int numOpenConsoles = 0;
 
-    // Settings
-    private static boolean logHumanReadableFlowCompletionEnabled;
+    /**
+     * Retrieve the logger state of the run of the calling thread.
+     *
+     * @return  Logger state
+     */
+    private static State state() {
+        return SimulationContext.current().getLoggerState();
+    }
 
     /**
      * Increase a basic statistic counter with the given name by one.
      *
      * @param name  Statistic name
      */
-    public static void increaseStatisticCounter(String name) {
-        Long val = statisticCounters.get(name);
+    public static void increaseStatisticCounter(final String name) {
+        if (Simulator.isRunningInPartition()) {
+            Simulator.runSerially(new Runnable() {
+                @Override
+                public void run() {
+                    increaseStatisticCounter(name);
+                }
+            });
+            return;
+        }
+        State s = state();
+        Long val = s.statisticCounters.get(name);
         if (val == null) {
-            statisticCounters.put(name, 1L);
+            s.statisticCounters.put(name, 1L);
         } else {
-            statisticCounters.put(name, val + 1L);
+            s.statisticCounters.put(name, val + 1L);
         }
     }
 
@@ -63,7 +134,8 @@ public class SimulationLogger {
      * @param logger    Port logger instance
      */
     static void registerPortLogger(PortLogger logger) {
-        portLoggers.add(logger);
+        State s = state();
+        s.portLoggers.add(logger);
     }
 
     /**
@@ -73,8 +145,41 @@ public class SimulationLogger {
      *
      * @param logger    Flow logger instance
      */
-    static void registerFlowLogger(FlowLogger logger) {
-        flowLoggers.add(logger);
+    static void registerFlowLogger(final FlowLogger logger) {
+        if (Simulator.isRunningInPartition()) {
+            Simulator.runSerially(new Runnable() {
+                @Override
+                public void run() {
+                    registerFlowLogger(logger);
+                }
+            });
+            return;
+        }
+        State s = state();
+        s.flowCompletionStatistics.flowStarted(logger.getSourceId(), logger.getTargetId(), logger.getFlowSizeByte());
+        if (s.logFlowCompletionPerFlowEnabled) {
+            s.flowLoggers.add(logger);
+        }
+    }
+
+    /**
+     * Log that a flow has been completed, such that it is
+     * included in the flow completion statistics.
+     *
+     * @param logger    Flow logger instance
+     */
+    static void logFlowCompleted(final FlowLogger logger) {
+        if (Simulator.isRunningInPartition()) {
+            Simulator.runSerially(new Runnable() {
+                @Override
+                public void run() {
+                    logFlowCompleted(logger);
+                }
+            });
+            return;
+        }
+        State s = state();
+        s.flowCompletionStatistics.flowCompleted(logger.getSourceId(), logger.getTargetId(), logger.getFlowSizeByte(), logger.getFlowEndTime() - logger.getFlowStartTime());
     }
 
     /**
@@ -83,7 +188,8 @@ public class SimulationLogger {
      * @return  Full run folder path
      */
     public static String getRunFolderFull() {
-        return baseDir + "/" + runFolderName;
+        State s = state();
+        return s.baseDir + "/" + s.runFolderName;
     }
 
     /**
@@ -99,10 +205,12 @@ public class SimulationLogger {
      * @param tempRunConfiguration  Temporary run configuration (not yet centrally loaded)
      */
     public static void open(NBProperties tempRunConfiguration) {
+        State s = state();
 
         // Settings
         String specificRunFolderName = null;
         String specificRunFolderBaseDirectory = null;
+        String podIdFilename = null;
         if (tempRunConfiguration != null) {
             // logPacketBurstGapEnabled = tempRunConfiguration.getBooleanPropertyWithDefault("enable_log_packet_burst_gap", false);
 
@@ -110,23 +218,40 @@ public class SimulationLogger {
             specificRunFolderName = tempRunConfiguration.getPropertyWithDefault("run_folder_name", null);
             specificRunFolderBaseDirectory = tempRunConfiguration.getPropertyWithDefault("run_folder_base_dir", null);
 
-            // Enabling human readable version
-            logHumanReadableFlowCompletionEnabled = tempRunConfiguration.getBooleanPropertyWithDefault("enable_generate_human_readable_flow_completion_log", true);
+            // Enabling the log of every flow (by default only for the flow-level transport layers,
+            // of which the per-flow completion is the main output), and its human readable version
+            String transportLayer = tempRunConfiguration.getPropertyWithDefault("transport_layer", "");
+            boolean flowLevel = transportLayer.equals("fluid") || transportLayer.equals("hybrid_simple_dctcp");
+            s.logFlowCompletionPerFlowEnabled = tempRunConfiguration.getBooleanPropertyWithDefault("enable_log_flow_completion_per_flow", flowLevel);
+            s.logHumanReadableFlowCompletionEnabled = tempRunConfiguration.getBooleanPropertyWithDefault("enable_generate_human_readable_flow_completion_log", true);
+
+            // Flow completion statistics per pod pair
+            if (tempRunConfiguration.getBooleanPropertyWithDefault("enable_log_flow_completion_per_pod_pair", false)) {
+                podIdFilename = tempRunConfiguration.getPropertyOrFail("pod_id_filename");
+            }
+
+            // Write the high-volume logs asynchronously in binary format
+            s.logBinaryEnabled = tempRunConfiguration.getBooleanPropertyWithDefault("enable_log_binary", false);
+
+        } else {
+            s.logFlowCompletionPerFlowEnabled = false;
+            s.logBinaryEnabled = false;
 
         }
+        s.flowCompletionStatistics = new FlowCompletionStatistics(podIdFilename);
 
         // Overwrite if run folder name was specified in run configuration
         if (specificRunFolderName == null) {
-            runFolderName = "nameless_run_" + new SimpleDateFormat("yyyy-MM-dd--HH'h'mm'm'ss's'").format(new Date());
+            s.runFolderName = "nameless_run_" + new SimpleDateFormat("yyyy-MM-dd--HH'h'mm'm'ss's'").format(new Date());
         } else {
-            runFolderName = specificRunFolderName;
+            s.runFolderName = specificRunFolderName;
         }
 
         // Overwrite if run folder name was specified in run configuration
         if (specificRunFolderBaseDirectory == null) {
-            baseDir = "./temp";
+            s.baseDir = "./temp";
         } else {
-            baseDir = specificRunFolderBaseDirectory;
+            s.baseDir = specificRunFolderBaseDirectory;
         }
 
         try {
@@ -135,30 +260,41 @@ public class SimulationLogger {
             new File(getRunFolderFull()).mkdirs();
 
             // Copy console output to the run folder
-            FileOutputStream fosOS = new FileOutputStream(getRunFolderFull() + "/console.txt");
-            TeeOutputStream customOutputStreamOut = new TeeOutputStream(System.out, fosOS);
-            TeeOutputStream customOutputStreamErr = new TeeOutputStream(System.err, fosOS);
-            underlyingFileOutputStream = fosOS;
-            originalOutOutputStream = System.out;
-            originalErrOutputStream = System.err;
-            System.setOut(new PrintStream(customOutputStreamOut));
-            System.setErr(new PrintStream(customOutputStreamErr));
+            s.consoleFileOutputStream = new FileOutputStream(getRunFolderFull() + "/console.txt");
+            openConsole();
 
             // Info
-            writerRunInfoFile = openWriter("initialization.info");
+            s.writerRunInfoFile = openWriter("initialization.info");
 
             // Port log writers
-            writerPortQueueStateFile = openWriter("port_queue_length.csv.log");
-            //   add log's header
-            writerPortQueueStateFile.write("ownId,targetId,queueLength,bufferOccupiedBits,absTimeNs\n");
+            if (s.logBinaryEnabled) {
+                s.writerPortQueueStateFile = null;
+                s.binaryPortQueueStateLog = openBinaryWriter("port_queue_length.bin.log", 5, PORT_QUEUE_STATE_HEADER);
+            } else {
+                s.binaryPortQueueStateLog = null;
+                s.writerPortQueueStateFile = openWriter("port_queue_length.csv.log");
+                //   add log's header
+                s.writerPortQueueStateFile.write(PORT_QUEUE_STATE_HEADER);
+            }
 
-            writerPortUtilizationCsvFile = openWriter("port_utilization.csv.log");
-            writerPortUtilizationFile = openWriter("port_utilization.log");
+            s.writerPortUtilizationCsvFile = openWriter("port_utilization.csv.log");
+            s.writerPortUtilizationFile = openWriter("port_utilization.log");
 
             // Flow log writers
-            writerFlowThroughputFile = openWriter("flow_throughput.csv.log");
-            writerFlowCompletionCsvFile = openWriter("flow_completion.csv.log");
-            writerFlowCompletionFile = openWriter("flow_completion.log");
+            if (s.logBinaryEnabled) {
+                s.writerFlowThroughputFile = null;
+                s.binaryFlowThroughputLog = openBinaryWriter("flow_throughput.bin.log", 6, "");
+            } else {
+                s.binaryFlowThroughputLog = null;
+                s.writerFlowThroughputFile = openWriter("flow_throughput.csv.log");
+            }
+            if (s.logFlowCompletionPerFlowEnabled) {
+                s.writerFlowCompletionCsvFile = openWriter("flow_completion.csv.log");
+                s.writerFlowCompletionFile = openWriter("flow_completion.log");
+            } else {
+                s.writerFlowCompletionCsvFile = null;
+                s.writerFlowCompletionFile = null;
+            }
 
             // Writer out the final properties' values
             if (tempRunConfiguration != null) {
@@ -173,13 +309,50 @@ public class SimulationLogger {
 
     }
 
+    /**
+     * Divert the standard output and error streams such that they are also copied to the
+     * console file of the run of the printing thread (if the first run to open its console).
+     */
+    private static synchronized void openConsole() {
+        if (numOpenConsoles == 0) {
+            originalOutOutputStream = System.out;
+            originalErrOutputStream = System.err;
+            System.setOut(new PrintStream(new TeeOutputStream(originalOutOutputStream, new ConsoleFileOutputStream())));
+            System.setErr(new PrintStream(new TeeOutputStream(originalErrOutputStream, new ConsoleFileOutputStream())));
+        }
+        numOpenConsoles++;
+    }
+
+    /**
+     * Set the diverted print streams back (if the last run to close its console).
+     */
+    private static synchronized void closeConsole() {
+        System.out.flush();
+        System.err.flush();
+        numOpenConsoles--;
+        if (numOpenConsoles == 0) {
+            System.setOut(originalOutOutputStream);
+            System.setErr(originalErrOutputStream);
+        }
+    }
+
     /**
      * Register the call back of a logger before the close of the simulation logger.
      *
      * @param callback  Callback instance
      */
-    public static void registerCallbackBeforeClose(LoggerCallback callback) {
-        callbacks.add(callback);
+    public static void registerCallbackBeforeClose(final LoggerCallback callback) {
+        if (Simulator.isRunningInPartition()) {
+            Simulator.runSerially(new Runnable() {
+                @Override
+                public void run() {
+                    registerCallbackBeforeClose(callback);
+                }
+            });
+            return;
+        }
+        State s = state();
+        s.callbacks.add(callback);
     }
 
     /**
@@ -199,74 +372,135 @@ public class SimulationLogger {
         }
     }
 
+    /**
+     * Open an asynchronous binary log writer in the run directory.
+     * Its content can be decoded to CSV using {@link BinaryLogDecoder}.
+     *
+     * @param logFileName   Log file name
+     * @param numColumns    Number of columns per record
+     * @param csvHeader     Header of the equivalent CSV log
+     *
+     * @return Binary writer of the log
+     */
+    private static BinaryLogWriter openBinaryWriter(String logFileName, int numColumns, String csvHeader) {
+        return new BinaryLogWriter(getRunFolderFull() + "/" + logFileName, numColumns, csvHeader);
+    }
+
     /**
      * Create (or fetch) an external writer, which can be used to create your own personal logs.
+     * Writes from within a partition of the parallel engine are written in the order of the
+     * sequential engine.
      *
      * @param logFileName   Log file name
      *
      * @return Writer instance (already opened, is automatically closed when calling {@link #close()})
      */
     public static BufferedWriter getExternalWriter(String logFileName) {
-        BufferedWriter writer = writersAdded.get(logFileName);
-        if (writer == null) {
-            writer = openWriter(logFileName);
-            writersAdded.put(logFileName, writer);
+        State s = state();
+        synchronized (s.writersAdded) {
+            BufferedWriter writer = s.writersAdded.get(logFileName);
+            if (writer == null) {
+                try {
+                    writer = new SerialWriter(new FileWriter(getRunFolderFull() + "/" + logFileName));
+                } catch (IOException e) {
+                    throw new LogFailureException(e);
+                }
+                s.writersAdded.put(logFileName, writer);
+            }
+            return writer;
+        }
+    }
+
+    /**
+     * Retrieve the writer of the aggregated port queue state log, of which the header is written when created.
+     *
+     * @return Writer instance (is automatically closed when calling {@link #close()})
+     */
+    static BufferedWriter getPortQueueStateAggregateWriter() {
+        State s = state();
+        synchronized (s.writersAdded) {
+            boolean exists = s.writersAdded.containsKey("port_queue_state.aggregated.csv.log");
+            BufferedWriter writer = getExternalWriter("port_queue_state.aggregated.csv.log");
+            if (!exists) {
+                try {
+                    writer.write(PortQueueStateAggregator.HEADER);
+                } catch (IOException e) {
+                    throw new LogFailureException(e);
+                }
+            }
+            return writer;
         }
-        return writer;
     }
 
     /**
      * Log summaries and close log file writers.
      */
     public static void close() {
+        State s = state();
 
         // Callback loggers to finalize their logs
-        for (LoggerCallback callback : callbacks) {
+        for (LoggerCallback callback : s.callbacks) {
             callback.callBeforeClose();
         }
-        callbacks.clear();
+        s.callbacks.clear();
+        for (PortLogger logger : s.portLoggers) {
+            logger.finishQueueState();
+        }
 
         // Most important logs
-        logFlowSummary();
+        if (s.logFlowCompletionPerFlowEnabled) {
+            logFlowSummary();
+        }
         logPortUtilization();
 
         try {
 
+            // Write the flow completion statistics
+            BufferedWriter writerFlowCompletionStatistics = openWriter("flow_completion.statistics");
+            s.flowCompletionStatistics.write(writerFlowCompletionStatistics);
+            writerFlowCompletionStatistics.close();
+            s.flowCompletionStatistics = new FlowCompletionStatistics(null);
+
             // Write basic statistics about the run
             BufferedWriter writerStatistics = openWriter("statistics.log");
             ArrayList<String> stats = new ArrayList<>();
-            stats.addAll(statisticCounters.keySet());
+            stats.addAll(s.statisticCounters.keySet());
             Collections.sort(stats);
-            for (String s : stats) {
-                writerStatistics.write(s + ": " + statisticCounters.get(s) + "\n");
+            for (String stat : stats) {
+                writerStatistics.write(stat + ": " + s.statisticCounters.get(stat) + "\n");
             }
             writerStatistics.close();
 
             // Close *all* the running log files
-            writerRunInfoFile.close();
-            writerFlowCompletionCsvFile.close();
-            writerFlowThroughputFile.close();
-            writerPortQueueStateFile.close();
-            writerPortUtilizationFile.close();
-            writerPortUtilizationCsvFile.close();
-            writerFlowCompletionFile.close();
+            s.writerRunInfoFile.close();
+            if (s.logFlowCompletionPerFlowEnabled) {
+                s.writerFlowCompletionCsvFile.close();
+                s.writerFlowCompletionFile.close();
+            }
+            if (s.logBinaryEnabled) {
+                s.binaryFlowThroughputLog.close();
+                s.binaryPortQueueStateLog.close();
+            } else {
+                s.writerFlowThroughputFile.close();
+                s.writerPortQueueStateFile.close();
+            }
+            s.writerPortUtilizationFile.close();
+            s.writerPortUtilizationCsvFile.close();
 
             // Also added ones are closed automatically at the end
-            for (BufferedWriter writer : writersAdded.values()) {
+            for (BufferedWriter writer : s.writersAdded.values()) {
                 writer.close();
             }
-            writersAdded.clear();
+            s.writersAdded.clear();
 
             // Set diverted print streams back
-            System.out.flush();
-            System.err.flush();
-            System.setOut(originalOutOutputStream);
-            System.setErr(originalErrOutputStream);
-            underlyingFileOutputStream.close();
+            closeConsole();
+            s.consoleFileOutputStream.close();
+            s.consoleFileOutputStream = null;
 
             // Clear loggers
-            portLoggers.clear();
-            flowLoggers.clear();
+            s.portLoggers.clear();
+            s.flowLoggers.clear();
 
         } catch (IOException e) {
             throw new LogFailureException(e);
@@ -274,6 +508,34 @@ public class SimulationLogger {
 
     }
 
+    /**
+     * Retrieve the accumulated logger state of the run.
+     *
+     * @return  Accumulated logger state
+     */
+    public static Accumulators getAccumulators() {
+        return new Accumulators(state());
+    }
+
+    /**
+     * Replace the accumulated logger state of the run (e.g. by that of a restored checkpoint),
+     * such that it is included in the logs written when closing.
+     *
+     * @param accumulators  Accumulated logger state
+     */
+    public static void restoreAccumulators(Accumulators accumulators) {
+        State s = state();
+        s.portLoggers.clear();
+        s.portLoggers.addAll(accumulators.portLoggers);
+        s.flowLoggers.clear();
+        s.flowLoggers.addAll(accumulators.flowLoggers);
+        s.callbacks.clear();
+        s.callbacks.addAll(accumulators.callbacks);
+        s.flowCompletionStatistics = accumulators.flowCompletionStatistics;
+        s.statisticCounters.clear();
+        s.statisticCounters.putAll(accumulators.statisticCounters);
+    }
+
     /**
      * Log a general parameter to indicate some information
      * about what was done in the run.
@@ -282,9 +544,10 @@ public class SimulationLogger {
      * @param value     Value string
      */
     public static void logInfo(String key, String value) {
+        State s = state();
         try {
-            writerRunInfoFile.write(key + ": " + value + "\n");
-            writerRunInfoFile.flush();
+            s.writerRunInfoFile.write(key + ": " + value + "\n");
+            s.writerRunInfoFile.flush();
         } catch (IOException e) {
             throw new LogFailureException(e);
         }
@@ -301,9 +564,23 @@ public class SimulationLogger {
      * @param absStartTimeNs    Interval start in nanoseconds
      * @param absEndTimeNs      Interval end in nanoseconds
      */
-    static void logFlowThroughput(long flowId, int sourceId, int targetId, long amountBytes, long absStartTimeNs, long absEndTimeNs) {
+    static void logFlowThroughput(final long flowId, final int sourceId, final int targetId, final long amountBytes, final long absStartTimeNs, final long absEndTimeNs) {
+        if (Simulator.isRunningInPartition()) {
+            Simulator.runSerially(new Runnable() {
+                @Override
+                public void run() {
+                    logFlowThroughput(flowId, sourceId, targetId, amountBytes, absStartTimeNs, absEndTimeNs);
+                }
+            });
+            return;
+        }
+        State s = state();
+        if (s.logBinaryEnabled) {
+            s.binaryFlowThroughputLog.write(flowId, sourceId, targetId, amountBytes, absStartTimeNs, absEndTimeNs);
+            return;
+        }
         try {
-            writerFlowThroughputFile.write(flowId + "," + sourceId + "," + targetId + "," + amountBytes + "," + absStartTimeNs + "," + absEndTimeNs + "\n");
+            s.writerFlowThroughputFile.write(flowId + "," + sourceId + "," + targetId + "," + amountBytes + "," + absStartTimeNs + "," + absEndTimeNs + "\n");
         } catch (IOException e) {
             throw new LogFailureException(e);
         }
@@ -318,9 +595,23 @@ public class SimulationLogger {
      * @param bufferOccupiedBits    Amount of bits occupied in the buffer
      * @param absTimeNs             Absolute timestamp in nanoseconds since simulation epoch
      */
-    static void logPortQueueState(long ownId, long targetId, int queueLength, long bufferOccupiedBits, long absTimeNs) {
+    static void logPortQueueState(final long ownId, final long targetId, final int queueLength, final long bufferOccupiedBits, final long absTimeNs) {
+        if (Simulator.isRunningInPartition()) {
+            Simulator.runSerially(new Runnable() {
+                @Override
+                public void run() {
+                    logPortQueueState(ownId, targetId, queueLength, bufferOccupiedBits, absTimeNs);
+                }
+            });
+            return;
+        }
+        State s = state();
+        if (s.logBinaryEnabled) {
+            s.binaryPortQueueStateLog.write(ownId, targetId, queueLength, bufferOccupiedBits, absTimeNs);
+            return;
+        }
         try {
-            writerPortQueueStateFile.write(ownId + "," + targetId + "," + queueLength + "," + bufferOccupiedBits + "," + absTimeNs + "\n");
+            s.writerPortQueueStateFile.write(ownId + "," + targetId + "," + queueLength + "," + bufferOccupiedBits + "," + absTimeNs + "\n");
         } catch (IOException e) {
             throw new LogFailureException(e);
         }
@@ -330,11 +621,12 @@ public class SimulationLogger {
      * Print a human-readable summary of all the flows and whether they were completed.
      */
     private static void logFlowSummary() {
+        State s = state();
         try {
 
             // Header
-            if (logHumanReadableFlowCompletionEnabled) {
-                writerFlowCompletionFile.write(
+            if (s.logHumanReadableFlowCompletionEnabled) {
+                s.writerFlowCompletionFile.write(
                         String.format(
                                 "%-11s%-6s%-6s%-13s%-13s%-15s%-10s\n",
                                 "FlowId",
@@ -349,7 +641,7 @@ public class SimulationLogger {
             }
 
             // Sort them based on starting time
-            Collections.sort(flowLoggers, new Comparator<FlowLogger>() {
+            Collections.sort(s.flowLoggers, new Comparator<FlowLogger>() {
                 @Override
                 public int compare(FlowLogger o1, FlowLogger o2) {
                     long delta = o2.getFlowStartTime() - o1.getFlowStartTime();
@@ -363,10 +655,10 @@ public class SimulationLogger {
                 }
             });
 
-            for (FlowLogger logger : flowLoggers) {
+            for (FlowLogger logger : s.flowLoggers) {
 
-                if (logHumanReadableFlowCompletionEnabled) {
-                    writerFlowCompletionFile.write(
+                if (s.logHumanReadableFlowCompletionEnabled) {
+                    s.writerFlowCompletionFile.write(
                             String.format(
                                     "%-11s%-6s%-6s%-13s%-13s%-8.2f%-7s%.2f%%\n",
                                     logger.getFlowId(),
@@ -382,7 +674,7 @@ public class SimulationLogger {
                 }
 
                 // flowId, sourceId, targetId, sentBytes, totalBytes, flowStartTime, flowEndTime, flowDuration, isCompleted
-                writerFlowCompletionCsvFile.write(
+                s.writerFlowCompletionCsvFile.write(
                         logger.getFlowId() + "," +
                         logger.getSourceId() + "," +
                         logger.getTargetId() + "," +
@@ -406,11 +698,12 @@ public class SimulationLogger {
      * Print a human-readable summary of all the port utilization.
      */
     private static void logPortUtilization() {
+        State s = state();
 
         try {
 
             // Header
-            writerPortUtilizationFile.write(
+            s.writerPortUtilizationFile.write(
                     String.format(
                             "%-6s%-6s%-9s%-16s%s\n",
                             "Src",
@@ -422,7 +715,7 @@ public class SimulationLogger {
             );
 
             // Sort them based on utilization
-            Collections.sort(portLoggers, new Comparator<PortLogger>() {
+            Collections.sort(s.portLoggers, new Comparator<PortLogger>() {
                 @Override
                 public int compare(PortLogger o1, PortLogger o2) {
                     long delta = o2.getUtilizedNs() - o1.getUtilizedNs();
@@ -437,15 +730,15 @@ public class SimulationLogger {
             });
 
             // Data entries
-            for (PortLogger logger : portLoggers) {
-                writerPortUtilizationCsvFile.write(
+            for (PortLogger logger : s.portLoggers) {
+                s.writerPortUtilizationCsvFile.write(
                         logger.getOwnId() + "," +
                         logger.getTargetId() + "," +
                         (logger.isAttachedToServer() ? "Y" : "N") + "," +
                         logger.getUtilizedNs() + "," +
                         (((double) logger.getUtilizedNs() / (double) Simulator.getCurrentTime()) * 100) + "\n"
                 );
-                writerPortUtilizationFile.write(
+                s.writerPortUtilizationFile.write(
                         String.format(
                                 "%-6d%-6d%-9s%-16d%.2f%%\n",
                                 logger.getOwnId(),
@@ -526,4 +819,85 @@ public class SimulationLogger {
         throwaway();
     }
 
+    /**
+     * Output stream to the console file of the run of the writing thread
+     * (writes of threads of which the run has no open console are dropped).
+     */
+    private static class ConsoleFileOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            OutputStream out = state().consoleFileOutputStream;
+            if (out != null) {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            OutputStream out = state().consoleFileOutputStream;
+            if (out != null) {
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            OutputStream out = state().consoleFileOutputStream;
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+    }
+
+    /**
+     * Buffered writer of which the writes from within a partition of the parallel
+     * engine are deferred, such that they are written in sequential event order.
+     */
+    private static class SerialWriter extends BufferedWriter {
+
+        private SerialWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            if (Simulator.isRunningInPartition()) {
+                write(String.valueOf((char) c), 0, 1);
+            } else {
+                super.write(c);
+            }
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (Simulator.isRunningInPartition()) {
+                write(new String(cbuf, off, len), 0, len);
+            } else {
+                super.write(cbuf, off, len);
+            }
+        }
+
+        @Override
+        public void write(String s, int off, int len) throws IOException {
+            if (Simulator.isRunningInPartition()) {
+                final String str = s.substring(off, off + len);
+                Simulator.runSerially(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            SerialWriter.super.write(str, 0, str.length());
+                        } catch (IOException e) {
+                            throw new LogFailureException(e);
+                        }
+                    }
+                });
+            } else {
+                super.write(s, off, len);
+            }
+        }
+
+    }
+
 }
@@ -1,15 +1,25 @@
 package ch.ethz.systems.netbench.core.network;
 
+import ch.ethz.systems.netbench.core.SimulationContext;
 import ch.ethz.systems.netbench.core.Simulator;
 
-public abstract class Event implements Comparable<Event> {
+import java.io.Serializable;
+
+public abstract class Event implements Comparable<Event>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Queue index of an event which is not pending in any event queue
+    public static final int NOT_QUEUED = -1;
 
     // Added for absolute determinism in the event priority queue
-    private static long c = 0;
-    private final long eid;
+    private long eid;
 
     // Time to trigger
-    private final long time;
+    private long time;
+
+    // Position in the event queue (maintained by the event queue implementation)
+    private int queueIndex = NOT_QUEUED;
 
     /**
      * Create event which will happen the given amount of nanoseconds later.
@@ -17,9 +27,35 @@ public abstract class Event implements Comparable<Event> {
      * @param timeFromNowNs     Time it will take before happening from now in nanoseconds
      */
     public Event(long timeFromNowNs) {
+        SimulationContext context = SimulationContext.current();
+        this.time = context.getCurrentTime() + timeFromNowNs;
+        this.eid = context.takeEventId(this);
+    }
+
+    /**
+     * Create event which will happen the given amount of nanoseconds later,
+     * which breaks ties at equal time using the given identifier instead
+     * of the next one of the run.
+     *
+     * @param timeFromNowNs     Time it will take before happening from now in nanoseconds
+     * @param eid               Identifier used to order events happening at the same time
+     */
+    protected Event(long timeFromNowNs, long eid) {
         this.time = Simulator.getTimeFromNow(timeFromNowNs);
-        this.eid = c;
-        c++;
+        this.eid = eid;
+    }
+
+    /**
+     * Re-initialize the event such that it is indistinguishable from one newly created
+     * at this moment. Only to be used to recycle an event after it has been triggered.
+     *
+     * @param timeFromNowNs     Time it will take before happening from now in nanoseconds
+     */
+    protected final void reinitialize(long timeFromNowNs) {
+        SimulationContext context = SimulationContext.current();
+        this.time = context.getCurrentTime() + timeFromNowNs;
+        this.eid = context.takeEventId(this);
+        this.queueIndex = NOT_QUEUED;
     }
 
     /**
@@ -38,6 +74,44 @@ public abstract class Event implements Comparable<Event> {
         return time;
     }
 
+    /**
+     * Retrieve the identifier used to order events happening at the same time.
+     *
+     * @return  Event identifier
+     */
+    public final long getEventId() {
+        return eid;
+    }
+
+    /**
+     * Replace the (provisional) identifier by the next one of the run.
+     * Only to be used by the parallel engine, which assigns the identifiers of events
+     * created in partitions in the order in which the sequential engine would have.
+     */
+    public final void assignNextEventId() {
+        this.eid = Simulator.takeEventId(this);
+    }
+
+    /**
+     * Retrieve the position of the event in the event queue.
+     * Only to be used by {@link ch.ethz.systems.netbench.core.eventqueue.EventQueue event queue} implementations.
+     *
+     * @return  Queue index ({@link #NOT_QUEUED} if not pending)
+     */
+    public final int getQueueIndex() {
+        return queueIndex;
+    }
+
+    /**
+     * Set the position of the event in the event queue.
+     * Only to be used by {@link ch.ethz.systems.netbench.core.eventqueue.EventQueue event queue} implementations.
+     *
+     * @param queueIndex    Queue index ({@link #NOT_QUEUED} if not pending)
+     */
+    public final void setQueueIndex(int queueIndex) {
+        this.queueIndex = queueIndex;
+    }
+
     @Override
     public int compareTo(Event o) {
         return (this.time < o.time ? -1 : (this.time == o.time ? (this.eid < o.eid ? -1 : (this.eid == o.eid ? 0 : 1)) : 1));
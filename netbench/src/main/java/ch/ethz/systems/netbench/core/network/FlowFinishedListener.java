@@ -0,0 +1,20 @@
+package ch.ethz.systems.netbench.core.network;
+
+/**
+ * Listener to be notified of flows finishing, for example to release
+ * per-flow state kept in network devices.
+ *
+ * @see ch.ethz.systems.netbench.core.Simulator#registerFlowFinishedListener(FlowFinishedListener)
+ */
+public interface FlowFinishedListener {
+
+    /**
+     * Called when a flow has finished.
+     *
+     * @param flowId        Flow identifier
+     * @param endpointA     Network device identifier of one end point of the flow
+     * @param endpointB     Network device identifier of the other end point of the flow
+     */
+    void flowFinished(long flowId, int endpointA, int endpointB);
+
+}
@@ -1,5 +1,7 @@
 package ch.ethz.systems.netbench.core.network;
 
+import java.io.Serializable;
+
 /**
  * A intermediary is used by switches to provide the ability to modify
  * the packets that flow between the network device and the transport layer.
@@ -31,7 +33,9 @@ package ch.ethz.systems.netbench.core.network;
  *      goes through the intermediary first (via {@link #adaptIncoming(Packet) adaptIncoming}).
  *
  */
-public abstract class Intermediary {
+public abstract class Intermediary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // Handle to the parent network device
     private NetworkDevice networkDevice;
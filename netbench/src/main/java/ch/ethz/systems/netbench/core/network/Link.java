@@ -1,10 +1,14 @@
 package ch.ethz.systems.netbench.core.network;
 
+import java.io.Serializable;
+
 /**
  * A link is an abstraction for any (directed) connection
  * between two {@link NetworkDevice network devices}.
  */
-public abstract class Link {
+public abstract class Link implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * Get the time it takes in nanoseconds (ns) for a unit
@@ -30,4 +34,16 @@ public abstract class Link {
      */
     public abstract boolean doesNextTransmissionFail(long packetSizeBits);
 
+    /**
+     * Check whether a transmission over the link can fail at all, i.e. whether
+     * {@link #doesNextTransmissionFail(long)} can ever return true. Output ports
+     * only send packet trains over links of which transmissions cannot fail, as the
+     * failure of each transmission must be determined when the packet is dispatched.
+     *
+     * @return True iff a transmission can fail (by default, unless overridden)
+     */
+    public boolean canTransmissionFail() {
+        return true;
+    }
+
 }
@@ -1,6 +1,9 @@
 package ch.ethz.systems.netbench.core.network;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,7 +21,9 @@ import java.util.Map;
  * {@link Intermediary intermediary}
  * in between the network device and the transport layer.
  */
-public abstract class NetworkDevice {
+public abstract class NetworkDevice implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final TransportLayer transportLayer;
     private final boolean hasTransportLayer;
@@ -86,6 +91,15 @@ public abstract class NetworkDevice {
 
     }
 
+    /**
+     * Retrieve all outgoing ports of this network device.
+     *
+     * @return  Unmodifiable collection of output ports
+     */
+    public Collection<OutputPort> getOutputPorts() {
+        return Collections.unmodifiableCollection(targetIdToOutputPort.values());
+    }
+
     /**
      * Check whether this network device has an outgoing port to the target.
      *
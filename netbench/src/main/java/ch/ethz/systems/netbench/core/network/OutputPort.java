@@ -3,6 +3,7 @@ package ch.ethz.systems.netbench.core.network;
 import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.log.PortLogger;
 
+import java.io.Serializable;
 import java.util.Queue;
 
 /**
@@ -14,12 +15,15 @@ import java.util.Queue;
  * to drop packets depending on their own drop strategy to handle
  * congestion at the port (e.g. tail-drop, RED, ...).
  */
-public abstract class OutputPort {
+public abstract class OutputPort implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // Internal state
     protected boolean isSending;          // True iff the output port is using the medium to send a packet
     protected final Queue<Packet> queue;  // Current queue of packets to send
     protected long bufferOccupiedBits;    // Amount of bits currently occupied of the buffer
+    private double reservedFraction;      // Fraction of the link bandwidth reserved by flows which are not sent as packets
 
     // Constants
     private final int ownId;                            // Own network device identifier
@@ -32,6 +36,20 @@ public abstract class OutputPort {
     // Logging utility
     protected final PortLogger logger;
 
+    // Packet train: consecutive packets which are transmitted back-to-back with a single
+    // dispatch event. The packets after the first remain in the queue until their
+    // transmission starts, which is settled when the train changes; the queue state
+    // getters leave out the packets which have started by then without settling.
+    private final int trainMaxPackets;              // Maximum queued packets of a train (at most 1: disabled)
+    private final long[] trainStartTimes;           // Start time of the transmission of the queued packets of the train
+    private final long[] trainSizeBits;             // Size of the queued packets of the train
+    private final PacketArrivalEvent[] trainArrivalEvents; // Arrival events of the queued packets of the train
+    private int trainNext;                          // Index of the first queued packet of the train which has not started
+    private int trainSize;                          // Number of queued packets of the train
+    private long trainEndTime;                      // Time at which the last packet of the train has been sent completely
+    private boolean trainExtendable;                // True iff a packet directly behind the train can still join it
+    private PacketTrainDispatchedEvent trainEvent;  // Dispatch event of the train (possibly earlier if it has been extended)
+
     /**
      * Constructor.
      *
@@ -41,12 +59,33 @@ public abstract class OutputPort {
      * @param queue                 Queue that governs how packet are stored queued in the buffer
      */
     protected OutputPort(NetworkDevice ownNetworkDevice, NetworkDevice targetNetworkDevice, Link link, Queue<Packet> queue) {
+        this(ownNetworkDevice, targetNetworkDevice, link, queue, 1);
+    }
+
+    /**
+     * Constructor with packet trains, in which the packets queued behind the one being transmitted
+     * are transmitted with a single dispatch event instead of one per packet, as are the packets
+     * which are enqueued while the train is being transmitted. As the queue is FIFO, the times at
+     * which the transmissions start and end are already known at enqueue. The queue state is
+     * the same as without trains, as long as it is only observed via {@link #getQueueSize()} and
+     * {@link #getBufferOccupiedBits()}, the queue is FIFO and {@link #dispatch(Packet)} is not
+     * overridden. Trains are disabled if the queue state is logged, as it would be logged late,
+     * and if transmissions over the link can fail, as the failure of each is determined at dispatch.
+     *
+     * @param ownNetworkDevice      Source network device to which this output port is attached
+     * @param targetNetworkDevice   Target network device that is on the other side of the link
+     * @param link                  Link that this output ports solely governs
+     * @param queue                 Queue that governs how packet are stored queued in the buffer (FIFO)
+     * @param trainMaxPackets       Maximum number of queued packets of a train (at most 1 to disable trains)
+     */
+    protected OutputPort(NetworkDevice ownNetworkDevice, NetworkDevice targetNetworkDevice, Link link, Queue<Packet> queue, int trainMaxPackets) {
 
         // State
         this.queue = queue;
         this.isSending = false;
         this.link = link;
         this.bufferOccupiedBits = 0;
+        this.reservedFraction = 0;
 
         // References
         this.ownNetworkDevice = ownNetworkDevice;
@@ -57,6 +96,17 @@ public abstract class OutputPort {
         // Logging
         this.logger = new PortLogger(this);
 
+        // Packet trains
+        this.trainMaxPackets = logger.isLogQueueStateEnabled() || link.canTransmissionFail() ? 1 : trainMaxPackets;
+        this.trainStartTimes = this.trainMaxPackets > 1 ? new long[this.trainMaxPackets - 1] : null;
+        this.trainSizeBits = this.trainMaxPackets > 1 ? new long[this.trainMaxPackets - 1] : null;
+        this.trainArrivalEvents = this.trainMaxPackets > 1 ? new PacketArrivalEvent[this.trainMaxPackets - 1] : null;
+        this.trainNext = 0;
+        this.trainSize = 0;
+        this.trainEndTime = 0;
+        this.trainExtendable = false;
+        this.trainEvent = null;
+
     }
 
     /**
@@ -83,11 +133,7 @@ public abstract class OutputPort {
             logger.logLinkUtilized(true);
 
             // Add event when sending is finished
-            Simulator.registerEvent(new PacketDispatchedEvent(
-                    packet.getSizeBit() / link.getBandwidthBitPerNs(),
-                    packet,
-                    this
-            ));
+            startTransmission(packet);
 
             // It is now sending again
             isSending = true;
@@ -96,6 +142,11 @@ public abstract class OutputPort {
             bufferOccupiedBits += packet.getSizeBit();
             queue.add(packet);
             logger.logQueueState(queue.size(), bufferOccupiedBits);
+
+            // It joins the train if only packets of the train are queued in front of it
+            if (trainExtendable && queue.size() - 1 == trainSize - trainNext) {
+                extendTrain(packet);
+            }
         }
 
     }
@@ -111,7 +162,7 @@ public abstract class OutputPort {
         // Finished sending packet, the last bit of the packet should arrive the link-delay later
         if (!link.doesNextTransmissionFail(packet.getSizeBit())) {
             Simulator.registerEvent(
-                    new PacketArrivalEvent(
+                    PacketArrivalEvent.create(
                             link.getDelayNs(),
                             packet,
                             targetNetworkDevice
@@ -121,6 +172,41 @@ public abstract class OutputPort {
 
         // Again free to send other packets
         isSending = false;
+        sendNextFromQueue();
+
+    }
+
+    /**
+     * Called when the last packet of a train has been sent completely.
+     * The arrival events of the packets of the train were registered when they joined it
+     * (transmissions over the link cannot fail), so only another packet is started sending if it is available.
+     */
+    void dispatchTrain() {
+
+        // If the train has been extended, it is not yet sent completely
+        long now = Simulator.getCurrentTime();
+        if (now < trainEndTime) {
+            trainEvent.reschedule(trainEndTime - now);
+            Simulator.registerEvent(trainEvent);
+            return;
+        }
+
+        // All packets of the train have started by now
+        settleTrain();
+        trainNext = 0;
+        trainSize = 0;
+        trainExtendable = false;
+
+        // Again free to send other packets
+        isSending = false;
+        sendNextFromQueue();
+
+    }
+
+    /**
+     * Start sending the next packet in the queue if there is one.
+     */
+    private void sendNextFromQueue() {
 
         // Check if there are more in the queue to send
         if (!queue.isEmpty()) {
@@ -131,11 +217,7 @@ public abstract class OutputPort {
             logger.logQueueState(queue.size(), bufferOccupiedBits);
 
             // Register when the packet is actually dispatched
-            Simulator.registerEvent(new PacketDispatchedEvent(
-                    packetFromQueue.getSizeBit() / link.getBandwidthBitPerNs(),
-                    packetFromQueue,
-                    this
-            ));
+            startTransmission(packetFromQueue);
 
             // It is sending again
             isSending = true;
@@ -149,6 +231,188 @@ public abstract class OutputPort {
 
     }
 
+    /**
+     * Start the transmission of a packet, which is no longer in the queue.
+     * With packet trains, it is the head of a new train.
+     *
+     * @param packet    Packet instance
+     */
+    private void startTransmission(Packet packet) {
+        if (trainMaxPackets > 1) {
+            startTrain(packet);
+        } else {
+            Simulator.registerEvent(PacketDispatchedEvent.create(
+                    getTransmissionTimeNs(packet.getSizeBit()),
+                    packet,
+                    this
+            ));
+        }
+    }
+
+    /**
+     * Start the transmission of a packet as the head of a train, which the packets in the queue join
+     * (up to the maximum). The arrivals of all packets are registered now, whereas the queued packets
+     * remain in the queue until their transmission starts.
+     *
+     * @param head  Packet instance which is no longer in the queue
+     */
+    private void startTrain(Packet head) {
+
+        // Head of the train
+        trainNext = 0;
+        trainSize = 0;
+        trainEndTime = Simulator.getTimeFromNow(getTransmissionTimeNs(head.getSizeBit()));
+        trainExtendable = true;
+        registerTrainArrival(head);
+
+        // Queued packets of the train
+        for (Packet packet : queue) {
+            if (trainSize == trainStartTimes.length) {
+                trainExtendable = false;
+                break;
+            }
+            joinTrain(packet);
+        }
+
+        // Single dispatch event at the end of the train
+        long endNs = trainEndTime - Simulator.getCurrentTime();
+        if (trainEvent == null) {
+            trainEvent = new PacketTrainDispatchedEvent(endNs, this);
+        } else {
+            trainEvent.reschedule(endNs);
+        }
+        Simulator.registerEvent(trainEvent);
+
+    }
+
+    /**
+     * Let the packet which has just been enqueued directly behind the train join it.
+     * The dispatch event of the train is not moved: when it is triggered, it is
+     * rescheduled to the end of the extended train.
+     *
+     * @param packet    Packet instance
+     */
+    private void extendTrain(Packet packet) {
+
+        // Reuse the space of the packets of the train which have started
+        settleTrain();
+        if (trainNext == trainSize) {
+            trainNext = 0;
+            trainSize = 0;
+        }
+
+        // If it has the maximum amount of queued packets, the packet (and any behind it) stays out
+        if (trainSize == trainStartTimes.length) {
+            trainExtendable = false;
+        } else {
+            joinTrain(packet);
+        }
+
+    }
+
+    /**
+     * Let a queued packet join the train, being transmitted directly after the current last packet.
+     *
+     * @param packet    Packet instance
+     */
+    private void joinTrain(Packet packet) {
+        trainStartTimes[trainSize] = trainEndTime;
+        trainSizeBits[trainSize] = packet.getSizeBit();
+        trainEndTime += getTransmissionTimeNs(packet.getSizeBit());
+        trainArrivalEvents[trainSize] = registerTrainArrival(packet);
+        trainSize++;
+    }
+
+    /**
+     * Register the arrival at the target device of the packet which is
+     * the last of the train, i.e. sent completely at the end of the train.
+     * Trains are only sent over links of which transmissions cannot fail.
+     *
+     * @param packet    Packet instance
+     *
+     * @return  Arrival event
+     */
+    private PacketArrivalEvent registerTrainArrival(Packet packet) {
+        PacketArrivalEvent event = PacketArrivalEvent.create(trainEndTime - Simulator.getCurrentTime() + link.getDelayNs(), packet, targetNetworkDevice);
+        Simulator.registerEvent(event);
+        return event;
+    }
+
+    /**
+     * Remove the queued packets of the train of which the transmission has started by now from the queue.
+     */
+    private void settleTrain() {
+        long now = Simulator.getCurrentTime();
+        while (trainNext < trainSize && trainStartTimes[trainNext] <= now) {
+            Packet packet = queue.poll();
+            decreaseBufferOccupiedBits(packet.getSizeBit());
+            logger.logQueueState(queue.size(), bufferOccupiedBits);
+            trainArrivalEvents[trainNext] = null; // Recycled once triggered if pooled
+            trainNext++;
+        }
+    }
+
+    /**
+     * End the train with the packet currently being transmitted, such that the packets
+     * of the train which have not yet started are sent as any other queued packet.
+     */
+    private void truncateTrain() {
+        settleTrain();
+        if (trainNext < trainSize) {
+            for (int i = trainNext; i < trainSize; i++) {
+                Simulator.cancelEvent(trainArrivalEvents[i]);
+                trainArrivalEvents[i] = null;
+            }
+            trainEndTime = trainStartTimes[trainNext];
+            trainSize = trainNext;
+            Simulator.cancelEvent(trainEvent);
+            trainEvent.reschedule(trainEndTime - Simulator.getCurrentTime());
+            Simulator.registerEvent(trainEvent);
+        }
+        trainExtendable = false;
+    }
+
+    /**
+     * Determine the time it takes to put a packet onto the link, at the bandwidth
+     * of the link which is not reserved. It is rounded down to whole nanoseconds,
+     * with or without a reservation.
+     *
+     * @param sizeBit   Size of the packet in bits
+     *
+     * @return  Transmission time in nanoseconds
+     */
+    protected long getTransmissionTimeNs(long sizeBit) {
+        if (reservedFraction == 0) {
+            return sizeBit / link.getBandwidthBitPerNs();
+        }
+        return (long) Math.floor(sizeBit / (link.getBandwidthBitPerNs() * (1.0 - reservedFraction)));
+    }
+
+    /**
+     * Reserve a fraction of the link bandwidth for traffic which is not sent as packets
+     * through this port (e.g. fluid background flows). The packets are transmitted at
+     * the remaining bandwidth. As it is a fraction, the reservation scales along if the
+     * bandwidth of the link changes. A packet which is already being transmitted is not affected.
+     *
+     * @param reservedFraction  Reserved fraction of the bandwidth, in [0, 1)
+     */
+    public void setReservedFraction(double reservedFraction) {
+        assert(reservedFraction >= 0 && reservedFraction < 1);
+        if (trainNext < trainSize) {
+            truncateTrain();
+        }
+        this.reservedFraction = reservedFraction;
+    }
+
+    /**
+     * Retrieve the fraction of the link bandwidth reserved for traffic not sent as packets.
+     *
+     * @return  Reserved fraction of the bandwidth
+     */
+    public double getReservedFraction() {
+        return reservedFraction;
+    }
+
     /**
      * Return the network identifier of its own device (to which this output port is attached to).
      *
@@ -185,13 +449,29 @@ public abstract class OutputPort {
     	return targetNetworkDevice;
     }
 
+    /**
+     * Retrieve the link of this port.
+     *
+     * @return  Link instance
+     */
+    public Link getLink() {
+        return link;
+    }
+
     /**
      * Retrieve size of the queue in packets.
      *
      * @return  Queue size in packets
      */
     public int getQueueSize() {
-        return queue.size();
+        int size = queue.size();
+        if (trainNext < trainSize) {
+            long now = Simulator.getCurrentTime();
+            for (int i = trainNext; i < trainSize && trainStartTimes[i] <= now; i++) {
+                size--;
+            }
+        }
+        return size;
     }
 
     /**
@@ -200,7 +480,14 @@ public abstract class OutputPort {
      * @return  Bits currently occupied in the buffer of this output port.
      */
     public long getBufferOccupiedBits() {
-        return bufferOccupiedBits;
+        long occupiedBits = bufferOccupiedBits;
+        if (trainNext < trainSize) {
+            long now = Simulator.getCurrentTime();
+            for (int i = trainNext; i < trainSize && trainStartTimes[i] <= now; i++) {
+                occupiedBits -= trainSizeBits[i];
+            }
+        }
+        return occupiedBits;
     }
 
     @Override
@@ -208,7 +495,7 @@ public abstract class OutputPort {
         return  "OutputPort<" +
                     ownId + " -> " + targetId +
                     ", link: " + link +
-                    ", occupied: " + bufferOccupiedBits +
+                    ", occupied: " + getBufferOccupiedBits() +
                     ", queue size: " + getQueueSize() +
                 ">";
     }
@@ -2,11 +2,15 @@ package ch.ethz.systems.netbench.core.network;
 
 import ch.ethz.systems.netbench.core.Simulator;
 
+import java.io.Serializable;
+
 /**
  * The packet is the unit of transfer through the network.
  * It must be part of a flow and have a fixed size.
  */
-public abstract class Packet implements PacketHeader {
+public abstract class Packet implements PacketHeader, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private int flowletId;
     private final long flowId;
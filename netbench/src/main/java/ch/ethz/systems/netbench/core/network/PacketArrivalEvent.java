@@ -1,12 +1,24 @@
 package ch.ethz.systems.netbench.core.network;
 
+import ch.ethz.systems.netbench.core.SimulationContext;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 /**
  * Event for the complete arrival of a packet in its entirety.
  */
 public class PacketArrivalEvent extends Event {
 
-    private final NetworkDevice arrivalNetworkDevice;
-    private final Packet packet;
+    private static final long serialVersionUID = 1L;
+
+    private NetworkDevice arrivalNetworkDevice;
+    private Packet packet;
+
+    // Pool to which it is returned once triggered (null if not pooled)
+    private transient PacketEventPool pool;
+    PacketArrivalEvent nextFree;
 
     /**
      * Packet arrival event constructor.
@@ -21,13 +33,78 @@ public class PacketArrivalEvent extends Event {
         this.arrivalNetworkDevice = arrivalNetworkDevice;
     }
 
+    /**
+     * Create a packet arrival event, which is taken from the pool of the run if enabled.
+     *
+     * @param timeFromNowNs             Time in simulation nanoseconds from now
+     * @param packet                    Packet instance which will arrive
+     * @param arrivalNetworkDevice      Network device at which the packet arrives
+     *
+     * @return  Packet arrival event
+     *
+     * @see PacketEventPool
+     */
+    public static PacketArrivalEvent create(long timeFromNowNs, Packet packet, NetworkDevice arrivalNetworkDevice) {
+        PacketEventPool pool = SimulationContext.current().getPacketEventPool();
+        if (!pool.isEnabled()) {
+            return new PacketArrivalEvent(timeFromNowNs, packet, arrivalNetworkDevice);
+        }
+        PacketArrivalEvent event = pool.takeArrival();
+        if (event == null) {
+            event = new PacketArrivalEvent(timeFromNowNs, packet, arrivalNetworkDevice);
+            event.pool = pool;
+        } else {
+            event.reinitialize(timeFromNowNs);
+            event.packet = packet;
+            event.arrivalNetworkDevice = arrivalNetworkDevice;
+        }
+        return event;
+    }
+
+    /**
+     * Write the event to a checkpoint, in which it is noted whether it is pooled.
+     *
+     * @param out   Object output stream
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeBoolean(pool != null);
+    }
+
+    /**
+     * Read the event from a checkpoint, such that it is returned to the pool of the current run if it was pooled.
+     *
+     * @param in    Object input stream
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        pool = in.readBoolean() ? SimulationContext.current().getPacketEventPool() : null;
+    }
+
     @Override
     public void trigger() {
         arrivalNetworkDevice.receive(packet);
+        if (pool != null) {
+            packet = null;
+            arrivalNetworkDevice = null;
+            pool.releaseArrival(this);
+        }
+    }
+
+    /**
+     * Retrieve the network device at which the packet arrives.
+     *
+     * @return  Arrival network device
+     */
+    public NetworkDevice getArrivalNetworkDevice() {
+        return arrivalNetworkDevice;
     }
 
     @Override
     public String toString() {
+        if (arrivalNetworkDevice == null) {
+            return "PacketArrivalEvent<released, " + this.getTime() + ">";
+        }
         return "PacketArrivalEvent<" + arrivalNetworkDevice.getIdentifier() + ", " + this.getTime() + ", " + this.packet + ">";
     }
 
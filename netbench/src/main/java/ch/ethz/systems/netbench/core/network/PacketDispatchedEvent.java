@@ -1,13 +1,25 @@
 package ch.ethz.systems.netbench.core.network;
 
+import ch.ethz.systems.netbench.core.SimulationContext;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 /**
  * Event for the dispatch of a packet, i.e. when all of the bits
  * of the packet have been written to the link.
  */
 public class PacketDispatchedEvent extends Event {
 
-    private final OutputPort dispatchPort;
-    private final Packet packet;
+    private static final long serialVersionUID = 1L;
+
+    private OutputPort dispatchPort;
+    private Packet packet;
+
+    // Pool to which it is returned once triggered (null if not pooled)
+    private transient PacketEventPool pool;
+    PacketDispatchedEvent nextFree;
 
     /**
      * Packet dispatched event constructor.
@@ -22,13 +34,78 @@ public class PacketDispatchedEvent extends Event {
         this.dispatchPort = dispatchPort;
     }
 
+    /**
+     * Create a packet dispatched event, which is taken from the pool of the run if enabled.
+     *
+     * @param timeFromNowNs     Time in simulation nanoseconds from now
+     * @param packet            Packet instance which is dispatched
+     * @param dispatchPort      Port that has finished writing the packet to the link
+     *
+     * @return  Packet dispatched event
+     *
+     * @see PacketEventPool
+     */
+    public static PacketDispatchedEvent create(long timeFromNowNs, Packet packet, OutputPort dispatchPort) {
+        PacketEventPool pool = SimulationContext.current().getPacketEventPool();
+        if (!pool.isEnabled()) {
+            return new PacketDispatchedEvent(timeFromNowNs, packet, dispatchPort);
+        }
+        PacketDispatchedEvent event = pool.takeDispatched();
+        if (event == null) {
+            event = new PacketDispatchedEvent(timeFromNowNs, packet, dispatchPort);
+            event.pool = pool;
+        } else {
+            event.reinitialize(timeFromNowNs);
+            event.packet = packet;
+            event.dispatchPort = dispatchPort;
+        }
+        return event;
+    }
+
+    /**
+     * Write the event to a checkpoint, in which it is noted whether it is pooled.
+     *
+     * @param out   Object output stream
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeBoolean(pool != null);
+    }
+
+    /**
+     * Read the event from a checkpoint, such that it is returned to the pool of the current run if it was pooled.
+     *
+     * @param in    Object input stream
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        pool = in.readBoolean() ? SimulationContext.current().getPacketEventPool() : null;
+    }
+
     @Override
     public void trigger() {
         dispatchPort.dispatch(packet);
+        if (pool != null) {
+            packet = null;
+            dispatchPort = null;
+            pool.releaseDispatched(this);
+        }
+    }
+
+    /**
+     * Retrieve the port which dispatches the packet.
+     *
+     * @return  Dispatch output port
+     */
+    public OutputPort getDispatchPort() {
+        return dispatchPort;
     }
 
     @Override
     public String toString() {
+        if (dispatchPort == null) {
+            return "PacketDispatchedEvent<released, " + this.getTime() + ">";
+        }
         return "PacketDispatchedEvent<" + dispatchPort.getOwnId() + " -> " + dispatchPort.getTargetId() + ", " + this.getTime() + ", " + this.packet + ">";
     }
 
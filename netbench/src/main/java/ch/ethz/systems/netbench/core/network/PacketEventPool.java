@@ -0,0 +1,96 @@
+package ch.ethz.systems.netbench.core.network;
+
+/**
+ * Pool of the packet dispatched and arrival events of a run, which
+ * are recycled after they have been triggered. It is only used if
+ * enabled, else every such event is newly allocated.
+ *
+ * Events created by {@link PacketDispatchedEvent#create(long, Packet, OutputPort)}
+ * and {@link PacketArrivalEvent#create(long, Packet, NetworkDevice)} are
+ * taken from the pool, and are returned to it once triggered. As such,
+ * a pooled event must not be referenced after it has been triggered.
+ */
+public final class PacketEventPool {
+
+    // Whether events are pooled
+    private boolean enabled = false;
+
+    // Free events, linked through their next free field
+    private PacketDispatchedEvent freeDispatched = null;
+    private PacketArrivalEvent freeArrival = null;
+
+    /**
+     * Check whether events are pooled.
+     *
+     * @return  True iff enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable the pooling of events. Disabling clears the pool.
+     *
+     * @param enabled   True iff events are to be pooled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            freeDispatched = null;
+            freeArrival = null;
+        }
+    }
+
+    /**
+     * Take a free packet dispatched event.
+     *
+     * @return  Free event (null if none)
+     */
+    PacketDispatchedEvent takeDispatched() {
+        PacketDispatchedEvent event = freeDispatched;
+        if (event != null) {
+            freeDispatched = event.nextFree;
+            event.nextFree = null;
+        }
+        return event;
+    }
+
+    /**
+     * Return a triggered packet dispatched event to the pool.
+     *
+     * @param event     Triggered event
+     */
+    void releaseDispatched(PacketDispatchedEvent event) {
+        if (enabled) {
+            event.nextFree = freeDispatched;
+            freeDispatched = event;
+        }
+    }
+
+    /**
+     * Take a free packet arrival event.
+     *
+     * @return  Free event (null if none)
+     */
+    PacketArrivalEvent takeArrival() {
+        PacketArrivalEvent event = freeArrival;
+        if (event != null) {
+            freeArrival = event.nextFree;
+            event.nextFree = null;
+        }
+        return event;
+    }
+
+    /**
+     * Return a triggered packet arrival event to the pool.
+     *
+     * @param event     Triggered event
+     */
+    void releaseArrival(PacketArrivalEvent event) {
+        if (enabled) {
+            event.nextFree = freeArrival;
+            freeArrival = event;
+        }
+    }
+
+}
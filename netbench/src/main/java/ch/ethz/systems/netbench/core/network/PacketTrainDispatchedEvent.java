@@ -0,0 +1,44 @@
+package ch.ethz.systems.netbench.core.network;
+
+/**
+ * Event for the dispatch of a train of packets, i.e. when all of the bits
+ * of the last packet of the train have been written to the link.
+ * It is reused by its output port for each of its trains.
+ */
+class PacketTrainDispatchedEvent extends Event {
+
+    private static final long serialVersionUID = 1L;
+
+    private final OutputPort dispatchPort;
+
+    /**
+     * Packet train dispatched event constructor.
+     *
+     * @param timeFromNowNs     Time in simulation nanoseconds from now
+     * @param dispatchPort      Port that is writing the train to the link
+     */
+    PacketTrainDispatchedEvent(long timeFromNowNs, OutputPort dispatchPort) {
+        super(timeFromNowNs);
+        this.dispatchPort = dispatchPort;
+    }
+
+    /**
+     * Schedule the event again for another (or truncated) train. It must not be pending.
+     *
+     * @param timeFromNowNs     Time in simulation nanoseconds from now
+     */
+    void reschedule(long timeFromNowNs) {
+        reinitialize(timeFromNowNs);
+    }
+
+    @Override
+    public void trigger() {
+        dispatchPort.dispatchTrain();
+    }
+
+    @Override
+    public String toString() {
+        return "PacketTrainDispatchedEvent<" + dispatchPort.getOwnId() + " -> " + dispatchPort.getTargetId() + ", " + this.getTime() + ">";
+    }
+
+}
@@ -3,7 +3,11 @@ package ch.ethz.systems.netbench.core.network;
 import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.log.FlowLogger;
 
-public abstract class Socket {
+import java.io.Serializable;
+
+public abstract class Socket implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     protected final TransportLayer transportLayer;
     protected long flowId;
@@ -53,7 +57,7 @@ public abstract class Socket {
         // Remove references to the socket after finish
         if (isAllFlowConfirmed()) {
             transportLayer.cleanupSockets(flowId);
-            Simulator.registerFlowFinished(flowId);
+            Simulator.registerFlowFinished(flowId, sourceId, destinationId);
         }
 
     }
@@ -1,7 +1,10 @@
 package ch.ethz.systems.netbench.core.network;
 
+import ch.ethz.systems.netbench.core.SimulationContext;
+import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.ext.basic.IpPacket;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -17,11 +20,9 @@ import java.util.Set;
  * @see NetworkDevice
  * @see Socket
  */
-public abstract class TransportLayer {
+public abstract class TransportLayer implements Serializable {
 
-    // Generator for unique flow identifiers amongst all transport layers
-    private static long flowIdCounter = 0;
-    private static Map<Long, TransportLayer> flowIdToReceiver = new HashMap<>();
+    private static final long serialVersionUID = 1L;
 
     // Map the flow identifier to the responsible socket
     private Map<Long, Socket> flowIdToSocket;
@@ -83,7 +84,7 @@ public abstract class TransportLayer {
         // If the socket does not yet exist, it is an incoming socket
         if (socket == null && !finishedFlowIds.contains(packet.getFlowId())) {
             socket = createSocket(packet.getFlowId(), packet.getSourceId(), -1);
-            flowIdToReceiver.put(packet.getFlowId(), this);
+            SimulationContext.current().getFlowIdToReceiver().put(packet.getFlowId(), this);
             flowIdToSocket.put(packet.getFlowId(), socket);
         }
 
@@ -101,11 +102,22 @@ public abstract class TransportLayer {
      * @param flowSizeByte      Byte size of the flow
      */
     public void startFlow(int destination, long flowSizeByte) {
+        startFlow(reserveFlowId(), destination, flowSizeByte);
+    }
+
+    /**
+     * Start the sending of a flow to the destination with a flow identifier
+     * reserved in advance via {@link #reserveFlowId()}.
+     *
+     * @param flowId            Flow identifier
+     * @param destination       Destination network device identifier
+     * @param flowSizeByte      Byte size of the flow
+     */
+    public void startFlow(long flowId, int destination, long flowSizeByte) {
 
         // Create new outgoing socket
-        Socket socket = createSocket(flowIdCounter, destination, flowSizeByte);
-        flowIdToSocket.put(flowIdCounter, socket);
-        flowIdCounter++;
+        Socket socket = createSocket(flowId, destination, flowSizeByte);
+        flowIdToSocket.put(flowId, socket);
 
         // Start the socket off as initiator
         socket.markAsSender();
@@ -143,17 +155,35 @@ public abstract class TransportLayer {
      *
      * @param flowId    Flow identifier
      */
-    void cleanupSockets(long flowId) {
+    void cleanupSockets(final long flowId) {
         this.removeSocket(flowId);
-        flowIdToReceiver.get(flowId).removeSocket(flowId);
+        final TransportLayer receiver = SimulationContext.current().getFlowIdToReceiver().get(flowId);
+        if (Simulator.isRunningInPartition()) {
+            Simulator.runAtDevice(receiver.getNetworkDevice(), new Runnable() {
+                @Override
+                public void run() {
+                    receiver.removeSocket(flowId);
+                }
+            });
+        } else {
+            receiver.removeSocket(flowId);
+        }
+    }
+
+    /**
+     * Reserve the next flow identifier, unique amongst all transport layers of the run.
+     *
+     * @return  Flow identifier
+     */
+    public static long reserveFlowId() {
+        return SimulationContext.current().takeFlowId();
     }
 
     /**
-     * Reset the static run state.
+     * Reset the run state shared by all transport layers.
      */
     public static void staticReset() {
-        flowIdCounter = 0;
-        flowIdToReceiver.clear();
+        SimulationContext.current().resetFlows();
     }
 
 }
\ No newline at end of file
@@ -1,10 +1,13 @@
 package ch.ethz.systems.netbench.core.random;
 
+import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
 
-public class RandomManager {
+public class RandomManager implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private long universalSeed;
     private Set<String> issuedKeys;
@@ -0,0 +1,119 @@
+package ch.ethz.systems.netbench.core.run;
+
+import ch.ethz.systems.netbench.core.SimulationContext;
+import ch.ethz.systems.netbench.core.SimulationThread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+public class BatchMainFromProperties {
+
+    /**
+     * Main from a batch of properties files, of which the runs are executed
+     * concurrently on a pool of threads. Each run is executed as by
+     * {@link MainFromProperties} in its own {@link SimulationContext}, such
+     * that the outcome of a run is the same as if it were run on its own.
+     *
+     * Command-line template:
+     * java -cp NetBench.jar ch.ethz.systems.netbench.core.run.BatchMainFromProperties [--threads=N]
+     *      /path/to/run_config_1.properties /path/to/run_config_2.properties ... param1=val1 param2=val2
+     *
+     * The parameter overrides are applied to every run (as such, do not override the run folder).
+     * The number of threads is by default the number of available processors.
+     *
+     * The state shared by the experimental Infiniband transport layers and switches is
+     * not kept per run: such runs cannot be executed concurrently.
+     *
+     * @param args  Command line arguments
+     */
+    public static void main(String args[]) {
+
+        // Split the arguments into options, properties files and parameter overrides
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        List<String> propertiesFiles = new ArrayList<>();
+        List<String> overrides = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                numThreads = Integer.parseInt(arg.substring("--threads=".length()));
+                if (numThreads < 1) {
+                    throw new IllegalArgumentException("Number of threads must be at least one, but is " + numThreads + ".");
+                }
+            } else if (arg.indexOf('=') != -1) {
+                overrides.add(arg);
+            } else {
+                propertiesFiles.add(arg);
+            }
+        }
+        if (propertiesFiles.isEmpty()) {
+            throw new RuntimeException("Expecting at least one configuration properties file for the runs.");
+        }
+
+        // Each run is executed by a simulation thread of the pool
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(numThreads, propertiesFiles.size()), new ThreadFactory() {
+
+            private int numCreated = 0;
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new SimulationThread(runnable, "netbench-run-" + (numCreated++));
+            }
+
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (String propertiesFile : propertiesFiles) {
+            final String[] runArgs = new String[overrides.size() + 1];
+            runArgs[0] = propertiesFile;
+            for (int i = 0; i < overrides.size(); i++) {
+                runArgs[i + 1] = overrides.get(i);
+            }
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    runInOwnContext(runArgs);
+                }
+            }));
+        }
+        executor.shutdown();
+
+        // Wait for all runs to finish
+        int numFailed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                System.err.println("Run of " + propertiesFiles.get(i) + " failed:");
+                e.getCause().printStackTrace();
+                numFailed++;
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        if (numFailed > 0) {
+            throw new RuntimeException(numFailed + " out of " + propertiesFiles.size() + " runs failed.");
+        }
+        System.out.println("Finished all " + propertiesFiles.size() + " runs.");
+
+    }
+
+    /**
+     * Execute a run from properties file in a new simulation context.
+     * Must be called from within a simulation thread.
+     *
+     * @param runArgs   Command line arguments of the run (see {@link MainFromProperties#main(String[])})
+     */
+    private static void runInOwnContext(String[] runArgs) {
+        SimulationThread thread = (SimulationThread) Thread.currentThread();
+        thread.setContext(new SimulationContext());
+        try {
+            MainFromProperties.main(runArgs);
+        } finally {
+            thread.setContext(null);
+        }
+    }
+
+}
@@ -16,6 +16,8 @@ import ch.ethz.systems.netbench.ext.basic.PerfectSimpleLinkDifferentInjectionBan
 import ch.ethz.systems.netbench.ext.demo.DemoIntermediaryGenerator;
 import ch.ethz.systems.netbench.ext.demo.DemoTransportLayerGenerator;
 import ch.ethz.systems.netbench.ext.ecmp.EcmpSwitchGenerator;
+import ch.ethz.systems.netbench.ext.fluid.FluidTransportLayerGenerator;
+import ch.ethz.systems.netbench.ext.fluid.HybridTransportLayerGenerator;
 import ch.ethz.systems.netbench.ext.ecmp.ForwarderSwitchGenerator;
 import ch.ethz.systems.netbench.ext.wcmp.WcmpSwitchGenerator;
 import ch.ethz.systems.netbench.ext.threshold_routing.ThresholdSwitchGenerator;
@@ -345,6 +347,21 @@ class InfrastructureSelector {
             case "infiniband":
                 return new InfinibandTransportLayerGenerator();
 
+            case "fluid":
+                return new FluidTransportLayerGenerator();
+
+            case "hybrid_simple_dctcp": {
+                long backgroundFlowSizeThresholdByte = Simulator.getConfiguration().getLongPropertyOrFail("hybrid_background_flow_size_threshold_byte");
+                if (backgroundFlowSizeThresholdByte <= 0) {
+                    throw new PropertyValueInvalidException(Simulator.getConfiguration(), "hybrid_background_flow_size_threshold_byte");
+                }
+                double backgroundMaxLinkUtilization = Simulator.getConfiguration().getDoublePropertyWithDefault("hybrid_background_max_link_utilization", 0.9);
+                if (backgroundMaxLinkUtilization <= 0 || backgroundMaxLinkUtilization >= 1) {
+                    throw new PropertyValueInvalidException(Simulator.getConfiguration(), "hybrid_background_max_link_utilization");
+                }
+                return new HybridTransportLayerGenerator(backgroundFlowSizeThresholdByte, backgroundMaxLinkUtilization);
+            }
+
             default:
                 throw new PropertyValueInvalidException(
                         Simulator.getConfiguration(),
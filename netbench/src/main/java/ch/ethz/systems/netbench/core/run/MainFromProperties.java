@@ -1,6 +1,7 @@
 package ch.ethz.systems.netbench.core.run;
 
 
+import ch.ethz.systems.netbench.core.SimulationCheckpoint;
 import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
 import ch.ethz.systems.netbench.core.config.NBProperties;
@@ -24,6 +25,14 @@ import java.util.Map;
 
 public class MainFromProperties {
 
+    // Properties which determine the routing state
+    private static final String[] ROUTING_PROPERTIES = new String[] {
+            "network_device_routing",
+            "threshold_path_weights_filename",
+            "wcmp_path_weights_filename",
+            "routing_weight_filename"
+    };
+
     /**
      * Main from properties file.
      *
@@ -49,21 +58,32 @@ public class MainFromProperties {
         // Manage topology (e.g. extend with servers if said by configuration)
         manageTopology();
 
-        // Initialization of the three components
-        BaseInitializer initializer = generateInfrastructure();
-        populateRoutingState(initializer.getIdToNetworkDevice());
-        planTraffic(runtimeNs, initializer.getIdToTransportLayer());
-        String reconfigurationDetailsFilename = Simulator.getConfiguration().getPropertyWithDefault("reconfiguration_events_filename", null);
-        if (reconfigurationDetailsFilename != null) {
-            // trigger the reconfiguration events planning
-            planTopologyReconfiguration(initializer.getIdToNetworkDevice());
+        // Initialization of the three components, or continuation of a checkpoint
+        Map<Integer, NetworkDevice> idToNetworkDevice;
+        Map<Integer, TransportLayer> idToTransportLayer;
+        String checkpointLoadFilename = Simulator.getConfiguration().getPropertyWithDefault("checkpoint_load_filename", null);
+        if (checkpointLoadFilename != null) {
+            SimulationCheckpoint checkpoint = restoreCheckpoint(checkpointLoadFilename);
+            idToNetworkDevice = checkpoint.getIdToNetworkDevice();
+            idToTransportLayer = checkpoint.getIdToTransportLayer();
+        } else {
+            BaseInitializer initializer = generateInfrastructure();
+            idToNetworkDevice = initializer.getIdToNetworkDevice();
+            idToTransportLayer = initializer.getIdToTransportLayer();
+            populateRoutingState(idToNetworkDevice);
+            planTraffic(runtimeNs, idToTransportLayer);
+            String reconfigurationDetailsFilename = Simulator.getConfiguration().getPropertyWithDefault("reconfiguration_events_filename", null);
+            if (reconfigurationDetailsFilename != null) {
+                // trigger the reconfiguration events planning
+                planTopologyReconfiguration(idToNetworkDevice);
+            }
         }
         // Save analysis command
         String analysisCommand = Simulator.getConfiguration().getPropertyWithDefault("analysis_command", null);
 
         // Perform run
         System.out.println("ACTUAL RUN\n==================");
-        Simulator.runNs(runtimeNs, Simulator.getConfiguration().getLongPropertyWithDefault("finish_when_first_flows_finish", -1));
+        runSimulation(runtimeNs, idToNetworkDevice, idToTransportLayer);
         Simulator.reset(false);
         System.out.println("Finished run.\n");
 
@@ -79,6 +99,126 @@ public class MainFromProperties {
     }
 
 
+    /**
+     * Run the simulation with the selected engine.
+     *
+     * Selected using following property:
+     * simulator_engine=sequential (default) | parallel
+     *
+     * The sequential engine saves a checkpoint along the way if set using following properties:
+     * checkpoint_save_filename=/path/to/checkpoint.bin
+     * checkpoint_save_time_ns=...      (time of the checkpoint, between the start and the end of the run)
+     *
+     * @param runtimeNs             Running time in nanoseconds
+     * @param idToNetworkDevice     Mapping of identifier to network device
+     * @param idToTransportLayer    Mapping of identifier to transport layer
+     */
+    private static void runSimulation(long runtimeNs, Map<Integer, NetworkDevice> idToNetworkDevice, Map<Integer, TransportLayer> idToTransportLayer) {
+        long finishWhenFirstFlowsFinish = Simulator.getConfiguration().getLongPropertyWithDefault("finish_when_first_flows_finish", -1);
+        String checkpointSaveFilename = Simulator.getConfiguration().getPropertyWithDefault("checkpoint_save_filename", null);
+        switch (Simulator.getConfiguration().getPropertyWithDefault("simulator_engine", "sequential")) {
+
+            case "sequential":
+
+                // Run up to the checkpoint and save it (unless the run has already ended by then)
+                if (checkpointSaveFilename != null) {
+                    long checkpointTimeNs = Simulator.getConfiguration().getLongPropertyOrFail("checkpoint_save_time_ns");
+                    if (checkpointTimeNs <= Simulator.getCurrentTime() || checkpointTimeNs >= runtimeNs) {
+                        throw new PropertyValueInvalidException(Simulator.getConfiguration(), "checkpoint_save_time_ns");
+                    }
+                    if (Simulator.resumeNs(checkpointTimeNs, finishWhenFirstFlowsFinish)) {
+                        break;
+                    }
+                    SimulationCheckpoint.save(checkpointSaveFilename, idToNetworkDevice, idToTransportLayer);
+                }
+
+                // Continue from the start (or the restored checkpoint)
+                Simulator.resumeNs(runtimeNs, finishWhenFirstFlowsFinish);
+                break;
+
+            case "parallel":
+                if (finishWhenFirstFlowsFinish > 0) {
+                    throw new PropertyConflictException(Simulator.getConfiguration(), "simulator_engine", "finish_when_first_flows_finish");
+                }
+                if (checkpointSaveFilename != null) {
+                    throw new PropertyConflictException(Simulator.getConfiguration(), "simulator_engine", "checkpoint_save_filename");
+                }
+                if (Simulator.getConfiguration().isPropertyDefined("checkpoint_load_filename")) {
+                    throw new PropertyConflictException(Simulator.getConfiguration(), "simulator_engine", "checkpoint_load_filename");
+                }
+                if (Simulator.getConfiguration().getBooleanPropertyWithDefault("simulator_event_pooling", false)) {
+                    throw new PropertyConflictException(Simulator.getConfiguration(), "simulator_engine", "simulator_event_pooling");
+                }
+                String transportLayer = Simulator.getConfiguration().getPropertyOrFail("transport_layer");
+                if (transportLayer.equals("fluid") || transportLayer.equals("hybrid_simple_dctcp")) {
+                    throw new PropertyConflictException(Simulator.getConfiguration(), "simulator_engine", "transport_layer");
+                }
+                if (Simulator.getConfiguration().getIntegerPropertyWithDefault("output_port_packet_train_max_packets", 1) > 1) {
+                    throw new PropertyConflictException(Simulator.getConfiguration(), "simulator_engine", "output_port_packet_train_max_packets");
+                }
+                Simulator.runParallelNs(runtimeNs, PartitionSelector.selectPartitions(idToNetworkDevice));
+                break;
+
+            default:
+                throw new PropertyValueInvalidException(Simulator.getConfiguration(), "simulator_engine");
+
+        }
+    }
+
+    /**
+     * Restore the state of the run from a checkpoint, after which the initialization properties
+     * which can be re-applied to it are applied if they differ from those of the checkpoint:
+     * the routing state and the topology reconfiguration events. Any other initialization
+     * property (e.g. topology or traffic) keeps the value with which the checkpoint was saved.
+     *
+     * The routing state can only be replaced by the same routing populator, if it supports it
+     * (see {@link RoutingSelector#canRepopulate()}); this is checked before the checkpoint is loaded.
+     *
+     * @param checkpointFilename    Checkpoint file name
+     *
+     * @return  Restored checkpoint
+     */
+    private static SimulationCheckpoint restoreCheckpoint(String checkpointFilename) {
+
+        // Changed routing properties must be re-applicable
+        for (String property : SimulationCheckpoint.findChangedProperties(checkpointFilename, ROUTING_PROPERTIES)) {
+            if (property.equals("network_device_routing") || !RoutingSelector.canRepopulate()) {
+                throw new PropertyConflictException(Simulator.getConfiguration(), property, "checkpoint_load_filename");
+            }
+        }
+
+        // Start restoring
+        System.out.println("CHECKPOINT\n==================");
+        SimulationCheckpoint checkpoint = SimulationCheckpoint.restore(checkpointFilename);
+        System.out.println("Restored checkpoint at " + checkpoint.getTimeNs() + "ns.\n");
+
+        // Routing state
+        for (String property : ROUTING_PROPERTIES) {
+            if (checkpoint.isPropertyChanged(property)) {
+                System.out.println("ROUTING STATE\n==================");
+                RoutingSelector.selectPopulator(checkpoint.getIdToNetworkDevice()).repopulateRoutingTables();
+                SimulationLogger.logInfo("CHECKPOINT_REPOPULATED_ROUTING_STATE", property);
+                System.out.println("Finished routing state replacement.\n");
+                break;
+            }
+        }
+
+        // Topology reconfiguration events
+        if (checkpoint.isPropertyChanged("reconfiguration_events_filename")) {
+            System.out.println("RECONFIGURATION EVENTS PLANNING\n==================");
+            TopologyReconfigurationEpochsPlanner topolReconfigPlanner = new TopologyReconfigurationEpochsPlanner(checkpoint.getIdToNetworkDevice());
+            topolReconfigPlanner.cancelReconfigurationEvents();
+            if (Simulator.getConfiguration().isPropertyDefined("reconfiguration_events_filename")) {
+                topolReconfigPlanner.planReconfigurationEvents();
+            }
+            SimulationLogger.logInfo("CHECKPOINT_REPLANNED_RECONFIGURATION_EVENTS", Simulator.getConfiguration().getPropertyWithDefault("reconfiguration_events_filename", ""));
+            System.out.println("RECONFIGURATION EVENTS COMPLETED\n");
+        }
+
+        return checkpoint;
+
+    }
+
     private static void planTopologyReconfiguration(Map<Integer, NetworkDevice> idToNetworkDeviceArg) {
         // Start planning for reconfiguration events
         System.out.println("RECONFIGURATION EVENTS PLANNING\n==================");
@@ -0,0 +1,120 @@
+package ch.ethz.systems.netbench.core.run;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.GraphDetails;
+import ch.ethz.systems.netbench.core.config.exceptions.PropertyValueInvalidException;
+import ch.ethz.systems.netbench.core.network.NetworkDevice;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class PartitionSelector {
+
+    /**
+     * Divide the network devices into partitions for the parallel engine.
+     *
+     * Network devices are first grouped such that groups are only connected
+     * by (preferably long) inter-switch links: by pod if the pod file is given,
+     * else each ToR with its servers. The groups, in order of their lowest
+     * network device identifier, are then divided over the partitions in
+     * consecutive runs of about equal number of network devices.
+     *
+     * Selected using following properties:
+     * simulator_parallel_partitions=...  (default: number of available processors)
+     * pod_id_filename=...                (optional, lines of "network_device_id,pod_id")
+     *
+     * @param idToNetworkDevice     Identifier to instantiated network device
+     *
+     * @return  Network devices of each partition
+     */
+    public static List<List<NetworkDevice>> selectPartitions(Map<Integer, NetworkDevice> idToNetworkDevice) {
+
+        int numPartitions = Simulator.getConfiguration().getIntegerPropertyWithDefault("simulator_parallel_partitions", Runtime.getRuntime().availableProcessors());
+        if (numPartitions < 1) {
+            throw new PropertyValueInvalidException(Simulator.getConfiguration(), "simulator_parallel_partitions");
+        }
+
+        // Group of each network device
+        Map<Integer, Integer> deviceIdToGroup = new HashMap<>();
+        String podIdFilename = Simulator.getConfiguration().getPropertyWithDefault("pod_id_filename", null);
+        if (podIdFilename != null) {
+            deviceIdToGroup.putAll(readPodIds(podIdFilename));
+        } else {
+            GraphDetails details = Simulator.getConfiguration().getGraphDetails();
+            for (int serverId : details.getServerNodeIds()) {
+                Integer torId = details.getTorIdOfServer(serverId);
+                if (torId != null) {
+                    deviceIdToGroup.put(serverId, torId);
+                }
+            }
+        }
+
+        // Groups in order of their lowest network device identifier (ungrouped devices are on their own)
+        TreeMap<Integer, List<NetworkDevice>> groupToDevices = new TreeMap<>();
+        Map<Integer, Integer> groupToFirst = new HashMap<>();
+        for (int id : new TreeMap<>(idToNetworkDevice).keySet()) {
+            Integer group = deviceIdToGroup.containsKey(id) ? deviceIdToGroup.get(id) : null;
+            int first;
+            if (group == null) {
+                first = id;
+            } else if (groupToFirst.containsKey(group)) {
+                first = groupToFirst.get(group);
+            } else {
+                first = id;
+                groupToFirst.put(group, id);
+            }
+            if (!groupToDevices.containsKey(first)) {
+                groupToDevices.put(first, new ArrayList<NetworkDevice>());
+            }
+            groupToDevices.get(first).add(idToNetworkDevice.get(id));
+        }
+
+        // Consecutive runs of groups of about equal size
+        numPartitions = Math.min(numPartitions, groupToDevices.size());
+        List<List<NetworkDevice>> partitions = new ArrayList<>();
+        List<NetworkDevice> current = new ArrayList<>();
+        int assigned = 0;
+        for (List<NetworkDevice> devices : groupToDevices.values()) {
+            if (!current.isEmpty() && partitions.size() < numPartitions - 1
+                    && assigned + devices.size() / 2.0 > (double) idToNetworkDevice.size() * (partitions.size() + 1) / numPartitions) {
+                partitions.add(current);
+                current = new ArrayList<>();
+            }
+            current.addAll(devices);
+            assigned += devices.size();
+        }
+        partitions.add(current);
+        return partitions;
+
+    }
+
+    /**
+     * Read the pod of each network device.
+     *
+     * @param filename  Pod file name (lines of "network_device_id,pod_id", # for comments)
+     *
+     * @return  Mapping of network device identifier to pod identifier
+     */
+    public static Map<Integer, Integer> readPodIds(String filename) {
+        Map<Integer, Integer> deviceIdToPodId = new HashMap<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.length() > 0 && line.charAt(0) != '#') {
+                    String[] split = line.split(",");
+                    deviceIdToPodId.put(Integer.parseInt(split[0].trim()), Integer.parseInt(split[1].trim()));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read pod file " + filename, e);
+        }
+        return deviceIdToPodId;
+    }
+
+}
@@ -24,6 +24,16 @@ import java.util.Map;
 
 public class RoutingSelector {
 
+    /**
+     * Check whether the selected populator can replace the routing state of network devices
+     * which have already been populated (see {@link RoutingPopulator#repopulateRoutingTables()}).
+     *
+     * @return  True iff the routing state can be replaced
+     */
+    public static boolean canRepopulate() {
+        return Simulator.getConfiguration().getPropertyOrFail("network_device_routing").equals("threshold_routing");
+    }
+
     /**
      * Select the populator which populates the routing state in all network devices.
      *
@@ -5,6 +5,7 @@ import ch.ethz.systems.netbench.core.config.exceptions.PropertyValueInvalidExcep
 import ch.ethz.systems.netbench.core.network.TransportLayer;
 import ch.ethz.systems.netbench.ext.poissontraffic.FromStringArrivalPlanner;
 import ch.ethz.systems.netbench.ext.poissontraffic.FromFileArrivalPlanner;
+import ch.ethz.systems.netbench.ext.poissontraffic.FromBinaryFileArrivalPlanner;
 import ch.ethz.systems.netbench.core.run.traffic.TrafficPlanner;
 import ch.ethz.systems.netbench.ext.poissontraffic.PoissonArrivalPlanner;
 import ch.ethz.systems.netbench.ext.trafficpair.TrafficPairPlanner;
@@ -209,6 +210,9 @@ class TrafficSelector {
             case "traffic_arrivals_file":
                 return new FromFileArrivalPlanner(idToTransportLayer, Simulator.getConfiguration().getPropertyOrFail("traffic_arrivals_filename"));
 
+            case "traffic_arrivals_binary":
+                return new FromBinaryFileArrivalPlanner(idToTransportLayer, Simulator.getConfiguration().getPropertyOrFail("traffic_arrivals_filename"));
+
             default:
                 throw new PropertyValueInvalidException(
                         Simulator.getConfiguration(),
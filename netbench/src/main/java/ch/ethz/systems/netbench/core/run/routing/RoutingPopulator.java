@@ -2,4 +2,13 @@ package ch.ethz.systems.netbench.core.run.routing;
 
 public abstract class RoutingPopulator {
     public abstract void populateRoutingTables();
+
+    /**
+     * Replace the routing state of network devices which have already been populated
+     * (e.g. those of a restored checkpoint) by that of the current configuration.
+     * Not supported unless overridden (see {@link ch.ethz.systems.netbench.core.run.RoutingSelector#canRepopulate()}).
+     */
+    public void repopulateRoutingTables() {
+        throw new UnsupportedOperationException("The routing state of " + getClass().getSimpleName() + " cannot be replaced.");
+    }
 }
@@ -0,0 +1,48 @@
+package ch.ethz.systems.netbench.core.run.traffic;
+
+import java.io.Serializable;
+
+/**
+ * Cursor over flow arrivals in non-decreasing order of start time,
+ * used to generate the flows lazily during the run instead of
+ * registering all of them before it starts. The stream is saved
+ * as part of a checkpoint, and continues from its position when restored.
+ */
+public interface FlowArrivalStream extends Serializable {
+
+    /**
+     * Move to the next flow arrival.
+     *
+     * @return  True iff there is a next arrival (its values are then available through the getters)
+     */
+    boolean advance();
+
+    /**
+     * Retrieve start time of the current arrival.
+     *
+     * @return  Start time in nanoseconds since simulation epoch
+     */
+    long getStartTime();
+
+    /**
+     * Retrieve source of the current arrival.
+     *
+     * @return  Source network device identifier
+     */
+    int getSrcId();
+
+    /**
+     * Retrieve destination of the current arrival.
+     *
+     * @return  Destination network device identifier
+     */
+    int getDstId();
+
+    /**
+     * Retrieve size of the current arrival.
+     *
+     * @return  Flow size in bytes
+     */
+    long getFlowSizeByte();
+
+}
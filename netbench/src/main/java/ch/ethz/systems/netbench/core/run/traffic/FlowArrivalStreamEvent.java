@@ -0,0 +1,47 @@
+package ch.ethz.systems.netbench.core.run.traffic;
+
+import ch.ethz.systems.netbench.core.network.Event;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+
+/**
+ * Flow start of a {@link FlowArrivalStream}, which after starting its
+ * flow schedules the next arrival of the stream. As such, only a single
+ * flow start of the stream is present in the event queue at any time.
+ */
+public class FlowArrivalStreamEvent extends Event {
+
+    private static final long serialVersionUID = 1L;
+
+    private final TrafficPlanner planner;
+    private final FlowArrivalStream stream;
+    private final TransportLayer transportLayer;
+    private final int targetId;
+    private final long flowSizeByte;
+
+    /**
+     * Create event which will happen the given amount of nanoseconds later.
+     *
+     * @param timeFromNowNs     Time it will take before happening from now in nanoseconds
+     * @param eid               Identifier used to order events happening at the same time
+     * @param planner           Traffic planner which schedules the next arrival
+     * @param stream            Stream of which this is the current arrival
+     * @param transportLayer    Source transport layer that wants to send the flow to the target
+     * @param targetId          Target network device identifier
+     * @param flowSizeByte      Size of the flow to send in bytes
+     */
+    FlowArrivalStreamEvent(long timeFromNowNs, long eid, TrafficPlanner planner, FlowArrivalStream stream, TransportLayer transportLayer, int targetId, long flowSizeByte) {
+        super(timeFromNowNs, eid);
+        this.planner = planner;
+        this.stream = stream;
+        this.transportLayer = transportLayer;
+        this.targetId = targetId;
+        this.flowSizeByte = flowSizeByte;
+    }
+
+    @Override
+    public void trigger() {
+        transportLayer.startFlow(targetId, flowSizeByte);
+        planner.scheduleNextArrival(stream);
+    }
+
+}
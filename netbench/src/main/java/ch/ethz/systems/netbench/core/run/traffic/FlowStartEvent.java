@@ -5,10 +5,17 @@ import ch.ethz.systems.netbench.core.network.TransportLayer;
 
 public class FlowStartEvent extends Event {
 
+    private static final long serialVersionUID = 1L;
+
+    private static final long NO_FLOW_ID = -1;
+
     private final TransportLayer transportLayer;
     private final int targetId;
     private final long flowSizeByte;
 
+    // Flow identifier assigned in advance (else it is assigned when the flow starts)
+    private long flowId;
+
     /**
      * Create event which will happen the given amount of nanoseconds later.
      *
@@ -22,11 +29,43 @@ public class FlowStartEvent extends Event {
         this.transportLayer = transportLayer;
         this.targetId = targetId;
         this.flowSizeByte = flowSizeByte;
+        this.flowId = NO_FLOW_ID;
     }
 
     @Override
     public void trigger() {
-        transportLayer.startFlow(targetId, flowSizeByte);
+        if (flowId == NO_FLOW_ID) {
+            transportLayer.startFlow(targetId, flowSizeByte);
+        } else {
+            transportLayer.startFlow(flowId, targetId, flowSizeByte);
+        }
+    }
+
+    /**
+     * Assign the flow identifier in advance, instead of when the flow starts.
+     *
+     * @param flowId    Flow identifier (reserved via {@link TransportLayer#reserveFlowId()})
+     */
+    public void assignFlowId(long flowId) {
+        this.flowId = flowId;
+    }
+
+    /**
+     * Check whether the flow identifier has been assigned in advance.
+     *
+     * @return  True iff the flow identifier is assigned
+     */
+    public boolean hasFlowId() {
+        return flowId != NO_FLOW_ID;
+    }
+
+    /**
+     * Retrieve the transport layer from which the flow starts.
+     *
+     * @return  Source transport layer
+     */
+    public TransportLayer getTransportLayer() {
+        return transportLayer;
     }
 
 }
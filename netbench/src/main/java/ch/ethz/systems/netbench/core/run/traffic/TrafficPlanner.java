@@ -4,12 +4,25 @@ import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.config.GraphDetails;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.Map;
 
-public abstract class TrafficPlanner {
+/**
+ * Planner of the flow starts of a run. It is part of a checkpoint if it streams
+ * its flow arrivals during the run, as the pending arrival refers to it.
+ */
+public abstract class TrafficPlanner implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     protected final Map<Integer, TransportLayer> idToTransportLayerMap;
-    protected final GraphDetails graphDetails;
+    protected transient GraphDetails graphDetails;
+
+    // Tie-breaking identifier of the next streamed flow start; these precede all regularly
+    // created events at equal time, exactly as flow starts registered before the run do
+    private long nextStreamEventId = Long.MIN_VALUE;
 
     /**
      * Constructor.
@@ -24,6 +37,16 @@ public abstract class TrafficPlanner {
 
     }
 
+    /**
+     * Read the planner of a restored checkpoint, which from then on uses the graph details of the current run.
+     *
+     * @param in    Object input stream
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.graphDetails = Simulator.getConfiguration().getGraphDetails();
+    }
+
     public abstract void createPlan(long durationNs);
 
     /**
@@ -37,6 +60,65 @@ public abstract class TrafficPlanner {
     protected void registerFlow(long time, int srcId, int dstId, long flowSizeByte) {
 
         // Some checking
+        checkFlow(time, srcId, dstId, flowSizeByte);
+
+        // Create event
+        FlowStartEvent event = new FlowStartEvent(time, idToTransportLayerMap.get(srcId), dstId, flowSizeByte);
+
+        // Register event
+        Simulator.registerEvent(event);
+
+    }
+
+    /**
+     * Register a stream of flow arrivals, of which each arrival is only
+     * generated once the previous one has started.
+     *
+     * @param stream    Flow arrival stream (not yet advanced)
+     */
+    protected void registerFlowArrivalStream(FlowArrivalStream stream) {
+        scheduleNextArrival(stream);
+    }
+
+    /**
+     * Advance the stream and register the start of its next flow arrival (if any).
+     *
+     * @param stream    Flow arrival stream
+     */
+    void scheduleNextArrival(FlowArrivalStream stream) {
+
+        if (!stream.advance()) {
+            return;
+        }
+
+        long time = stream.getStartTime();
+        checkFlow(time, stream.getSrcId(), stream.getDstId(), stream.getFlowSizeByte());
+        if (time < Simulator.getCurrentTime()) {
+            throw new RuntimeException("Streamed flow arrivals must be ordered by start time, but an arrival at " + time + " came after " + Simulator.getCurrentTime());
+        }
+
+        Simulator.registerEvent(new FlowArrivalStreamEvent(
+                time - Simulator.getCurrentTime(),
+                nextStreamEventId,
+                this,
+                stream,
+                idToTransportLayerMap.get(stream.getSrcId()),
+                stream.getDstId(),
+                stream.getFlowSizeByte()
+        ));
+        nextStreamEventId++;
+
+    }
+
+    /**
+     * Check that the flow from [srcId] to [dstId] is valid.
+     *
+     * @param time          Time at which it start in nanoseconds
+     * @param srcId         Source network device identifier
+     * @param dstId         Destination network device identifier
+     * @param flowSizeByte  Flow size in bytes
+     */
+    private void checkFlow(long time, int srcId, int dstId, long flowSizeByte) {
         if (srcId == dstId) {
             throw new RuntimeException("Invalid traffic pair; source (" + srcId + ") and destination (" + dstId + ") are the same.");
         } else if (idToTransportLayerMap.get(srcId) == null) {
@@ -48,13 +130,6 @@ public abstract class TrafficPlanner {
         } else if (flowSizeByte < 0) {
             throw new RuntimeException("Cannot register a flow with a negative flow size (in bytes) of " + flowSizeByte);
         }
-
-        // Create event
-        FlowStartEvent event = new FlowStartEvent(time, idToTransportLayerMap.get(srcId), dstId, flowSizeByte);
-
-        // Register event
-        Simulator.registerEvent(event);
-
     }
 
 }
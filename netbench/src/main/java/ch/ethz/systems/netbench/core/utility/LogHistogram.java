@@ -0,0 +1,182 @@
+package ch.ethz.systems.netbench.core.utility;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative values with logarithmically sized buckets,
+ * in the style of an HDR histogram.
+ *
+ * Values below 2^precisionBits are counted exactly. Larger values are
+ * counted in buckets of which the width is at most a 2^-precisionBits
+ * fraction of their lower bound, such that any percentile is retrieved
+ * with a relative error of at most 2^-(precisionBits + 1). The count,
+ * minimum, maximum and mean are exact.
+ *
+ * The memory used grows with the logarithm of the largest value.
+ */
+public class LogHistogram implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Precision
+    private final int precisionBits;
+    private final int subBucketCount;
+
+    // Count of each bucket (grown when needed)
+    private long[] counts;
+
+    // Exact summary
+    private long totalCount = 0;
+    private double sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Create an empty histogram.
+     *
+     * @param precisionBits     Number of bits of precision (1 to 20)
+     */
+    public LogHistogram(int precisionBits) {
+        if (precisionBits < 1 || precisionBits > 20) {
+            throw new IllegalArgumentException("Precision must be between 1 and 20 bits, but is " + precisionBits + ".");
+        }
+        this.precisionBits = precisionBits;
+        this.subBucketCount = 1 << precisionBits;
+        this.counts = new long[2 * subBucketCount];
+    }
+
+    /**
+     * Record a value.
+     *
+     * @param value     Value (non-negative)
+     */
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Only non-negative values can be recorded, but got " + value + ".");
+        }
+        int index = indexOf(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, 2 * counts.length));
+        }
+        counts[index]++;
+        totalCount++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Retrieve the number of recorded values.
+     *
+     * @return  Count
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * Retrieve the mean of the recorded values.
+     *
+     * @return  Mean (NaN if empty)
+     */
+    public double getMean() {
+        return totalCount == 0 ? Double.NaN : sum / totalCount;
+    }
+
+    /**
+     * Retrieve the smallest recorded value.
+     *
+     * @return  Minimum (undefined if empty)
+     */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+     * Retrieve the largest recorded value.
+     *
+     * @return  Maximum (undefined if empty)
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Retrieve the percentile, i.e. the smallest recorded value of which at
+     * least the given percentage of values are smaller or equal, up to the
+     * precision of the buckets.
+     *
+     * @param percentile    Percentile (0 to 100)
+     *
+     * @return  Value at the percentile (NaN if empty)
+     */
+    public double getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, but is " + percentile + ".");
+        }
+        if (totalCount == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                double value = (lowestValueOf(i) + highestValueOf(i)) / 2.0;
+                return Math.min(max, Math.max(min, value));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Determine the bucket of a value.
+     *
+     * @param value     Value (non-negative)
+     *
+     * @return  Bucket index
+     */
+    private int indexOf(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - precisionBits;
+        return (shift * subBucketCount) + (int) (value >>> shift);
+    }
+
+    /**
+     * Determine the lowest value in a bucket.
+     *
+     * @param index     Bucket index
+     *
+     * @return  Lowest value
+     */
+    private long lowestValueOf(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = index / subBucketCount - 1;
+        return ((long) (index - shift * subBucketCount)) << shift;
+    }
+
+    /**
+     * Determine the highest value in a bucket.
+     *
+     * @param index     Bucket index
+     *
+     * @return  Highest value
+     */
+    private long highestValueOf(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = index / subBucketCount - 1;
+        return lowestValueOf(index) + (1L << shift) - 1;
+    }
+
+}
@@ -0,0 +1,213 @@
+package ch.ethz.systems.netbench.core.utility;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive int values.
+ *
+ * Uses linear probing with backward-shift deletion, such that no
+ * tombstones accumulate, and shrinks again when entries are removed.
+ * Neither lookups nor updates allocate any objects (except for resizing).
+ *
+ * The key {@link Long#MIN_VALUE} is reserved to mark free slots.
+ */
+public class LongIntHashMap implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long FREE = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Create an empty map.
+     */
+    public LongIntHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Retrieve the value associated with the key.
+     *
+     * @param key           Key
+     * @param missingValue  Value returned if the key is not present
+     *
+     * @return  Value, or missing value if the key is not present
+     */
+    public int get(long key, int missingValue) {
+        int i = slot(key);
+        while (true) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i];
+            } else if (k == FREE) {
+                return missingValue;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Check whether the key is present.
+     *
+     * @param key   Key
+     *
+     * @return  True iff the key is present
+     */
+    public boolean containsKey(long key) {
+        int i = slot(key);
+        while (true) {
+            long k = keys[i];
+            if (k == key) {
+                return true;
+            } else if (k == FREE) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Associate the value with the key, replacing any previous value.
+     *
+     * @param key       Key (cannot be {@link Long#MIN_VALUE})
+     * @param value     Value
+     */
+    public void put(long key, int value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Key " + FREE + " is reserved and cannot be stored.");
+        }
+        int i = slot(key);
+        while (true) {
+            long k = keys[i];
+            if (k == key) {
+                values[i] = value;
+                return;
+            } else if (k == FREE) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                if (size * 4 > keys.length * 3) {
+                    resize(keys.length * 2);
+                }
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Remove the key.
+     *
+     * @param key           Key
+     * @param missingValue  Value returned if the key is not present
+     *
+     * @return  Value that was associated with the key, or missing value if it was not present
+     */
+    public int remove(long key, int missingValue) {
+        int i = slot(key);
+        while (true) {
+            long k = keys[i];
+            if (k == key) {
+                break;
+            } else if (k == FREE) {
+                return missingValue;
+            }
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+
+        // Shift back subsequent entries of the probe sequence into the gap
+        int gap = i;
+        int j = (i + 1) & mask;
+        while (keys[j] != FREE) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+            j = (j + 1) & mask;
+        }
+        keys[gap] = FREE;
+        size--;
+
+        // Release memory once mostly empty
+        if (keys.length > MIN_CAPACITY && size * 8 < keys.length) {
+            resize(keys.length / 2);
+        }
+
+        return removed;
+    }
+
+    /**
+     * Retrieve the number of entries.
+     *
+     * @return  Number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether there are no entries.
+     *
+     * @return  True iff empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        if (keys.length > MIN_CAPACITY) {
+            allocate(MIN_CAPACITY);
+        } else {
+            Arrays.fill(keys, FREE);
+        }
+        size = 0;
+    }
+
+    /**
+     * Determine the home slot of a key.
+     *
+     * @param key   Key
+     *
+     * @return  Slot index
+     */
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int j = slot(oldKeys[i]);
+                while (keys[j] != FREE) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package ch.ethz.systems.netbench.core.utility;
+
+import java.io.Serializable;
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * First-in-first-out queue backed by an array used as ring buffer,
+ * which doubles in capacity when full.
+ *
+ * Intended for the single-threaded simulation: it does not synchronize,
+ * and enqueuing does not allocate any node objects (except for growing).
+ * Null elements are not permitted.
+ *
+ * @param <E>   Element type
+ */
+public class RingBufferQueue<E> extends AbstractQueue<E> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    private Object[] elements;
+    private int mask;
+    private int head;
+    private int size;
+
+    /**
+     * Create an empty queue.
+     */
+    public RingBufferQueue() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Create an empty queue.
+     *
+     * @param initialCapacity   Initial capacity (rounded up to a power of two)
+     */
+    public RingBufferQueue(int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("Initial capacity must be positive: " + initialCapacity);
+        }
+        int capacity = Integer.highestOneBit(initialCapacity);
+        if (capacity < initialCapacity) {
+            capacity <<= 1;
+        }
+        this.elements = new Object[capacity];
+        this.mask = capacity - 1;
+        this.head = 0;
+        this.size = 0;
+    }
+
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException("Ring buffer queue does not permit null elements.");
+        }
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & mask] = e;
+        size++;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        if (size == 0) {
+            return null;
+        }
+        E e = (E) elements[head];
+        elements[head] = null;
+        head = (head + 1) & mask;
+        size--;
+        return e;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        return (E) elements[head];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            elements[(head + i) & mask] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Iterate from head to tail. The iterator does not support removal,
+     * and its behavior is undefined if the queue is modified during iteration.
+     *
+     * @return  Iterator over the elements in queue order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                return (E) elements[(head + i++) & mask];
+            }
+
+        };
+    }
+
+    /**
+     * Double the capacity, unwrapping the ring such that the head is at index zero.
+     */
+    private void grow() {
+        Object[] newElements = new Object[elements.length * 2];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, newElements, 0, firstPart);
+        System.arraycopy(elements, 0, newElements, firstPart, head);
+        elements = newElements;
+        mask = newElements.length - 1;
+        head = 0;
+    }
+
+}
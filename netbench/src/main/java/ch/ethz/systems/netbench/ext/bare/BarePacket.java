@@ -4,6 +4,8 @@ import ch.ethz.systems.netbench.ext.basic.TcpPacket;
 
 class BarePacket extends TcpPacket {
 
+    private static final long serialVersionUID = 1L;
+
     BarePacket(long flowId, long dataSizeByte, int sourceId, int destinationId, long sequenceNumber, long acknowledgementNumber, boolean ECE, boolean ACK, double windowSize) {
         super(
                 flowId,
@@ -1,9 +1,12 @@
 package ch.ethz.systems.netbench.ext.bare;
 
+import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.network.Event;
 
 public class BarePacketResendEvent extends Event {
 
+    private static final long serialVersionUID = 1L;
+
     private BareSocket bareSocket;
     private BarePacket packet;
     private boolean active;
@@ -28,11 +31,12 @@ public class BarePacketResendEvent extends Event {
     }
 
     /**
-     * Cancel the resend event. This is done when popping it from the queue takes
-     * too much time, but it shouldn't occur. Scenarios in which this happens is
-     * when a packet has been acknowledged or a fast retransmit is performed.
+     * Cancel the resend event, which removes it from the event queue. Scenarios in
+     * which this happens is when a packet has been acknowledged or a fast retransmit
+     * is performed.
      */
     void cancel() {
+        Simulator.cancelEvent(this);
         this.bareSocket = null;
         this.packet = null;
         this.active = false;
@@ -14,6 +14,8 @@ import java.util.Set;
 
 public class BareSocket extends Socket {
 
+    private static final long serialVersionUID = 1L;
+
     // Constants
     private static final long MAX_SEGMENT_SIZE = 1380L;
     private static final double MAX_SEGMENT_SIZE_SQUARED = MAX_SEGMENT_SIZE * MAX_SEGMENT_SIZE;
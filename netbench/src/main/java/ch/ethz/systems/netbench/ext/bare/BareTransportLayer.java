@@ -6,6 +6,8 @@ import ch.ethz.systems.netbench.ext.demo.DemoSocket;
 
 public class BareTransportLayer extends TransportLayer {
 
+    private static final long serialVersionUID = 1L;
+
     BareTransportLayer(int identifier) {
         super(identifier);
     }
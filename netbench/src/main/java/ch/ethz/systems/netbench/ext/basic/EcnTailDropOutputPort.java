@@ -1,20 +1,23 @@
 package ch.ethz.systems.netbench.ext.basic;
 
+import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.network.NetworkDevice;
 import ch.ethz.systems.netbench.core.network.Link;
 import ch.ethz.systems.netbench.core.network.OutputPort;
 import ch.ethz.systems.netbench.core.log.SimulationLogger;
 import ch.ethz.systems.netbench.core.network.Packet;
-
-import java.util.concurrent.LinkedBlockingQueue;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
 
 public class EcnTailDropOutputPort extends OutputPort {
 
+    private static final long serialVersionUID = 1L;
+
     private final long ecnThresholdKBits;
     private final long maxQueueSizeBits;
 
     EcnTailDropOutputPort(NetworkDevice ownNetworkDevice, NetworkDevice targetNetworkDevice, Link link, long maxQueueSizeBytes, long ecnThresholdKBytes) {
-        super(ownNetworkDevice, targetNetworkDevice, link, new LinkedBlockingQueue<Packet>());
+        super(ownNetworkDevice, targetNetworkDevice, link, new RingBufferQueue<Packet>(),
+                Simulator.getConfiguration().getIntegerPropertyWithDefault("output_port_packet_train_max_packets", 1));
         this.maxQueueSizeBits = maxQueueSizeBytes * 8L;
         this.ecnThresholdKBits = ecnThresholdKBytes * 8L;
     }
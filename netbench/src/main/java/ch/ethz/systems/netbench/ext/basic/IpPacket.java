@@ -4,6 +4,8 @@ import ch.ethz.systems.netbench.core.network.Packet;
 
 public abstract class IpPacket extends Packet implements IpHeader {
 
+    private static final long serialVersionUID = 1L;
+
     // IP header is [20, 60] bytes, assume maximum: 60 * 8
     private static final long IP_HEADER_SIZE_BIT = 480L;
 
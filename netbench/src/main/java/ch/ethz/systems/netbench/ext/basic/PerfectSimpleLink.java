@@ -4,6 +4,8 @@ import ch.ethz.systems.netbench.core.network.Link;
 
 public class PerfectSimpleLink extends Link {
 
+    private static final long serialVersionUID = 1L;
+
     private final long delayNs;
     private final long bandwidthBitPerNs;
 
@@ -33,4 +35,9 @@ public class PerfectSimpleLink extends Link {
         return false;
     }
 
+    @Override
+    public boolean canTransmissionFail() {
+        return false;
+    }
+
 }
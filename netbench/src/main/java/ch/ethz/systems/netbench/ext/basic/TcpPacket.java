@@ -2,6 +2,8 @@ package ch.ethz.systems.netbench.ext.basic;
 
 public abstract class TcpPacket extends IpPacket implements TcpHeader {
 
+    private static final long serialVersionUID = 1L;
+
     // TCP header is [20, 60] bytes, assume maximum: 60 * 8
     private static final long TCP_HEADER_SIZE_BIT = 480L;
 
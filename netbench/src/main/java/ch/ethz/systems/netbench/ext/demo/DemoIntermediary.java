@@ -8,6 +8,8 @@ import ch.ethz.systems.netbench.core.network.Packet;
  */
 public class DemoIntermediary extends Intermediary {
 
+    private static final long serialVersionUID = 1L;
+
     DemoIntermediary() {
         super();
     }
@@ -4,6 +4,8 @@ import ch.ethz.systems.netbench.ext.basic.IpPacket;
 
 class DemoPacket extends IpPacket implements DemoPacketHeader {
 
+    private static final long serialVersionUID = 1L;
+
     private final long dataSizeByte;
     private final long ackSizeByte;
 
@@ -14,6 +14,8 @@ import ch.ethz.systems.netbench.core.network.TransportLayer;
  */
 public class DemoSocket extends Socket {
 
+    private static final long serialVersionUID = 1L;
+
     private static final long MAX_PACKET_PAYLOAD_BYTE = 1000L;
 
     /**
@@ -5,6 +5,8 @@ import ch.ethz.systems.netbench.core.network.TransportLayer;
 
 public class DemoTransportLayer extends TransportLayer {
 
+    private static final long serialVersionUID = 1L;
+
     DemoTransportLayer(int identifier) {
         super(identifier);
     }
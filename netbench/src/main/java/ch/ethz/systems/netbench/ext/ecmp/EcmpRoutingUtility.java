@@ -2,27 +2,155 @@ package ch.ethz.systems.netbench.ext.ecmp;
 
 import ch.ethz.systems.netbench.core.network.NetworkDevice;
 import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.exceptions.PropertyValueInvalidException;
 import edu.asu.emit.algorithm.graph.Graph;
 import edu.asu.emit.algorithm.graph.Vertex;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class EcmpRoutingUtility {
 
     private static final int INFINITY = 999999999;
 
+    // Maximum amount of BFS sources handled by a single parallel task
+    private static final int BFS_SOURCES_PER_TASK = 16;
+
     private EcmpRoutingUtility() {
         // Cannot be instantiated
     }
 
     /**
-     * Calculate all the shortest paths and store them internally.
-     * Uses the modified Floyd-Warshall algorithm.
+     * Calculate all the shortest path lengths using the algorithm
+     * set by the routing_shortest_path_algorithm property.
+     *
+     * @param graph     Topology graph
+     *
+     * @return  Shortest path length matrix (INFINITY if unreachable)
      */
     private static int[][] calculateShortestPaths(Graph graph) {
+        String algorithm = Simulator.getConfiguration().getPropertyWithDefault("routing_shortest_path_algorithm", "bfs");
+        switch (algorithm) {
+            case "bfs":
+                return calculateShortestPathsBfs(graph);
+            case "floyd_warshall":
+                return calculateShortestPathsFloydWarshall(graph);
+            default:
+                throw new PropertyValueInvalidException(Simulator.getConfiguration(), "routing_shortest_path_algorithm");
+        }
+    }
+
+    /**
+     * Calculate all the shortest path lengths.
+     * As all edges have unit weight, a breadth-first search is run from every source
+     * over a compressed sparse row (CSR) adjacency array, with the sources in parallel.
+     *
+     * @param graph     Topology graph
+     *
+     * @return  Shortest path length matrix (INFINITY if unreachable)
+     */
+    static int[][] calculateShortestPathsBfs(Graph graph) {
+
+        System.out.print("Calculating shortest path lengths (BFS)...");
+
+        int numNodes = graph.getVertexList().size();
+
+        // Adjacency in CSR format: neighbors of i are adjacency[offset[i]] ... adjacency[offset[i + 1] - 1]
+        int[] offset = new int[numNodes + 1];
+        for (int i = 0; i < numNodes; i++) {
+            offset[i + 1] = offset[i] + graph.getAdjacentVertices(graph.getVertex(i)).size();
+        }
+        int[] adjacency = new int[offset[numNodes]];
+        for (int i = 0; i < numNodes; i++) {
+            int k = offset[i];
+            for (Vertex v : graph.getAdjacentVertices(graph.getVertex(i))) {
+                adjacency[k++] = v.getId();
+            }
+        }
+
+        int[][] shortestPathLen = new int[numNodes][];
+        ForkJoinPool.commonPool().invoke(new BfsTask(offset, adjacency, shortestPathLen, 0, numNodes));
+
+        System.out.println(" done.");
+
+        return shortestPathLen;
+
+    }
+
+    /**
+     * Task calculating the shortest path lengths from a range of sources.
+     */
+    private static class BfsTask extends RecursiveAction {
+
+        private final int[] offset;
+        private final int[] adjacency;
+        private final int[][] shortestPathLen;
+        private final int from;
+        private final int to;
+
+        BfsTask(int[] offset, int[] adjacency, int[][] shortestPathLen, int from, int to) {
+            this.offset = offset;
+            this.adjacency = adjacency;
+            this.shortestPathLen = shortestPathLen;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            // Split range of sources
+            if (to - from > BFS_SOURCES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(
+                        new BfsTask(offset, adjacency, shortestPathLen, from, mid),
+                        new BfsTask(offset, adjacency, shortestPathLen, mid, to)
+                );
+                return;
+            }
+
+            // Breadth-first search from each source
+            int numNodes = offset.length - 1;
+            int[] queue = new int[numNodes];
+            for (int src = from; src < to; src++) {
+                int[] dist = new int[numNodes];
+                Arrays.fill(dist, INFINITY);
+                dist[src] = 0;
+                queue[0] = src;
+                int head = 0;
+                int tail = 1;
+                while (head < tail) {
+                    int u = queue[head++];
+                    int next = dist[u] + 1;
+                    for (int k = offset[u]; k < offset[u + 1]; k++) {
+                        int v = adjacency[k];
+                        if (dist[v] == INFINITY) {
+                            dist[v] = next;
+                            queue[tail++] = v;
+                        }
+                    }
+                }
+                shortestPathLen[src] = dist;
+            }
+
+        }
+
+    }
+
+    /**
+     * Calculate all the shortest path lengths.
+     * Uses the modified Floyd-Warshall algorithm.
+     *
+     * @param graph     Topology graph
+     *
+     * @return  Shortest path length matrix (INFINITY if unreachable)
+     */
+    static int[][] calculateShortestPathsFloydWarshall(Graph graph) {
 
-        System.out.print("Calculating shortest path lengths...");
+        System.out.print("Calculating shortest path lengths (Floyd-Warshall)...");
 
         int numNodes = graph.getVertexList().size();
         int[][] shortestPathLen = new int[numNodes][numNodes];
@@ -77,11 +205,11 @@ public class EcmpRoutingUtility {
 
         // Go over every network device pair and set the forwarder switch routing table
         for (int i = 0; i < numNodes; i++) {
+            List<Vertex> adjacent = graph.getAdjacentVertices(graph.getVertex(i));
             for (int j = 0; j < numNodes; j++) {
                 if (i != j) {
 
                     // For every outgoing edge (i, j) check if it is on a shortest path to j
-                    List<Vertex> adjacent = graph.getAdjacentVertices(graph.getVertex(i));
                     for (Vertex v : adjacent) {
 
                         // ECMP stores all the possible hops
@@ -8,6 +8,8 @@ import java.util.List;
 
 public class EcmpSwitch extends NetworkDevice implements EcmpSwitchRoutingInterface {
 
+    private static final long serialVersionUID = 1L;
+
     // Routing table
     protected final List<List<Integer>> destinationToNextSwitch;
 
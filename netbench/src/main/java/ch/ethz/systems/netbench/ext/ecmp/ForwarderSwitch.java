@@ -15,6 +15,8 @@ import ch.ethz.systems.netbench.ext.basic.IpHeader;
  */
 public class ForwarderSwitch extends NetworkDevice {
 
+    private static final long serialVersionUID = 1L;
+
     // Routing table
     private int[] destinationToNextSwitch;
 
@@ -4,6 +4,8 @@ import ch.ethz.systems.netbench.core.Simulator;
 
 public abstract class FixedGapFlowletIntermediary extends FlowletIntermediary {
 
+    private static final long serialVersionUID = 1L;
+
     // Flowlet gap in nanoseconds
     private final long FLOWLET_GAP_NS;
 
@@ -8,6 +8,8 @@ import java.util.Map;
 
 public abstract class FlowletIntermediary extends Intermediary {
 
+    private static final long serialVersionUID = 1L;
+
     // Mapping of flow identifier to its current flowlet
     private final Map<Long, Integer> flowIdToCurrentFlowlet;
 
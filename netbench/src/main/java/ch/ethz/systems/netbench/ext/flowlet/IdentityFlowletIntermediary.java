@@ -11,6 +11,8 @@ import ch.ethz.systems.netbench.ext.basic.TcpHeader;
  */
 public class IdentityFlowletIntermediary extends FlowletIntermediary {
 
+    private static final long serialVersionUID = 1L;
+
     public IdentityFlowletIntermediary() {
         super();
     }
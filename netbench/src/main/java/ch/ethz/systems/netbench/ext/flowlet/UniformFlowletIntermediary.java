@@ -14,6 +14,8 @@ import ch.ethz.systems.netbench.ext.basic.TcpHeader;
  */
 public class UniformFlowletIntermediary extends FixedGapFlowletIntermediary {
 
+    private static final long serialVersionUID = 1L;
+
     public UniformFlowletIntermediary() {
         super();
     }
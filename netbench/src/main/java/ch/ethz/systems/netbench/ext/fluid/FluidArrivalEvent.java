@@ -0,0 +1,24 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.network.Event;
+
+/**
+ * Event at which the last bit of a transmitted fluid flow arrives at its destination.
+ */
+class FluidArrivalEvent extends Event {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FluidSocket socket;
+
+    FluidArrivalEvent(long timeFromNowNs, FluidSocket socket) {
+        super(timeFromNowNs);
+        this.socket = socket;
+    }
+
+    @Override
+    public void trigger() {
+        socket.finish();
+    }
+
+}
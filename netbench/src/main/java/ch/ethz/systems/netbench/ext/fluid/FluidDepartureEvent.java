@@ -0,0 +1,24 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.network.Event;
+
+/**
+ * Event at which the first of the fluid flows has been transmitted completely.
+ */
+class FluidDepartureEvent extends Event {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FluidEngine engine;
+
+    FluidDepartureEvent(long timeFromNowNs, FluidEngine engine) {
+        super(timeFromNowNs);
+        this.engine = engine;
+    }
+
+    @Override
+    public void trigger() {
+        engine.departure();
+    }
+
+}
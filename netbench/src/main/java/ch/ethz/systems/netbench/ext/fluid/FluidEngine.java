@@ -0,0 +1,394 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.SimulationContext;
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.log.SimulationLogger;
+import ch.ethz.systems.netbench.core.network.NetworkDevice;
+import ch.ethz.systems.netbench.core.network.OutputPort;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.ext.threshold_routing.ThresholdRouting;
+import ch.ethz.systems.netbench.ext.threshold_routing.ThresholdSwitch;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Flow-level (fluid) engine, in which the flows are not sent as packets, but
+ * flow at max-min fair rates over the links of their path. The rates are
+ * recomputed (by progressive filling) only at the arrival and departure of a flow,
+ * in between which the flows progress at constant rate. A flow is finished
+ * when its last bit has been transmitted and has crossed the propagation
+ * delay of its path.
+ *
+ * The path of a flow is determined at its arrival using the routing state of
+ * the threshold switches, as a packet would be routed:
+ * (a) If the source and destination are matched to a threshold routing entry,
+ *     the flow goes on the direct path if the flows sent there by the entry
+ *     currently have a total rate below its threshold, else on one of its
+ *     ECMP paths drawn uniformly at random. The threshold is a capacity shared by
+ *     the flows on the direct path, the fluid equivalent of the token bucket;
+ * (b) Else, at the source it goes to a next hop drawn by weight, and elsewhere
+ *     directly to the destination.
+ *
+ * Headers, handshakes and congestion control are not modeled.
+ *
+ * The completion of every flow is written to flow_completion.csv.log, as
+ * enable_log_flow_completion_per_flow defaults to true for the fluid and
+ * hybrid transport layers.
+ *
+ * In the hybrid mode, the fluid flows are background traffic next to packets:
+ * their rates are reserved on the output ports and threshold routing entries they
+ * traverse, such that the packets get the remaining bandwidth and tokens. The
+ * packets are not accounted for in the fluid rates.
+ */
+class FluidEngine implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Flows and resources
+    private final Map<Integer, TransportLayer> idToTransportLayer;
+    private final Map<OutputPort, FluidResource> portToResource;
+    private final Map<ThresholdRouting, FluidResource> thresholdToResource;
+    private final Set<FluidSocket> activeFlows;
+    private final Set<FluidResource> activeResources;
+
+    // Reservation of the rates from the packets (hybrid mode)
+    private final boolean reserve;
+    private final double maxLinkUtilization;
+
+    // Path draws
+    private Random random;
+
+    // Time at which the remaining bits were last updated
+    private long lastUpdateTime;
+
+    // Pending departure of the first flow to finish transmission
+    private FluidDepartureEvent departureEvent;
+
+    /**
+     * Create a fluid engine for runs without packets.
+     */
+    FluidEngine() {
+        this(false, 1.0);
+    }
+
+    /**
+     * Create a fluid engine.
+     *
+     * @param reserve               True iff the rates are reserved from the packets (hybrid mode)
+     * @param maxLinkUtilization    Fraction of the bandwidth of a link which can be allocated to fluid flows
+     */
+    FluidEngine(boolean reserve, double maxLinkUtilization) {
+        this.reserve = reserve;
+        this.maxLinkUtilization = maxLinkUtilization;
+        this.idToTransportLayer = new HashMap<>();
+        this.portToResource = new HashMap<>();
+        this.thresholdToResource = new HashMap<>();
+        this.activeFlows = new LinkedHashSet<>();
+        this.activeResources = new LinkedHashSet<>();
+        this.random = null;
+        this.lastUpdateTime = 0;
+        this.departureEvent = null;
+    }
+
+    /**
+     * Register the transport layer of a (potential) destination.
+     *
+     * @param identifier        Network device identifier
+     * @param transportLayer    Transport layer creating fluid sockets
+     */
+    void registerTransportLayer(int identifier, TransportLayer transportLayer) {
+        idToTransportLayer.put(identifier, transportLayer);
+    }
+
+    /**
+     * Start a flow: it is placed on its path, after which the rates are recomputed.
+     *
+     * @param socket    Fluid socket of the flow (sender)
+     */
+    void startFlow(FluidSocket socket) {
+
+        // A flow to itself has an empty path, which has no resource to bound its rate
+        if (socket.getSourceId() == socket.getDestinationId()) {
+            throw new IllegalArgumentException("Fluid flow " + socket.getFlowId() + " has the same source and destination (" + socket.getSourceId() + ").");
+        }
+
+        // The destination is the receiver of the flow (it never receives a packet to register itself)
+        SimulationContext.current().getFlowIdToReceiver().put(socket.getFlowId(), idToTransportLayer.get(socket.getDestinationId()));
+
+        // Progress the flows up till now
+        advance();
+
+        // Place flow on its path
+        determinePath(socket);
+        activeFlows.add(socket);
+        for (FluidResource resource : socket.path) {
+            if (resource.flows.isEmpty()) {
+                activeResources.add(resource);
+            }
+            resource.flows.add(socket);
+        }
+
+        // Reallocate
+        recompute();
+
+    }
+
+    /**
+     * Departure of the flows of which the transmission has finished, after which the rates are recomputed.
+     */
+    void departure() {
+        departureEvent = null;
+
+        // Progress the flows up till now
+        advance();
+
+        // Remove those which have finished transmission (within this nanosecond)
+        List<FluidSocket> finished = new ArrayList<>();
+        for (FluidSocket flow : activeFlows) {
+            if (flow.remainingBits <= flow.rateBitPerNs) {
+                finished.add(flow);
+            }
+        }
+        for (FluidSocket flow : finished) {
+            activeFlows.remove(flow);
+            for (FluidResource resource : flow.path) {
+                resource.flows.remove(flow);
+                if (resource.flows.isEmpty()) {
+                    activeResources.remove(resource);
+                    if (reserve) {
+                        resource.reserve();
+                    }
+                }
+            }
+            flow.remainingBits = 0;
+            flow.rateBitPerNs = 0;
+            if (flow.pathDelayNs > 0) {
+                Simulator.registerEvent(new FluidArrivalEvent(flow.pathDelayNs, flow));
+            } else {
+                flow.finish();
+            }
+        }
+
+        // Reallocate
+        recompute();
+
+    }
+
+    /**
+     * Progress the remaining bits of all active flows up to the current time.
+     */
+    private void advance() {
+        long elapsedNs = Simulator.getCurrentTime() - lastUpdateTime;
+        if (elapsedNs > 0) {
+            for (FluidSocket flow : activeFlows) {
+                flow.remainingBits = Math.max(0, flow.remainingBits - flow.rateBitPerNs * elapsedNs);
+            }
+        }
+        lastUpdateTime = Simulator.getCurrentTime();
+    }
+
+    /**
+     * Recompute the max-min fair rates of all active flows by progressive filling,
+     * taking the bottleneck resources from a priority queue ordered by fair share,
+     * and reschedule the departure of the first flow to finish transmission.
+     */
+    private void recompute() {
+        SimulationLogger.increaseStatisticCounter("FLUID_RATE_RECOMPUTATIONS");
+
+        // Reset filling state
+        for (FluidResource resource : activeResources) {
+            resource.residualBitPerNs = resource.getCapacityBitPerNs();
+            resource.numUnfrozen = resource.flows.size();
+        }
+        for (FluidSocket flow : activeFlows) {
+            flow.frozen = false;
+        }
+
+        // Repeatedly freeze the flows of the bottleneck resource at its fair share.
+        // The fair share of a resource can only rise when flows on it are frozen
+        // at the (lowest) bottleneck share, so the queue is updated lazily: an entry
+        // of which the share is no longer current is skipped when it comes up.
+        PriorityQueue<FillingEntry> queue = new PriorityQueue<>(Math.max(1, activeResources.size()), new Comparator<FillingEntry>() {
+            @Override
+            public int compare(FillingEntry a, FillingEntry b) {
+                int result = Double.compare(a.share, b.share);
+                return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+            }
+        });
+        long sequence = 0;
+        for (FluidResource resource : activeResources) {
+            queue.add(new FillingEntry(resource, fairShare(resource), sequence++));
+        }
+        Set<FluidResource> changed = new LinkedHashSet<>();
+        while (!queue.isEmpty()) {
+            FillingEntry entry = queue.poll();
+            FluidResource bottleneck = entry.resource;
+            if (bottleneck.numUnfrozen == 0 || entry.share != fairShare(bottleneck)) {
+                continue;
+            }
+            for (FluidSocket flow : bottleneck.flows) {
+                if (!flow.frozen) {
+                    flow.frozen = true;
+                    flow.rateBitPerNs = entry.share;
+                    for (FluidResource resource : flow.path) {
+                        resource.residualBitPerNs -= entry.share;
+                        resource.numUnfrozen--;
+                        changed.add(resource);
+                    }
+                }
+            }
+            for (FluidResource resource : changed) {
+                if (resource.numUnfrozen > 0) {
+                    queue.add(new FillingEntry(resource, fairShare(resource), sequence++));
+                }
+            }
+            changed.clear();
+        }
+
+        // Reserve the new rates from the packets
+        if (reserve) {
+            for (FluidResource resource : activeResources) {
+                resource.reserve();
+            }
+        }
+
+        // Reschedule the first departure
+        if (departureEvent != null) {
+            Simulator.cancelEvent(departureEvent);
+            departureEvent = null;
+        }
+        double firstNs = Double.POSITIVE_INFINITY;
+        for (FluidSocket flow : activeFlows) {
+            if (flow.rateBitPerNs > 0) {
+                firstNs = Math.min(firstNs, flow.remainingBits / flow.rateBitPerNs);
+            }
+        }
+        if (firstNs != Double.POSITIVE_INFINITY) {
+            departureEvent = new FluidDepartureEvent((long) Math.ceil(firstNs), this);
+            Simulator.registerEvent(departureEvent);
+        }
+
+    }
+
+    /**
+     * Calculate the fair share of the residual capacity of a resource among its unfrozen flows.
+     *
+     * @param resource  Resource with at least one unfrozen flow
+     *
+     * @return  Fair share in bit/ns
+     */
+    private static double fairShare(FluidResource resource) {
+        return Math.max(0, resource.residualBitPerNs) / resource.numUnfrozen;
+    }
+
+    /**
+     * Entry of the progressive filling queue: the fair share of a resource at the time it was added.
+     */
+    private static class FillingEntry {
+
+        private final FluidResource resource;
+        private final double share;
+        private final long sequence;
+
+        FillingEntry(FluidResource resource, double share, long sequence) {
+            this.resource = resource;
+            this.share = share;
+            this.sequence = sequence;
+        }
+
+    }
+
+    /**
+     * Determine the path of the flow by following the routing state of the threshold switches.
+     *
+     * @param socket    Fluid socket of the flow
+     */
+    private void determinePath(FluidSocket socket) {
+        if (random == null) {
+            random = Simulator.selectIndependentRandom("fluid_path_draw");
+        }
+
+        int srcId = socket.getSourceId();
+        int dstId = socket.getDestinationId();
+        List<FluidResource> path = new ArrayList<>();
+        long pathDelayNs = 0;
+        NetworkDevice device = idToTransportLayer.get(srcId).getNetworkDevice();
+        Set<Integer> visited = new HashSet<>();
+        while (device.getIdentifier() != dstId) {
+            if (!(device instanceof ThresholdSwitch)) {
+                throw new IllegalArgumentException("The fluid transport layer requires threshold switches, but " + device.getIdentifier() + " is not.");
+            }
+            ThresholdSwitch thresholdSwitch = (ThresholdSwitch) device;
+            if (!visited.add(device.getIdentifier())) {
+                throw new IllegalStateException("Flow " + socket.getFlowId() + " from " + srcId + " to " + dstId + " is caught in a routing loop at " + device.getIdentifier() + ".");
+            }
+
+            // Select next hop
+            int nextHopId;
+            ThresholdRouting entry = thresholdSwitch.getThresholdRouting(srcId, dstId);
+            if (entry != null) {
+                FluidResource threshold = thresholdToResource.get(entry);
+                if (threshold == null) {
+                    threshold = new FluidResource(entry);
+                    thresholdToResource.put(entry, threshold);
+                }
+                if (threshold.getAllocatedBitPerNs() < threshold.getCapacityBitPerNs()) {
+                    nextHopId = entry.GetDirectPath();
+                    path.add(threshold);
+                } else {
+                    nextHopId = entry.GetEcmpPath(random.nextInt(entry.GetNumEcmpPaths()));
+                }
+            } else if (device.getIdentifier() == srcId) {
+                nextHopId = thresholdSwitch.drawNextHop(dstId, random);
+            } else {
+                nextHopId = dstId;
+            }
+
+            // Traverse the link to the next hop
+            OutputPort port = findOutputPort(device, nextHopId);
+            if (port == null) {
+                throw new IllegalStateException("Flow " + socket.getFlowId() + " from " + srcId + " to " + dstId + " is routed from " + device.getIdentifier() + " to " + nextHopId + " to which there is no link.");
+            }
+            FluidResource link = portToResource.get(port);
+            if (link == null) {
+                link = new FluidResource(port, maxLinkUtilization);
+                portToResource.put(port, link);
+            }
+            path.add(link);
+            pathDelayNs += port.getLink().getDelayNs();
+            device = port.getTargetDevice();
+
+        }
+
+        socket.path = path.toArray(new FluidResource[path.size()]);
+        socket.pathDelayNs = pathDelayNs;
+    }
+
+    /**
+     * Find the output port of the network device to the target.
+     *
+     * @param device    Network device instance
+     * @param targetId  Target network device identifier
+     *
+     * @return  Output port instance (null if there is no connection to the target)
+     */
+    private static OutputPort findOutputPort(NetworkDevice device, int targetId) {
+        for (OutputPort port : device.getOutputPorts()) {
+            if (port.getTargetId() == targetId) {
+                return port;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,93 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.network.OutputPort;
+import ch.ethz.systems.netbench.ext.threshold_routing.ThresholdRouting;
+
+import java.io.Serializable;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Capacity shared by the fluid flows which traverse it: either the link
+ * of an output port, or the threshold of a threshold routing entry
+ * shared by the flows it sends on its direct path.
+ */
+class FluidResource implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final OutputPort port;
+    private final double maxUtilization;
+    private final ThresholdRouting entry;
+
+    // Flows currently traversing it
+    final Set<FluidSocket> flows;
+
+    // Progressive filling state
+    double residualBitPerNs;
+    int numUnfrozen;
+
+    /**
+     * Create resource of the link of an output port.
+     *
+     * @param port              Output port instance
+     * @param maxUtilization    Fraction of the link bandwidth which can be allocated
+     */
+    FluidResource(OutputPort port, double maxUtilization) {
+        this.port = port;
+        this.maxUtilization = maxUtilization;
+        this.entry = null;
+        this.flows = new LinkedHashSet<>();
+    }
+
+    /**
+     * Create resource of the threshold of a threshold routing entry.
+     *
+     * @param entry     Threshold routing entry
+     */
+    FluidResource(ThresholdRouting entry) {
+        this.port = null;
+        this.maxUtilization = 1.0;
+        this.entry = entry;
+        this.flows = new LinkedHashSet<>();
+    }
+
+    /**
+     * Retrieve the current capacity. The bandwidth of a link is read
+     * at every call, as it can change with a reconfiguration.
+     *
+     * @return  Capacity in bit/ns
+     */
+    double getCapacityBitPerNs() {
+        return port != null ? port.getLink().getBandwidthBitPerNs() * maxUtilization : entry.GetThresholdBps() / 1e9;
+    }
+
+    /**
+     * Calculate the sum of the rates currently allocated to the flows traversing it.
+     *
+     * @return  Allocated rate in bit/ns
+     */
+    double getAllocatedBitPerNs() {
+        double allocated = 0;
+        for (FluidSocket flow : flows) {
+            allocated += flow.rateBitPerNs;
+        }
+        return allocated;
+    }
+
+    /**
+     * Reserve the currently allocated rate from the packets: on the output port
+     * the packets are transmitted at the remaining bandwidth, and the token bucket
+     * of the threshold routing entry refills at the remaining threshold.
+     */
+    void reserve() {
+        double allocated = getAllocatedBitPerNs();
+        if (port != null) {
+            long bandwidthBitPerNs = port.getLink().getBandwidthBitPerNs();
+            port.setReservedFraction(bandwidthBitPerNs > 0 ? Math.min(allocated / bandwidthBitPerNs, maxUtilization) : 0);
+        } else {
+            entry.SetReservedBps(allocated * 1e9);
+        }
+    }
+
+}
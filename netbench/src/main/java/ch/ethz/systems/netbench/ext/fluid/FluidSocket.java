@@ -0,0 +1,72 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.network.Packet;
+import ch.ethz.systems.netbench.core.network.Socket;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+
+/**
+ * Socket of which the flow is not sent as packets, but as a fluid
+ * at the rate allocated to it by the {@link FluidEngine}.
+ */
+public class FluidSocket extends Socket {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FluidEngine engine;
+
+    // Fluid state, maintained by the engine
+    FluidResource[] path;
+    long pathDelayNs;
+    double remainingBits;
+    double rateBitPerNs;
+    boolean frozen;
+
+    /**
+     * Create a fluid socket. By default, it is the receiver.
+     * Use the {@link #start() start} method to make the socket a
+     * sender and hand its flow to the engine.
+     *
+     * @param transportLayer    Transport layer
+     * @param engine            Fluid engine of the run
+     * @param flowId            Flow identifier
+     * @param sourceId          Source network device identifier
+     * @param destinationId     Target network device identifier
+     * @param flowSizeByte      Size of the flow in bytes
+     */
+    FluidSocket(TransportLayer transportLayer, FluidEngine engine, long flowId, int sourceId, int destinationId, long flowSizeByte) {
+        super(transportLayer, flowId, sourceId, destinationId, flowSizeByte);
+        this.engine = engine;
+        this.remainingBits = flowSizeByte * 8.0;
+        this.rateBitPerNs = 0;
+    }
+
+    @Override
+    public void start() {
+        engine.startFlow(this);
+    }
+
+    @Override
+    public void handle(Packet genericPacket) {
+        throw new IllegalStateException("A fluid socket does not exchange packets (flow " + flowId + ").");
+    }
+
+    /**
+     * Confirm the complete flow, after its last bit has arrived at the destination.
+     */
+    void finish() {
+        confirmFlow(getRemainderToConfirmFlowSizeByte());
+    }
+
+    int getSourceId() {
+        return sourceId;
+    }
+
+    int getDestinationId() {
+        return destinationId;
+    }
+
+    long getFlowId() {
+        return flowId;
+    }
+
+}
@@ -0,0 +1,29 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.network.Socket;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+
+public class FluidTransportLayer extends TransportLayer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FluidEngine engine;
+
+    /**
+     * Create the fluid transport layer with the given network device identifier.
+     * All fluid transport layers of a run share the engine which allocates the rates of their flows.
+     *
+     * @param identifier    Parent network device identifier
+     * @param engine        Fluid engine of the run
+     */
+    FluidTransportLayer(int identifier, FluidEngine engine) {
+        super(identifier);
+        this.engine = engine;
+    }
+
+    @Override
+    protected Socket createSocket(long flowId, int destinationId, long flowSizeByte) {
+        return new FluidSocket(this, engine, flowId, identifier, destinationId, flowSizeByte);
+    }
+
+}
@@ -0,0 +1,23 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.log.SimulationLogger;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.core.run.infrastructure.TransportLayerGenerator;
+
+public class FluidTransportLayerGenerator extends TransportLayerGenerator {
+
+    private final FluidEngine engine;
+
+    public FluidTransportLayerGenerator() {
+        this.engine = new FluidEngine();
+        SimulationLogger.logInfo("Transport layer", "FLUID");
+    }
+
+    @Override
+    public TransportLayer generate(int identifier) {
+        FluidTransportLayer transportLayer = new FluidTransportLayer(identifier, engine);
+        engine.registerTransportLayer(identifier, transportLayer);
+        return transportLayer;
+    }
+
+}
@@ -0,0 +1,38 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.network.Socket;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.xpt.simple.simpledctcp.SimpleDctcpSocket;
+
+public class HybridTransportLayer extends TransportLayer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final FluidEngine engine;
+    private final long backgroundFlowSizeThresholdByte;
+
+    /**
+     * Create the hybrid transport layer with the given network device identifier.
+     * Flows of at least the threshold size are background flows, which are handed as
+     * fluid to the engine; the other (foreground) flows are sent as DCTCP packets.
+     *
+     * @param identifier                        Parent network device identifier
+     * @param engine                            Fluid engine of the run
+     * @param backgroundFlowSizeThresholdByte   Minimum size of a background flow in bytes
+     */
+    HybridTransportLayer(int identifier, FluidEngine engine, long backgroundFlowSizeThresholdByte) {
+        super(identifier);
+        this.engine = engine;
+        this.backgroundFlowSizeThresholdByte = backgroundFlowSizeThresholdByte;
+    }
+
+    @Override
+    protected Socket createSocket(long flowId, int destinationId, long flowSizeByte) {
+        if (flowSizeByte >= backgroundFlowSizeThresholdByte) {
+            return new FluidSocket(this, engine, flowId, identifier, destinationId, flowSizeByte);
+        } else {
+            return new SimpleDctcpSocket(this, flowId, identifier, destinationId, flowSizeByte);
+        }
+    }
+
+}
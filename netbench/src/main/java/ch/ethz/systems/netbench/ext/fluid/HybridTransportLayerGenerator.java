@@ -0,0 +1,25 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.log.SimulationLogger;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.core.run.infrastructure.TransportLayerGenerator;
+
+public class HybridTransportLayerGenerator extends TransportLayerGenerator {
+
+    private final FluidEngine engine;
+    private final long backgroundFlowSizeThresholdByte;
+
+    public HybridTransportLayerGenerator(long backgroundFlowSizeThresholdByte, double backgroundMaxLinkUtilization) {
+        this.engine = new FluidEngine(true, backgroundMaxLinkUtilization);
+        this.backgroundFlowSizeThresholdByte = backgroundFlowSizeThresholdByte;
+        SimulationLogger.logInfo("Transport layer", "HYBRID_SIMPLE_DCTCP(backgroundFlowSizeThresholdByte=" + backgroundFlowSizeThresholdByte + ", backgroundMaxLinkUtilization=" + backgroundMaxLinkUtilization + ")");
+    }
+
+    @Override
+    public TransportLayer generate(int identifier) {
+        HybridTransportLayer transportLayer = new HybridTransportLayer(identifier, engine, backgroundFlowSizeThresholdByte);
+        engine.registerTransportLayer(identifier, transportLayer);
+        return transportLayer;
+    }
+
+}
@@ -10,6 +10,8 @@ import java.util.Map;
 
 public class EcmpThenValiantSwitch extends RangeValiantSwitch {
 
+    private static final long serialVersionUID = 1L;
+
     // Amount of flow size sent out for each flow
     private final Map<Long, Long> flowSizeSent;
 
@@ -0,0 +1,215 @@
+package ch.ethz.systems.netbench.ext.poissontraffic;
+
+import ch.ethz.systems.netbench.core.run.traffic.FlowArrivalStream;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Compact fixed-width binary flow arrival file.
+ *
+ * Layout (big-endian):
+ * [header]  int magic, int version, long numArrivals
+ * [arrival] long start_time, int src_id, int dst_id, long flow_size_byte
+ *
+ * The file is read through memory-mapped buffers using absolute
+ * reads, so reading arrivals does not allocate any objects.
+ */
+public class BinaryArrivalFile {
+
+    // Header
+    private static final int MAGIC = 0x4E424641; // "NBFA"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    // Every arrival record has the same size
+    private static final int RECORD_BYTES = 24;
+
+    // A single mapping cannot exceed 2GB, so larger files are mapped in chunks
+    private static final long RECORDS_PER_CHUNK = Integer.MAX_VALUE / RECORD_BYTES;
+
+    private BinaryArrivalFile() {
+        // Static class only
+    }
+
+    /**
+     * Convert a CSV arrival file to the binary format.
+     *
+     * CSV line structure:
+     * # This is a comment line which is ignored
+     * start_time, src_id, dst_id, flow_size_byte
+     *
+     * @param csvFileName       Input CSV arrival file name
+     * @param binaryFileName    Output binary arrival file name
+     *
+     * @return  Number of arrivals converted
+     */
+    public static long convertFromCsv(String csvFileName, String binaryFileName) {
+        try {
+
+            long numArrivals = 0;
+            try (BufferedReader br = new BufferedReader(new FileReader(csvFileName));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryFileName), 1 << 16))) {
+
+                // Header (number of arrivals filled in afterwards)
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(0);
+
+                String line;
+                while ((line = br.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.charAt(0) == '#') {
+                        continue;
+                    }
+                    String[] spl = line.split(",");
+                    out.writeLong(Long.parseLong(spl[0].trim()));
+                    out.writeInt(Integer.parseInt(spl[1].trim()));
+                    out.writeInt(Integer.parseInt(spl[2].trim()));
+                    out.writeLong(Long.parseLong(spl[3].trim()));
+                    numArrivals++;
+                }
+
+            }
+
+            // Write the actual number of arrivals in the header
+            try (RandomAccessFile raf = new RandomAccessFile(binaryFileName, "rw")) {
+                raf.seek(8);
+                raf.writeLong(numArrivals);
+            }
+
+            return numArrivals;
+
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to convert arrival file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stream over the arrivals of a binary arrival file. When it is restored
+     * from a checkpoint, the file is opened again and read from the same arrival.
+     */
+    public static class Reader implements FlowArrivalStream {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String fileName;
+        private transient FileChannel channel;
+        private final long numArrivals;
+        private long index;
+        private transient MappedByteBuffer chunk;
+        private long chunkStart;
+        private long chunkEnd;
+
+        // Current arrival
+        private long startTime;
+        private int srcId;
+        private int dstId;
+        private long flowSizeByte;
+
+        /**
+         * Open a binary arrival file.
+         *
+         * @param fileName  Binary arrival file name
+         */
+        public Reader(String fileName) throws IOException {
+            this.fileName = fileName;
+            this.channel = new RandomAccessFile(fileName, "r").getChannel();
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                channel.close();
+                throw new IOException("File " + fileName + " is not a binary arrival file (version " + VERSION + ").");
+            }
+            this.numArrivals = header.getLong(8);
+            if (channel.size() != HEADER_BYTES + numArrivals * RECORD_BYTES) {
+                channel.close();
+                throw new IOException("Binary arrival file " + fileName + " is truncated or corrupt.");
+            }
+
+            this.index = 0;
+            this.chunkStart = 0;
+            this.chunkEnd = 0;
+        }
+
+        /**
+         * Read the reader of a restored checkpoint, which maps the file again from its current arrival.
+         *
+         * @param in    Object input stream
+         */
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            this.channel = new RandomAccessFile(fileName, "r").getChannel();
+            if (channel.size() != HEADER_BYTES + numArrivals * RECORD_BYTES) {
+                channel.close();
+                throw new IOException("Binary arrival file " + fileName + " has changed since the checkpoint.");
+            }
+            this.chunk = null;
+            this.chunkStart = index;
+            this.chunkEnd = index;
+        }
+
+        /**
+         * Retrieve the total amount of arrivals in the file.
+         *
+         * @return  Number of arrivals
+         */
+        public long getNumArrivals() {
+            return numArrivals;
+        }
+
+        @Override
+        public boolean advance() {
+            try {
+
+                if (index == numArrivals) {
+                    chunk = null;
+                    channel.close();
+                    return false;
+                }
+
+                // Map the next chunk of arrivals
+                if (index == chunkEnd) {
+                    long numRecords = Math.min(RECORDS_PER_CHUNK, numArrivals - index);
+                    chunk = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + index * RECORD_BYTES, numRecords * RECORD_BYTES);
+                    chunkStart = index;
+                    chunkEnd = index + numRecords;
+                }
+
+                int offset = (int) (index - chunkStart) * RECORD_BYTES;
+                startTime = chunk.getLong(offset);
+                srcId = chunk.getInt(offset + 8);
+                dstId = chunk.getInt(offset + 12);
+                flowSizeByte = chunk.getLong(offset + 16);
+                index++;
+                return true;
+
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read binary arrival file: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public long getStartTime() {
+            return startTime;
+        }
+
+        @Override
+        public int getSrcId() {
+            return srcId;
+        }
+
+        @Override
+        public int getDstId() {
+            return dstId;
+        }
+
+        @Override
+        public long getFlowSizeByte() {
+            return flowSizeByte;
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package ch.ethz.systems.netbench.ext.poissontraffic;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.log.SimulationLogger;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.core.run.traffic.TrafficPlanner;
+
+import java.io.IOException;
+import java.util.Map;
+
+public class FromBinaryFileArrivalPlanner extends TrafficPlanner {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String arrivalFilename;
+    private final boolean streamArrivals;
+
+    /**
+     * Constructor.
+     *
+     * @param idToTransportLayerMap     Maps a network device identifier to its corresponding transport layer
+     * @param filename                  File name of binary arrival plan (see {@link BinaryArrivalFile})
+     */
+    public FromBinaryFileArrivalPlanner(Map<Integer, TransportLayer> idToTransportLayerMap, String filename) {
+        super(idToTransportLayerMap);
+        this.arrivalFilename = filename;
+        this.streamArrivals = Simulator.getConfiguration().getBooleanPropertyWithDefault("traffic_arrivals_streaming", false);
+        SimulationLogger.logInfo("Flow planner", "FROM_BINARY_FILE_ARRIVAL_PLANNER(arrival file name=" + arrivalFilename + ")");
+    }
+
+    /**
+     * Creates plan based on the arrivals in the binary file.
+     *
+     * If streaming is enabled, the file is read during the run,
+     * which requires the arrivals to be ordered by start time.
+     *
+     * @param durationNs    Duration in nanoseconds
+     */
+    @Override
+    public void createPlan(long durationNs) {
+
+        BinaryArrivalFile.Reader reader;
+        try {
+            reader = new BinaryArrivalFile.Reader(this.arrivalFilename);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open binary arrival file: " + e.getMessage());
+        }
+        SimulationLogger.logInfo("Flow planner number flows", String.valueOf(reader.getNumArrivals()));
+
+        if (streamArrivals) {
+            registerFlowArrivalStream(reader);
+            return;
+        }
+
+        while (reader.advance()) {
+            this.registerFlow(
+                    reader.getStartTime(),
+                    reader.getSrcId(),
+                    reader.getDstId(),
+                    reader.getFlowSizeByte()
+            );
+        }
+
+    }
+
+}
@@ -1,7 +1,9 @@
 package ch.ethz.systems.netbench.ext.poissontraffic;
 
+import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.log.SimulationLogger;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.core.run.traffic.FlowArrivalStream;
 import ch.ethz.systems.netbench.core.run.traffic.TrafficPlanner;
 
 import java.util.Map;
@@ -9,7 +11,10 @@ import java.io.*; // for file reading
 
 public class FromFileArrivalPlanner extends TrafficPlanner {
 
+    private static final long serialVersionUID = 1L;
+
     private final String arrivalFilename;
+    private final boolean streamArrivals;
 
     /**
      * Constructor.
@@ -20,40 +25,127 @@ public class FromFileArrivalPlanner extends TrafficPlanner {
     public FromFileArrivalPlanner(Map<Integer, TransportLayer> idToTransportLayerMap, String filename) {
         super(idToTransportLayerMap);
         this.arrivalFilename = filename;
+        this.streamArrivals = Simulator.getConfiguration().getBooleanPropertyWithDefault("traffic_arrivals_streaming", false);
         SimulationLogger.logInfo("Flow planner", "FROM_FILE_ARRIVAL_PLANNER(arrival file name=" + arrivalFilename + ")");
     }
 
     /**
-     * Creates plan based on the given string:
-     * (start_time, src_id, dst_id, flow_size_byte);(start_time, src_id, dst_id, flow_size_byte);...
+     * Creates plan based on the given file with on each line:
+     * start_time, src_id, dst_id, flow_size_byte
+     *
+     * If streaming is enabled, the file is read during the run,
+     * which requires the lines to be ordered by start time.
      *
      * @param durationNs    Duration in nanoseconds
      */
     @Override
     public void createPlan(long durationNs) {
-        File file = new File(this.arrivalFilename); 
-        try (FileReader fr = new FileReader(file)) {
-            BufferedReader br = new BufferedReader(fr);     
-            String st; 
-            while ((st = br.readLine()) != null) {
-                // check if the first character forms a comment
-                if (st.charAt(0) != '#') {
-                    String[] arrivalSpl = st.split(",");
-                    int lineLength = arrivalSpl.length;
-                    this.registerFlow(
-                        Long.valueOf(arrivalSpl[0].trim()),    // time of entry
-                        Integer.valueOf(arrivalSpl[1].trim()), // source id
-                        Integer.valueOf(arrivalSpl[2].trim()),  // destination id
-                        Long.valueOf(arrivalSpl[3].trim()) // size in terms of bytes
-                    );
-                }
-            }
-            br.close();
+        FileArrivalStream stream;
+        try {
+            stream = new FileArrivalStream(this.arrivalFilename);
         } catch (FileNotFoundException fe) {
             System.out.println("File not found");
-        } catch (IOException ie) {
-            System.out.println("IO exception not found");
+            return;
+        }
+
+        if (streamArrivals) {
+            registerFlowArrivalStream(stream);
+            return;
+        }
+
+        while (stream.advance()) {
+            this.registerFlow(
+                stream.getStartTime(),
+                stream.getSrcId(),
+                stream.getDstId(),
+                stream.getFlowSizeByte()
+            );
+        }
+    }
+
+    /**
+     * Arrivals read line by line from the arrival file. When it is restored
+     * from a checkpoint, the file is opened again and read from the same line.
+     */
+    private static class FileArrivalStream implements FlowArrivalStream {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String filename;
+        private transient BufferedReader br;
+        private long numLinesRead;
+
+        // Current arrival
+        private long startTime;
+        private int srcId;
+        private int dstId;
+        private long flowSizeByte;
+
+        FileArrivalStream(String filename) throws FileNotFoundException {
+            this.filename = filename;
+            this.br = new BufferedReader(new FileReader(new File(filename)));
+            this.numLinesRead = 0;
         }
+
+        /**
+         * Read the stream of a restored checkpoint, which opens the file again and skips the lines already read.
+         *
+         * @param in    Object input stream
+         */
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            this.br = new BufferedReader(new FileReader(new File(filename)));
+            for (long i = 0; i < numLinesRead; i++) {
+                if (br.readLine() == null) {
+                    br.close();
+                    throw new IOException("Arrival file " + filename + " has changed since the checkpoint.");
+                }
+            }
+        }
+
+        @Override
+        public boolean advance() {
+            try {
+                String st;
+                while ((st = br.readLine()) != null) {
+                    numLinesRead++;
+                    // check if the first character forms a comment
+                    if (!st.isEmpty() && st.charAt(0) != '#') {
+                        String[] arrivalSpl = st.split(",");
+                        startTime = Long.valueOf(arrivalSpl[0].trim());        // time of entry
+                        srcId = Integer.valueOf(arrivalSpl[1].trim());         // source id
+                        dstId = Integer.valueOf(arrivalSpl[2].trim());         // destination id
+                        flowSizeByte = Long.valueOf(arrivalSpl[3].trim());     // size in terms of bytes
+                        return true;
+                    }
+                }
+                br.close();
+                return false;
+            } catch (IOException ie) {
+                throw new RuntimeException("Failed to read arrival file: " + ie.getMessage());
+            }
+        }
+
+        @Override
+        public long getStartTime() {
+            return startTime;
+        }
+
+        @Override
+        public int getSrcId() {
+            return srcId;
+        }
+
+        @Override
+        public int getDstId() {
+            return dstId;
+        }
+
+        @Override
+        public long getFlowSizeByte() {
+            return flowSizeByte;
+        }
+
     }
 
 }
@@ -8,6 +8,8 @@ import java.util.Map;
 
 public class FromStringArrivalPlanner extends TrafficPlanner {
 
+    private static final long serialVersionUID = 1L;
+
     private final String arrivals;
 
     /**
@@ -1,5 +1,6 @@
 package ch.ethz.systems.netbench.ext.poissontraffic;
 
+import java.io.Serializable;
 import java.util.Random;
 
 /**
@@ -8,10 +9,13 @@ import java.util.Random;
  * @author Asaf Valdarsky
  * @author Simon Kassing
  */
-public class ParetoDistribution {
+public class ParetoDistribution implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private double shape;
     private double scale;
+    private double inverseShape;
     private Random random;
 
     public ParetoDistribution(double shape, double scale, Random random) {
@@ -29,6 +33,7 @@ public class ParetoDistribution {
         // Set parameters
         this.shape = shape;
         this.scale = scale;
+        this.inverseShape = 1.0 / shape;
         this.random = random;
 
     }
@@ -47,7 +52,7 @@ public class ParetoDistribution {
      */
     public double draw() {
         double outcome = random.nextDouble();
-        return (scale / Math.pow(outcome, 1.0 / shape));
+        return (scale / Math.pow(outcome, inverseShape));
     }
 
 }
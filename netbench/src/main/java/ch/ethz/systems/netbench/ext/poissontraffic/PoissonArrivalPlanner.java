@@ -1,20 +1,27 @@
 package ch.ethz.systems.netbench.ext.poissontraffic;
 
 import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.exceptions.PropertyConflictException;
+import ch.ethz.systems.netbench.core.config.exceptions.PropertyValueInvalidException;
+import ch.ethz.systems.netbench.core.log.LoggerCallback;
+import ch.ethz.systems.netbench.core.run.traffic.FlowArrivalStream;
 import ch.ethz.systems.netbench.core.run.traffic.TrafficPlanner;
 import ch.ethz.systems.netbench.ext.poissontraffic.flowsize.FlowSizeDistribution;
 import ch.ethz.systems.netbench.core.log.SimulationLogger;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
 import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class PoissonArrivalPlanner extends TrafficPlanner {
 
+    private static final long serialVersionUID = 1L;
+
     public enum PairDistribution {
         ALL_TO_ALL,
         ALL_TO_ALL_FRACTION,
@@ -28,14 +35,57 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
     private final double lambdaFlowStartsPerSecond;
     private final FlowSizeDistribution flowSizeDistribution;
     private final Random ownIndependentRng;
-    private final RandomCollection<Pair<Integer, Integer>> randomPairGenerator;
+    private final Random pairRng;
+    private final RandomPairCollection randomPairGenerator;
+    private final boolean streamArrivals;
+    private final int planSlices;
+
+    // Servers of each ToR, if ToR pairs are drawn first and then a server of each ToR (else null)
+    private final boolean hierarchicalPairs;
+    private Map<Integer, int[]> torToServers;
+    private Random serverRng;
 
     private PoissonArrivalPlanner(Map<Integer, TransportLayer> idToTransportLayerMap, double lambdaFlowStartsPerSecond, FlowSizeDistribution flowSizeDistribution) {
         super(idToTransportLayerMap);
         this.lambdaFlowStartsPerSecond = lambdaFlowStartsPerSecond;
         this.flowSizeDistribution = flowSizeDistribution;
         this.ownIndependentRng = Simulator.selectIndependentRandom("poisson_inter_arrival");
-        this.randomPairGenerator = new RandomCollection<>(Simulator.selectIndependentRandom("pair_probabilities_draw"));
+        this.pairRng = Simulator.selectIndependentRandom("pair_probabilities_draw");
+        this.randomPairGenerator = new RandomPairCollection(pairRng, selectPairSamplingMethod());
+        this.streamArrivals = Simulator.getConfiguration().getBooleanPropertyWithDefault("traffic_arrivals_streaming", false);
+        this.planSlices = Simulator.getConfiguration().getIntegerPropertyWithDefault("traffic_plan_slices", 1);
+        if (planSlices < 1) {
+            throw new PropertyValueInvalidException(Simulator.getConfiguration(), "traffic_plan_slices");
+        }
+        if (planSlices > 1 && streamArrivals) {
+            throw new PropertyConflictException(Simulator.getConfiguration(), "traffic_plan_slices", "traffic_arrivals_streaming");
+        }
+        this.hierarchicalPairs = Simulator.getConfiguration().getBooleanPropertyWithDefault("traffic_pair_sampling_hierarchical", false);
+        this.torToServers = null;
+        this.serverRng = null;
+    }
+
+    /**
+     * Select how the communication pairs are drawn.
+     *
+     * Selected using following property:
+     * traffic_pair_sampling=cumulative (default, same pairs as before for the same seed) | alias (constant time draw)
+     *
+     * @return  Pair sampling method
+     */
+    private static RandomPairCollection.Method selectPairSamplingMethod() {
+        switch (Simulator.getConfiguration().getPropertyWithDefault("traffic_pair_sampling", "cumulative")) {
+
+            case "cumulative":
+                return RandomPairCollection.Method.CUMULATIVE;
+
+            case "alias":
+                return RandomPairCollection.Method.ALIAS;
+
+            default:
+                throw new PropertyValueInvalidException(Simulator.getConfiguration(), "traffic_pair_sampling");
+
+        }
     }
 
     /**
@@ -59,6 +109,11 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
      * @param lambdaFlowStartsPerSecond Poisson-arrival lambda
      * @param flowSizeDistribution      Flow size distribution
      * @param pairDistribution          Choice of static pair distribution which is valid for any topology
+     *
+     * The distributions over ToR pairs (pareto skew, all-to-all fraction and dual all-to-all fraction)
+     * by default add every server pair of every ToR pair. With traffic_pair_sampling_hierarchical=true
+     * only the ToR pairs are added, and the source and destination server are drawn uniformly
+     * out of the servers of the drawn ToRs.
      */
     public PoissonArrivalPlanner(Map<Integer, TransportLayer> idToTransportLayerMap, double lambdaFlowStartsPerSecond, FlowSizeDistribution flowSizeDistribution, PairDistribution pairDistribution) {
         this(idToTransportLayerMap, lambdaFlowStartsPerSecond, flowSizeDistribution);
@@ -146,13 +201,17 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
                 if (i != j) {
 
                     double torPairProb = probRes.get(i) * probRes.get(j) / (1 - torExcluded); // ToR-pair probability with diagonal waste normalized out
+                    if (hierarchicalPairs) {
+                        this.addTorPair(torPairProb, tors.get(i), tors.get(j));
+                        continue;
+                    }
                     List<Integer> srcServers = new ArrayList<>(Simulator.getConfiguration().getGraphDetails().getServersOfTor(tors.get(i)));
                     List<Integer> dstServers = new ArrayList<>(Simulator.getConfiguration().getGraphDetails().getServersOfTor(tors.get(j)));
 
                     double serverProb = torPairProb / (srcServers.size() * dstServers.size());
                     for (int src : srcServers) {
                         for (int dst : dstServers) {
-                            this.randomPairGenerator.add(serverProb, new ImmutablePair<>(src, dst));
+                            this.randomPairGenerator.add(serverProb, src, dst);
                         }
                     }
 
@@ -168,6 +227,37 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
 
     }
 
+    /**
+     * Add a ToR pair of which the source and destination server are drawn uniformly
+     * out of the servers of the ToRs, instead of adding every server pair.
+     *
+     * @param torPairProb   Probability of the ToR pair
+     * @param srcTor        Source ToR identifier
+     * @param dstTor        Destination ToR identifier
+     */
+    private void addTorPair(double torPairProb, int srcTor, int dstTor) {
+        if (torToServers == null) {
+            torToServers = new HashMap<>();
+            serverRng = Simulator.selectIndependentRandom("pair_probabilities_server_draw");
+        }
+        for (int tor : new int[]{srcTor, dstTor}) {
+            if (!torToServers.containsKey(tor)) {
+                Set<Integer> serversOfTor = Simulator.getConfiguration().getGraphDetails().getServersOfTor(tor);
+                if (serversOfTor.isEmpty()) {
+                    throw new IllegalArgumentException("Cannot draw a server of ToR " + tor + " as it has no servers.");
+                }
+                int[] servers = new int[serversOfTor.size()];
+                int k = 0;
+                for (int server : serversOfTor) {
+                    servers[k++] = server;
+                }
+                Arrays.sort(servers);
+                torToServers.put(tor, servers);
+            }
+        }
+        this.randomPairGenerator.add(torPairProb, srcTor, dstTor);
+    }
+
     /**
      * Set the communication pair probabilities to be all-to-all uniform.
      */
@@ -182,7 +272,7 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
         for (Integer src : this.idToTransportLayerMap.keySet()){
             for (Integer dst : this.idToTransportLayerMap.keySet()){
                 if(!src.equals(dst)) {
-                    this.randomPairGenerator.add(pdfNumBytes, new ImmutablePair<>(src, dst));
+                    this.randomPairGenerator.add(pdfNumBytes, src, dst);
                 }
             }
         }
@@ -221,7 +311,7 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
             chosen.add(servers.get(i));
             for (int j = 0; j < numChosenServers; j++) {
                 if (i != j) {
-                    this.randomPairGenerator.add(serverPairProb, new ImmutablePair<>(servers.get(i), servers.get(j)));
+                    this.randomPairGenerator.add(serverPairProb, servers.get(i), servers.get(j));
                 }
 
             }
@@ -272,10 +362,15 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
                     int torA = tors.get(i);
                     int torB = tors.get(j);
 
+                    if (hierarchicalPairs) {
+                        this.addTorPair(1.0 / (numChosenTors * (numChosenTors - 1)), torA, torB);
+                        continue;
+                    }
+
                     for (Integer svrA : Simulator.getConfiguration().getGraphDetails().getServersOfTor(torA)) {
                         for (Integer svrB : Simulator.getConfiguration().getGraphDetails().getServersOfTor(torB)) {
                             // Add to random pair generator
-                            this.randomPairGenerator.add(serverPairProb, new ImmutablePair<>(svrA, svrB));
+                            this.randomPairGenerator.add(serverPairProb, svrA, svrB);
                         }
                     }
 
@@ -342,13 +437,17 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
 
                     // ToR-pair probability with diagonal waste normalized out
                     double torPairProb = torProbI * torProbJ / (1 - wastedProbability);
+                    if (hierarchicalPairs) {
+                        this.addTorPair(torPairProb, tors.get(i), tors.get(j));
+                        continue;
+                    }
                     List<Integer> srcServers = new ArrayList<>(Simulator.getConfiguration().getGraphDetails().getServersOfTor(tors.get(i)));
                     List<Integer> dstServers = new ArrayList<>(Simulator.getConfiguration().getGraphDetails().getServersOfTor(tors.get(j)));
 
                     double serverProb = torPairProb / (srcServers.size() * dstServers.size());
                     for (int src : srcServers) {
                         for (int dst : dstServers) {
-                            this.randomPairGenerator.add(serverProb, new ImmutablePair<>(src, dst));
+                            this.randomPairGenerator.add(serverProb, src, dst);
                         }
                     }
 
@@ -410,7 +509,7 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
                 if (i != j) {
                     // ToR-pair probability with diagonal waste normalized out
                     double torPairProb = torProbI * torProbJ / (1 - wastedProbability);
-                    this.randomPairGenerator.add(torPairProb, new ImmutablePair<>(tors.get(i), tors.get(j)));
+                    this.randomPairGenerator.add(torPairProb, tors.get(i), tors.get(j));
                 }
 
             }
@@ -471,8 +570,8 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
             // Add to random pair generator
             for (Integer svrA : Simulator.getConfiguration().getGraphDetails().getServersOfTor(first)) {
                 for (Integer svrB : Simulator.getConfiguration().getGraphDetails().getServersOfTor(second)) {
-                    this.randomPairGenerator.add(serverPairProb, new ImmutablePair<>(svrA, svrB));
-                    this.randomPairGenerator.add(serverPairProb, new ImmutablePair<>(svrB, svrA));
+                    this.randomPairGenerator.add(serverPairProb, svrA, svrB);
+                    this.randomPairGenerator.add(serverPairProb, svrB, svrA);
                 }
             }
             chosen.add(new ImmutablePair<>(first, second));
@@ -542,7 +641,7 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
                 double pdfNumBytes = Double.valueOf(spl[3]);
 
                 // Add random pair generator
-                this.randomPairGenerator.add(pdfNumBytes, new ImmutablePair<>(src, dst));
+                this.randomPairGenerator.add(pdfNumBytes, src, dst);
 
                 // Add to total probability sum
                 totalPdfSum += pdfNumBytes;
@@ -567,17 +666,271 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
     @Override
     public void createPlan(long durationNs) {
 
-        System.out.print("Creating arrival plan...");
+        PoissonArrivalStream stream = new PoissonArrivalStream(durationNs);
 
-        // Statistics tracking
-        long time = 0;
-        int x = 0;
-        long sum = 0;
+        // Generate the flows lazily during the run
+        if (streamArrivals) {
+            registerFlowArrivalStream(stream);
+            SimulationLogger.registerCallbackBeforeClose(stream);
+            System.out.println("Poisson Arrival plan is streamed during the run.");
+            return;
+        }
+
+        // Generate the time slices of the flows in parallel
+        if (planSlices > 1) {
+            createPlanInSlices(durationNs, planSlices);
+            return;
+        }
+
+        System.out.print("Creating arrival plan...");
 
         // Generate flow start events until the duration
         // of the experiment has lapsed
         long nextProgressLog = durationNs / 10;
-        while (time <= durationNs) {
+        while (stream.advance()) {
+
+            // Register flow
+            registerFlow(stream.getStartTime(), stream.getSrcId(), stream.getDstId(), stream.getFlowSizeByte());
+
+            if (stream.getNextStartTime() > nextProgressLog) {
+                System.out.print(" " + (100 * stream.getNextStartTime() / durationNs) + "%...");
+                nextProgressLog += durationNs / 10;
+            }
+
+        }
+
+        System.out.println(" done.");
+
+        // Log plan created
+        System.out.println("Poisson Arrival plan created.");
+        System.out.println("Number of flows created: " + stream.numFlows + ".");
+        System.out.println("Mean inter-arrival time: " + (stream.sumInterArrivalTime / stream.numFlows) + " (expectation: "
+                + (1 / (lambdaFlowStartsPerSecond / 1e9)) + ")");
+        stream.callBeforeClose();
+
+    }
+
+
+    /**
+     * Create the plan by generating the flow arrivals of equal time slices of the run
+     * in parallel, each with its own random number generators for the inter-arrival
+     * times and pairs, and then registering them in time order. The flow sizes are
+     * drawn in time order while registering, such that the plan only depends on the
+     * seed and the number of slices. The first slice uses the random number generators
+     * of the sequential plan, such that a single slice gives the sequential plan.
+     *
+     * Selected using following property:
+     * traffic_plan_slices=...  (default: 1, i.e. sequentially generated plan)
+     *
+     * @param durationNs    Duration of the plan in nanoseconds
+     * @param numSlices     Number of slices
+     */
+    void createPlanInSlices(long durationNs, int numSlices) {
+
+        System.out.print("Creating arrival plan in " + numSlices + " slices...");
+
+        // Random number generators of each slice are selected in order
+        randomPairGenerator.prepare();
+        List<PlanSlice> slices = new ArrayList<>();
+        slices.add(new PlanSlice(0, durationNs / numSlices, true, numSlices == 1, ownIndependentRng, pairRng, torToServers == null ? null : serverRng));
+        for (int i = 1; i < numSlices; i++) {
+            slices.add(new PlanSlice(
+                    durationNs * i / numSlices,
+                    durationNs * (i + 1) / numSlices,
+                    false,
+                    i == numSlices - 1,
+                    Simulator.selectIndependentRandom("poisson_inter_arrival_slice_" + i),
+                    Simulator.selectIndependentRandom("pair_probabilities_draw_slice_" + i),
+                    torToServers == null ? null : Simulator.selectIndependentRandom("pair_probabilities_server_draw_slice_" + i)
+            ));
+        }
+
+        // Generate the slices in parallel
+        ForkJoinPool pool = new ForkJoinPool(Math.min(numSlices, Runtime.getRuntime().availableProcessors()));
+        try {
+            for (PlanSlice slice : slices) {
+                pool.execute(slice);
+            }
+            for (PlanSlice slice : slices) {
+                slice.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Register the flows in time order
+        int numFlows = 0;
+        long sumInterArrivalTime = 0;
+        for (PlanSlice slice : slices) {
+            long[] flowSizeBytes = new long[slice.numFlows];
+            flowSizeDistribution.generateFlowSizeBytes(flowSizeBytes, 0, slice.numFlows);
+            for (int k = 0; k < slice.numFlows; k++) {
+                registerFlow(slice.startTimes[k], slice.srcIds[k], slice.dstIds[k], flowSizeBytes[k]);
+            }
+            numFlows += slice.numFlows;
+            sumInterArrivalTime += slice.sumInterArrivalTime;
+        }
+
+        System.out.println(" done.");
+
+        // Log plan created
+        System.out.println("Poisson Arrival plan created.");
+        System.out.println("Number of flows created: " + numFlows + ".");
+        System.out.println("Mean inter-arrival time: " + (sumInterArrivalTime / numFlows) + " (expectation: "
+                + (1 / (lambdaFlowStartsPerSecond / 1e9)) + ")");
+        logPlanStatistics(numFlows, sumInterArrivalTime);
+
+    }
+
+    /**
+     * Draw a Poisson (exponentially distributed) inter-arrival time.
+     *
+     * @param rng   Random number generator
+     *
+     * @return  Inter-arrival time in nanoseconds
+     */
+    private long drawInterArrivalTime(Random rng) {
+        return (long) (-Math.log(rng.nextDouble()) / (lambdaFlowStartsPerSecond / 1e9));
+    }
+
+    /**
+     * Log the statistics of the created plan.
+     *
+     * @param numFlows              Number of flows
+     * @param sumInterArrivalTime   Sum of the drawn inter-arrival times
+     */
+    private void logPlanStatistics(int numFlows, long sumInterArrivalTime) {
+        SimulationLogger.logInfo("Flow planner number flows", String.valueOf(numFlows));
+        SimulationLogger.logInfo("Flow planner mean inter-arrival time", String.valueOf((sumInterArrivalTime / numFlows)));
+        SimulationLogger.logInfo("Flow planner expected inter-arrival time", String.valueOf((1 / (lambdaFlowStartsPerSecond / 1e9))));
+        SimulationLogger.logInfo("Flow planner poisson rate lambda (flow starts/s)", String.valueOf(lambdaFlowStartsPerSecond));
+    }
+
+    /**
+     * Flow arrivals (without their size) in a time slice of the run, which
+     * are generated independently of the other slices.
+     */
+    private class PlanSlice extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // Slice [startNs, endNs), and the end inclusive for the last slice
+        private final long startNs;
+        private final long endNs;
+        private final boolean first;
+        private final boolean last;
+
+        // Random number generators of this slice
+        private final Random interArrivalRng;
+        private final Random pairRng;
+        private final Random serverRng;
+
+        // Generated arrivals
+        private int numFlows;
+        private long[] startTimes;
+        private int[] srcIds;
+        private int[] dstIds;
+        private long sumInterArrivalTime;
+
+        PlanSlice(long startNs, long endNs, boolean first, boolean last, Random interArrivalRng, Random pairRng, Random serverRng) {
+            this.startNs = startNs;
+            this.endNs = endNs;
+            this.first = first;
+            this.last = last;
+            this.interArrivalRng = interArrivalRng;
+            this.pairRng = pairRng;
+            this.serverRng = serverRng;
+            this.numFlows = 0;
+            this.startTimes = new long[16];
+            this.srcIds = new int[16];
+            this.dstIds = new int[16];
+            this.sumInterArrivalTime = 0;
+        }
+
+        @Override
+        protected void compute() {
+
+            // The first slice starts with an arrival, as the sequential plan, the others are
+            // memoryless continuations of the Poisson process
+            long nextStartTime = startNs;
+            if (!first) {
+                long interArrivalTime = drawInterArrivalTime(interArrivalRng);
+                sumInterArrivalTime += interArrivalTime;
+                nextStartTime += interArrivalTime;
+            }
+
+            while (nextStartTime < endNs || (last && nextStartTime == endNs)) {
+
+                // Draw pair
+                int pairIndex = randomPairGenerator.draw(pairRng);
+                int srcId = randomPairGenerator.getSrcId(pairIndex);
+                int dstId = randomPairGenerator.getDstId(pairIndex);
+                if (serverRng != null) {
+                    int[] srcServers = torToServers.get(srcId);
+                    int[] dstServers = torToServers.get(dstId);
+                    srcId = srcServers[serverRng.nextInt(srcServers.length)];
+                    dstId = dstServers[serverRng.nextInt(dstServers.length)];
+                }
+
+                // Store arrival
+                if (numFlows == startTimes.length) {
+                    startTimes = Arrays.copyOf(startTimes, 2 * numFlows);
+                    srcIds = Arrays.copyOf(srcIds, 2 * numFlows);
+                    dstIds = Arrays.copyOf(dstIds, 2 * numFlows);
+                }
+                startTimes[numFlows] = nextStartTime;
+                srcIds[numFlows] = srcId;
+                dstIds[numFlows] = dstId;
+                numFlows++;
+
+                // Advance time to next arrival
+                long interArrivalTime = drawInterArrivalTime(interArrivalRng);
+                sumInterArrivalTime += interArrivalTime;
+                nextStartTime += interArrivalTime;
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Poisson arrival process, with each arrival drawing its pair
+     * and flow size at the moment it is generated.
+     */
+    private class PoissonArrivalStream implements FlowArrivalStream, LoggerCallback {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long durationNs;
+
+        // Current arrival
+        private long startTime;
+        private int srcId;
+        private int dstId;
+        private long flowSizeByte;
+
+        // Start of the arrival after the current one
+        private long nextStartTime;
+
+        // Statistics tracking
+        private int numFlows;
+        private long sumInterArrivalTime;
+
+        PoissonArrivalStream(long durationNs) {
+            this.durationNs = durationNs;
+            this.nextStartTime = 0;
+            this.numFlows = 0;
+            this.sumInterArrivalTime = 0;
+        }
+
+        @Override
+        public boolean advance() {
+
+            // No more arrivals after the duration of the experiment has lapsed
+            if (nextStartTime > durationNs) {
+                return false;
+            }
 
             // Poisson arrival
             //
@@ -589,51 +942,65 @@ public class PoissonArrivalPlanner extends TrafficPlanner {
             // <=>
             // x = -ln( Uniform(x) ) / lambda
             //
-            long interArrivalTime = (long) (-Math.log(ownIndependentRng.nextDouble()) / (lambdaFlowStartsPerSecond / 1e9));
+            long interArrivalTime = drawInterArrivalTime(ownIndependentRng);
 
             // Uniform arrival
             //
             // long interArrivalTime = (long) (1 / (lambdaFlowStartsPerSecond / 1e9));
 
             // Add to sum for later statistics
-            sum += interArrivalTime;
-
-            // Register flow
-            Pair<Integer, Integer> pair = choosePair();
-            registerFlow(time, pair.getLeft(), pair.getRight(), flowSizeDistribution.generateFlowSizeByte());
+            sumInterArrivalTime += interArrivalTime;
+
+            // Draw flow
+            randomPairGenerator.next();
+            startTime = nextStartTime;
+            srcId = randomPairGenerator.getDrawnSrcId();
+            dstId = randomPairGenerator.getDrawnDstId();
+            if (torToServers != null) {
+                int[] srcServers = torToServers.get(srcId);
+                int[] dstServers = torToServers.get(dstId);
+                srcId = srcServers[serverRng.nextInt(srcServers.length)];
+                dstId = dstServers[serverRng.nextInt(dstServers.length)];
+            }
+            flowSizeByte = flowSizeDistribution.generateFlowSizeByte();
 
             // Advance time to next arrival
-            time += interArrivalTime;
-            x++;
+            nextStartTime += interArrivalTime;
+            numFlows++;
 
-            if (time > nextProgressLog) {
-                System.out.print(" " + (100 * time / durationNs) + "%...");
-                nextProgressLog += durationNs / 10;
-            }
+            return true;
 
         }
 
-        System.out.println(" done.");
+        @Override
+        public long getStartTime() {
+            return startTime;
+        }
 
-        // Log plan created
-        System.out.println("Poisson Arrival plan created.");
-        System.out.println("Number of flows created: " + x + ".");
-        System.out.println("Mean inter-arrival time: " + (sum / x) + " (expectation: "
-                + (1 / (lambdaFlowStartsPerSecond / 1e9)) + ")");
-        SimulationLogger.logInfo("Flow planner number flows", String.valueOf(x));
-        SimulationLogger.logInfo("Flow planner mean inter-arrival time", String.valueOf((sum / x)));
-        SimulationLogger.logInfo("Flow planner expected inter-arrival time", String.valueOf((1 / (lambdaFlowStartsPerSecond / 1e9))));
-        SimulationLogger.logInfo("Flow planner poisson rate lambda (flow starts/s)", String.valueOf(lambdaFlowStartsPerSecond));
+        @Override
+        public int getSrcId() {
+            return srcId;
+        }
 
-    }
+        @Override
+        public int getDstId() {
+            return dstId;
+        }
+
+        @Override
+        public long getFlowSizeByte() {
+            return flowSizeByte;
+        }
+
+        long getNextStartTime() {
+            return nextStartTime;
+        }
+
+        @Override
+        public void callBeforeClose() {
+            logPlanStatistics(numFlows, sumInterArrivalTime);
+        }
 
-    /**
-     * Choose a random pair based on their probability density weight.
-     *
-     * @return (src, dst) pair
-     */
-    private Pair<Integer, Integer> choosePair() {
-        return this.randomPairGenerator.next();
     }
 
 }
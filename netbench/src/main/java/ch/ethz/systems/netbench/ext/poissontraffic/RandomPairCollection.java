@@ -0,0 +1,273 @@
+package ch.ethz.systems.netbench.ext.poissontraffic;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Weighted collection of (source, destination) pairs to draw from, kept in
+ * primitive arrays instead of a map of boxed pairs.
+ *
+ * A draw is done in either of two ways:
+ * (a) Cumulative: binary search of a uniform random number in the cumulative
+ *     weights, which draws exactly the same pairs as {@link RandomCollection}
+ *     given the same random number generator and sequence of additions;
+ * (b) Alias: Walker's alias method (as constructed by Vose), which draws
+ *     in constant time, but a different sequence of pairs.
+ *
+ * Both consume a single random double per draw. The table is built at the
+ * first draw (or preparation), after which no more pairs can be added. Once
+ * prepared, pairs can be drawn concurrently with independent generators
+ * using {@link #draw(Random)}.
+ */
+public class RandomPairCollection implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Method {
+        CUMULATIVE,
+        ALIAS
+    }
+
+    private final Random random;
+    private final Method method;
+
+    // Pairs and their weight (cumulative for the cumulative method)
+    private int size;
+    private int[] srcIds;
+    private int[] dstIds;
+    private double[] weights;
+    private double total;
+
+    // Alias table (only for the alias method, built at the first draw)
+    private double[] aliasProbability;
+    private int[] alias;
+    private boolean built;
+
+    // Last drawn pair
+    private int drawnIndex;
+
+    /**
+     * Instantiate random pair collection.
+     *
+     * @param random    Random number generator instance
+     * @param method    Method of drawing
+     */
+    public RandomPairCollection(Random random, Method method) {
+        this.random = random;
+        this.method = method;
+        this.size = 0;
+        this.srcIds = new int[16];
+        this.dstIds = new int[16];
+        this.weights = new double[16];
+        this.total = 0;
+        this.built = false;
+        this.drawnIndex = -1;
+    }
+
+    /**
+     * Add a new pair with the given weight.
+     *
+     * @param weight    Probability weight of the pair
+     * @param srcId     Source node identifier
+     * @param dstId     Destination node identifier
+     */
+    public void add(double weight, int srcId, int dstId) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Cannot add negative weight (" + weight + ") to random pair collection.");
+        }
+        if (built) {
+            throw new IllegalStateException("Cannot add a pair to a random pair collection after it has been drawn from.");
+        }
+        if (size == srcIds.length) {
+            int capacity = 2 * size;
+            srcIds = Arrays.copyOf(srcIds, capacity);
+            dstIds = Arrays.copyOf(dstIds, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        total += weight;
+        srcIds[size] = srcId;
+        dstIds[size] = dstId;
+        weights[size] = method == Method.CUMULATIVE ? total : weight;
+        size++;
+    }
+
+    /**
+     * Retrieve the number of pairs.
+     *
+     * @return  Number of pairs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Prepare the collection to be drawn from, after which no more pairs can be added.
+     * The collection must have a total weight extremely close to 1.
+     */
+    public void prepare() {
+        if (!built) {
+            build();
+        }
+    }
+
+    /**
+     * Independently draw, respecting the weights, a next pair out of the collection.
+     * The collection must have a total weight extremely close to 1.
+     * The drawn pair is retrieved using {@link #getDrawnSrcId()} and {@link #getDrawnDstId()}.
+     */
+    public void next() {
+        prepare();
+        drawnIndex = draw(random);
+    }
+
+    /**
+     * Draw, respecting the weights, a pair out of the prepared collection using
+     * the given random number generator.
+     *
+     * @param random    Random number generator instance
+     *
+     * @return  Index of the drawn pair
+     */
+    public int draw(Random random) {
+        if (!built) {
+            throw new IllegalStateException("Random pair collection must be prepared before drawing with another random number generator.");
+        }
+        double value = random.nextDouble();
+        if (method == Method.CUMULATIVE) {
+            return ceilingIndex(value);
+        } else {
+            double scaled = value * size;
+            int column = Math.min((int) scaled, size - 1);
+            return scaled - column < aliasProbability[column] ? column : alias[column];
+        }
+    }
+
+    /**
+     * Retrieve the source node identifier of a pair.
+     *
+     * @param index     Pair index
+     *
+     * @return  Source node identifier
+     */
+    public int getSrcId(int index) {
+        return srcIds[index];
+    }
+
+    /**
+     * Retrieve the destination node identifier of a pair.
+     *
+     * @param index     Pair index
+     *
+     * @return  Destination node identifier
+     */
+    public int getDstId(int index) {
+        return dstIds[index];
+    }
+
+    /**
+     * Retrieve the source node identifier of the last drawn pair.
+     *
+     * @return  Source node identifier
+     */
+    public int getDrawnSrcId() {
+        return srcIds[drawnIndex];
+    }
+
+    /**
+     * Retrieve the destination node identifier of the last drawn pair.
+     *
+     * @return  Destination node identifier
+     */
+    public int getDrawnDstId() {
+        return dstIds[drawnIndex];
+    }
+
+    /**
+     * Find the pair of which the cumulative weight is the smallest at least the value.
+     * As with a map of cumulative weights, a pair of which the weight vanished in the
+     * cumulative sum is overruled by the pair added after it.
+     *
+     * @param value     Value in [0, 1)
+     *
+     * @return  Pair index
+     */
+    private int ceilingIndex(double value) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (weights[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        while (low < size - 1 && weights[low + 1] == weights[low]) {
+            low++;
+        }
+        return low;
+    }
+
+    /**
+     * Check the total weight, trim the arrays and build the alias table if needed.
+     */
+    private void build() {
+        if (Math.abs(1.0 - total) > 1e-4) {
+            throw new IllegalArgumentException("Total weight (" + total + ") in random pair collection differs too much (> 1e-4) from 1.");
+        }
+        srcIds = Arrays.copyOf(srcIds, size);
+        dstIds = Arrays.copyOf(dstIds, size);
+        if (method == Method.ALIAS) {
+            buildAliasTable();
+            weights = null;
+        } else {
+            weights = Arrays.copyOf(weights, size);
+        }
+        built = true;
+    }
+
+    /**
+     * Build the alias table using Vose's method.
+     */
+    private void buildAliasTable() {
+        aliasProbability = new double[size];
+        alias = new int[size];
+
+        // Scaled weights, split in those below and above the mean
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int numSmall = 0;
+        int numLarge = 0;
+        for (int i = 0; i < size; i++) {
+            aliasProbability[i] = weights[i] * size / total;
+            if (aliasProbability[i] < 1.0) {
+                small[numSmall++] = i;
+            } else {
+                large[numLarge++] = i;
+            }
+        }
+
+        // Fill each small column up with a large one
+        while (numSmall > 0 && numLarge > 0) {
+            int s = small[--numSmall];
+            int l = large[--numLarge];
+            alias[s] = l;
+            aliasProbability[l] = (aliasProbability[l] + aliasProbability[s]) - 1.0;
+            if (aliasProbability[l] < 1.0) {
+                small[numSmall++] = l;
+            } else {
+                large[numLarge++] = l;
+            }
+        }
+
+        // Remaining columns are full (up to rounding errors)
+        while (numLarge > 0) {
+            aliasProbability[large[--numLarge]] = 1.0;
+        }
+        while (numSmall > 0) {
+            aliasProbability[small[--numSmall]] = 1.0;
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package ch.ethz.systems.netbench.ext.poissontraffic.flowsize;
+
+/**
+ * Flow size distribution over a discrete set of flow sizes, drawn by inverse
+ * CDF lookup: a uniform outcome results in the first flow size of which the
+ * cumulative probability is at least the outcome.
+ *
+ * The lookup starts from a table, precomputed at construction, of the first
+ * possible flow size of each of a number of equal cells of the outcome range,
+ * such that a draw takes (almost always) a single comparison.
+ */
+public abstract class DiscreteFlowSizeDistribution extends FlowSizeDistribution {
+
+    private static final long serialVersionUID = 1L;
+
+    // Number of cells of the lookup table
+    private static final int NUM_CELLS = 1024;
+
+    // Flow sizes and their cumulative probability (the last is 1.0)
+    private final double[] cumulativeProbabilities;
+    private final long[] flowSizesBytes;
+
+    // First possible flow size index of each cell
+    private final int[] cellStartIndex;
+
+    /**
+     * Discrete flow size distribution.
+     *
+     * @param cumulativeProbabilities   Cumulative probability up to and including each flow size (ascending, the last is 1.0)
+     * @param flowSizesBytes            Flow sizes in bytes
+     */
+    DiscreteFlowSizeDistribution(double[] cumulativeProbabilities, long[] flowSizesBytes) {
+        if (cumulativeProbabilities.length != flowSizesBytes.length || cumulativeProbabilities[cumulativeProbabilities.length - 1] != 1.0) {
+            throw new IllegalArgumentException("Every flow size must have a cumulative probability, of which the last is 1.0.");
+        }
+        this.cumulativeProbabilities = cumulativeProbabilities;
+        this.flowSizesBytes = flowSizesBytes;
+        this.cellStartIndex = new int[NUM_CELLS];
+        int index = 0;
+        for (int cell = 0; cell < NUM_CELLS; cell++) {
+            double cellStart = (double) cell / NUM_CELLS;
+            while (cumulativeProbabilities[index] < cellStart) {
+                index++;
+            }
+            cellStartIndex[cell] = index;
+        }
+    }
+
+    @Override
+    public long generateFlowSizeByte() {
+        return lookup(independentRng.nextDouble());
+    }
+
+    @Override
+    public void generateFlowSizeBytes(long[] flowSizeBytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            flowSizeBytes[i] = lookup(independentRng.nextDouble());
+        }
+    }
+
+    /**
+     * Look up the flow size of an outcome.
+     *
+     * @param outcome   Uniform outcome in [0, 1)
+     *
+     * @return  Flow size in bytes
+     */
+    private long lookup(double outcome) {
+        int index = cellStartIndex[(int) (outcome * NUM_CELLS)];
+        while (cumulativeProbabilities[index] < outcome) {
+            index++;
+        }
+        return flowSizesBytes[index];
+    }
+
+}
@@ -2,9 +2,12 @@ package ch.ethz.systems.netbench.ext.poissontraffic.flowsize;
 
 import ch.ethz.systems.netbench.core.Simulator;
 
+import java.io.Serializable;
 import java.util.Random;
 
-public abstract class FlowSizeDistribution {
+public abstract class FlowSizeDistribution implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     Random independentRng;
 
@@ -13,4 +16,19 @@ public abstract class FlowSizeDistribution {
     }
 
     public abstract long generateFlowSizeByte();
+
+    /**
+     * Generate a block of flow sizes, which are the same as generated
+     * by as many consecutive calls of {@link #generateFlowSizeByte()}.
+     *
+     * @param flowSizeBytes     Flow sizes in bytes (output)
+     * @param offset            Index of the first flow size to generate
+     * @param length            Number of flow sizes to generate
+     */
+    public void generateFlowSizeBytes(long[] flowSizeBytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            flowSizeBytes[i] = generateFlowSizeByte();
+        }
+    }
+
 }
@@ -27,44 +27,16 @@ import ch.ethz.systems.netbench.core.log.SimulationLogger;
  * 23199798.6 bytes
  * At 10 Gbps would take 18.6ms
 */
-public class PFabricDataMiningUpperBoundFSD extends FlowSizeDistribution {
+public class PFabricDataMiningUpperBoundFSD extends DiscreteFlowSizeDistribution {
+
+    private static final long serialVersionUID = 1L;
 
     public PFabricDataMiningUpperBoundFSD() {
-        super();
+        super(
+                new double[]{0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 0.95, 0.98, 1.0},
+                new long[]{180, 216, 560, 900, 1100, 1870, 3160, 10000, 400000, 3160000, 100000000, 1000000000}
+        );
         SimulationLogger.logInfo("Flow planner flow size dist.", "pFabric data mining upper bound discrete");
     }
 
-    @Override
-    public long generateFlowSizeByte() {
-
-        double outcome = independentRng.nextDouble();
-
-        if (outcome >= 0.0 && outcome <= 0.1) {
-            return 180;
-        } else if (outcome >= 0.1 && outcome <= 0.2) {
-            return 216;
-        } else if (outcome >= 0.2 && outcome <= 0.3) {
-            return 560;
-        } else if (outcome >= 0.3 && outcome <= 0.4) {
-            return 900;
-        } else if (outcome >= 0.4 && outcome <= 0.5) {
-            return 1100;
-        } else if (outcome >= 0.5 && outcome <= 0.6) {
-            return 1870;
-        } else if (outcome >= 0.6 && outcome <= 0.7) {
-            return 3160;
-        } else if (outcome >= 0.7 && outcome <= 0.8) {
-            return 10000;
-        } else if (outcome >= 0.8 && outcome <= 0.9) {
-            return 400000;
-        } else if (outcome >= 0.9 && outcome <= 0.95) {
-            return 3160000;
-        } else if (outcome >= 0.95 && outcome <= 0.98) {
-            return 100000000;
-        } else { // outcome >= 0.98 && outcome <= 1.0
-            return 1000000000;
-        }
-
-    }
-
 }
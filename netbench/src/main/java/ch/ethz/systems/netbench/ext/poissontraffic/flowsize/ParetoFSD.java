@@ -10,6 +10,11 @@ import ch.ethz.systems.netbench.ext.poissontraffic.ParetoDistribution;
  */
 public class ParetoFSD extends FlowSizeDistribution {
 
+    private static final long serialVersionUID = 1L;
+
+    // Flow sizes are capped at one gigabyte
+    private static final long ONE_GIGABYTE = 1024 * 1024 * 1024;
+
     private ParetoDistribution distribution;
 
     /**
@@ -46,8 +51,7 @@ public class ParetoFSD extends FlowSizeDistribution {
      */
     @Override
     public long generateFlowSizeByte() {
-        long oneGigabyte = 1024*1024*1024;
-        return Math.min((long) this.distribution.draw(), oneGigabyte);
+        return Math.min((long) this.distribution.draw(), ONE_GIGABYTE);
     }
 
 }
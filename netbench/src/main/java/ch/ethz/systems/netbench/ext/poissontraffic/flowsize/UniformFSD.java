@@ -1,5 +1,7 @@
 package ch.ethz.systems.netbench.ext.poissontraffic.flowsize;
 
+import java.util.Arrays;
+
 /**
  * Uniform flow size distribution.
  *
@@ -7,6 +9,8 @@ package ch.ethz.systems.netbench.ext.poissontraffic.flowsize;
  */
 public class UniformFSD extends FlowSizeDistribution {
 
+    private static final long serialVersionUID = 1L;
+
     private long uniformFlowSizeBytes;
 
     /**
@@ -36,4 +40,9 @@ public class UniformFSD extends FlowSizeDistribution {
         return uniformFlowSizeBytes;
     }
 
+    @Override
+    public void generateFlowSizeBytes(long[] flowSizeBytes, int offset, int length) {
+        Arrays.fill(flowSizeBytes, offset, offset + length, uniformFlowSizeBytes);
+    }
+
 }
@@ -0,0 +1,113 @@
+package ch.ethz.systems.netbench.ext.threshold_routing;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.utility.LongIntHashMap;
+
+import java.io.Serializable;
+
+/**
+ * Per-flow next hop table.
+ *
+ * Entries are removed explicitly when their flow finishes. If an idle
+ * timeout is set, entries which have not been used for at least the
+ * timeout (and at most twice the timeout) are dropped as well. This is
+ * done with two generations: each timeout period the current generation
+ * becomes the previous one, and entries of the previous generation are
+ * moved back to the current one when they are used again.
+ */
+class FlowNextHopTable implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int NONE = -1;
+
+    private final long idleTimeoutNs;
+    private LongIntHashMap current;
+    private LongIntHashMap previous;
+    private long generationStartNs;
+
+    /**
+     * Create an empty table.
+     *
+     * @param idleTimeoutNs     Idle time after which an entry is dropped (zero or less to disable)
+     */
+    FlowNextHopTable(long idleTimeoutNs) {
+        this.idleTimeoutNs = idleTimeoutNs;
+        this.current = new LongIntHashMap();
+        this.previous = new LongIntHashMap();
+        this.generationStartNs = 0;
+    }
+
+    /**
+     * Retrieve the next hop of a flow.
+     *
+     * @param flowId    Flow identifier
+     *
+     * @return  Next hop identifier, or {@link #NONE} if not present
+     */
+    int get(long flowId) {
+        rotateIfDue();
+        int nextHop = current.get(flowId, NONE);
+        if (nextHop == NONE && !previous.isEmpty()) {
+            nextHop = previous.remove(flowId, NONE);
+            if (nextHop != NONE) {
+                current.put(flowId, nextHop);
+            }
+        }
+        return nextHop;
+    }
+
+    /**
+     * Set the next hop of a flow.
+     *
+     * @param flowId    Flow identifier
+     * @param nextHop   Next hop identifier
+     */
+    void put(long flowId, int nextHop) {
+        rotateIfDue();
+        current.put(flowId, nextHop);
+        previous.remove(flowId, NONE);
+    }
+
+    /**
+     * Remove the next hop of a flow.
+     *
+     * @param flowId    Flow identifier
+     */
+    void remove(long flowId) {
+        current.remove(flowId, NONE);
+        previous.remove(flowId, NONE);
+    }
+
+    /**
+     * Retrieve the number of flows in the table.
+     *
+     * @return  Number of flows
+     */
+    int size() {
+        return current.size() + previous.size();
+    }
+
+    /**
+     * Start a new generation if the timeout period has passed,
+     * which drops the entries not used during the last period.
+     */
+    private void rotateIfDue() {
+        if (idleTimeoutNs > 0) {
+            long now = Simulator.getCurrentTime();
+            if (now - generationStartNs >= idleTimeoutNs) {
+                LongIntHashMap dropped = previous;
+                dropped.clear();
+                previous = current;
+                current = dropped;
+
+                // If idle for more than two periods, everything is dropped
+                if (now - generationStartNs >= 2 * idleTimeoutNs) {
+                    previous.clear();
+                }
+                generationStartNs = now;
+            }
+        }
+    }
+
+}
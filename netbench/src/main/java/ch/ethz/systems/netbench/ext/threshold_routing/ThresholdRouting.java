@@ -1,41 +1,61 @@
 package ch.ethz.systems.netbench.ext.threshold_routing;
 
-import java.util.HashMap;
+import ch.ethz.systems.netbench.ext.basic.TcpHeader;
+
+import java.io.Serializable;
 import java.util.List;
-import java.util.Random;
 
-public class ThresholdRouting {
+public class ThresholdRouting implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private TokenBucket token_;
-    private Integer direct_path_;
+    private double threshold_bps_;
+    private int direct_path_;
     // WCMP can be realized by repeating certain next id multiple times.
-    private List<Integer> ecmp_paths_;
-    private Random rng; 
-
-    private HashMap<Long, Integer> flow_id_to_next_hop_;
+    private int[] ecmp_paths_;
 
     public ThresholdRouting (double threshold_bps, Integer direct_path,
                              List<Integer> ecmp_paths) {
         token_  = new TokenBucket(2 * (long)threshold_bps * TokenBucket.PERIOD, threshold_bps);
+        threshold_bps_ = threshold_bps;
         direct_path_ = direct_path;
-        ecmp_paths_ = ecmp_paths;
-
-        flow_id_to_next_hop_ = new HashMap<Long, Integer>();
-        rng = new Random();
+        ecmp_paths_ = new int[ecmp_paths.size()];
+        for (int i = 0; i < ecmp_paths_.length; i++) {
+            ecmp_paths_[i] = ecmp_paths.get(i);
+        }
     }
 
-    public Integer FindNextHopId (long flow_id, long packet_size_in_bits) {
+    public int FindNextHopId (long flow_id, long packet_size_in_bits) {
         if (token_.TryConsumeBucket(packet_size_in_bits)) {
             return direct_path_;
         }
 
-        if (flow_id_to_next_hop_.containsKey(flow_id)) {
-            return flow_id_to_next_hop_.get(flow_id);
-        }
-        final int random_number = this.rng.nextInt(ecmp_paths_.size());
-        Integer next_hop = ecmp_paths_.get(random_number);
-        flow_id_to_next_hop_.put(flow_id, next_hop);
-        return next_hop;
+        // The ECMP path is a hash of the flow, such that all its packets take
+        // the same path without keeping any per-flow state
+        final int flow_hash = TcpHeader.hash(direct_path_ + TcpHeader.hash((int) (flow_id ^ (flow_id >>> 32))));
+        return ecmp_paths_[flow_hash % ecmp_paths_.length];
+    }
+
+    public double GetThresholdBps () {
+        return threshold_bps_;
     }
-    
-    
+
+    public int GetDirectPath () {
+        return direct_path_;
+    }
+
+    public int GetNumEcmpPaths () {
+        return ecmp_paths_.length;
+    }
+
+    public int GetEcmpPath (int index) {
+        return ecmp_paths_[index];
+    }
+
+    // Reserve part of the threshold for traffic which does not consume tokens
+    // (e.g. fluid background flows), such that the packets get the remainder.
+    public void SetReservedBps (double reserved_bps) {
+        token_.SetRateBps(Math.max(0, threshold_bps_ - reserved_bps));
+    }
+
 }
\ No newline at end of file
@@ -88,6 +88,13 @@ public class ThresholdRoutingUtility {
             System.out.println("IO exception not found");
         }
 
+        // Compile the populated tables into their flat array representation
+        for (NetworkDevice device : idToNetworkDevice.values()) {
+            if (device instanceof ThresholdSwitchRoutingInterface) {
+                ((ThresholdSwitchRoutingInterface) device).compileThresholdRoutingTables();
+            }
+        }
+
     }
 
 }
@@ -1,5 +1,6 @@
 package ch.ethz.systems.netbench.ext.threshold_routing;
 
+import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.network.*;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
 import ch.ethz.systems.netbench.ext.basic.TcpHeader;
@@ -11,13 +12,24 @@ import java.util.Map;
 import java.util.Random;
 
 
-public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRoutingInterface {
+public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRoutingInterface, FlowFinishedListener {
+
+    private static final long serialVersionUID = 1L;
 
     // Routing table
     protected final List<List<Map.Entry<Integer, Double>>> destinationToNextSwitch;
     // Threshold routing
     protected final HashMap<Integer, HashMap<Integer, Integer>> src_dst_to_threshold_table_id;
     protected final HashMap<Integer, ThresholdRouting> threshold_routing_table;
+
+    // Compiled threshold routing (arrays built from the two tables above, see compileThresholdRoutingTables())
+    private static final int NO_MATCH = -1;
+    private static final int MISSING_THRESHOLD_TABLE = -2;
+    protected final int numNodes;
+    protected boolean thresholdTablesCompiled;
+    protected int[][] compiledSrcDstToThreshold;            // src -> dst -> index in compiledThresholdRoutings (null row if src has no match entry)
+    protected ThresholdRouting[] compiledThresholdRoutings;
+    protected OutputPort[] compiledOutputPorts;             // target identifier -> output port
     
     protected HashMap<Integer, Integer> serverToToRID; // this is used by receiveFromIntermediary() to encapsulate tcp packet, and search for dest block
     protected Random rng; 
@@ -25,7 +37,9 @@ public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRou
     protected int torID; // Used by servers connected to a ToR, and records its ID
 
 
-    protected HashMap<Long, Integer> flowIDToNextHop;
+    // Per-flow state, removed when the flow finishes or has been idle for the timeout
+    protected final long flowStateIdleTimeoutNs;
+    protected FlowNextHopTable flowIDToNextHop;
     /**
      * Constructor for ECMP switch.
      *
@@ -35,10 +49,24 @@ public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRou
      * @param intermediary      Flowlet intermediary instance (takes care of hash adaptation for flowlet support)
      */
     public ThresholdSwitch(int identifier, TransportLayer transportLayer, int n, Intermediary intermediary) {
+        this(identifier, transportLayer, n, intermediary, 0);
+    }
+
+    /**
+     * Constructor for threshold switch with idle timeout of per-flow state.
+     *
+     * @param identifier                Network device identifier
+     * @param transportLayer            Underlying server transport layer instance (set null, if none)
+     * @param n                         Number of network devices in the entire network (for routing table size)
+     * @param intermediary              Flowlet intermediary instance (takes care of hash adaptation for flowlet support)
+     * @param flowStateIdleTimeoutNs    Idle time after which per-flow state is dropped (zero or less to only drop at flow finish)
+     */
+    public ThresholdSwitch(int identifier, TransportLayer transportLayer, int n, Intermediary intermediary, long flowStateIdleTimeoutNs) {
         super(identifier, transportLayer, intermediary);
         this.destinationToNextSwitch = new ArrayList<>();
         this.serverToToRID = new HashMap<Integer, Integer>();
-        this.flowIDToNextHop = new HashMap<Long, Integer>();
+        this.flowStateIdleTimeoutNs = flowStateIdleTimeoutNs;
+        this.flowIDToNextHop = new FlowNextHopTable(flowStateIdleTimeoutNs);
         for (int i = 0; i < n; i++) {
             this.destinationToNextSwitch.add(new ArrayList<>());
         }
@@ -48,6 +76,10 @@ public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRou
         // For threshold routing
         this.src_dst_to_threshold_table_id = new HashMap<>();
         this.threshold_routing_table = new HashMap<>();
+        this.numNodes = n;
+        this.thresholdTablesCompiled = false;
+        // Per-flow state is only kept at the end points of a flow, so only their finish is of interest
+        Simulator.registerFlowFinishedListener(identifier, this);
     }
 
 
@@ -114,21 +146,24 @@ public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRou
         int srcId = tcpHeader.getSourceId();
 
         // Use new routing table to determine the next hop.
-        if (this.src_dst_to_threshold_table_id.containsKey(srcId)) {
-            HashMap<Integer, Integer> dst_to_threshold_table_id = this.src_dst_to_threshold_table_id.get(srcId);
-            if (!dst_to_threshold_table_id.containsKey(dstId)) {
+        if (!this.thresholdTablesCompiled) {
+            compileThresholdRoutingTables();
+        }
+        int[] dstToThreshold = this.compiledSrcDstToThreshold[srcId];
+        if (dstToThreshold != null) {
+            int threshold_index = dstToThreshold[dstId];
+            if (threshold_index == NO_MATCH) {
                 System.out.println("Source " + srcId + " and destination " + dstId + " cannot find a match!");
                 System.exit(1);
             }
-            Integer threshold_table_id = dst_to_threshold_table_id.get(dstId);
-            if (!this.threshold_routing_table.containsKey(threshold_table_id)) {
-                System.out.println("Threshold routing table does not have an entry with id: " + threshold_table_id);
+            if (threshold_index == MISSING_THRESHOLD_TABLE) {
+                System.out.println("Threshold routing table does not have an entry with id: " + this.src_dst_to_threshold_table_id.get(srcId).get(dstId));
                 System.exit(1);
             }
-            ThresholdRouting threshold_routing_entry = this.threshold_routing_table.get(threshold_table_id);
-            int nextHopID = threshold_routing_entry.FindNextHopId(tcpHeader.getFlowId(), genericPacket.getSizeBit()); 
-            this.targetIdToOutputPort.get(nextHopID).enqueue(genericPacket);
-            return;           
+            ThresholdRouting threshold_routing_entry = this.compiledThresholdRoutings[threshold_index];
+            int nextHopID = threshold_routing_entry.FindNextHopId(tcpHeader.getFlowId(), genericPacket.getSizeBit());
+            this.compiledOutputPorts[nextHopID].enqueue(genericPacket);
+            return;
         }
 
         // If we get here, it means that this device is a switch, not a server
@@ -139,6 +174,11 @@ public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRou
         } else if (srcId == this.identifier) {
             // find the hash table entry for next step in this table
             int nextHopID = this.flowIDToNextHop.get(tcpHeader.getFlowId());
+            if (nextHopID == FlowNextHopTable.NONE) {
+                // Not drawn when it came from the intermediary (or already dropped), so draw it now
+                nextHopID = drawNextHop(dstId, this.rng);
+                this.flowIDToNextHop.put(tcpHeader.getFlowId(), nextHopID);
+            }
             this.targetIdToOutputPort.get(nextHopID).enqueue(genericPacket);
         } else {
             // directly send to the destination port via the shortest path
@@ -153,33 +193,69 @@ public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRou
         // We want to make sure that the flow ID packets must traverse the same path to avoid 
         // out of order delivery.
         long flowId = genericPacket.getFlowId();
-        if (!this.flowIDToNextHop.containsKey(flowId)) {
+        if (this.flowIDToNextHop.get(flowId) == FlowNextHopTable.NONE) {
             TcpHeader tcpHeader = (TcpHeader) genericPacket;
-            int dstId = tcpHeader.getDestinationId();
-            int srcId = tcpHeader.getSourceId();
             // try finding the next hop here for the hashed flow
-            List<Map.Entry<Integer, Double>> possibilities = destinationToNextSwitch.get(dstId);
-            final double random_number = this.rng.nextDouble();
-            double cumulative_weights = 0;
-            int dest = -1;
-            for (Map.Entry<Integer, Double> potential_dest : possibilities) {
-                double weight = potential_dest.getValue();
-                if (random_number >= cumulative_weights && random_number < cumulative_weights + weight) {
-                    dest = potential_dest.getKey();
-                    break;
-                }
-                cumulative_weights += weight;
+            this.flowIDToNextHop.put(flowId, drawNextHop(tcpHeader.getDestinationId(), this.rng));
+        }
+        receive(genericPacket);
+    }
+
+    /**
+     * Draw the next hop of a flow originating here, respecting the weights of the next hops to the destination.
+     *
+     * @param dstId     Destination identifier
+     * @param random    Random number generator instance
+     *
+     * @return  Next hop identifier (the destination itself if there are no next hops to it)
+     */
+    public int drawNextHop(int dstId, Random random) {
+        List<Map.Entry<Integer, Double>> possibilities = destinationToNextSwitch.get(dstId);
+        final double random_number = random.nextDouble();
+        double cumulative_weights = 0;
+        int dest = -1;
+        for (Map.Entry<Integer, Double> potential_dest : possibilities) {
+            double weight = potential_dest.getValue();
+            if (random_number >= cumulative_weights && random_number < cumulative_weights + weight) {
+                dest = potential_dest.getKey();
+                break;
             }
-            if (dest < 0) {
-                if (possibilities.size() == 0) {
-                    dest = dstId;
-                } else {
-                    dest = possibilities.get(possibilities.size() - 1).getKey();
-                }
+            cumulative_weights += weight;
+        }
+        if (dest < 0) {
+            if (possibilities.size() == 0) {
+                dest = dstId;
+            } else {
+                dest = possibilities.get(possibilities.size() - 1).getKey();
             }
-            this.flowIDToNextHop.put(flowId, dest);
         }
-        receive(genericPacket);
+        return dest;
+    }
+
+    /**
+     * Retrieve the threshold routing entry matched by the source and destination here.
+     *
+     * @param srcId     Source identifier
+     * @param dstId     Destination identifier
+     *
+     * @return  Threshold routing entry (null if the source has no match entries here)
+     */
+    public ThresholdRouting getThresholdRouting(int srcId, int dstId) {
+        if (!this.thresholdTablesCompiled) {
+            compileThresholdRoutingTables();
+        }
+        int[] dstToThreshold = this.compiledSrcDstToThreshold[srcId];
+        if (dstToThreshold == null) {
+            return null;
+        }
+        int threshold_index = dstToThreshold[dstId];
+        if (threshold_index == NO_MATCH) {
+            throw new IllegalStateException("Source " + srcId + " and destination " + dstId + " cannot find a match at " + this.identifier + ".");
+        }
+        if (threshold_index == MISSING_THRESHOLD_TABLE) {
+            throw new IllegalStateException("Threshold routing table at " + this.identifier + " does not have an entry with id: " + this.src_dst_to_threshold_table_id.get(srcId).get(dstId));
+        }
+        return this.compiledThresholdRoutings[threshold_index];
     }
 
     /**
@@ -216,6 +292,17 @@ public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRou
         // Add to current ones
     }
 
+    /**
+     * Add a connection, after which the output ports are compiled again.
+     *
+     * @param outputPort    Output port instance
+     */
+    @Override
+    public void addConnection(OutputPort outputPort) {
+        super.addConnection(outputPort);
+        this.thresholdTablesCompiled = false;
+    }
+
     @Override
     public void addSrcDstToThresholdTableId(Integer src_id, Integer dst_id, int threshold_table_id) {
         // Implementation goes here.
@@ -228,6 +315,7 @@ public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRou
             System.exit(1);
         }
         dst_to_threshold_table_id.put(dst_id, threshold_table_id);
+        this.thresholdTablesCompiled = false;
     }
 
     @Override
@@ -240,6 +328,81 @@ public class ThresholdSwitch extends NetworkDevice implements ThresholdSwitchRou
         }        
         ThresholdRouting threshold_routing = new ThresholdRouting(threshold_bps, direct_path, ecmp_paths);
         this.threshold_routing_table.put(threshold_table_id, threshold_routing);
+        this.thresholdTablesCompiled = false;
+    }
+
+    /**
+     * Compile the threshold routing tables into arrays, such that
+     * the per-packet forwarding decision does not need any map lookups.
+     * Only the sources which have match entries here get a row of destinations,
+     * such that the memory is not quadratic in the number of nodes per switch.
+     * Is called after the routing tables have been populated, and
+     * otherwise lazily at the first packet after a table or port change.
+     */
+    @Override
+    public void compileThresholdRoutingTables() {
+
+        // Threshold routing entries in an array
+        HashMap<Integer, Integer> threshold_table_id_to_index = new HashMap<>();
+        this.compiledThresholdRoutings = new ThresholdRouting[this.threshold_routing_table.size()];
+        for (Map.Entry<Integer, ThresholdRouting> entry : this.threshold_routing_table.entrySet()) {
+            threshold_table_id_to_index.put(entry.getKey(), threshold_table_id_to_index.size());
+            this.compiledThresholdRoutings[threshold_table_id_to_index.get(entry.getKey())] = entry.getValue();
+        }
+
+        // Source-destination matches, with a row only for the sources which have any
+        this.compiledSrcDstToThreshold = new int[this.numNodes][];
+        for (Map.Entry<Integer, HashMap<Integer, Integer>> src_entry : this.src_dst_to_threshold_table_id.entrySet()) {
+            int[] dstToThreshold = new int[this.numNodes];
+            Arrays.fill(dstToThreshold, NO_MATCH);
+            for (Map.Entry<Integer, Integer> dst_entry : src_entry.getValue().entrySet()) {
+                Integer index = threshold_table_id_to_index.get(dst_entry.getValue());
+                dstToThreshold[dst_entry.getKey()] = (index == null ? MISSING_THRESHOLD_TABLE : index);
+            }
+            this.compiledSrcDstToThreshold[src_entry.getKey()] = dstToThreshold;
+        }
+
+        // Output ports by target identifier
+        this.compiledOutputPorts = new OutputPort[this.numNodes];
+        for (Map.Entry<Integer, OutputPort> entry : this.targetIdToOutputPort.entrySet()) {
+            this.compiledOutputPorts[entry.getKey()] = entry.getValue();
+        }
+
+        this.thresholdTablesCompiled = true;
+
+    }
+
+    /**
+     * Remove all threshold routing entries and source-destination matches. Flows which
+     * already have a next hop at this switch keep it; flows are routed by the new
+     * entries from then on.
+     */
+    @Override
+    public void clearThresholdRoutingTables() {
+        this.src_dst_to_threshold_table_id.clear();
+        this.threshold_routing_table.clear();
+        this.thresholdTablesCompiled = false;
+    }
+
+    /**
+     * Drop the per-flow state of a finished flow of which this switch is an end point.
+     *
+     * @param flowId        Flow identifier
+     * @param endpointA     Network device identifier of one end point of the flow
+     * @param endpointB     Network device identifier of the other end point of the flow
+     */
+    @Override
+    public void flowFinished(long flowId, int endpointA, int endpointB) {
+        this.flowIDToNextHop.remove(flowId);
+    }
+
+    /**
+     * Retrieve the amount of flows of which per-flow state is kept.
+     *
+     * @return  Number of flows with state in the switch
+     */
+    public int getNumFlowStates() {
+        return this.flowIDToNextHop.size();
     }
 
     public void addServerID(int serverIDarg) {
@@ -1,5 +1,6 @@
 package ch.ethz.systems.netbench.ext.threshold_routing;
 
+import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.log.SimulationLogger;
 import ch.ethz.systems.netbench.core.network.NetworkDevice;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
@@ -10,9 +11,12 @@ public class ThresholdSwitchGenerator extends NetworkDeviceGenerator {
 
     private final int numNodes;
     private final IntermediaryGenerator intermediaryGenerator;
+    private final long flowStateIdleTimeoutNs;
 
     public ThresholdSwitchGenerator(IntermediaryGenerator intermediaryGenerator, int numNodes) {
-        SimulationLogger.logInfo("Network device", "Threshold_SWITCH(numNodes=" + numNodes + ")");
+        // Per-flow state is always dropped when the flow finishes, and optionally when idle
+        this.flowStateIdleTimeoutNs = Simulator.getConfiguration().getLongPropertyWithDefault("threshold_flow_state_idle_timeout_ns", 0);
+        SimulationLogger.logInfo("Network device", "Threshold_SWITCH(numNodes=" + numNodes + ", flowStateIdleTimeoutNs=" + flowStateIdleTimeoutNs + ")");
 
         // Standard fields
         this.numNodes = numNodes;
@@ -27,7 +31,7 @@ public class ThresholdSwitchGenerator extends NetworkDeviceGenerator {
 
     @Override
     public NetworkDevice generate(int identifier, TransportLayer transportLayer) {
-        return new ThresholdSwitch(identifier, transportLayer, numNodes, intermediaryGenerator.generate(identifier));
+        return new ThresholdSwitch(identifier, transportLayer, numNodes, intermediaryGenerator.generate(identifier), flowStateIdleTimeoutNs);
     }
 
 }
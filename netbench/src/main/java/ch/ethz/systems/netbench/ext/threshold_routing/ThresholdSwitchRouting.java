@@ -25,4 +25,17 @@ public class ThresholdSwitchRouting extends RoutingPopulator {
         ThresholdRoutingUtility.populatePathRoutingTables(idToNetworkDevice, this.pathWeightsFilename);
     }
 
+    /**
+     * Replace the threshold routing tables in the network devices by those of the file.
+     */
+    @Override
+    public void repopulateRoutingTables() {
+        for (NetworkDevice device : idToNetworkDevice.values()) {
+            if (device instanceof ThresholdSwitchRoutingInterface) {
+                ((ThresholdSwitchRoutingInterface) device).clearThresholdRoutingTables();
+            }
+        }
+        populateRoutingTables();
+    }
+
 }
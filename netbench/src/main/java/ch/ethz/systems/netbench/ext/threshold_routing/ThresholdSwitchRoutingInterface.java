@@ -18,4 +18,15 @@ public interface ThresholdSwitchRoutingInterface {
     void addSrcDstToThresholdTableId(Integer src_id, Integer dst_id, int threshold_table_id);
     void addThresholdTableEntry(int threshold_table_id, double threshold_bps,
                                 Integer direct_path, List<Integer> ecmp_paths);
+
+    /**
+     * Compile the populated threshold routing tables for fast lookup.
+     */
+    void compileThresholdRoutingTables();
+
+    /**
+     * Remove all threshold routing entries and source-destination matches,
+     * such that the tables can be populated again.
+     */
+    void clearThresholdRoutingTables();
 }
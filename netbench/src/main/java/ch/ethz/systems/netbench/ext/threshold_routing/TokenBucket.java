@@ -2,7 +2,11 @@ package ch.ethz.systems.netbench.ext.threshold_routing;
 
 import ch.ethz.systems.netbench.core.Simulator;
 
-public class TokenBucket {
+import java.io.Serializable;
+
+public class TokenBucket implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     // Tokens arrival period in nanoseconds. 
     public static long PERIOD = 1000;
 
@@ -14,13 +18,29 @@ public class TokenBucket {
     
     public TokenBucket (long max_burst_in_bits, double rate_bps) {
         max_tokens_in_bits_ = max_burst_in_bits;
-        num_tokens_per_refill_ = (long) rate_bps * PERIOD / 1000000000;
+        num_tokens_per_refill_ = ((long) rate_bps) * PERIOD / 1000000000;
         cur_num_tokens_in_bits_ = num_tokens_per_refill_;
         last_refill_time_in_ns_ = 0;
     }
 
     public boolean TryConsumeBucket (long packet_size_in_bits) {
         // Refill tokens first.
+        Refill();
+        if (cur_num_tokens_in_bits_ >= packet_size_in_bits) {
+            cur_num_tokens_in_bits_ -= packet_size_in_bits;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    // Change the rate at which tokens arrive, from the current period onwards.
+    public void SetRateBps (double rate_bps) {
+        Refill();
+        num_tokens_per_refill_ = ((long) rate_bps) * PERIOD / 1000000000;
+    }
+
+    private void Refill () {
         long now = Simulator.getCurrentTime();
         long num_periods = (now - last_refill_time_in_ns_) / PERIOD;
         if (num_periods > 0) {
@@ -30,11 +50,5 @@ public class TokenBucket {
             }
             last_refill_time_in_ns_ += num_periods * PERIOD;
         }
-        if (cur_num_tokens_in_bits_ >= packet_size_in_bits) {
-            cur_num_tokens_in_bits_ -= packet_size_in_bits;
-            return true;
-        } else {
-            return false;
-        }
     }
 }
\ No newline at end of file
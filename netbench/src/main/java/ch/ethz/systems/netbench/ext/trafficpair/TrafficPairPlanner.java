@@ -14,6 +14,8 @@ import java.util.Map;
 
 public class TrafficPairPlanner extends TrafficPlanner {
 
+    private static final long serialVersionUID = 1L;
+
     private final long flowSizeByte;
 
     private String fileName;
@@ -1,5 +1,6 @@
 package ch.ethz.systems.netbench.ext.valiant;
 
+import ch.ethz.systems.netbench.core.SimulationContext;
 import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.log.SimulationLogger;
 import ch.ethz.systems.netbench.core.network.Intermediary;
@@ -7,13 +8,9 @@ import ch.ethz.systems.netbench.core.network.Packet;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
 import ch.ethz.systems.netbench.ext.basic.TcpPacket;
 
-import java.util.HashSet;
-import java.util.Set;
-
 public class RangeValiantSwitch extends ValiantEcmpSwitch {
 
-    // Which flows this switch has already seen (for statistical purposes)
-    private static Set<Long> flowSeen = new HashSet<>();
+    private static final long serialVersionUID = 1L;
 
     // Lower bound (inclusive) of valiant range
     protected final int lowBoundValiantRangeIncl;
@@ -81,10 +78,9 @@ public class RangeValiantSwitch extends ValiantEcmpSwitch {
             }
         } while (chosen == sourceToR || chosen == destinationToR);
 
-        // Log for statistic of valiant balancing
-        if (!flowSeen.contains(packet.getFlowId())) {
+        // Log for statistic of valiant balancing (once per flow in the run)
+        if (SimulationContext.current().getValiantCountedFlows().add(packet.getFlowId())) {
             SimulationLogger.increaseStatisticCounter("VAL_NODE_" + chosen);
-            flowSeen.add(packet.getFlowId());
         }
 
         // Create encapsulation
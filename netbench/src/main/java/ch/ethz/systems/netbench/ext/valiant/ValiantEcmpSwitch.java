@@ -10,6 +10,8 @@ import java.util.List;
 
 abstract class ValiantEcmpSwitch extends EcmpSwitch {
 
+    private static final long serialVersionUID = 1L;
+
     boolean isWithinExtendedTopology;
 
     /**
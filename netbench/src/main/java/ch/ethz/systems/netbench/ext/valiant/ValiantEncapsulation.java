@@ -5,6 +5,8 @@ import ch.ethz.systems.netbench.ext.basic.TcpPacket;
 
 public class ValiantEncapsulation extends IpPacket implements ValiantEncapsulationHeader {
 
+    private static final long serialVersionUID = 1L;
+
     private final TcpPacket packet;
     private final int valiantDestination;
     private boolean passedValiant;
@@ -37,6 +37,8 @@ public class Pair<K, V> {
 
 public class WcmpSwitch extends NetworkDevice implements WcmpSwitchRoutingInterface {
 
+    private static final long serialVersionUID = 1L;
+
     // Routing table
     protected final List<List<Map.Entry<Integer, Double>>> destinationToNextSwitch;
     protected HashMap<Integer, Integer> serverToToRID; // this is used by receiveFromIntermediary() to encapsulate tcp packet, and search for dest block
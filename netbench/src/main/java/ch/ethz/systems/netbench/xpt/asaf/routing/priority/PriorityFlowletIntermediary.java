@@ -23,6 +23,8 @@ import java.util.HashMap;
  */
 public class PriorityFlowletIntermediary extends FixedGapFlowletIntermediary {
 
+    private static final long serialVersionUID = 1L;
+
 	private HashMap<Long, Long> lowPriorityFlows = new HashMap<Long, Long>();
 	
     PriorityFlowletIntermediary() {
@@ -2,6 +2,7 @@
 
 package ch.ethz.systems.netbench.xpt.bandwidth_steering;
 
+import ch.ethz.systems.netbench.core.log.DebugLog;
 import ch.ethz.systems.netbench.core.network.*;
 
 import java.util.Map;
@@ -139,8 +140,9 @@ public class CentralNetworkController {
 
 	// Finds the pod-to-pod path, and decides at random whether 
 	public int findIntermediatePod(int srcPod, int dstPod, long flowId) {
-		//   annotate
-		System.out.println("  debug CentralNetworkController findIntermediatePod()");
+		if (DebugLog.TRACE) {
+			DebugLog.log("CentralNetworkController findIntermediatePod(" + srcPod + ", " + dstPod + ", " + flowId + ")");
+		}
 		// if (this.cachedFlowInterPodPaths.containsKey(flowId)) {
 		// 	return this.cachedFlowInterPodPaths.get(flowId);
 		// }
@@ -16,6 +16,8 @@ import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
 
 public class ReconfigurableNetworkSwitch extends NetworkDevice implements ReconfigurableNetworkSwitchInterface {
 
+    private static final long serialVersionUID = 1L;
+
     // Connectivity tables and topology information
     private int connectedToRId; // if this is a server then the interconnected ToR id is saved here, else it is -1
     // maps the target pod id 
@@ -4,6 +4,8 @@ import ch.ethz.systems.netbench.core.network.Link;
 
 public class ReconfigurableLink extends Link implements ReconfigurableLinkInterface {
 
+    private static final long serialVersionUID = 1L;
+
     private final long delayNs;
     private long multiplicity;
     private final long bandwidthBitPerNs;
@@ -55,4 +57,9 @@ public class ReconfigurableLink extends Link implements ReconfigurableLinkInterf
     public boolean doesNextTransmissionFail(long packetSizeBits) {
         return false;
     }
+
+    @Override
+    public boolean canTransmissionFail() {
+        return false;
+    }
 }
@@ -2,6 +2,7 @@ package ch.ethz.systems.netbench.xpt.bandwidth_steering.reconfigurable_outport;
 
 import ch.ethz.systems.netbench.core.network.OutputPort;
 import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.log.DebugLog;
 import ch.ethz.systems.netbench.core.log.SimulationLogger;
 import ch.ethz.systems.netbench.core.log.PortLogger;
 import ch.ethz.systems.netbench.core.network.NetworkDevice;
@@ -9,13 +10,13 @@ import ch.ethz.systems.netbench.core.network.Link;
 import ch.ethz.systems.netbench.core.network.Packet;
 import ch.ethz.systems.netbench.core.network.PacketArrivalEvent;
 import ch.ethz.systems.netbench.core.network.PacketDispatchedEvent;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
 import ch.ethz.systems.netbench.ext.basic.IpPacket;
 import ch.ethz.systems.netbench.ext.basic.IpHeader;
 import ch.ethz.systems.netbench.xpt.bandwidth_steering.ReconfigurableNetworkSwitch;
 import ch.ethz.systems.netbench.xpt.bandwidth_steering.reconfigurable_link.ReconfigurableLink;
 import ch.ethz.systems.netbench.xpt.bandwidth_steering.reconfiguration_planner.SignalPortReconfigurationCompletedEvent;
 
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.List;
 
 import java.util.Comparator;
@@ -39,6 +40,8 @@ import ch.ethz.systems.netbench.xpt.tcpbase.PriorityHeader;
  */
 public class ReconfigurableOutputPort extends OutputPort implements ReconfigurableOutputPortInterface {
 
+    private static final long serialVersionUID = 1L;
+
     // the state of the port
     private enum PortState {
         NORMAL, // under normal execution mode
@@ -90,7 +93,7 @@ public class ReconfigurableOutputPort extends OutputPort implements Reconfigurab
             long reconfigLatencyNs, 
             long multiplicity, 
             boolean isStaticArg) {
-        super(ownNetworkDevice, towardsNetworkDevice, link, new LinkedBlockingQueue<Packet>());
+        super(ownNetworkDevice, towardsNetworkDevice, link, new RingBufferQueue<Packet>());
         
         // super(ownNetworkDevice, towardsNetworkDevice, link, new PriorityBlockingQueue<>(INITIAL_QUEUE_CAPACITY, new Comparator<Packet>() {
         //     @Override
@@ -173,8 +176,9 @@ public class ReconfigurableOutputPort extends OutputPort implements Reconfigurab
         if (getBufferOccupiedBits() + ipHeader.getSizeBit() <= packetDropThreshold) {
             guaranteedEnqueue(packet);
         } else {
-            //  : print
-            System.out.printf("  drop packetDropThreshold: %d\n", packetDropThreshold);
+            if (DebugLog.TRACE) {
+                DebugLog.log("Packet of flow " + packet.getFlowId() + " dropped at port " + this.getOwnId() + " -> " + this.getTargetId() + " (drop threshold: " + packetDropThreshold + " bits)");
+            }
             SimulationLogger.increaseStatisticCounter("PACKETS_DROPPED");
             if (ipHeader.getSourceId() == this.getOwnId()) {
                 SimulationLogger.increaseStatisticCounter("PACKETS_DROPPED_AT_SOURCE");
@@ -194,7 +198,7 @@ public class ReconfigurableOutputPort extends OutputPort implements Reconfigurab
         // Finished sending packet, the last bit of the packet should arrive the link-delay later
         if (!link.doesNextTransmissionFail(packet.getSizeBit())) {
             Simulator.registerEvent(
-                    new PacketArrivalEvent(
+                    PacketArrivalEvent.create(
                             link.getDelayNs(),
                             packet,
                             this.getTargetDevice()
@@ -227,8 +231,8 @@ public class ReconfigurableOutputPort extends OutputPort implements Reconfigurab
                 logger.logQueueState(this.getQueueSize(), bufferOccupiedBits);
 
                 // Register when the packet is actually dispatched
-                Simulator.registerEvent(new PacketDispatchedEvent(
-                        packetFromQueue.getSizeBit() / this.link.getBandwidthBitPerNs(),
+                Simulator.registerEvent(PacketDispatchedEvent.create(
+                        getTransmissionTimeNs(packetFromQueue.getSizeBit()),
                         packetFromQueue,
                         this
                 ));
@@ -298,8 +302,8 @@ public class ReconfigurableOutputPort extends OutputPort implements Reconfigurab
                 logger.logQueueState(this.getQueueSize(), bufferOccupiedBits);
 
                 // Register when the packet is actually dispatched
-                Simulator.registerEvent(new PacketDispatchedEvent(
-                        packetFromQueue.getSizeBit() / this.link.getBandwidthBitPerNs(),
+                Simulator.registerEvent(PacketDispatchedEvent.create(
+                        getTransmissionTimeNs(packetFromQueue.getSizeBit()),
                         packetFromQueue,
                         this
                 ));
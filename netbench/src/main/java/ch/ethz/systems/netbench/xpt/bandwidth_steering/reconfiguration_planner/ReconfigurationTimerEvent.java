@@ -19,6 +19,8 @@ import java.util.AbstractMap.SimpleImmutableEntry;
  */
 public class ReconfigurationTimerEvent extends Event {
 
+    private static final long serialVersionUID = 1L;
+
     private long start_time;
     private long reconfiguration_period;
     private ArrayList<OneReconfigurationState> reconfig_state_seq;
@@ -27,7 +29,7 @@ public class ReconfigurationTimerEvent extends Event {
     /**
      * Packet arrival event constructor.
      *
-     * @param start_time      Time in simulation nanoseconds from start_time
+     * @param start_time      Time in simulation nanoseconds since simulation start
      * @param reconfiguration_period   
      * @param reconfig_state_seq      cycle 
      * @param time_section     
@@ -38,7 +40,7 @@ public class ReconfigurationTimerEvent extends Event {
         ArrayList<OneReconfigurationState> reconfig_state_seq,
         long time_section
     ) {
-        super(start_time);
+        super(start_time - Simulator.getCurrentTime());
         this.start_time = start_time;
         this.reconfiguration_period = reconfiguration_period;
         this.reconfig_state_seq = reconfig_state_seq;
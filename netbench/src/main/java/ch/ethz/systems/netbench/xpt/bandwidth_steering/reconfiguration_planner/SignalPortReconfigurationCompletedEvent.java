@@ -9,6 +9,8 @@ import ch.ethz.systems.netbench.core.network.Event;
  */
 public class SignalPortReconfigurationCompletedEvent extends Event {
 
+    private static final long serialVersionUID = 1L;
+
     private final ReconfigurableOutputPortInterface reconfigurableOutputPortInterface;
 
     /**
@@ -81,8 +81,9 @@ public class TopologyReconfigurationEpochsPlanner extends TopologyReconfiguratio
         }
 
         //  ReconfigurationTimerEvent 
-        long start_time = 0;
+        // (from the first section which has not yet started, e.g. when continuing a checkpoint)
         long time_section = 1000000;
+        long start_time = (Simulator.getCurrentTime() + time_section - 1) / time_section * time_section;
         while (true) {
             if (start_time + time_section > run_time_ns) {
                 break;
@@ -96,6 +97,17 @@ public class TopologyReconfigurationEpochsPlanner extends TopologyReconfiguratio
     }
 
 
+    /**
+     * Cancel all pending reconfiguration events, such that others can be planned instead
+     * (e.g. when continuing a checkpoint with another reconfiguration events file).
+     * Reconfigurations which have already been triggered are completed.
+     */
+    public void cancelReconfigurationEvents() {
+        int numCancelled = Simulator.cancelEvents(ReconfigurationTimerEvent.class);
+        numCancelled += Simulator.cancelEvents(TriggerReconfigurationSwitchEvent.class);
+        System.out.println("Cancelled " + numCancelled + " pending reconfiguration events.");
+    }
+
     /**
      * Extracts the path split ratios for all pod pairs.
      *
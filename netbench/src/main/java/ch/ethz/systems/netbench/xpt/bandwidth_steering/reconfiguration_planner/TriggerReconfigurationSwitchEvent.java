@@ -18,6 +18,8 @@ import java.util.AbstractMap.SimpleImmutableEntry;
  */
 public class TriggerReconfigurationSwitchEvent extends Event {
 
+    private static final long serialVersionUID = 1L;
+
     private NetworkDevice reconfiguringDevice;
     private HashMap<Integer, Long> reconfigurationDetails; // maps a source switch to a bunch of dest switches
     private HashMap<Integer, HashMap<Integer, PathSplitWeights>> duringRoutingWeights;      // Global routing weights during the reconfiguration
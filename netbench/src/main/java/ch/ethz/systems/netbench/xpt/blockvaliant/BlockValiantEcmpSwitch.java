@@ -22,6 +22,8 @@ import java.util.HashMap;
 import java.util.Random;
 
 public class BlockValiantEcmpSwitch extends TrafficAwareSourceRoutingSwitch {
+    private static final long serialVersionUID = 1L;
+
     // private HashMap<Integer, Integer> serverToBlockID; // this is used by receiveFromIntermediary() to encapsulate tcp packet, and search for dest block
 
     // Routing table
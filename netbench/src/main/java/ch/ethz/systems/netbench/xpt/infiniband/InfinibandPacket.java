@@ -6,6 +6,8 @@ import java.util.ArrayList;
 
 public class InfinibandPacket extends Packet implements InfinibandHeader {
 
+    private static final long serialVersionUID = 1L;
+
     // IP header is [20, 60] bytes, assume maximum: 60 * 8
     private static final long PACKET_HEADER_SIZE_BIT = 480L;
 
@@ -6,10 +6,14 @@ import ch.ethz.systems.netbench.core.network.Socket;
 import ch.ethz.systems.netbench.core.network.NetworkDevice;
 import ch.ethz.systems.netbench.core.network.Packet;
 import ch.ethz.systems.netbench.xpt.infiniband.InfinibandPacket;
+import ch.ethz.systems.netbench.core.log.DebugLog;
 import ch.ethz.systems.netbench.core.log.FlowLogger;
+import ch.ethz.systems.netbench.core.log.SimulationLogger;
 
 public class InfinibandSocket extends Socket {
 
+    private static final long serialVersionUID = 1L;
+
     private static final long MAX_PACKET_PAYLOAD_BYTE = 1000L;
     private long remainderToConfirmFlowSizeByte;
     private FlowLogger privateLogger;
@@ -100,8 +104,11 @@ public class InfinibandSocket extends Socket {
             ((InfinibandTransportLayer) transportLayer).cleanupSockets(flowId, isReceiver());
             // Register that a flow has completed i.f.f. this is a receiver.
             if (isReceiver()) {
-                System.out.println("Receiver for flow: " + flowId + " has completed");
-                Simulator.registerFlowFinished(flowId);
+                SimulationLogger.increaseStatisticCounter("INFINIBAND_FLOWS_COMPLETED");
+                if (DebugLog.DEBUG) {
+                    DebugLog.log("Receiver for flow: " + flowId + " has completed");
+                }
+                Simulator.registerFlowFinished(flowId, sourceId, destinationId);
             }
         }
     }
@@ -120,8 +127,8 @@ public class InfinibandSocket extends Socket {
         if (isReceiver()) {
             throw new IllegalStateException("A receiver socket should not be allowed to send packets in backpressure network.");
         }
-        if (remainderToConfirmFlowSizeByte <= 0) {
-            System.out.println("What the fuck");
+        if (DebugLog.DEBUG && remainderToConfirmFlowSizeByte <= 0) {
+            DebugLog.log("Sender socket of flow " + flowId + " tries to send without any flow remaining");
         }
         long intendedPayloadSize = getNextPayloadSizeByte();
         if (intendedPayloadSize * 8L + this.packetHeaderSizeBits <= availableBufferSizeBits) {
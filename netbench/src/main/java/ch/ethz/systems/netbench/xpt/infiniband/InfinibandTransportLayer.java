@@ -9,6 +9,8 @@ import java.util.*;
 
 public class InfinibandTransportLayer extends TransportLayer {
 
+    private static final long serialVersionUID = 1L;
+
 	// Generator for unique flow identifiers amongst all transport layers
     private static long flowIdCounter = 0;
     private static Map<Long, Long> flowIdToFlowSizeBytes = new HashMap<>();
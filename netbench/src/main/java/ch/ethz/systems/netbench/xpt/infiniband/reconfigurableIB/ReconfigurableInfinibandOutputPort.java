@@ -14,8 +14,8 @@ import ch.ethz.systems.netbench.xpt.bandwidth_steering.reconfigurable_outport.Re
 import ch.ethz.systems.netbench.xpt.bandwidth_steering.reconfigurable_link.ReconfigurableLink;
 import ch.ethz.systems.netbench.xpt.bandwidth_steering.reconfiguration_planner.SignalPortReconfigurationCompletedEvent;
 import ch.ethz.systems.netbench.xpt.infiniband.InfinibandPacket;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
 
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.List;
 
 // author:  
@@ -28,6 +28,8 @@ import java.util.List;
  */
 public class ReconfigurableInfinibandOutputPort extends OutputPort implements ReconfigurableOutputPortInterface {
 
+    private static final long serialVersionUID = 1L;
+
     // The state of the port.
     private enum PortState {
         NORMAL,         // Under normal execution mode, not under or waiting for reconfiguration.
@@ -73,7 +75,7 @@ public class ReconfigurableInfinibandOutputPort extends OutputPort implements Re
             long maxQueueSizeBytes, 
             long reconfigLatencyNs, 
             long multiplicity) {
-        super(ownNetworkDevice, towardsNetworkDevice, link, new LinkedBlockingQueue<Packet>());
+        super(ownNetworkDevice, towardsNetworkDevice, link, new RingBufferQueue<Packet>());
         
         // Internal State
         this.portState = PortState.NORMAL;
@@ -46,6 +46,8 @@ class PacketArrivalComparator implements Comparator<Packet>{
  */
 public class ReconfigurableInfinibandSwitch extends NetworkDevice implements ReconfigurableNetworkSwitchInterface, InfinibandSwitchInterface {
 
+    private static final long serialVersionUID = 1L;
+
     // Connectivity tables and topology information
     
     // maps the target pod id 
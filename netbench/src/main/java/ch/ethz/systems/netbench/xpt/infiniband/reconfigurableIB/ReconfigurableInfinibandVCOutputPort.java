@@ -14,9 +14,9 @@ import ch.ethz.systems.netbench.xpt.bandwidth_steering.reconfigurable_outport.Re
 import ch.ethz.systems.netbench.xpt.bandwidth_steering.reconfigurable_link.ReconfigurableLink;
 import ch.ethz.systems.netbench.xpt.bandwidth_steering.reconfiguration_planner.SignalPortReconfigurationCompletedEvent;
 import ch.ethz.systems.netbench.xpt.infiniband.InfinibandPacket;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
 
 import java.util.*;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.List;
 
 // author:  
@@ -29,6 +29,8 @@ import java.util.List;
  */
 public class ReconfigurableInfinibandVCOutputPort extends OutputPort implements ReconfigurableOutputPortInterface {
 
+    private static final long serialVersionUID = 1L;
+
     // The state of the port.
     private enum PortState {
         NORMAL,         // Under normal execution mode, not under or waiting for reconfiguration.
@@ -80,16 +82,16 @@ public class ReconfigurableInfinibandVCOutputPort extends OutputPort implements
             long reconfigLatencyNs, 
             long multiplicity,
             int numVCs) {
-        super(ownNetworkDevice, towardsNetworkDevice, link, new LinkedBlockingQueue<Packet>());
+        super(ownNetworkDevice, towardsNetworkDevice, link, new RingBufferQueue<Packet>());
         assert(numVCs > 1);
         this.numVCs = numVCs;
         this.credits = new long[numVCs];
         this.channelBufferOccupiedBits = new long[numVCs];
-        this.channelQueue = new LinkedBlockingQueue[numVCs];
+        this.channelQueue = new RingBufferQueue[numVCs];
         for (int channel = 0; channel < numVCs; channel++) {
             this.credits[channel] = 0L;
             this.channelBufferOccupiedBits[channel] = 0L;
-            this.channelQueue[channel] = new LinkedBlockingQueue<>();
+            this.channelQueue[channel] = new RingBufferQueue<>();
         }
 
         // Internal State
@@ -17,10 +17,10 @@ import ch.ethz.systems.netbench.xpt.bandwidth_steering.reconfigurable_outport.Re
 import ch.ethz.systems.netbench.xpt.infiniband.InfinibandSwitchInterface;
 import ch.ethz.systems.netbench.xpt.infiniband.InfinibandPacket;
 import ch.ethz.systems.netbench.xpt.infiniband.InfinibandTransportLayer;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
 
 // Jave util import
 import java.util.*; 
-import java.util.concurrent.LinkedBlockingQueue;
 import org.javatuples.Triplet; 
 
 // Used for priority queue when sorting which packets should go first based on how long they have been born in the network.
@@ -49,6 +49,8 @@ class PacketArrivalVCComparator implements Comparator<Triplet<Integer, Integer,
  */
 public class ReconfigurableInfinibandVCSwitch extends ReconfigurableInfinibandSwitch {
 
+    private static final long serialVersionUID = 1L;
+
     // Input queues for backpressure and VC
     private final int numVCs;
     private final long inputQueueBufferMaxSizeBits;
@@ -134,11 +136,11 @@ public class ReconfigurableInfinibandVCSwitch extends ReconfigurableInfinibandSw
         assert(!this.downstreamOutputPorts.containsKey(downstreamSwitchId));
         assert(!this.inputQueues.containsKey(downstreamSwitchId));
         this.downstreamOutputPorts.put(downstreamSwitchId, outputPort);
-        this.inputQueues.put(downstreamSwitchId, new LinkedBlockingQueue[numVCs]);
+        this.inputQueues.put(downstreamSwitchId, new RingBufferQueue[numVCs]);
         this.inputQueuesCurrentRemainingSizeBits.put(downstreamSwitchId, new Long[numVCs]);
         // Increment credit to all of the vcs and initialize
         for (int channel = 0; channel < numVCs; channel++) {
-            this.inputQueues.get(downstreamSwitchId)[channel] = new LinkedBlockingQueue<Packet>();
+            this.inputQueues.get(downstreamSwitchId)[channel] = new RingBufferQueue<Packet>();
             this.inputQueuesCurrentRemainingSizeBits.get(downstreamSwitchId)[channel] = this.inputQueueBufferMaxSizeBitsPerVC;
             outputPort.incrementCredit(this.inputQueueBufferMaxSizeBitsPerVC, channel);
         }
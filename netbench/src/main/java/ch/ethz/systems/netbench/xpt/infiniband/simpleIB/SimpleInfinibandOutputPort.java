@@ -12,8 +12,8 @@ import ch.ethz.systems.netbench.core.network.PacketArrivalEvent;
 import ch.ethz.systems.netbench.core.network.PacketDispatchedEvent;
 import ch.ethz.systems.netbench.ext.basic.IpPacket;
 import ch.ethz.systems.netbench.ext.basic.IpHeader;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
 
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.List;
 import java.util.Map; 
 import java.util.HashMap; 
@@ -34,6 +34,8 @@ import java.util.Queue;
  */
 public class SimpleInfinibandOutputPort extends OutputPort {
 
+    private static final long serialVersionUID = 1L;
+
     // Constants
     private final Link link;                            // Link type, defines latency and bandwidth of the medium
                                                         // that the output port uses
@@ -55,7 +57,7 @@ public class SimpleInfinibandOutputPort extends OutputPort {
             NetworkDevice towardsNetworkDevice, 
             Link link, 
             long maxQueueSizeBytes) {
-        super(ownNetworkDevice, towardsNetworkDevice, link, new LinkedBlockingQueue<Packet>());
+        super(ownNetworkDevice, towardsNetworkDevice, link, new RingBufferQueue<Packet>());
 
         // References to the link.
         this.link = link;
@@ -45,6 +45,8 @@ class PacketArrivalComparator implements Comparator<AbstractMap.SimpleEntry<Inte
  */
 public class SimpleInfinibandSwitch extends NetworkDevice implements InfinibandSwitchInterface {
 
+    private static final long serialVersionUID = 1L;
+
     // Routing table
     protected final HashMap<Integer, ArrayList<Integer>> destinationToNextSwitchId;
 
@@ -12,8 +12,8 @@ import ch.ethz.systems.netbench.core.network.PacketArrivalEvent;
 import ch.ethz.systems.netbench.core.network.PacketDispatchedEvent;
 import ch.ethz.systems.netbench.ext.basic.IpPacket;
 import ch.ethz.systems.netbench.ext.basic.IpHeader;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
 
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.List;
 import java.util.Map; 
 import java.util.HashMap; 
@@ -36,6 +36,8 @@ import java.util.Queue;
  */
 public class SimpleInfinibandVCOutputPort extends OutputPort {
 
+    private static final long serialVersionUID = 1L;
+
     // Constants
     private final Link link;                            // Link type, defines latency and bandwidth of the medium
                                                         // that the output port uses
@@ -64,7 +66,7 @@ public class SimpleInfinibandVCOutputPort extends OutputPort {
             Link link, 
             long maxQueueSizeBytes,
             int numVCs) {
-        super(ownNetworkDevice, towardsNetworkDevice, link, new LinkedBlockingQueue<Packet>());
+        super(ownNetworkDevice, towardsNetworkDevice, link, new RingBufferQueue<Packet>());
 
         // References to the link.
         this.link = link;
@@ -74,11 +76,11 @@ public class SimpleInfinibandVCOutputPort extends OutputPort {
         this.numVCs = numVCs;
         this.credits = new long[numVCs];
         this.channelBufferOccupiedBits = new long[numVCs];
-        this.channelQueue = new LinkedBlockingQueue[numVCs];
+        this.channelQueue = new RingBufferQueue[numVCs];
         for (int channel = 0; channel < numVCs; channel++) {
             this.credits[channel] = 0L;
             this.channelBufferOccupiedBits[channel] = 0L;
-            this.channelQueue[channel] = new LinkedBlockingQueue<>();
+            this.channelQueue[channel] = new RingBufferQueue<>();
         }
         // For managing the queue of this port
         this.bufferMaxSizeBits = maxQueueSizeBytes * 8L;
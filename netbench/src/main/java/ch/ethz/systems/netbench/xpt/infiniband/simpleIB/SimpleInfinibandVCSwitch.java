@@ -9,10 +9,10 @@ import ch.ethz.systems.netbench.core.network.TransportLayer;
 import ch.ethz.systems.netbench.core.network.OutputPort;
 import ch.ethz.systems.netbench.core.network.Packet;
 import ch.ethz.systems.netbench.core.network.Intermediary;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
 
 // Tools
 import java.util.*; 
-import java.util.concurrent.LinkedBlockingQueue;
 import org.javatuples.Triplet; 
 
 // Used for priority queue when sorting which packets should go first based on how long they have been born in the network.
@@ -46,6 +46,8 @@ class PacketArrivalVCComparator implements Comparator<Triplet<Integer, Integer,
  */
 public class SimpleInfinibandVCSwitch extends SimpleInfinibandSwitch {
 
+    private static final long serialVersionUID = 1L;
+
     // Cached routing table for flows
     private HashMap<Long, Integer> cachedFlowRoutingTable;
 
@@ -112,13 +114,13 @@ public class SimpleInfinibandVCSwitch extends SimpleInfinibandSwitch {
         assert(!this.downstreamOutputPorts.containsKey(downstreamSwitchId));
         assert(!this.inputQueues.containsKey(downstreamSwitchId));
         this.downstreamOutputPorts.put(downstreamSwitchId, outputPort);
-        LinkedBlockingQueue<Packet>[] virtualInputQueues = new LinkedBlockingQueue[numVCs];
+        RingBufferQueue<Packet>[] virtualInputQueues = new RingBufferQueue[numVCs];
         
         this.inputQueuesCurrentRemainingSizeBits.put(downstreamSwitchId, new Long[numVCs]);
         for (int channel = 0; channel < numVCs; channel++) {
             outputPort.incrementCredit(this.inputBufferMaxSizeBitsPerVC, channel);
             this.inputQueuesCurrentRemainingSizeBits.get(downstreamSwitchId)[channel] = this.inputBufferMaxSizeBitsPerVC;
-            virtualInputQueues[channel] = new LinkedBlockingQueue<>();
+            virtualInputQueues[channel] = new RingBufferQueue<>();
         }
         this.inputQueues.put(downstreamSwitchId, virtualInputQueues);
     }
@@ -1,10 +1,13 @@
 package ch.ethz.systems.netbench.xpt.newreno;
 
+import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.network.Event;
 import ch.ethz.systems.netbench.xpt.newreno.newrenotcp.NewRenoTcpSocket;
 
 public class TcpRetransmissionTimeOutEvent extends Event {
 
+    private static final long serialVersionUID = 1L;
+
     private final NewRenoTcpSocket tcpSocket;
     private boolean active;
 
@@ -22,11 +25,12 @@ public class TcpRetransmissionTimeOutEvent extends Event {
     }
 
     /**
-     * Cancel the resend event. This is done when popping it from the queue takes
-     * too much time, but it shouldn't occur. Scenarios in which this happens is
-     * when a packet has been acknowledged or a fast retransmit is performed.
+     * Cancel the retransmission time-out event, which removes it from the event queue. Scenarios in
+     * which this happens is when a packet has been acknowledged or a fast retransmit
+     * is performed.
      */
     public void cancel() {
+        Simulator.cancelEvent(this);
         this.active = false;
     }
 
@@ -6,6 +6,8 @@ import ch.ethz.systems.netbench.xpt.newreno.newrenotcp.NewRenoTcpSocket;
 
 public class NewRenoDctcpSocket extends NewRenoTcpSocket {
 
+    private static final long serialVersionUID = 1L;
+
     private final double DCTCP_WEIGHT_NEW_ESTIMATION ; // 0 < g < 1 is the weight given to new samples
     private final double DCTCP_WEIGHT_OLD_ESTIMATION; // against the past estimation of alpha
 
@@ -10,11 +10,9 @@ import ch.ethz.systems.netbench.xpt.newreno.TcpRetransmissionTimeOutEvent;
 import ch.ethz.systems.netbench.xpt.tcpbase.AckRange;
 import ch.ethz.systems.netbench.xpt.tcpbase.AckRangeSet;
 import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
+import ch.ethz.systems.netbench.xpt.tcpbase.SegmentSequenceSet;
 import ch.ethz.systems.netbench.xpt.tcpbase.TcpLogger;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import static ch.ethz.systems.netbench.xpt.newreno.newrenotcp.NewRenoTcpSocket.State.*;
 
 /**
@@ -59,6 +57,8 @@ import static ch.ethz.systems.netbench.xpt.newreno.newrenotcp.NewRenoTcpSocket.S
  */
 public class NewRenoTcpSocket extends Socket {
 
+    private static final long serialVersionUID = 1L;
+
     private TcpLogger tcpLogger;
 
     ////////////////////////////////////////////////////////
@@ -112,8 +112,8 @@ public class NewRenoTcpSocket extends Socket {
 
     // Selective acknowledgment variables
     private final AckRangeSet selectiveAckSet;
-    private final Set<Long> acknowledgedSegStartSeqNumbers;
-    private final Set<Long> sentOutUnacknowledgedSegStartSeqNumbers;
+    private final SegmentSequenceSet acknowledgedSegStartSeqNumbers;
+    private final SegmentSequenceSet sentOutUnacknowledgedSegStartSeqNumbers;
 
     // Fast re-transmit variables
     private long recover;
@@ -218,8 +218,8 @@ public class NewRenoTcpSocket extends Socket {
         this.smoothRoundTripTime = 0;
 
         // Selective acknowledgments saved
-        this.acknowledgedSegStartSeqNumbers = new HashSet<>();
-        this.sentOutUnacknowledgedSegStartSeqNumbers = new HashSet<>();
+        this.acknowledgedSegStartSeqNumbers = new SegmentSequenceSet();
+        this.sentOutUnacknowledgedSegStartSeqNumbers = new SegmentSequenceSet();
         this.selectiveAckSet = new AckRangeSet();
 
         // Duplicate acknowledgment detection
@@ -468,13 +468,11 @@ public class NewRenoTcpSocket extends Socket {
         // FLOW ACKNOWLEDGMENT: REGULAR
         // If it is not at the left most of the window, then
         // the receiver apparently already received everything before that
-        Set<Long> outstandingSegmentSeqs = new HashSet<>(sentOutUnacknowledgedSegStartSeqNumbers);
-        for (Long segSeq : outstandingSegmentSeqs) {
-            long size = getFlowSizeByte(segSeq);
-            long segAck = segSeq + size;
-            if (segAck <= ack) {
-                confirmSegment(segSeq);
-            }
+        // (segments end in the same order as they start, so it confirms a prefix)
+        long segSeq = sentOutUnacknowledgedSegStartSeqNumbers.first();
+        while (segSeq != SegmentSequenceSet.NONE && segSeq + getFlowSizeByte(segSeq) <= ack) {
+            confirmSegment(segSeq);
+            segSeq = sentOutUnacknowledgedSegStartSeqNumbers.higher(segSeq);
         }
 
         // MOVE WINDOW AS FAR AS POSSIBLE
@@ -639,18 +637,15 @@ public class NewRenoTcpSocket extends Socket {
         // FLOW ACKNOWLEDGMENT: SELECTIVE
         // Go over all outstanding segments and check if any are
         // being acknowledged by the selective acknowledgment ranges
-        Set<Long> outstandingSegmentSeqs = new HashSet<>(sentOutUnacknowledgedSegStartSeqNumbers);
-        for (Long segSeq : outstandingSegmentSeqs) {
-            long size = getFlowSizeByte(segSeq);
-            long segAck = segSeq + size;
-
-            // Check if an outstanding segment falls within the selective acknowledgment ranges
-            for (AckRange r : packet.getSelectiveAck()) {
+        for (AckRange r : packet.getSelectiveAck()) {
+            long segSeq = sentOutUnacknowledgedSegStartSeqNumbers.ceiling(r.getLowBound());
+            while (segSeq != SegmentSequenceSet.NONE && segSeq < r.getHighBound()) {
+                long segAck = segSeq + getFlowSizeByte(segSeq);
                 if (r.isWithin(segSeq, segAck)) {
                     confirmSegment(segSeq);
                 }
+                segSeq = sentOutUnacknowledgedSegStartSeqNumbers.higher(segSeq);
             }
-
         }
 
         // DUPLICATE CHECK
@@ -1,11 +1,14 @@
 package ch.ethz.systems.netbench.xpt.simple;
 
+import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.network.Event;
 import ch.ethz.systems.netbench.ext.basic.TcpPacket;
 import ch.ethz.systems.netbench.xpt.simple.simpletcp.SimpleTcpSocket;
 
 public class TcpPacketResendEvent extends Event {
 
+    private static final long serialVersionUID = 1L;
+
     private SimpleTcpSocket tcpSocket;
     private TcpPacket tcpPacket;
     private boolean active;
@@ -30,11 +33,12 @@ public class TcpPacketResendEvent extends Event {
     }
 
     /**
-     * Cancel the resend event. This is done when popping it from the queue takes
-     * too much time, but it shouldn't occur. Scenarios in which this happens is
-     * when a packet has been acknowledged or a fast retransmit is performed.
+     * Cancel the resend event, which removes it from the event queue. Scenarios in
+     * which this happens is when a packet has been acknowledged or a fast retransmit
+     * is performed.
      */
     public void cancel() {
+        Simulator.cancelEvent(this);
         this.tcpSocket = null;
         this.tcpPacket = null;
         this.active = false;
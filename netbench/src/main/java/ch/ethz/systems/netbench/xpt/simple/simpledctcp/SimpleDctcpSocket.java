@@ -7,6 +7,8 @@ import ch.ethz.systems.netbench.core.Simulator;
 
 public class SimpleDctcpSocket extends SimpleTcpSocket {
 
+    private static final long serialVersionUID = 1L;
+
     private final double DCTCP_WEIGHT_NEW_ESTIMATION ; // 0 < g < 1 is the weight given to new samples
     private final double DCTCP_WEIGHT_OLD_ESTIMATION; // against the past estimation of alpha
     private double alphaFraction;
@@ -25,7 +27,7 @@ public class SimpleDctcpSocket extends SimpleTcpSocket {
      * @param destinationId  Target network device identifier
      * @param flowSizeByte   Size of the flow in bytes
      */
-    SimpleDctcpSocket(TransportLayer transportLayer, long flowId, int sourceId, int destinationId, long flowSizeByte) {
+    public SimpleDctcpSocket(TransportLayer transportLayer, long flowId, int sourceId, int destinationId, long flowSizeByte) {
         super(transportLayer, flowId, sourceId, destinationId, flowSizeByte);
         this.DCTCP_WEIGHT_NEW_ESTIMATION = Simulator.getConfiguration().getDoublePropertyWithDefault("DCTCP_WEIGHT_NEW_ESTIMATION", 0.0625);
         this.DCTCP_WEIGHT_OLD_ESTIMATION = 1.0 - DCTCP_WEIGHT_NEW_ESTIMATION;
@@ -10,12 +10,11 @@ import ch.ethz.systems.netbench.xpt.simple.TcpPacketResendEvent;
 import ch.ethz.systems.netbench.xpt.tcpbase.AckRange;
 import ch.ethz.systems.netbench.xpt.tcpbase.AckRangeSet;
 import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
+import ch.ethz.systems.netbench.xpt.tcpbase.SegmentSequenceSet;
 import ch.ethz.systems.netbench.xpt.tcpbase.TcpLogger;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
 import static ch.ethz.systems.netbench.xpt.simple.simpletcp.SimpleTcpSocket.State.*;
 
@@ -25,6 +24,8 @@ import static ch.ethz.systems.netbench.xpt.simple.simpletcp.SimpleTcpSocket.Stat
  */
 public class SimpleTcpSocket extends Socket {
 
+    private static final long serialVersionUID = 1L;
+
     private TcpLogger tcpLogger;
 
     ////////////////////////////////////////////////////////
@@ -78,8 +79,8 @@ public class SimpleTcpSocket extends Socket {
 
     // Selective acknowledgment variables
     private AckRangeSet selectiveAckSet;
-    private Set<Long> acknowledgedSegStartSeqNumbers;
-    private Set<Long> sentOutUnacknowledgedSegStartSeqNumbers;
+    private SegmentSequenceSet acknowledgedSegStartSeqNumbers;
+    private SegmentSequenceSet sentOutUnacknowledgedSegStartSeqNumbers;
 
     // Retransmission time-out variables
     private Map<Long, TcpPacketResendEvent> seqNumbToResendEventMap;
@@ -170,8 +171,8 @@ public class SimpleTcpSocket extends Socket {
 
         // Selective acknowledgments saved
         this.selectiveAckSet = new AckRangeSet();
-        this.acknowledgedSegStartSeqNumbers = new HashSet<>();
-        this.sentOutUnacknowledgedSegStartSeqNumbers = new HashSet<>();
+        this.acknowledgedSegStartSeqNumbers = new SegmentSequenceSet();
+        this.sentOutUnacknowledgedSegStartSeqNumbers = new SegmentSequenceSet();
 
         // Flowlet tracking
         currentFlowlet = 0;
@@ -492,30 +493,26 @@ public class SimpleTcpSocket extends Socket {
         int newPacketsAcked = 0;
 
         // FLOW ACKNOWLEDGMENT: SELECTIVE ACKNOWLEDGMENT RANGES
-        Set<Long> outstandingSegmentSeqs = new HashSet<>(sentOutUnacknowledgedSegStartSeqNumbers);
-        for (Long segSeq : outstandingSegmentSeqs) {
-            long size = getFlowSizeByte(segSeq);
-            long segAck = segSeq + size;
-
-            // Check if an outstanding segment falls within the selective acknowledgment ranges
-            for (AckRange r : packet.getSelectiveAck()) {
+        // Check the outstanding segments which start within each of the ranges
+        for (AckRange r : packet.getSelectiveAck()) {
+            long segSeq = sentOutUnacknowledgedSegStartSeqNumbers.ceiling(r.getLowBound());
+            while (segSeq != SegmentSequenceSet.NONE && segSeq < r.getHighBound()) {
+                long segAck = segSeq + getFlowSizeByte(segSeq);
                 if (r.isWithin(segSeq, segAck)) {
                     confirmSegment(segSeq);
                     newPacketsAcked++;
                 }
+                segSeq = sentOutUnacknowledgedSegStartSeqNumbers.higher(segSeq);
             }
-
         }
 
         // FLOW ACKNOWLEDGMENT: CUMULATIVE ACKNOWLEDGMENT
-        outstandingSegmentSeqs = new HashSet<>(sentOutUnacknowledgedSegStartSeqNumbers); // Set<Long>
-        for (Long segSeq : outstandingSegmentSeqs) {
-            long size = getFlowSizeByte(segSeq);
-            long segAck = segSeq + size;
-            if (segAck <= ack) {
-                confirmSegment(segSeq);
-                newPacketsAcked++;
-            }
+        // Segments end in the same order as they start, so it confirms a prefix
+        long segSeq = sentOutUnacknowledgedSegStartSeqNumbers.first();
+        while (segSeq != SegmentSequenceSet.NONE && segSeq + getFlowSizeByte(segSeq) <= ack) {
+            confirmSegment(segSeq);
+            newPacketsAcked++;
+            segSeq = sentOutUnacknowledgedSegStartSeqNumbers.higher(segSeq);
         }
 
         // MOVE WINDOW AS FAR AS POSSIBLE
@@ -5,6 +5,8 @@ import ch.ethz.systems.netbench.core.network.TransportLayer;
 
 public class SimpleTcpTransportLayer extends TransportLayer {
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * Create the TCP transport layer with the given network device identifier.
      * The network device identifier is used to create unique flow identifiers.
@@ -15,6 +15,8 @@ import java.util.Map;
 
 public class EcmpThenSourceRoutingSwitch extends SourceRoutingSwitch implements EcmpSwitchRoutingInterface {
 
+    private static final long serialVersionUID = 1L;
+
     // Amount of flow size sent out for each flow
     private final Map<Long, Long> flowSizeSent;
 
@@ -5,6 +5,8 @@ import ch.ethz.systems.netbench.ext.basic.TcpPacket;
 
 public class SourceRoutingEncapsulation extends IpPacket {
 
+    private static final long serialVersionUID = 1L;
+
     private final TcpPacket packet;
     private final SourceRoutingPath path;
     private int currentStep;
@@ -9,6 +9,8 @@ import java.util.List;
 
 public class SourceRoutingSwitch extends NetworkDevice {
 
+    private static final long serialVersionUID = 1L;
+
     // Routing table
     private List<List<SourceRoutingPath>> destinationToPaths;
 
@@ -1,9 +1,13 @@
 package ch.ethz.systems.netbench.xpt.tcpbase;
 
+import java.io.Serializable;
+
 /**
  * Acknowledgment range (immutable object).
  */
-public class AckRange {
+public class AckRange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     final long lowBound;
     final long highBound;
@@ -13,11 +17,11 @@ public class AckRange {
         this.highBound = highBound;
     }
 
-    long getLowBound() {
+    public long getLowBound() {
         return lowBound;
     }
 
-    long getHighBound() {
+    public long getHighBound() {
         return highBound;
     }
 
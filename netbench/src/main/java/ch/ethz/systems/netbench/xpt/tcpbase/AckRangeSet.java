@@ -1,16 +1,21 @@
 package ch.ethz.systems.netbench.xpt.tcpbase;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
-public class AckRangeSet {
+public class AckRangeSet implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // Mappings to ranges
     private Map<Long, AckRange> lowBoundToRange;
     private Map<Long, AckRange> highBoundToRange;
-    private Collection<AckRange> ranges;
+    private transient Collection<AckRange> ranges;
 
     // Caching of the range set which is passed along to
     // the packets with SACK Options
@@ -28,6 +33,16 @@ public class AckRangeSet {
         this.cacheRanges = null;
     }
 
+    /**
+     * Read the range set from a checkpoint, restoring the view of the ranges.
+     *
+     * @param in    Object input stream
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        ranges = lowBoundToRange.values();
+    }
+
     /**
      * Determine the receive next number based on what it is currently.
      * Basically it checks if there is not a range which has now become
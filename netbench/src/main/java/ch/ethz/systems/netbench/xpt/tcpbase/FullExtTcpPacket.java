@@ -6,6 +6,8 @@ import java.util.Collection;
 
 public class FullExtTcpPacket extends TcpPacket implements SelectiveAckHeader, EchoHeader, PriorityHeader {
 
+    private static final long serialVersionUID = 1L;
+
     private long priority;
     private Collection<AckRange> selectiveAck;
     private long echoDepartureTime;
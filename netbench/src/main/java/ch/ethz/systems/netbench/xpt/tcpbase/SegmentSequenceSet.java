@@ -0,0 +1,266 @@
+package ch.ethz.systems.netbench.xpt.tcpbase;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Sequence-ordered set of segment start sequence numbers.
+ *
+ * The sequence numbers are kept in a sorted primitive array. Removed
+ * entries are only marked (such that removal during an ascending walk is
+ * safe) and are trimmed from the ends straight away, and from the middle
+ * once the array fills up. As a sender sends out segments in order and
+ * acknowledgments mostly confirm them in order, adding, removing and
+ * walking are (amortized) constant time in the common case, and nothing
+ * is allocated except when growing.
+ *
+ * Sequence numbers must be non-negative.
+ */
+public class SegmentSequenceSet implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Returned by {@link #first()}, {@link #ceiling(long)} and {@link #higher(long)} if there is no such element.
+     */
+    public static final long NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Sorted sequence numbers in [start, end), of which those not present are removed
+    private long[] seqs;
+    private boolean[] present;
+    private int start;
+    private int end;
+    private int size;
+
+    // Index of the element last returned, to continue an ascending walk without searching
+    private int cursor;
+
+    /**
+     * Create an empty set.
+     */
+    public SegmentSequenceSet() {
+        this.seqs = new long[INITIAL_CAPACITY];
+        this.present = new boolean[INITIAL_CAPACITY];
+        this.start = 0;
+        this.end = 0;
+        this.size = 0;
+        this.cursor = 0;
+    }
+
+    /**
+     * Add a sequence number.
+     *
+     * @param seq   Sequence number
+     *
+     * @return  True iff it was not yet present
+     */
+    public boolean add(long seq) {
+        assert(seq >= 0);
+
+        // Common case: beyond all sequence numbers in the set
+        if (start == end || seq > seqs[end - 1]) {
+            if (end == seqs.length) {
+                compact();
+            }
+            seqs[end] = seq;
+            present[end] = true;
+            end++;
+            size++;
+            return true;
+        }
+
+        int idx = Arrays.binarySearch(seqs, start, end, seq);
+
+        // Still occupies its slot, only has to be marked again
+        if (idx >= 0) {
+            if (present[idx]) {
+                return false;
+            }
+            present[idx] = true;
+            size++;
+            return true;
+        }
+
+        // Insert in between
+        if (end == seqs.length) {
+            compact();
+            idx = Arrays.binarySearch(seqs, start, end, seq);
+        }
+        int pos = -(idx + 1);
+        System.arraycopy(seqs, pos, seqs, pos + 1, end - pos);
+        System.arraycopy(present, pos, present, pos + 1, end - pos);
+        seqs[pos] = seq;
+        present[pos] = true;
+        end++;
+        size++;
+        return true;
+    }
+
+    /**
+     * Remove a sequence number.
+     *
+     * @param seq   Sequence number
+     *
+     * @return  True iff it was present
+     */
+    public boolean remove(long seq) {
+        int idx = indexOf(seq);
+        if (idx < 0 || !present[idx]) {
+            return false;
+        }
+        present[idx] = false;
+        size--;
+
+        // Trim removed entries at the ends
+        if (size == 0) {
+            start = 0;
+            end = 0;
+        } else {
+            while (!present[start]) {
+                start++;
+            }
+            while (!present[end - 1]) {
+                end--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether a sequence number is present.
+     *
+     * @param seq   Sequence number
+     *
+     * @return  True iff present
+     */
+    public boolean contains(long seq) {
+        int idx = indexOf(seq);
+        return idx >= 0 && present[idx];
+    }
+
+    /**
+     * Retrieve the lowest sequence number.
+     *
+     * @return  Lowest sequence number, or {@link #NONE} if empty
+     */
+    public long first() {
+        if (size == 0) {
+            return NONE;
+        }
+        cursor = start;
+        return seqs[start];
+    }
+
+    /**
+     * Retrieve the lowest sequence number greater than or equal to the given one.
+     *
+     * @param seq   Sequence number
+     *
+     * @return  Lowest sequence number at least the given one, or {@link #NONE} if there is none
+     */
+    public long ceiling(long seq) {
+        int idx = Arrays.binarySearch(seqs, start, end, seq);
+        return presentFrom(idx >= 0 ? idx : -(idx + 1));
+    }
+
+    /**
+     * Retrieve the lowest sequence number strictly greater than the given one.
+     * Walking the set in ascending order with this method takes constant time
+     * per step, even if the previous element was removed in the meantime.
+     *
+     * @param seq   Sequence number
+     *
+     * @return  Lowest sequence number greater than the given one, or {@link #NONE} if there is none
+     */
+    public long higher(long seq) {
+        int idx;
+        if (cursor >= start && cursor < end && seqs[cursor] == seq) {
+            idx = cursor + 1;
+        } else {
+            idx = Arrays.binarySearch(seqs, start, end, seq);
+            idx = idx >= 0 ? idx + 1 : -(idx + 1);
+        }
+        return presentFrom(idx);
+    }
+
+    /**
+     * Retrieve the number of sequence numbers.
+     *
+     * @return  Number of sequence numbers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether there are no sequence numbers.
+     *
+     * @return  True iff empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Find the slot of a sequence number, with a shortcut for the lowest one.
+     *
+     * @param seq   Sequence number
+     *
+     * @return  Slot index, or negative if it does not occupy a slot
+     */
+    private int indexOf(long seq) {
+        if (start != end && seqs[start] == seq) {
+            return start;
+        }
+        int idx = Arrays.binarySearch(seqs, start, end, seq);
+        return idx >= 0 ? idx : -1;
+    }
+
+    /**
+     * Retrieve the first present sequence number from a slot onwards.
+     *
+     * @param idx   Slot index
+     *
+     * @return  Sequence number, or {@link #NONE} if there is none
+     */
+    private long presentFrom(int idx) {
+        while (idx < end && !present[idx]) {
+            idx++;
+        }
+        if (idx == end) {
+            return NONE;
+        }
+        cursor = idx;
+        return seqs[idx];
+    }
+
+    /**
+     * Move all present sequence numbers to the front of the array,
+     * and grow it if it would still be more than half full.
+     */
+    private void compact() {
+        long[] newSeqs = seqs;
+        boolean[] newPresent = present;
+        if (size * 2 > seqs.length) {
+            newSeqs = new long[seqs.length * 2];
+            newPresent = new boolean[seqs.length * 2];
+        }
+        int j = 0;
+        for (int i = start; i < end; i++) {
+            if (present[i]) {
+                newSeqs[j] = seqs[i];
+                newPresent[j] = true;
+                j++;
+            }
+        }
+        Arrays.fill(newPresent, j, newPresent.length, false);
+        seqs = newSeqs;
+        present = newPresent;
+        start = 0;
+        end = j;
+        cursor = 0;
+    }
+
+}
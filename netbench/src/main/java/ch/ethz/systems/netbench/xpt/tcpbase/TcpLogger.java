@@ -7,18 +7,22 @@ import ch.ethz.systems.netbench.core.log.SimulationLogger;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 
-public class TcpLogger implements LoggerCallback {
+public class TcpLogger implements LoggerCallback, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final long flowId;
     private long maxFlowlet;
     private long numberOfAckedPackets;
     private double smoothRTT;
-    private final BufferedWriter congestionWindowWriter;
-    private final BufferedWriter packetBurstGapWriter;
-    private final BufferedWriter maxFlowletWriter;
-    private final BufferedWriter smoothRTTWriter;
-    private final BufferedWriter recordResend;
+    private transient BufferedWriter congestionWindowWriter;
+    private transient BufferedWriter packetBurstGapWriter;
+    private transient BufferedWriter maxFlowletWriter;
+    private transient BufferedWriter smoothRTTWriter;
+    private transient BufferedWriter recordResend;
     private final boolean logPacketBurstGapEnabled;
     private final boolean logCongestionWindowEnabled;
     private final boolean logSmoothRTTEnabled;
@@ -28,11 +32,7 @@ public class TcpLogger implements LoggerCallback {
     public TcpLogger(long flowId, boolean isReceiver) {
         this.flowId = flowId;
         this.maxFlowlet = 0;
-        this.congestionWindowWriter = SimulationLogger.getExternalWriter("congestion_window.csv.log");
-        this.packetBurstGapWriter = SimulationLogger.getExternalWriter("packet_burst_gap.csv.log");
-        this.maxFlowletWriter = SimulationLogger.getExternalWriter("max_flowlet.csv.log");
-        this.smoothRTTWriter = SimulationLogger.getExternalWriter("smoothed_rtt.csv.log");
-        this.recordResend = SimulationLogger.getExternalWriter("record_resend.log");
+        openWriters();
         this.logPacketBurstGapEnabled = Simulator.getConfiguration().getBooleanPropertyWithDefault("enable_log_packet_burst_gap", false);
         this.logCongestionWindowEnabled = Simulator.getConfiguration().getBooleanPropertyWithDefault("enable_log_congestion_window", false);
         this.logSmoothRTTEnabled = Simulator.getConfiguration().getBooleanPropertyWithDefault("enable_smooth_rtt", false);
@@ -41,6 +41,27 @@ public class TcpLogger implements LoggerCallback {
         SimulationLogger.registerCallbackBeforeClose(this);
     }
 
+    /**
+     * Open the writers of the logs.
+     */
+    private void openWriters() {
+        this.congestionWindowWriter = SimulationLogger.getExternalWriter("congestion_window.csv.log");
+        this.packetBurstGapWriter = SimulationLogger.getExternalWriter("packet_burst_gap.csv.log");
+        this.maxFlowletWriter = SimulationLogger.getExternalWriter("max_flowlet.csv.log");
+        this.smoothRTTWriter = SimulationLogger.getExternalWriter("smoothed_rtt.csv.log");
+        this.recordResend = SimulationLogger.getExternalWriter("record_resend.log");
+    }
+
+    /**
+     * Read the logger of a restored checkpoint, which from then on writes to the logs of the current run.
+     *
+     * @param in    Object input stream
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        openWriters();
+    }
+
     public void logRecordResend(int srcId, int dstId) {
         if (this.logRecordResendEnable) {
             try {
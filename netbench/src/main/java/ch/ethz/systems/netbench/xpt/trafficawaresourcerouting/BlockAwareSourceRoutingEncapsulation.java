@@ -5,6 +5,8 @@ import ch.ethz.systems.netbench.ext.basic.TcpPacket;
 
 public class BlockAwareSourceRoutingEncapsulation extends IpPacket {
 
+    private static final long serialVersionUID = 1L;
+
     private final TcpPacket packet;
     
     private int entrySwitchID;
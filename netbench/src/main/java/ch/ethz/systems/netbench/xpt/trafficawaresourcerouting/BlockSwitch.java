@@ -21,6 +21,8 @@ import java.util.HashMap;
 import java.util.Random;
 
 public abstract class BlockSwitch extends NetworkDevice {
+    private static final long serialVersionUID = 1L;
+
     // keeps tabs of which server ID belongs to which block ID
     protected HashMap<Integer, Integer> serverToBlockID; // this is used by receiveFromIntermediary() to encapsulate tcp packet, and search for dest block
 
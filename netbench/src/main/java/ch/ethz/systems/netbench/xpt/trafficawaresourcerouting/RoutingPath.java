@@ -3,6 +3,8 @@ package ch.ethz.systems.netbench.xpt.trafficawaresourcerouting;
 import java.util.ArrayList;
 
 public class RoutingPath extends ArrayList<Integer> {
+    private static final long serialVersionUID = 1L;
+
     // No adaptations needed, it is only created for
     // semantic purpose.
 }
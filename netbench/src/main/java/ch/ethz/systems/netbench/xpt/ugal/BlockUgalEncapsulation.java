@@ -5,6 +5,8 @@ import ch.ethz.systems.netbench.ext.basic.TcpPacket;
 
 public class BlockUgalEncapsulation extends IpPacket {
 
+    private static final long serialVersionUID = 1L;
+
     private final TcpPacket packet;
     
     private boolean enteredValiantBlock;
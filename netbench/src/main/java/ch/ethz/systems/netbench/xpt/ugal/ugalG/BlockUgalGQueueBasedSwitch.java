@@ -29,6 +29,8 @@ import java.util.Random;
  */
 public class BlockUgalGQueueBasedSwitch extends BlockSwitch {
 
+    private static final long serialVersionUID = 1L;
+
     // protected HashMap<Integer, Integer> serverToBlockID; // this is used by receiveFromIntermediary() to encapsulate tcp packet, and search for dest block
 
     // Routing table
@@ -0,0 +1,22 @@
+package ch.ethz.systems.netbench.xpt.utility;
+
+import ch.ethz.systems.netbench.ext.poissontraffic.BinaryArrivalFile;
+
+/**
+ * Convert a CSV flow arrival file (start_time,src_id,dst_id,flow_size_byte)
+ * to the binary arrival format used by traffic=traffic_arrivals_binary.
+ *
+ * Usage: java -cp NetBench.jar ch.ethz.systems.netbench.xpt.utility.ArrivalFileConverter flow_arrivals.txt flow_arrivals.bin
+ */
+public class ArrivalFileConverter {
+
+    public static void main(String args[]) {
+        if (args.length != 2) {
+            throw new RuntimeException("Expecting two arguments: [input CSV arrival file] [output binary arrival file]");
+        }
+        long start = System.currentTimeMillis();
+        long numArrivals = BinaryArrivalFile.convertFromCsv(args[0], args[1]);
+        System.out.println("Converted " + numArrivals + " arrivals in " + ((System.currentTimeMillis() - start) / 1000.0) + "s.");
+    }
+
+}
@@ -13,6 +13,8 @@ import ch.ethz.systems.netbench.xpt.tcpbase.PriorityHeader;
 
 public class BoundedPriorityOutputPort extends OutputPort {
 
+    private static final long serialVersionUID = 1L;
+
     private MinMaxPriorityQueue<Packet> priorityQueue;
     private long maxQueueSizeInBits;
 
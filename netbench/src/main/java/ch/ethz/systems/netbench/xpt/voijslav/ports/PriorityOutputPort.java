@@ -19,6 +19,8 @@ import java.util.concurrent.PriorityBlockingQueue;
  */
 public class PriorityOutputPort extends OutputPort {
 
+    private static final long serialVersionUID = 1L;
+
     private static final int INITIAL_QUEUE_CAPACITY = 100;
 
     public PriorityOutputPort(NetworkDevice ownNetworkDevice, NetworkDevice targetNetworkDevice, Link link) {
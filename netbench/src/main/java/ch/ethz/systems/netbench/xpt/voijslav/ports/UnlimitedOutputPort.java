@@ -5,8 +5,7 @@ import ch.ethz.systems.netbench.core.network.Link;
 import ch.ethz.systems.netbench.core.network.NetworkDevice;
 import ch.ethz.systems.netbench.core.network.OutputPort;
 import ch.ethz.systems.netbench.core.network.Packet;
-
-import java.util.concurrent.LinkedBlockingQueue;
+import ch.ethz.systems.netbench.core.utility.RingBufferQueue;
 
 /**
  * The unlimited output port employs a First-In-First-Out output
@@ -14,8 +13,10 @@ import java.util.concurrent.LinkedBlockingQueue;
  */
 public class UnlimitedOutputPort extends OutputPort {
 
+    private static final long serialVersionUID = 1L;
+
     public UnlimitedOutputPort(NetworkDevice ownNetworkDevice, NetworkDevice targetNetworkDevice, Link link) {
-        super(ownNetworkDevice, targetNetworkDevice, link, new LinkedBlockingQueue<Packet>());
+        super(ownNetworkDevice, targetNetworkDevice, link, new RingBufferQueue<Packet>());
     }
 
     @Override
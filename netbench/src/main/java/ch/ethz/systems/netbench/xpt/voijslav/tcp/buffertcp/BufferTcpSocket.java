@@ -8,6 +8,8 @@ import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
 
 public class BufferTcpSocket extends NewRenoTcpSocket {
 	
+    private static final long serialVersionUID = 1L;
+
 	private final long maxBufferSize = 87380;
 	private long realFlowSize;
 	
@@ -7,6 +7,8 @@ import ch.ethz.systems.netbench.xpt.voijslav.utility.FctDistributions;
 
 public class DistMeanTcpSocket extends NewRenoTcpSocket {
 
+    private static final long serialVersionUID = 1L;
+
 	private long predictedFlowSize;
 	
     public DistMeanTcpSocket(
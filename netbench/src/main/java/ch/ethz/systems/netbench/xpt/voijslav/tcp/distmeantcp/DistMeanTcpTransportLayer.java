@@ -5,6 +5,8 @@ import ch.ethz.systems.netbench.core.network.TransportLayer;
 
 public class DistMeanTcpTransportLayer  extends TransportLayer {
 
+    private static final long serialVersionUID = 1L;
+
 	private long seed;
     /**
      * Create the TCP transport layer with the given network device identifier.
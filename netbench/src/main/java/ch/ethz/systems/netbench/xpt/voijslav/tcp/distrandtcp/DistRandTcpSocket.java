@@ -5,12 +5,16 @@ import ch.ethz.systems.netbench.xpt.newreno.newrenotcp.NewRenoTcpSocket;
 import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
 import ch.ethz.systems.netbench.xpt.voijslav.utility.FctDistributions;
 
+import java.util.Random;
+
 public class DistRandTcpSocket extends NewRenoTcpSocket {
 
+    private static final long serialVersionUID = 1L;
+
 	private long predictedFlowSize;
 	
-	private int flowSizeDistribution(){
-		double outcome = FctDistributions.rnd.nextDouble();
+	private int flowSizeDistribution(Random flowSizeRandom){
+		double outcome = flowSizeRandom.nextDouble();
 		return FctDistributions.flowSizeDistribution(outcome);
 	}
 	
@@ -20,14 +24,15 @@ public class DistRandTcpSocket extends NewRenoTcpSocket {
     	int sourceId,
     	int destinationId,
     	long flowSizeByte,
-    	long seed
+    	long seed,
+    	Random flowSizeRandom
     ) {
 		super(transportLayer, flowId, sourceId, destinationId, flowSizeByte);
 		//6*(1200 + 96)*2*3
 		this.roundTripTimeout = 23328L;
 		this.congestionWindow = this.slowStartThreshold;
 		//random value according to the distribution
-		predictedFlowSize = flowSizeDistribution();
+		predictedFlowSize = flowSizeDistribution(flowSizeRandom);
 	}
 
     @Override
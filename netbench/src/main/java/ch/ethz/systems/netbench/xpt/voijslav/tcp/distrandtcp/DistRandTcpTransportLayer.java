@@ -3,23 +3,31 @@ package ch.ethz.systems.netbench.xpt.voijslav.tcp.distrandtcp;
 import ch.ethz.systems.netbench.core.network.Socket;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
 
+import java.util.Random;
+
 public class DistRandTcpTransportLayer  extends TransportLayer {
 
+    private static final long serialVersionUID = 1L;
+
 	private long seed;
+	private final Random flowSizeRandom;
     /**
      * Create the TCP transport layer with the given network device identifier.
      * The network device identifier is used to create unique flow identifiers.
      *
      * @param identifier        Parent network device identifier
+     * @param seed              Random seed of the run
+     * @param flowSizeRandom    Random number generator drawing the predicted flow sizes (shared by the run)
      */
-    public DistRandTcpTransportLayer(int identifier, long seed) {
+    public DistRandTcpTransportLayer(int identifier, long seed, Random flowSizeRandom) {
         super(identifier);
         this.seed = seed;
+        this.flowSizeRandom = flowSizeRandom;
     }
 
     @Override
     protected Socket createSocket(long flowId, int destinationId, long flowSizeByte) {
-        return new DistRandTcpSocket(this, flowId, this.identifier, destinationId, flowSizeByte, seed);
+        return new DistRandTcpSocket(this, flowId, this.identifier, destinationId, flowSizeByte, seed, flowSizeRandom);
     }
 
 }
\ No newline at end of file
@@ -4,19 +4,27 @@ import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.log.SimulationLogger;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
 import ch.ethz.systems.netbench.core.run.infrastructure.TransportLayerGenerator;
+import ch.ethz.systems.netbench.xpt.voijslav.utility.FctDistributions;
+
+import java.util.Random;
 
 public class DistRandTcpTransportLayerGenerator extends TransportLayerGenerator {
 
+    // Draws the predicted flow sizes of all transport layers of the run
+    private final Random flowSizeRandom;
+
     public DistRandTcpTransportLayerGenerator() {
         // No parameters needed
         SimulationLogger.logInfo("Transport layer", "DistRandTcp");
+        this.flowSizeRandom = new Random(FctDistributions.RANDOM_SEED);
     }
 
     @Override
     public TransportLayer generate(int identifier) {
         return new DistRandTcpTransportLayer(
         	identifier,
-            Simulator.getConfiguration().getLongPropertyOrFail("seed")
+            Simulator.getConfiguration().getLongPropertyOrFail("seed"),
+            flowSizeRandom
         );
     }
 
@@ -8,6 +8,8 @@ import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
 
 public class LstfTcpSocket extends NewRenoTcpSocket {
 	
+    private static final long serialVersionUID = 1L;
+
     public LstfTcpSocket(TransportLayer transportLayer, long flowId, int sourceId, int destinationId, long flowSizeByte) {
 		super(transportLayer, flowId, sourceId, destinationId, flowSizeByte);
 	}
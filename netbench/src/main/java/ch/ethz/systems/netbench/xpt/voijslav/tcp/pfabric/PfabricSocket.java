@@ -8,6 +8,8 @@ import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
 
 public class PfabricSocket extends NewRenoTcpSocket {
 	
+    private static final long serialVersionUID = 1L;
+
 	private long predictedFlowSize;
 	
     public PfabricSocket(
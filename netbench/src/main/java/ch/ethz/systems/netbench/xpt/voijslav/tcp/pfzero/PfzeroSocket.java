@@ -8,6 +8,8 @@ import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
 
 public class PfzeroSocket extends NewRenoTcpSocket {
 	
+    private static final long serialVersionUID = 1L;
+
     public PfzeroSocket(
     	TransportLayer transportLayer,
     	long flowId,
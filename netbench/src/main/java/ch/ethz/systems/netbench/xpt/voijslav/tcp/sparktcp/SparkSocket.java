@@ -6,9 +6,14 @@ import ch.ethz.systems.netbench.xpt.newreno.newrenotcp.NewRenoTcpSocket;
 import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
 import ch.ethz.systems.netbench.xpt.voijslav.utility.FctDistributions;
 
+import java.util.Random;
+import java.util.TreeMap;
+
 
 public class SparkSocket extends NewRenoTcpSocket {
 	
+    private static final long serialVersionUID = 1L;
+
 	private long predictedFlowSize;
 	
     public SparkSocket(
@@ -17,7 +22,9 @@ public class SparkSocket extends NewRenoTcpSocket {
     	int sourceId,
     	int destinationId,
     	long flowSizeByte,
-    	long seed
+    	long seed,
+    	Random flowSizeRandom,
+    	TreeMap<Double, Double> sparkDistribution
     ) {
 		super(transportLayer, flowId, sourceId, destinationId, flowSizeByte);
 		//6*(1200 + 96)*2*3
@@ -25,7 +32,7 @@ public class SparkSocket extends NewRenoTcpSocket {
 		this.congestionWindow = this.slowStartThreshold;
 		
 		predictedFlowSize = (long)
-			(FctDistributions.sparkDistribution(FctDistributions.rnd.nextDouble()) * flowSizeByte);
+			(FctDistributions.sparkDistribution(sparkDistribution, flowSizeRandom.nextDouble()) * flowSizeByte);
 	}
 
     @Override
@@ -4,23 +4,35 @@ package ch.ethz.systems.netbench.xpt.voijslav.tcp.sparktcp;
 import ch.ethz.systems.netbench.core.network.Socket;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
 
+import java.util.Random;
+import java.util.TreeMap;
+
 public class SparkTransportLayer extends TransportLayer {
 
+    private static final long serialVersionUID = 1L;
+
 	private long seed;
+	private final Random flowSizeRandom;
+	private final TreeMap<Double, Double> sparkDistribution;
     /**
      * Create the TCP transport layer with the given network device identifier.
      * The network device identifier is used to create unique flow identifiers.
      *
      * @param identifier        Parent network device identifier
+     * @param seed              Random seed of the run
+     * @param flowSizeRandom    Random number generator drawing the predicted flow sizes (shared by the run)
+     * @param sparkDistribution Spark error distribution of the run
      */
-    public SparkTransportLayer(int identifier, long seed) {
+    public SparkTransportLayer(int identifier, long seed, Random flowSizeRandom, TreeMap<Double, Double> sparkDistribution) {
         super(identifier);
         this.seed = seed;
+        this.flowSizeRandom = flowSizeRandom;
+        this.sparkDistribution = sparkDistribution;
     }
 
     @Override
     protected Socket createSocket(long flowId, int destinationId, long flowSizeByte) {
-        return new SparkSocket(this, flowId, this.identifier, destinationId, flowSizeByte, seed);
+        return new SparkSocket(this, flowId, this.identifier, destinationId, flowSizeByte, seed, flowSizeRandom, sparkDistribution);
     }
 
 }
@@ -5,19 +5,35 @@ import ch.ethz.systems.netbench.core.Simulator;
 import ch.ethz.systems.netbench.core.log.SimulationLogger;
 import ch.ethz.systems.netbench.core.network.TransportLayer;
 import ch.ethz.systems.netbench.core.run.infrastructure.TransportLayerGenerator;
+import ch.ethz.systems.netbench.xpt.voijslav.utility.FctDistributions;
+
+import java.util.Random;
+import java.util.TreeMap;
 
 public class SparkTransportLayerGenerator extends TransportLayerGenerator {
 
+    // Draws the predicted flow sizes of all transport layers of the run
+    private final Random flowSizeRandom;
+
+    // Spark error distribution of the run
+    private TreeMap<Double, Double> sparkDistribution;
+
     public SparkTransportLayerGenerator() {
         // No parameters needed
         SimulationLogger.logInfo("Transport layer", "SparkTCP");
+        this.flowSizeRandom = new Random(FctDistributions.RANDOM_SEED);
     }
 
     @Override
     public TransportLayer generate(int identifier) {
+        if (sparkDistribution == null) {
+            sparkDistribution = FctDistributions.readSparkDistribution();
+        }
         return new SparkTransportLayer(
         	identifier,
-            Simulator.getConfiguration().getLongPropertyOrFail("seed")
+            Simulator.getConfiguration().getLongPropertyOrFail("seed"),
+            flowSizeRandom,
+            sparkDistribution
         );
     }
 
@@ -7,6 +7,8 @@ import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
 
 public class SpHalfTcpSocket extends NewRenoTcpSocket {
 	
+    private static final long serialVersionUID = 1L;
+
     public SpHalfTcpSocket(TransportLayer transportLayer, long flowId, int sourceId, int destinationId, long flowSizeByte) {
 		super(transportLayer, flowId, sourceId, destinationId, flowSizeByte);
 	}
@@ -7,6 +7,8 @@ import ch.ethz.systems.netbench.xpt.tcpbase.FullExtTcpPacket;
 
 public class SpTcpSocket extends NewRenoTcpSocket {
 	
+    private static final long serialVersionUID = 1L;
+
     public SpTcpSocket(TransportLayer transportLayer, long flowId, int sourceId, int destinationId, long flowSizeByte) {
 		super(transportLayer, flowId, sourceId, destinationId, flowSizeByte);
 		this.roundTripTimeout = 23328L;
@@ -7,15 +7,13 @@ import java.util.Map.Entry;
 
 import ch.ethz.systems.netbench.core.Simulator;
 
-import java.util.Random;
 import java.util.TreeMap;
 
 public class FctDistributions {
 	
-	public static Random rnd;
-	static{
-		rnd = new Random(12345);
-	}
+	// Seed of the random number generator of each run which draws the predicted flow sizes,
+	// created per run (see the transport layer generators) such that concurrent runs do not share it
+	public static final long RANDOM_SEED = 12345;
 	
 	//pfabric UpperDistribution
 //	public static int flowSizeDistribution(double outcome){
@@ -83,10 +81,13 @@ public class FctDistributions {
 		return 987600;
 	}
 	
-	private static TreeMap<Double, Double> priorities = null;
-	
-	protected static void init(){
-		priorities = new TreeMap<Double, Double>();
+	/**
+	 * Read the spark error distribution of the run (property spark_error_distribution).
+	 *
+	 * @return	Mapping of cumulative probability to error factor
+	 */
+	public static TreeMap<Double, Double> readSparkDistribution(){
+		TreeMap<Double, Double> priorities = new TreeMap<Double, Double>();
 		try {
 			@SuppressWarnings("resource")
 			BufferedReader reader = new BufferedReader(new FileReader(
@@ -104,12 +105,10 @@ public class FctDistributions {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		return priorities;
 	}
 	
-	public static double sparkDistribution(double random){
-		if (priorities == null){
-			init();
-		}
+	public static double sparkDistribution(TreeMap<Double, Double> priorities, double random){
 		Entry<Double, Double> ent;
 		ent = priorities.ceilingEntry(random);
 		if(ent==null){
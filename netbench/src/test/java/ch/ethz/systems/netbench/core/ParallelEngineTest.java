@@ -0,0 +1,191 @@
+package ch.ethz.systems.netbench.core;
+
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ParallelEngineTest {
+
+    private static final int NUM_DEVICES = 6;
+    private static final long RUNTIME_NS = 20000;
+
+    private static class TestLink extends Link {
+
+        private final long delayNs;
+
+        TestLink(long delayNs) {
+            this.delayNs = delayNs;
+        }
+
+        @Override
+        public long getDelayNs() {
+            return delayNs;
+        }
+
+        @Override
+        public long getBandwidthBitPerNs() {
+            return 1;
+        }
+
+        @Override
+        public boolean doesNextTransmissionFail(long packetSizeBits) {
+            return false;
+        }
+
+    }
+
+    private static class TestOutputPort extends OutputPort {
+
+        TestOutputPort(NetworkDevice ownNetworkDevice, NetworkDevice targetNetworkDevice, Link link) {
+            super(ownNetworkDevice, targetNetworkDevice, link, new ArrayDeque<Packet>());
+        }
+
+        @Override
+        public void enqueue(Packet packet) {
+            guaranteedEnqueue(packet);
+        }
+
+    }
+
+    private static class TestPacket extends Packet {
+
+        private final int hops;
+
+        TestPacket(long id, int hops) {
+            super(id, 1 + (id * 7 + hops) % 5);
+            this.hops = hops;
+        }
+
+    }
+
+    /**
+     * Forwards each packet a number of hops, and records every arrival.
+     */
+    private static class TestDevice extends NetworkDevice {
+
+        private final List<String> trace;
+
+        TestDevice(int identifier, List<String> trace) {
+            super(identifier, null, new Intermediary() {
+
+                @Override
+                public Packet adaptOutgoing(Packet packet) {
+                    return packet;
+                }
+
+                @Override
+                public Packet adaptIncoming(Packet packet) {
+                    return packet;
+                }
+
+            });
+            this.trace = trace;
+        }
+
+        @Override
+        public void receive(Packet genericPacket) {
+            final TestPacket packet = (TestPacket) genericPacket;
+            final long time = Simulator.getCurrentTime();
+            Simulator.runSerially(new Runnable() {
+                @Override
+                public void run() {
+                    trace.add(time + ":" + identifier + ":" + packet.getFlowId() + ":" + packet.hops);
+                }
+            });
+            if (packet.hops > 0) {
+                int target = (int) ((identifier + 1 + (packet.getFlowId() + packet.hops) % (NUM_DEVICES - 1)) % NUM_DEVICES);
+                targetIdToOutputPort.get(target).enqueue(new TestPacket(packet.getFlowId(), packet.hops - 1));
+            }
+        }
+
+        @Override
+        protected void receiveFromIntermediary(Packet genericPacket) {
+            // Nothing happens
+        }
+
+    }
+
+    /**
+     * Run the packets through a fully connected network of test devices.
+     *
+     * @param partitions    Identifiers of the devices of each partition (null for the sequential engine)
+     * @param minDelayNs    Smallest link delay
+     *
+     * @return  Trace of all arrivals
+     */
+    private List<String> run(int[][] partitions, long minDelayNs) {
+        Simulator.setup(42, new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN));
+        List<String> trace = new ArrayList<>();
+        try {
+            TestDevice[] devices = new TestDevice[NUM_DEVICES];
+            for (int i = 0; i < NUM_DEVICES; i++) {
+                devices[i] = new TestDevice(i, trace);
+            }
+            for (int i = 0; i < NUM_DEVICES; i++) {
+                for (int j = 0; j < NUM_DEVICES; j++) {
+                    if (i != j) {
+                        devices[i].addConnection(new TestOutputPort(devices[i], devices[j], new TestLink(minDelayNs + ((i + j) % 3) * 5)));
+                    }
+                }
+            }
+            for (int p = 0; p < 100; p++) {
+                Simulator.registerEvent(new PacketArrivalEvent(p % 7, new TestPacket(p, 40), devices[p % NUM_DEVICES]));
+            }
+
+            if (partitions == null) {
+                Simulator.runNs(RUNTIME_NS);
+            } else {
+                List<List<NetworkDevice>> partitionDevices = new ArrayList<>();
+                for (int[] partition : partitions) {
+                    List<NetworkDevice> list = new ArrayList<>();
+                    for (int id : partition) {
+                        list.add(devices[id]);
+                    }
+                    partitionDevices.add(list);
+                }
+                Simulator.runParallelNs(RUNTIME_NS, partitionDevices);
+            }
+            assertEquals(RUNTIME_NS, Simulator.getCurrentTime());
+        } finally {
+            Simulator.reset();
+        }
+        return trace;
+    }
+
+    @Test
+    public void testIdenticalToSequential() {
+        List<String> sequential = run(null, 20);
+        assertTrue(sequential.size() > 1000);
+        assertEquals(sequential, run(new int[][]{{0, 1, 2, 3, 4, 5}}, 20));
+        assertEquals(sequential, run(new int[][]{{0, 1}, {2, 3}, {4, 5}}, 20));
+        assertEquals(sequential, run(new int[][]{{0}, {1}, {2}, {3}, {4}, {5}}, 20));
+    }
+
+    @Test
+    public void testSmallLookaheadIdenticalToSequential() {
+        List<String> sequential = run(null, 1);
+        assertEquals(sequential, run(new int[][]{{5, 0, 3}, {1, 2, 4}}, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeviceMissing() {
+        run(new int[][]{{0, 1, 2}, {3, 4}}, 20);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoLookahead() {
+        run(new int[][]{{0, 1, 2}, {3, 4, 5}}, 0);
+    }
+
+}
@@ -0,0 +1,192 @@
+package ch.ethz.systems.netbench.core;
+
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.Event;
+import ch.ethz.systems.netbench.core.network.NetworkDevice;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SimulationCheckpointTest {
+
+    // Times at which the recording events were triggered (or the values drawn by the random events)
+    private static final List<Long> triggerTimes = new ArrayList<>();
+
+    private static class RecordingEvent extends Event {
+
+        RecordingEvent(long timeFromNowNs) {
+            super(timeFromNowNs);
+        }
+
+        @Override
+        public void trigger() {
+            triggerTimes.add(Simulator.getCurrentTime());
+        }
+
+    }
+
+    private static class RandomEvent extends Event {
+
+        private final Random random;
+
+        RandomEvent(long timeFromNowNs, Random random) {
+            super(timeFromNowNs);
+            this.random = random;
+        }
+
+        @Override
+        public void trigger() {
+            triggerTimes.add(random.nextLong());
+        }
+
+    }
+
+    private File tempCheckpoint;
+
+    @Before
+    public void setup() throws IOException {
+        triggerTimes.clear();
+        tempCheckpoint = File.createTempFile("temp-checkpoint", ".tmp");
+    }
+
+    @After
+    public void cleanup() {
+        Simulator.reset();
+        assertTrue(tempCheckpoint.delete());
+    }
+
+    private NBProperties createConfiguration() {
+        return new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN);
+    }
+
+    @Test
+    public void testSaveAndRestore() {
+
+        // Save halfway, after the first event
+        Simulator.setup(0, createConfiguration());
+        Simulator.registerEvent(new RecordingEvent(100));
+        Simulator.registerEvent(new RecordingEvent(300));
+        Simulator.registerEvent(new RecordingEvent(500));
+        assertFalse(Simulator.resumeNs(200, -1));
+        SimulationCheckpoint.save(tempCheckpoint.getAbsolutePath(), new HashMap<Integer, NetworkDevice>(), new HashMap<Integer, TransportLayer>());
+        Simulator.reset();
+        assertEquals(Arrays.asList(100L), triggerTimes);
+
+        // Continue from the checkpoint
+        Simulator.setup(0, createConfiguration());
+        SimulationCheckpoint checkpoint = SimulationCheckpoint.restore(tempCheckpoint.getAbsolutePath());
+        assertEquals(200, checkpoint.getTimeNs());
+        assertEquals(200, Simulator.getCurrentTime());
+        assertEquals(2, Simulator.getEventSize());
+        Simulator.resumeNs(1000, -1);
+        assertEquals(Arrays.asList(100L, 300L, 500L), triggerTimes);
+        assertEquals(1000, Simulator.getCurrentTime());
+
+    }
+
+    @Test
+    public void testRandomContinues() {
+
+        // Draw after the checkpoint in the original run
+        Simulator.setup(77, createConfiguration());
+        Random random = Simulator.selectIndependentRandom("checkpoint_test");
+        Simulator.registerEvent(new RandomEvent(100, random));
+        random.nextLong();
+        SimulationCheckpoint.save(tempCheckpoint.getAbsolutePath(), new HashMap<Integer, NetworkDevice>(), new HashMap<Integer, TransportLayer>());
+        long expected = random.nextLong();
+        Simulator.reset();
+
+        // Same draw in the restored run
+        Simulator.setup(77, createConfiguration());
+        SimulationCheckpoint.restore(tempCheckpoint.getAbsolutePath());
+        Simulator.resumeNs(1000, -1);
+        assertEquals(Arrays.asList(expected), triggerTimes);
+
+        // Its seed has already been issued
+        boolean thrown = false;
+        try {
+            Simulator.selectIndependentRandom("checkpoint_test");
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assertTrue(thrown);
+
+    }
+
+    @Test
+    public void testPropertyChanged() {
+
+        Simulator.setup(0, createConfiguration());
+        SimulationCheckpoint.save(tempCheckpoint.getAbsolutePath(), new HashMap<Integer, NetworkDevice>(), new HashMap<Integer, TransportLayer>());
+        Simulator.reset();
+
+        NBProperties configuration = createConfiguration();
+        configuration.overrideProperty("checkpoint_save_filename", "other.ckpt");
+        Simulator.setup(0, configuration);
+        SimulationCheckpoint checkpoint = SimulationCheckpoint.restore(tempCheckpoint.getAbsolutePath());
+        assertTrue(checkpoint.isPropertyChanged("checkpoint_save_filename"));
+        assertFalse(checkpoint.isPropertyChanged("checkpoint_load_filename"));
+
+    }
+
+    @Test
+    public void testValiantCountedFlowsContinue() {
+
+        Simulator.setup(0, createConfiguration());
+        SimulationContext.current().getValiantCountedFlows().add(3L);
+        SimulationCheckpoint.save(tempCheckpoint.getAbsolutePath(), new HashMap<Integer, NetworkDevice>(), new HashMap<Integer, TransportLayer>());
+        Simulator.reset();
+
+        Simulator.setup(0, createConfiguration());
+        SimulationCheckpoint.restore(tempCheckpoint.getAbsolutePath());
+        assertFalse(SimulationContext.current().getValiantCountedFlows().add(3L));
+        assertTrue(SimulationContext.current().getValiantCountedFlows().add(4L));
+
+    }
+
+    @Test
+    public void testFindChangedProperties() {
+
+        NBProperties saved = new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN, BaseAllowedProperties.EXTENSION, BaseAllowedProperties.EXPERIMENTAL);
+        saved.overrideProperty("network_device_routing", "ecmp");
+        saved.overrideProperty("wcmp_path_weights_filename", "weights.txt");
+        Simulator.setup(0, saved);
+        SimulationCheckpoint.save(tempCheckpoint.getAbsolutePath(), new HashMap<Integer, NetworkDevice>(), new HashMap<Integer, TransportLayer>());
+        Simulator.reset();
+
+        // Found without restoring, which leaves the event queue untouched
+        NBProperties configuration = new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN, BaseAllowedProperties.EXTENSION, BaseAllowedProperties.EXPERIMENTAL);
+        configuration.overrideProperty("network_device_routing", "ecmp");
+        configuration.overrideProperty("routing_weight_filename", "other.txt");
+        Simulator.setup(0, configuration);
+        assertEquals(
+                Arrays.asList("wcmp_path_weights_filename", "routing_weight_filename"),
+                SimulationCheckpoint.findChangedProperties(tempCheckpoint.getAbsolutePath(), "network_device_routing", "wcmp_path_weights_filename", "routing_weight_filename")
+        );
+        assertEquals(0, Simulator.getEventSize());
+
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRestoreNonEmptyQueue() {
+        Simulator.setup(0, createConfiguration());
+        SimulationCheckpoint.save(tempCheckpoint.getAbsolutePath(), new HashMap<Integer, NetworkDevice>(), new HashMap<Integer, TransportLayer>());
+        Simulator.registerEvent(new RecordingEvent(100));
+        SimulationCheckpoint.restore(tempCheckpoint.getAbsolutePath());
+    }
+
+}
@@ -0,0 +1,159 @@
+package ch.ethz.systems.netbench.core;
+
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.Event;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SimulationContextTest {
+
+    private static final long RUNTIME_NS = 100000;
+
+    /**
+     * Records its time and identifier, and plans the next event.
+     */
+    private static class TraceEvent extends Event {
+
+        private final List<String> trace;
+        private final Random random;
+
+        TraceEvent(long timeFromNowNs, List<String> trace, Random random) {
+            super(timeFromNowNs);
+            this.trace = trace;
+            this.random = random;
+        }
+
+        @Override
+        public void trigger() {
+            trace.add(getTime() + ":" + getEventId() + ":" + TransportLayer.reserveFlowId());
+            Simulator.registerEvent(new TraceEvent(1 + random.nextInt(100), trace, random));
+        }
+
+    }
+
+    /**
+     * Simulation thread which performs a run in its own context, once all runs are setup.
+     */
+    private static class RunThread extends SimulationThread {
+
+        private final List<String> trace = new ArrayList<>();
+        private final CyclicBarrier allSetup;
+        private Throwable failure;
+
+        RunThread(String name, CyclicBarrier allSetup) {
+            super(name, new SimulationContext());
+            this.allSetup = allSetup;
+        }
+
+        @Override
+        public void run() {
+            try {
+                NBProperties configuration = new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN);
+                configuration.overrideProperty("run_folder_name", "simulation_context_test_" + getName());
+                Simulator.setup(42, configuration);
+                try {
+                    allSetup.await();
+                    Simulator.registerEvent(new TraceEvent(0, trace, Simulator.selectIndependentRandom("trace")));
+                    Simulator.runNs(RUNTIME_NS);
+                    assertEquals(RUNTIME_NS, Simulator.getCurrentTime());
+                } finally {
+                    Simulator.reset();
+                }
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+
+    }
+
+    @Test
+    public void testConcurrentRunsIdentical() throws Throwable {
+        CyclicBarrier allSetup = new CyclicBarrier(2);
+        RunThread first = new RunThread("first", allSetup);
+        RunThread second = new RunThread("second", allSetup);
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+        if (first.failure != null) {
+            throw first.failure;
+        }
+        if (second.failure != null) {
+            throw second.failure;
+        }
+
+        // Each run starts its own event and flow identifiers
+        assertEquals("0:0:0", first.trace.get(0));
+        assertEquals(first.trace, second.trace);
+
+        // Default context is untouched
+        assertNull(Simulator.getConfiguration());
+        assertEquals(0, Simulator.getCurrentTime());
+    }
+
+    @Test
+    public void testDefaultContext() throws InterruptedException {
+        final SimulationContext[] seen = new SimulationContext[2];
+        Thread plain = new Thread() {
+            @Override
+            public void run() {
+                seen[0] = SimulationContext.current();
+            }
+        };
+        SimulationThread withoutContext = new SimulationThread(new Runnable() {
+            @Override
+            public void run() {
+                seen[1] = SimulationContext.current();
+            }
+        }, "without-context");
+        plain.start();
+        withoutContext.start();
+        plain.join();
+        withoutContext.join();
+        assertSame(SimulationContext.current(), seen[0]);
+        assertSame(SimulationContext.current(), seen[1]);
+    }
+
+    @Test
+    public void testValiantCountedFlowsPerRun() {
+        SimulationContext other = new SimulationContext();
+        Simulator.setup(0);
+        SimulationContext.current().getValiantCountedFlows().add(3L);
+        assertTrue(other.getValiantCountedFlows().isEmpty());
+        Simulator.reset();
+        assertTrue(SimulationContext.current().getValiantCountedFlows().isEmpty());
+    }
+
+    @Test
+    public void testOwnContext() throws InterruptedException {
+        final SimulationContext context = new SimulationContext();
+        final SimulationContext[] seen = new SimulationContext[1];
+        SimulationThread thread = new SimulationThread(new Runnable() {
+            @Override
+            public void run() {
+                seen[0] = SimulationContext.current();
+            }
+        }, "with-context");
+        thread.setContext(context);
+        thread.start();
+        thread.join();
+        assertSame(context, seen[0]);
+        assertNotSame(SimulationContext.current(), context);
+    }
+
+}
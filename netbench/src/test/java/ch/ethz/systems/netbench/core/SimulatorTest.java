@@ -74,6 +74,68 @@ public class SimulatorTest {
 
     }
 
+    private class CountingEvent extends Event {
+
+        private int numTriggered;
+
+        CountingEvent(long timeFromNowNs) {
+            super(timeFromNowNs);
+        }
+
+        @Override
+        public void trigger() {
+            numTriggered++;
+        }
+
+    }
+
+    @Test
+    public void testCancelEvent() {
+
+        Simulator.setup(0);
+        CountingEvent first = new CountingEvent(100);
+        CountingEvent cancelled = new CountingEvent(200);
+        CountingEvent last = new CountingEvent(300);
+        Simulator.registerEvent(first);
+        Simulator.registerEvent(cancelled);
+        Simulator.registerEvent(last);
+
+        // Cancelled event is removed from the queue right away
+        Simulator.cancelEvent(cancelled);
+        assertEquals(2, Simulator.getEventSize());
+        Simulator.cancelEvent(cancelled);
+        assertEquals(2, Simulator.getEventSize());
+
+        Simulator.runNs(1000);
+        assertEquals(1, first.numTriggered);
+        assertEquals(0, cancelled.numTriggered);
+        assertEquals(1, last.numTriggered);
+
+        // Cancelling an event which already happened has no effect
+        Simulator.cancelEvent(first);
+        assertEquals(0, Simulator.getEventSize());
+        Simulator.reset();
+
+    }
+
+    @Test
+    public void testCancelEventsOfClass() {
+
+        Simulator.setup(0);
+        CountingEvent counting = new CountingEvent(100);
+        Simulator.registerEvent(counting);
+        Simulator.registerEvent(new TestEvent(200));
+        Simulator.registerEvent(new TestEvent(300));
+
+        // Only those of the class are removed
+        assertEquals(2, Simulator.cancelEvents(TestEvent.class));
+        assertEquals(1, Simulator.getEventSize());
+        Simulator.runNs(1000);
+        assertEquals(1, counting.numTriggered);
+        Simulator.reset();
+
+    }
+
     @Test
     public void testRunSimpleWithEvents() {
 
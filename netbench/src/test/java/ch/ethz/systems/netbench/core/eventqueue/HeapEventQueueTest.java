@@ -0,0 +1,93 @@
+package ch.ethz.systems.netbench.core.eventqueue;
+
+import ch.ethz.systems.netbench.core.network.Event;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HeapEventQueueTest {
+
+    private class TestEvent extends Event {
+
+        TestEvent(long timeFromNowNs) {
+            super(timeFromNowNs);
+        }
+
+        @Override
+        public void trigger() {
+            // Nothing happens
+        }
+
+    }
+
+    @Test
+    public void testEmpty() {
+        HeapEventQueue queue = new HeapEventQueue();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peek());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testRemove() {
+
+        // Random inserts, removals and polls against a reference priority queue
+        Random random = new Random(17);
+        PriorityQueue<Event> reference = new PriorityQueue<>();
+        HeapEventQueue heap = new HeapEventQueue();
+        List<Event> pending = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+
+            int action = random.nextInt(4);
+            if (action <= 1 || pending.isEmpty()) {
+                Event event = new TestEvent(random.nextInt(1000));
+                reference.add(event);
+                heap.add(event);
+                pending.add(event);
+            } else if (action == 2) {
+                Event event = pending.remove(random.nextInt(pending.size()));
+                assertEquals(reference.remove(event), heap.remove(event));
+                assertFalse(heap.remove(event));
+            } else {
+                Event first = reference.poll();
+                assertTrue(first == heap.poll());
+                if (first != null) {
+                    assertEquals(Event.NOT_QUEUED, first.getQueueIndex());
+                }
+            }
+            assertEquals(reference.size(), heap.size());
+            assertTrue(reference.peek() == heap.peek());
+
+        }
+
+        while (!reference.isEmpty()) {
+            assertTrue(reference.poll() == heap.poll());
+        }
+        assertTrue(heap.isEmpty());
+
+    }
+
+    @Test
+    public void testClear() {
+        HeapEventQueue heap = new HeapEventQueue();
+        Event event = new TestEvent(5);
+        heap.add(event);
+        heap.add(new TestEvent(3));
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.remove(event));
+        heap.add(event);
+        assertTrue(heap.remove(event));
+        assertNull(heap.poll());
+    }
+
+}
@@ -0,0 +1,163 @@
+package ch.ethz.systems.netbench.core.eventqueue;
+
+import ch.ethz.systems.netbench.core.network.Event;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LadderEventQueueTest {
+
+    private class TestEvent extends Event {
+
+        TestEvent(long timeFromNowNs) {
+            super(timeFromNowNs);
+        }
+
+        @Override
+        public void trigger() {
+            // Nothing happens
+        }
+
+    }
+
+    @Test
+    public void testEmpty() {
+        LadderEventQueue queue = new LadderEventQueue();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peek());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testSameOrderAsHeapBulk() {
+        Random random = new Random(1234);
+        PriorityQueue<Event> heap = new PriorityQueue<>();
+        LadderEventQueue ladder = new LadderEventQueue();
+        for (int i = 0; i < 20000; i++) {
+            Event event = new TestEvent(random.nextInt(1000000));
+            heap.add(event);
+            ladder.add(event);
+        }
+        assertEquals(heap.size(), ladder.size());
+        while (!heap.isEmpty()) {
+            assertTrue(heap.poll() == ladder.poll());
+        }
+        assertTrue(ladder.isEmpty());
+    }
+
+    @Test
+    public void testSameOrderAsHeapEqualTimes() {
+        PriorityQueue<Event> heap = new PriorityQueue<>();
+        LadderEventQueue ladder = new LadderEventQueue();
+        for (int i = 0; i < 5000; i++) {
+            Event event = new TestEvent(i % 3 == 0 ? 100 : 200);
+            heap.add(event);
+            ladder.add(event);
+        }
+        while (!heap.isEmpty()) {
+            assertTrue(heap.poll() == ladder.poll());
+        }
+    }
+
+    @Test
+    public void testSameOrderAsHeapInterleaved() {
+
+        // Hold model: always poll the first and insert new ones relative to its time
+        Random random = new Random(5678);
+        PriorityQueue<Event> heap = new PriorityQueue<>();
+        LadderEventQueue ladder = new LadderEventQueue();
+        for (int i = 0; i < 2000; i++) {
+            Event event = new TestEvent(random.nextInt(100000));
+            heap.add(event);
+            ladder.add(event);
+        }
+
+        for (int i = 0; i < 100000; i++) {
+            Event first = heap.peek();
+            assertTrue(first == ladder.peek());
+            int numNew = random.nextInt(3);
+            for (int j = 0; j < numNew; j++) {
+                Event event = new TestEvent(first.getTime() + (random.nextBoolean() ? 0 : random.nextInt(50000)));
+                heap.add(event);
+                ladder.add(event);
+            }
+            assertTrue(heap.poll() == ladder.poll());
+            assertEquals(heap.size(), ladder.size());
+            if (heap.isEmpty()) {
+                break;
+            }
+        }
+
+        while (!heap.isEmpty()) {
+            assertTrue(heap.poll() == ladder.poll());
+        }
+        assertTrue(ladder.isEmpty());
+
+    }
+
+    @Test
+    public void testClear() {
+        LadderEventQueue ladder = new LadderEventQueue();
+        for (int i = 0; i < 1000; i++) {
+            ladder.add(new TestEvent(i));
+        }
+        ladder.poll();
+        ladder.clear();
+        assertTrue(ladder.isEmpty());
+        assertNull(ladder.poll());
+        Event event = new TestEvent(5);
+        ladder.add(event);
+        assertTrue(event == ladder.poll());
+    }
+
+    @Test
+    public void testRemove() {
+
+        // Hold model with many cancellations, as with retransmission timers
+        Random random = new Random(91);
+        PriorityQueue<Event> heap = new PriorityQueue<>();
+        LadderEventQueue ladder = new LadderEventQueue();
+        List<Event> pending = new ArrayList<>();
+        long now = 0;
+        for (int i = 0; i < 100000; i++) {
+
+            int action = random.nextInt(4);
+            if (action <= 1 || pending.isEmpty()) {
+                Event event = new TestEvent(now + random.nextInt(20000));
+                heap.add(event);
+                ladder.add(event);
+                pending.add(event);
+            } else if (action == 2) {
+                Event event = pending.remove(random.nextInt(pending.size()));
+                boolean wasPending = heap.remove(event);
+                assertEquals(wasPending, ladder.remove(event));
+                assertFalse(ladder.remove(event));
+            } else {
+                Event first = heap.poll();
+                if (first != null) {
+                    assertTrue(first == ladder.poll());
+                    now = first.getTime();
+                }
+            }
+            assertEquals(heap.size(), ladder.size());
+
+        }
+
+        while (!heap.isEmpty()) {
+            assertTrue(heap.poll() == ladder.poll());
+        }
+        assertTrue(ladder.isEmpty());
+        assertNull(ladder.peek());
+
+    }
+
+}
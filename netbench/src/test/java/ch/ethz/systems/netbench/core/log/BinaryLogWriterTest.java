@@ -0,0 +1,61 @@
+package ch.ethz.systems.netbench.core.log;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryLogWriterTest {
+
+    @Test
+    public void testDecodeToCsv() throws IOException {
+
+        // Create temporary files
+        File tempBinary = File.createTempFile("temp-log", ".bin.log");
+        File tempCsv = File.createTempFile("temp-log", ".csv.log");
+
+        // Write enough records to span multiple blocks, including negative and extreme values
+        StringBuilder expected = new StringBuilder("a,b,c,d,e\n");
+        BinaryLogWriter writer = new BinaryLogWriter(tempBinary.getAbsolutePath(), 5, "a,b,c,d,e\n");
+        for (int i = 0; i < 20000; i++) {
+            long c = (i % 7 == 0 ? -i : i);
+            long d = (i % 1000 == 0 ? Long.MIN_VALUE : Long.MAX_VALUE - i);
+            writer.write(i % 13, 12, c, d, 1000L * i);
+            expected.append(i % 13).append(",12,").append(c).append(",").append(d).append(",").append(1000L * i).append("\n");
+        }
+        writer.close();
+
+        // Decode
+        assertEquals(20000, BinaryLogDecoder.decodeToCsv(tempBinary.getAbsolutePath(), tempCsv.getAbsolutePath()));
+        assertEquals(expected.toString(), new String(Files.readAllBytes(tempCsv.toPath())));
+
+        // Delete temporary files
+        assertTrue(tempBinary.delete());
+        assertTrue(tempCsv.delete());
+
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+
+        // Create temporary files
+        File tempBinary = File.createTempFile("temp-log", ".bin.log");
+        File tempCsv = File.createTempFile("temp-log", ".csv.log");
+
+        // Without header and records
+        BinaryLogWriter writer = new BinaryLogWriter(tempBinary.getAbsolutePath(), 6, "");
+        writer.close();
+        assertEquals(0, BinaryLogDecoder.decodeToCsv(tempBinary.getAbsolutePath(), tempCsv.getAbsolutePath()));
+        assertEquals(0, tempCsv.length());
+
+        // Delete temporary files
+        assertTrue(tempBinary.delete());
+        assertTrue(tempCsv.delete());
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package ch.ethz.systems.netbench.core.log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlowCompletionStatisticsTest {
+
+    private static Map<String, String> write(FlowCompletionStatistics statistics) throws IOException {
+        StringWriter out = new StringWriter();
+        BufferedWriter writer = new BufferedWriter(out);
+        statistics.write(writer);
+        writer.flush();
+        Map<String, String> result = new HashMap<>();
+        for (String line : out.toString().split("\n")) {
+            String[] split = line.split("=");
+            result.put(split[0], split[1]);
+        }
+        return result;
+    }
+
+    @Test
+    public void testSizeClasses() throws IOException {
+        FlowCompletionStatistics statistics = new FlowCompletionStatistics(null);
+        statistics.flowStarted(0, 1, 1000);
+        statistics.flowStarted(0, 2, 50000);
+        statistics.flowStarted(1, 2, 3000000);
+        statistics.flowCompleted(0, 1, 1000, 8000);
+        statistics.flowCompleted(1, 2, 3000000, 24000000);
+
+        Map<String, String> result = write(statistics);
+        assertEquals("3", result.get("general_num_flows"));
+        assertEquals("2", result.get("general_num_unique_sources"));
+        assertEquals("2", result.get("general_num_unique_targets"));
+        assertEquals(1017000.0, Double.parseDouble(result.get("general_flow_size_bytes_mean")), 1e-6);
+
+        assertEquals("3", result.get("all_num_flows"));
+        assertEquals("2", result.get("all_num_finished_flows"));
+        assertEquals("1", result.get("all_num_unfinished_flows"));
+        assertEquals(2.0 / 3.0, Double.parseDouble(result.get("all_flows_completed_fraction")), 1e-9);
+        assertEquals(12004000.0, Double.parseDouble(result.get("all_mean_fct_ns")), 1e-6);
+        assertEquals(12.004, Double.parseDouble(result.get("all_mean_fct_ms")), 1e-9);
+        assertEquals(1.0, Double.parseDouble(result.get("all_throughput_mean_Gbps")), 1e-9);
+
+        assertEquals("2", result.get("less_100KB_num_flows"));
+        assertEquals("1", result.get("less_100KB_num_finished_flows"));
+        assertEquals(8000.0, Double.parseDouble(result.get("less_100KB_median_fct_ns")), 8000 / 512.0);
+
+        assertEquals("1", result.get("geq_2.4349MB_num_flows"));
+        assertEquals(24000000.0, Double.parseDouble(result.get("geq_2.4349MB_99th_fct_ns")), 24000000 / 512.0);
+
+        assertEquals("0", result.get("geq_10MB_num_flows"));
+        assertEquals("0", result.get("geq_10MB_flows_completed_fraction"));
+        assertNull(result.get("geq_10MB_mean_fct_ns"));
+    }
+
+}
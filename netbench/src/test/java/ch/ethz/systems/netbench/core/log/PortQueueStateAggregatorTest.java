@@ -0,0 +1,78 @@
+package ch.ethz.systems.netbench.core.log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PortQueueStateAggregatorTest {
+
+    private StringWriter output;
+    private BufferedWriter writer;
+
+    private PortQueueStateAggregator create(long bucketNs, int numBins, long binBits) {
+        output = new StringWriter();
+        writer = new BufferedWriter(output);
+        return new PortQueueStateAggregator(3, 7, bucketNs, numBins, binBits, writer);
+    }
+
+    private String[] rows(PortQueueStateAggregator aggregator, long endTimeNs) throws IOException {
+        aggregator.finish(endTimeNs);
+        writer.flush();
+        return output.toString().length() == 0 ? new String[0] : output.toString().split("\n");
+    }
+
+    @Test
+    public void testSingleBucket() throws IOException {
+        PortQueueStateAggregator aggregator = create(1000, 4, 100);
+        aggregator.update(100, 150);   // [100, 400) at 150 bits
+        aggregator.update(400, 350);   // [400, 500) at 350 bits
+        aggregator.update(500, 0);     // [500, 1000) empty
+        String[] rows = rows(aggregator, 1000);
+        assertEquals(1, rows.length);
+        assertEquals("3,7,0,1000," + ((300 * 150 + 100 * 350) / 1000.0) + ",350,600;300;0;100", rows[0]);
+    }
+
+    @Test
+    public void testSpanningBucketsAndPartialLast() throws IOException {
+        PortQueueStateAggregator aggregator = create(100, 2, 1000);
+        aggregator.update(50, 2000);
+        aggregator.update(250, 0);
+        String[] rows = rows(aggregator, 320);
+        assertEquals(3, rows.length);
+        assertEquals("3,7,0,100,1000.0,2000,50;50", rows[0]);
+        assertEquals("3,7,100,100,2000.0,2000,0;100", rows[1]);
+        assertEquals("3,7,200,100,1000.0,2000,50;50", rows[2]);
+    }
+
+    @Test
+    public void testEmptyBucketsSkipped() throws IOException {
+        PortQueueStateAggregator aggregator = create(100, 2, 1000);
+        aggregator.update(10, 500);
+        aggregator.update(20, 0);
+        aggregator.update(100000, 500);
+        String[] rows = rows(aggregator, 100050);
+        assertEquals(2, rows.length);
+        assertEquals("3,7,0,100,50.0,500,100;0", rows[0]);
+        assertEquals("3,7,100000,50,500.0,500,50;0", rows[1]);
+    }
+
+    @Test
+    public void testNothingLoggedIfAlwaysEmpty() throws IOException {
+        PortQueueStateAggregator aggregator = create(100, 2, 1000);
+        aggregator.update(10, 0);
+        assertEquals(0, rows(aggregator, 12345).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBucket() {
+        create(0, 2, 1000);
+    }
+
+}
@@ -1,5 +1,6 @@
 package ch.ethz.systems.netbench.core.network;
 
+import ch.ethz.systems.netbench.core.SimulationContext;
 import ch.ethz.systems.netbench.core.Simulator;
 import org.junit.After;
 import org.junit.Before;
@@ -8,6 +9,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -61,6 +63,36 @@ public class PacketArrivalEventTest {
         verify(networkDevice, times(1)).receive(packet);
     }
 
+    @Test
+    public void testPooledRecycled() {
+        SimulationContext.current().getPacketEventPool().setEnabled(true);
+        Packet otherPacket = mock(Packet.class);
+        NetworkDevice networkDevice = mock(NetworkDevice.class);
+        NetworkDevice otherNetworkDevice = mock(NetworkDevice.class);
+        PacketArrivalEvent event = PacketArrivalEvent.create(1000, packet, networkDevice);
+        long eid = event.getEventId();
+        event.trigger();
+        verify(networkDevice, times(1)).receive(packet);
+
+        // Recycled instance is as if newly created
+        PacketArrivalEvent recycled = PacketArrivalEvent.create(500, otherPacket, otherNetworkDevice);
+        assertSame(event, recycled);
+        assertEquals(500, recycled.getTime());
+        assertTrue(recycled.getEventId() > eid);
+        assertEquals(Event.NOT_QUEUED, recycled.getQueueIndex());
+        recycled.trigger();
+        verify(otherNetworkDevice, times(1)).receive(otherPacket);
+        verify(networkDevice, times(1)).receive(packet);
+    }
+
+    @Test
+    public void testNotPooledByDefault() {
+        NetworkDevice networkDevice = mock(NetworkDevice.class);
+        PacketArrivalEvent event = PacketArrivalEvent.create(1000, packet, networkDevice);
+        event.trigger();
+        assertNotSame(event, PacketArrivalEvent.create(1000, packet, networkDevice));
+    }
+
     @Test
     public void testToString() {
         NetworkDevice networkDevice = mock(NetworkDevice.class);
@@ -68,4 +100,12 @@ public class PacketArrivalEventTest {
         event.toString();
     }
 
+    @Test
+    public void testToStringReleased() {
+        SimulationContext.current().getPacketEventPool().setEnabled(true);
+        PacketArrivalEvent event = PacketArrivalEvent.create(1000, packet, mock(NetworkDevice.class));
+        event.trigger();
+        assertEquals("PacketArrivalEvent<released, 1000>", event.toString());
+    }
+
 }
@@ -1,5 +1,6 @@
 package ch.ethz.systems.netbench.core.network;
 
+import ch.ethz.systems.netbench.core.SimulationContext;
 import ch.ethz.systems.netbench.core.Simulator;
 import org.junit.After;
 import org.junit.Before;
@@ -8,6 +9,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -61,6 +63,36 @@ public class PacketDispatchedEventTest {
         verify(port, times(1)).dispatch(packet);
     }
 
+    @Test
+    public void testPooledRecycled() {
+        SimulationContext.current().getPacketEventPool().setEnabled(true);
+        Packet otherPacket = mock(Packet.class);
+        OutputPort port = mock(OutputPort.class);
+        OutputPort otherPort = mock(OutputPort.class);
+        PacketDispatchedEvent event = PacketDispatchedEvent.create(1000, packet, port);
+        long eid = event.getEventId();
+        event.trigger();
+        verify(port, times(1)).dispatch(packet);
+
+        // Recycled instance is as if newly created
+        PacketDispatchedEvent recycled = PacketDispatchedEvent.create(500, otherPacket, otherPort);
+        assertSame(event, recycled);
+        assertEquals(500, recycled.getTime());
+        assertTrue(recycled.getEventId() > eid);
+        assertEquals(Event.NOT_QUEUED, recycled.getQueueIndex());
+        recycled.trigger();
+        verify(otherPort, times(1)).dispatch(otherPacket);
+        verify(port, times(1)).dispatch(packet);
+    }
+
+    @Test
+    public void testNotPooledByDefault() {
+        OutputPort port = mock(OutputPort.class);
+        PacketDispatchedEvent event = PacketDispatchedEvent.create(1000, packet, port);
+        event.trigger();
+        assertNotSame(event, PacketDispatchedEvent.create(1000, packet, port));
+    }
+
     @Test
     public void testToString() {
         OutputPort port = mock(OutputPort.class);
@@ -68,4 +100,12 @@ public class PacketDispatchedEventTest {
         event.toString();
     }
 
+    @Test
+    public void testToStringReleased() {
+        SimulationContext.current().getPacketEventPool().setEnabled(true);
+        PacketDispatchedEvent event = PacketDispatchedEvent.create(1000, packet, mock(OutputPort.class));
+        event.trigger();
+        assertEquals("PacketDispatchedEvent<released, 1000>", event.toString());
+    }
+
 }
@@ -0,0 +1,61 @@
+package ch.ethz.systems.netbench.core.run;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CheckpointRunTest {
+
+    @Test
+    public void testFatTreeK8Run() throws IOException, InterruptedException {
+        File tempCheckpoint = File.createTempFile("temp-checkpoint", ".tmp");
+
+        // Uninterrupted run, and the same run saved halfway and continued from the checkpoint
+        // (run folders: temp/test_checkpoint_fat_tree_k8_*)
+        runWithSmallStack("run_folder_name=test_checkpoint_fat_tree_k8_full");
+        runWithSmallStack("run_folder_name=test_checkpoint_fat_tree_k8_save",
+                "checkpoint_save_filename=" + tempCheckpoint.getAbsolutePath(), "checkpoint_save_time_ns=1000000");
+        runWithSmallStack("run_folder_name=test_checkpoint_fat_tree_k8_load",
+                "checkpoint_load_filename=" + tempCheckpoint.getAbsolutePath());
+
+        // The checkpoint restores the flow completion statistics, and the remainder of the run is the same
+        byte[] expected = Files.readAllBytes(Paths.get("temp/test_checkpoint_fat_tree_k8_full/flow_completion.statistics"));
+        assertArrayEquals(expected, Files.readAllBytes(Paths.get("temp/test_checkpoint_fat_tree_k8_load/flow_completion.statistics")));
+        assertTrue(tempCheckpoint.delete());
+
+    }
+
+    /**
+     * Perform the fat-tree (k=8) run on a thread with a small stack, which is
+     * not deep enough for the serialization of the network.
+     *
+     * @param overrides     Property overrides ("key=value")
+     */
+    private void runWithSmallStack(String... overrides) throws InterruptedException {
+        final String[] args = new String[overrides.length + 1];
+        args[0] = "example/runs/test_checkpoint_fat_tree_k8.properties";
+        System.arraycopy(overrides, 0, args, 1, overrides.length);
+        final Throwable[] thrown = new Throwable[1];
+        Thread thread = new Thread(null, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    MainFromProperties.main(args);
+                } catch (Throwable e) {
+                    thrown[0] = e;
+                }
+            }
+        }, "small-stack", 256 * 1024);
+        thread.start();
+        thread.join();
+        assertEquals(null, thrown[0]);
+    }
+
+}
@@ -0,0 +1,73 @@
+package ch.ethz.systems.netbench.core.utility;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LogHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LogHistogram histogram = new LogHistogram(8);
+        assertEquals(0, histogram.getCount());
+        assertTrue(Double.isNaN(histogram.getMean()));
+        assertTrue(Double.isNaN(histogram.getPercentile(50)));
+    }
+
+    @Test
+    public void testSmallValuesExact() {
+        LogHistogram histogram = new LogHistogram(4);
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(5.5, histogram.getMean(), 1e-9);
+        assertEquals(1, histogram.getMin());
+        assertEquals(10, histogram.getMax());
+        assertEquals(1.0, histogram.getPercentile(0), 1e-9);
+        assertEquals(5.0, histogram.getPercentile(50), 1e-9);
+        assertEquals(9.0, histogram.getPercentile(90), 1e-9);
+        assertEquals(10.0, histogram.getPercentile(100), 1e-9);
+    }
+
+    @Test
+    public void testPercentileRelativeError() {
+        Random random = new Random(42);
+        LogHistogram histogram = new LogHistogram(8);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 35);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        double[] percentiles = new double[]{0.1, 1, 25, 50, 75, 99, 99.9, 100};
+        for (double p : percentiles) {
+            long exact = values[(int) Math.max(0, Math.ceil(p / 100.0 * values.length) - 1)];
+            assertEquals(exact, histogram.getPercentile(p), exact / 512.0 + 0.5);
+        }
+        assertEquals(values[0], histogram.getMin());
+        assertEquals(values[values.length - 1], histogram.getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeValue() {
+        new LogHistogram(8).record(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPrecision() {
+        new LogHistogram(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new LogHistogram(8).getPercentile(101);
+    }
+
+}
@@ -0,0 +1,73 @@
+package ch.ethz.systems.netbench.core.utility;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void testBasic() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get(5, -1));
+        map.put(5, 10);
+        map.put(-3, 11);
+        map.put(5, 12);
+        assertEquals(2, map.size());
+        assertEquals(12, map.get(5, -1));
+        assertEquals(11, map.get(-3, -1));
+        assertTrue(map.containsKey(-3));
+        assertEquals(12, map.remove(5, -1));
+        assertEquals(-1, map.remove(5, -1));
+        assertFalse(map.containsKey(5));
+        assertEquals(1, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get(-3, -1));
+    }
+
+    @Test
+    public void testReservedKey() {
+        boolean thrown = false;
+        try {
+            new LongIntHashMap().put(Long.MIN_VALUE, 1);
+        } catch (IllegalArgumentException e) {
+            thrown = true;
+        }
+        assertTrue(thrown);
+    }
+
+    @Test
+    public void testRandomAgainstHashMap() {
+        Random random = new Random(42);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+
+            // Small key range to get many collisions, growing and shrinking phases
+            long key = random.nextInt(i < 100000 ? 5000 : 50) * 1024L;
+            if (random.nextInt(3) == 0 || i >= 100000) {
+                Integer expected = reference.remove(key);
+                assertEquals(expected == null ? -1 : expected, map.remove(key, -1));
+            } else {
+                int value = random.nextInt(1000);
+                reference.put(key, value);
+                map.put(key, value);
+            }
+            assertEquals(reference.size(), map.size());
+
+        }
+        for (long key = 0; key < 5000 * 1024L; key += 1024L) {
+            Integer expected = reference.get(key);
+            assertEquals(expected == null ? -1 : expected, map.get(key, -1));
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package ch.ethz.systems.netbench.core.utility;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RingBufferQueueTest {
+
+    @Test
+    public void testEmpty() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>();
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        assertNull(queue.peek());
+        assertNull(queue.poll());
+        assertFalse(queue.iterator().hasNext());
+    }
+
+    @Test
+    public void testFifoWithGrowth() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(4);
+
+        // Wrap around before growing
+        queue.add(-1);
+        queue.add(-2);
+        assertEquals(-1, (int) queue.poll());
+        assertEquals(-2, (int) queue.poll());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(queue.add(i));
+        }
+        assertEquals(100, queue.size());
+        assertEquals(0, (int) queue.peek());
+
+        int expected = 0;
+        Iterator<Integer> it = queue.iterator();
+        while (it.hasNext()) {
+            assertEquals(expected++, (int) it.next());
+        }
+        assertEquals(100, expected);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testClear() {
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>();
+        for (int i = 0; i < 20; i++) {
+            queue.add(i);
+        }
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peek());
+        queue.add(7);
+        assertEquals(7, (int) queue.peek());
+        assertEquals(1, queue.size());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullElement() {
+        new RingBufferQueue<Integer>().add(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new RingBufferQueue<Integer>(0);
+    }
+
+    @Test
+    public void testRandomAgainstArrayDeque() {
+        Random random = new Random(42);
+        RingBufferQueue<Integer> queue = new RingBufferQueue<>(1);
+        ArrayDeque<Integer> reference = new ArrayDeque<>();
+        for (int i = 0; i < 100000; i++) {
+            if (random.nextInt(3) != 0) {
+                queue.add(i);
+                reference.add(i);
+            } else {
+                assertEquals(reference.poll(), queue.poll());
+            }
+            assertEquals(reference.size(), queue.size());
+            assertEquals(reference.peek(), queue.peek());
+        }
+    }
+
+}
@@ -185,6 +185,60 @@ public class EcnTailDropOutputPortTest {
 
     }
 
+    @Test
+    public void testDispatchReservedJustNot() {
+
+        // Standard packet size
+        reset(packet);
+        when(packet.getSizeBit()).thenReturn(packetSizeDataBytes * 8L);
+
+        // Port with half of the bandwidth reserved
+        EcnTailDropOutputPort port = new EcnTailDropOutputPort(sourceNetworkDevice, targetNetworkDevice, link, 100 * packetSizeDataBytes, 40 * packetSizeDataBytes);
+        port.setReservedFraction(0.5);
+        port.enqueue(packet);
+
+        // Run such that it is transmitted at half the bandwidth, but has just not arrived
+        Simulator.runNs(packetSizeDataBytes * 8L / 5 + 19);
+        verify(targetNetworkDevice, times(0)).receive(packet);
+
+    }
+
+    @Test
+    public void testDispatchReservedJust() {
+
+        // Standard packet size
+        reset(packet);
+        when(packet.getSizeBit()).thenReturn(packetSizeDataBytes * 8L);
+
+        // Port with half of the bandwidth reserved
+        EcnTailDropOutputPort port = new EcnTailDropOutputPort(sourceNetworkDevice, targetNetworkDevice, link, 100 * packetSizeDataBytes, 40 * packetSizeDataBytes);
+        port.setReservedFraction(0.5);
+        port.enqueue(packet);
+
+        // Run such that it is transmitted at half the bandwidth, and has just arrived
+        Simulator.runNs(packetSizeDataBytes * 8L / 5 + 20);
+        verify(targetNetworkDevice, times(1)).receive(packet);
+
+    }
+
+    @Test
+    public void testDispatchReservedRoundedDown() {
+
+        // Standard packet size
+        reset(packet);
+        when(packet.getSizeBit()).thenReturn(packetSizeDataBytes * 8L);
+
+        // Port with 30% of the bandwidth reserved
+        EcnTailDropOutputPort port = new EcnTailDropOutputPort(sourceNetworkDevice, targetNetworkDevice, link, 100 * packetSizeDataBytes, 40 * packetSizeDataBytes);
+        port.setReservedFraction(0.3);
+        port.enqueue(packet);
+
+        // Transmitted at 7 bit/ns, which takes 1714.3ns: rounded down as without reservation
+        Simulator.runNs(packetSizeDataBytes * 8L / 7 + 20);
+        verify(targetNetworkDevice, times(1)).receive(packet);
+
+    }
+
     @Test
     public void testDispatchOneSentSecondJustNot() {
 
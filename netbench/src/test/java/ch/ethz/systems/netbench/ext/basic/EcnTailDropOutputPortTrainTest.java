@@ -0,0 +1,219 @@
+package ch.ethz.systems.netbench.ext.basic;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.Link;
+import ch.ethz.systems.netbench.core.network.NetworkDevice;
+import ch.ethz.systems.netbench.core.network.Packet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EcnTailDropOutputPortTrainTest {
+
+    private static final long packetSizeDataBytes = 1500;
+    private static final long transmissionNs = packetSizeDataBytes * 8L / 10;
+
+    @Mock
+    private NetworkDevice sourceNetworkDevice;
+
+    @Mock
+    private NetworkDevice targetNetworkDevice;
+
+    @Mock
+    private Link link;
+
+    private List<Long> arrivalTimes;
+
+    @Before
+    public void setup() {
+
+        // Trains of up to 8 queued packets
+        NBProperties configuration = new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN);
+        configuration.overrideProperty("output_port_packet_train_max_packets", "8");
+        Simulator.setup(0, configuration);
+
+        // Two network devices
+        when(sourceNetworkDevice.getIdentifier()).thenReturn(10);
+        when(targetNetworkDevice.getIdentifier()).thenReturn(67);
+
+        // Link of 10 bit/ns with 20ns delay
+        when(link.getBandwidthBitPerNs()).thenReturn(10L);
+        when(link.getDelayNs()).thenReturn(20L);
+
+        // Record the arrival times at the target
+        arrivalTimes = new ArrayList<>();
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                arrivalTimes.add(Simulator.getCurrentTime());
+                return null;
+            }
+        }).when(targetNetworkDevice).receive(any(Packet.class));
+
+    }
+
+    @After
+    public void cleanup() {
+        Simulator.reset();
+    }
+
+    private TcpPacket createPacket() {
+        TcpPacket packet = mock(TcpPacket.class);
+        when(packet.getSizeBit()).thenReturn(packetSizeDataBytes * 8L);
+        return packet;
+    }
+
+    @Test
+    public void testArrivalTimes() {
+
+        // Port with 100 packets and 40 packets ECN limit
+        EcnTailDropOutputPort port = new EcnTailDropOutputPort(sourceNetworkDevice, targetNetworkDevice, link, 100 * packetSizeDataBytes, 40 * packetSizeDataBytes);
+
+        // One is being sent, the other two are queued in the train
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+        assertEquals(2, port.getQueueSize());
+
+        // Same arrival times as if they were dispatched one by one
+        Simulator.runNs(10000);
+        assertEquals(Arrays.asList(transmissionNs + 20, 2 * transmissionNs + 20, 3 * transmissionNs + 20), arrivalTimes);
+        assertEquals(0, port.getQueueSize());
+        assertEquals(0, port.getBufferOccupiedBits());
+        assertEquals(0, Simulator.getEventSize());
+
+    }
+
+    @Test
+    public void testQueueStateDuringTrain() {
+
+        // Port with 100 packets and 40 packets ECN limit
+        EcnTailDropOutputPort port = new EcnTailDropOutputPort(sourceNetworkDevice, targetNetworkDevice, link, 100 * packetSizeDataBytes, 40 * packetSizeDataBytes);
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+
+        // The second has started at the end of the first, such that only the third is still queued
+        Simulator.runNs(transmissionNs);
+        assertEquals(1, port.getQueueSize());
+        assertEquals(packetSizeDataBytes * 8L, port.getBufferOccupiedBits());
+        assertEquals(Arrays.<Long>asList(), arrivalTimes);
+
+    }
+
+    @Test
+    public void testEcnMarkingDuringTrain() {
+
+        // Port with 100 packets and 2 packets ECN limit
+        EcnTailDropOutputPort port = new EcnTailDropOutputPort(sourceNetworkDevice, targetNetworkDevice, link, 100 * packetSizeDataBytes, 2 * packetSizeDataBytes);
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+
+        // Only one packet is queued once the second has started, so the next is not marked
+        Simulator.runNs(transmissionNs);
+        TcpPacket notMarked = createPacket();
+        port.enqueue(notMarked);
+        verify(notMarked, times(0)).markCongestionEncountered();
+
+        // With two queued packets, the next is marked
+        TcpPacket marked = createPacket();
+        port.enqueue(marked);
+        verify(marked, times(1)).markCongestionEncountered();
+
+    }
+
+    @Test
+    public void testJoinDuringTrain() {
+
+        // Port with 100 packets and 40 packets ECN limit
+        EcnTailDropOutputPort port = new EcnTailDropOutputPort(sourceNetworkDevice, targetNetworkDevice, link, 100 * packetSizeDataBytes, 40 * packetSizeDataBytes);
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+
+        // Enqueued while the second is being sent, such that it is sent directly after it
+        Simulator.runNs(transmissionNs + 100);
+        port.enqueue(createPacket());
+        Simulator.runNs(10000);
+        assertEquals(Arrays.asList(transmissionNs + 20, 2 * transmissionNs + 20, 3 * transmissionNs + 20), arrivalTimes);
+
+    }
+
+    @Test
+    public void testMaximumQueuedPackets() {
+
+        // Port with 100 packets and 40 packets ECN limit
+        EcnTailDropOutputPort port = new EcnTailDropOutputPort(sourceNetworkDevice, targetNetworkDevice, link, 100 * packetSizeDataBytes, 40 * packetSizeDataBytes);
+
+        // More than a train can hold, the remainder is sent by the next train
+        List<Long> expected = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            port.enqueue(createPacket());
+            expected.add(i * transmissionNs + 20);
+        }
+        Simulator.runNs(100000);
+        assertEquals(expected, arrivalTimes);
+
+    }
+
+    @Test
+    public void testReservationTruncatesTrain() {
+
+        // Port with 100 packets and 40 packets ECN limit
+        EcnTailDropOutputPort port = new EcnTailDropOutputPort(sourceNetworkDevice, targetNetworkDevice, link, 100 * packetSizeDataBytes, 40 * packetSizeDataBytes);
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+
+        // The first is already being sent at the full bandwidth, the others at half of it
+        port.setReservedFraction(0.5);
+        Simulator.runNs(100000);
+        assertEquals(Arrays.asList(transmissionNs + 20, 3 * transmissionNs + 20, 5 * transmissionNs + 20), arrivalTimes);
+
+    }
+
+    @Test
+    public void testFailureDrawnAtDispatch() {
+
+        // Transmissions over the link can fail, which is determined at the end of each
+        final List<Long> drawTimes = new ArrayList<>();
+        when(link.canTransmissionFail()).thenReturn(true);
+        doAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                drawTimes.add(Simulator.getCurrentTime());
+                return false;
+            }
+        }).when(link).doesNextTransmissionFail(anyLong());
+
+        // Port with 100 packets and 40 packets ECN limit
+        EcnTailDropOutputPort port = new EcnTailDropOutputPort(sourceNetworkDevice, targetNetworkDevice, link, 100 * packetSizeDataBytes, 40 * packetSizeDataBytes);
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+        port.enqueue(createPacket());
+
+        // Sent one by one, not as a train
+        Simulator.runNs(10000);
+        assertEquals(Arrays.asList(transmissionNs, 2 * transmissionNs, 3 * transmissionNs), drawTimes);
+        assertEquals(Arrays.asList(transmissionNs + 20, 2 * transmissionNs + 20, 3 * transmissionNs + 20), arrivalTimes);
+
+    }
+
+}
@@ -0,0 +1,43 @@
+package ch.ethz.systems.netbench.ext.ecmp;
+
+import edu.asu.emit.algorithm.graph.Graph;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class EcmpRoutingUtilityTest {
+
+    @Test
+    public void testBfsEqualsFloydWarshall() {
+
+        // Sparse random directed graphs, including unreachable pairs
+        Random random = new Random(123);
+        for (int n : new int[]{1, 2, 17, 100}) {
+            List<Pair<Integer, Integer>> edges = new ArrayList<>();
+            for (int i = 0; i < 2 * n; i++) {
+                int a = random.nextInt(n);
+                int b = random.nextInt(n);
+                if (a != b) {
+                    edges.add(new ImmutablePair<>(a, b));
+                }
+            }
+            Graph graph = new Graph(n, edges);
+
+            int[][] bfs = EcmpRoutingUtility.calculateShortestPathsBfs(graph);
+            int[][] floydWarshall = EcmpRoutingUtility.calculateShortestPathsFloydWarshall(graph);
+            assertEquals(n, bfs.length);
+            for (int i = 0; i < n; i++) {
+                assertArrayEquals(floydWarshall[i], bfs[i]);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.FlowFinishedListener;
+import ch.ethz.systems.netbench.core.network.Link;
+import ch.ethz.systems.netbench.core.network.OutputPort;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.ext.flowlet.IdentityFlowletIntermediary;
+import ch.ethz.systems.netbench.ext.threshold_routing.ThresholdSwitch;
+import ch.ethz.systems.netbench.testutility.TestTopologyPortsConstruction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FluidEngineTest {
+
+    /*
+     * Topology (links of 10 bit/ns with 100ns delay):
+     * 0---1
+     *  \ /
+     *   2
+     */
+    private TestTopologyPortsConstruction topology;
+
+    private TransportLayer layer0;
+    private ThresholdSwitch device0;
+
+    private Map<Long, Long> flowIdToFinishTime;
+
+    @Before
+    public void setup() {
+
+        Simulator.setup(0, new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN));
+        topology = new TestTopologyPortsConstruction(
+                "0-1,0-2,1-2"
+        );
+
+        // Devices with fluid transport layers
+        FluidTransportLayerGenerator generator = new FluidTransportLayerGenerator();
+        ThresholdSwitch[] devices = new ThresholdSwitch[3];
+        for (int i = 0; i < 3; i++) {
+            TransportLayer layer = generator.generate(i);
+            devices[i] = new ThresholdSwitch(i, layer, 3, new IdentityFlowletIntermediary());
+            layer.setNetworkDevice(devices[i]);
+        }
+        device0 = devices[0];
+        layer0 = device0.getTransportLayer();
+
+        // Ports towards the devices over their links
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                if (i != j) {
+                    Link link = mock(Link.class);
+                    when(link.getBandwidthBitPerNs()).thenReturn(10L);
+                    when(link.getDelayNs()).thenReturn(100L);
+                    OutputPort port = topology.getPort(i, j);
+                    when(port.getLink()).thenReturn(link);
+                    when(port.getTargetDevice()).thenReturn(devices[j]);
+                    devices[i].addConnection(port);
+                }
+            }
+        }
+
+        // Without threshold routing entry, 0 sends directly to 1
+        device0.addDestinationToNextSwitch(1, 1, 1.0);
+
+        // Record the time at which each flow finishes
+        flowIdToFinishTime = new HashMap<>();
+        Simulator.registerFlowFinishedListener(new FlowFinishedListener() {
+            @Override
+            public void flowFinished(long flowId, int endpointA, int endpointB) {
+                flowIdToFinishTime.put(flowId, Simulator.getCurrentTime());
+            }
+        });
+
+    }
+
+    @After
+    public void cleanup() {
+        Simulator.reset();
+    }
+
+    @Test
+    public void testSingleFlow() {
+
+        // 8000 bits at 10 bit/ns, plus 100ns delay
+        layer0.startFlow(0, 1, 1000);
+        Simulator.runNs(10000);
+        assertEquals(1, flowIdToFinishTime.size());
+        assertEquals(900, (long) flowIdToFinishTime.get(0L));
+
+    }
+
+    @Test
+    public void testSharedLink() {
+
+        // Both flows at 5 bit/ns, until the first departs at 1600ns, after which the second at 10 bit/ns
+        layer0.startFlow(0, 1, 1000);
+        layer0.startFlow(1, 1, 2000);
+        Simulator.runNs(10000);
+        assertEquals(2, flowIdToFinishTime.size());
+        assertEquals(1700, (long) flowIdToFinishTime.get(0L));
+        assertEquals(2500, (long) flowIdToFinishTime.get(1L));
+
+    }
+
+    @Test
+    public void testThresholdDirectPath() {
+
+        // Threshold of 5 bit/ns on the direct path
+        device0.addThresholdTableEntry(0, 5e9, 1, Collections.singletonList(2));
+        device0.addSrcDstToThresholdTableId(0, 1, 0);
+        device0.compileThresholdRoutingTables();
+
+        // 8000 bits at 5 bit/ns, plus 100ns delay
+        layer0.startFlow(0, 1, 1000);
+        Simulator.runNs(10000);
+        assertEquals(1700, (long) flowIdToFinishTime.get(0L));
+
+    }
+
+    @Test
+    public void testThresholdEcmpPath() {
+
+        // No bandwidth on the direct path, so over 2 (twice the delay)
+        device0.addThresholdTableEntry(0, 0, 1, Collections.singletonList(2));
+        device0.addSrcDstToThresholdTableId(0, 1, 0);
+        device0.compileThresholdRoutingTables();
+
+        // 8000 bits at 10 bit/ns, plus 200ns delay
+        layer0.startFlow(0, 1, 1000);
+        Simulator.runNs(10000);
+        assertEquals(1000, (long) flowIdToFinishTime.get(0L));
+
+    }
+
+    @Test
+    public void testDifferentBottlenecks() {
+
+        // Threshold of 2 bit/ns on the direct path to 1, and a threshold above the link bandwidth to 2
+        device0.addThresholdTableEntry(0, 2e9, 1, Collections.singletonList(2));
+        device0.addThresholdTableEntry(1, 1e12, 2, Collections.singletonList(1));
+        device0.addSrcDstToThresholdTableId(0, 1, 0);
+        device0.addSrcDstToThresholdTableId(0, 2, 1);
+        device0.compileThresholdRoutingTables();
+
+        // First is limited to 2 bit/ns by the threshold, the second (over 2) and third share link 0-2 at 5 bit/ns
+        layer0.startFlow(0, 1, 1000);
+        layer0.startFlow(1, 1, 1000);
+        layer0.startFlow(2, 2, 1000);
+        Simulator.runNs(10000);
+        assertEquals(4100, (long) flowIdToFinishTime.get(0L));
+        assertEquals(1800, (long) flowIdToFinishTime.get(1L));
+        assertEquals(1700, (long) flowIdToFinishTime.get(2L));
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFlowToItself() {
+        layer0.startFlow(0, 0, 1000);
+    }
+
+    @Test
+    public void testUnfinished() {
+        layer0.startFlow(0, 1, 1000);
+        Simulator.runNs(800);
+        assertFalse(flowIdToFinishTime.containsKey(0L));
+    }
+
+}
@@ -0,0 +1,85 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.log.SimulationLogger;
+import ch.ethz.systems.netbench.core.network.Link;
+import ch.ethz.systems.netbench.core.network.OutputPort;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.ext.flowlet.IdentityFlowletIntermediary;
+import ch.ethz.systems.netbench.ext.threshold_routing.ThresholdSwitch;
+import ch.ethz.systems.netbench.testutility.TestTopologyPortsConstruction;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FluidFlowCompletionLogTest {
+
+    /**
+     * Run two flows from 0 to 1 over a single link, and return the run folder.
+     *
+     * @param transportLayer    Transport layer property value
+     * @param perFlow           Per-flow completion log property value (null if not set)
+     *
+     * @return  Run folder
+     */
+    private File run(String transportLayer, String perFlow) throws IOException {
+        File baseDir = Files.createTempDirectory("fluid-log").toFile();
+        NBProperties configuration = new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN);
+        configuration.overrideProperty("run_folder_base_dir", baseDir.getAbsolutePath());
+        configuration.overrideProperty("run_folder_name", "run");
+        configuration.overrideProperty("transport_layer", transportLayer);
+        if (perFlow != null) {
+            configuration.overrideProperty("enable_log_flow_completion_per_flow", perFlow);
+        }
+        Simulator.setup(0, configuration);
+
+        // Two devices with fluid transport layers, connected by a link of 10 bit/ns with 100ns delay
+        TestTopologyPortsConstruction topology = new TestTopologyPortsConstruction("0-1");
+        FluidTransportLayerGenerator generator = new FluidTransportLayerGenerator();
+        ThresholdSwitch[] devices = new ThresholdSwitch[2];
+        for (int i = 0; i < 2; i++) {
+            TransportLayer layer = generator.generate(i);
+            devices[i] = new ThresholdSwitch(i, layer, 2, new IdentityFlowletIntermediary());
+            layer.setNetworkDevice(devices[i]);
+        }
+        for (int i = 0; i < 2; i++) {
+            Link link = mock(Link.class);
+            when(link.getBandwidthBitPerNs()).thenReturn(10L);
+            when(link.getDelayNs()).thenReturn(100L);
+            OutputPort port = topology.getPort(i, 1 - i);
+            when(port.getLink()).thenReturn(link);
+            when(port.getTargetDevice()).thenReturn(devices[1 - i]);
+            devices[i].addConnection(port);
+        }
+        devices[0].addDestinationToNextSwitch(1, 1, 1.0);
+
+        devices[0].getTransportLayer().startFlow(1, 1000);
+        devices[0].getTransportLayer().startFlow(1, 2000);
+        Simulator.runNs(10000);
+        File runFolder = new File(SimulationLogger.getRunFolderFull());
+        Simulator.reset(false);
+        return runFolder;
+    }
+
+    @Test
+    public void testPerFlowLogByDefault() throws IOException {
+        List<String> lines = Files.readAllLines(new File(run("fluid", null), "flow_completion.csv.log").toPath());
+        assertEquals(2, lines.size());
+    }
+
+    @Test
+    public void testPerFlowLogDisabled() throws IOException {
+        assertFalse(new File(run("fluid", "false"), "flow_completion.csv.log").exists());
+    }
+
+}
@@ -0,0 +1,89 @@
+package ch.ethz.systems.netbench.ext.fluid;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.network.Link;
+import ch.ethz.systems.netbench.core.network.OutputPort;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.ext.flowlet.IdentityFlowletIntermediary;
+import ch.ethz.systems.netbench.ext.threshold_routing.ThresholdSwitch;
+import ch.ethz.systems.netbench.testutility.TestTopologyPortsConstruction;
+import ch.ethz.systems.netbench.xpt.simple.simpledctcp.SimpleDctcpSocket;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HybridTransportLayerTest {
+
+    /*
+     * Topology (link of 10 bit/ns with 100ns delay):
+     * 0---1
+     */
+    private TestTopologyPortsConstruction topology;
+
+    private HybridTransportLayer layer0;
+
+    @Before
+    public void setup() {
+
+        Simulator.setup(0, new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN, BaseAllowedProperties.EXPERIMENTAL));
+        topology = new TestTopologyPortsConstruction(
+                "0-1"
+        );
+
+        // Background flows of at least 1000 bytes, which can use up to half of a link
+        HybridTransportLayerGenerator generator = new HybridTransportLayerGenerator(1000, 0.5);
+        ThresholdSwitch[] devices = new ThresholdSwitch[2];
+        for (int i = 0; i < 2; i++) {
+            TransportLayer layer = generator.generate(i);
+            devices[i] = new ThresholdSwitch(i, layer, 2, new IdentityFlowletIntermediary());
+            layer.setNetworkDevice(devices[i]);
+        }
+        layer0 = (HybridTransportLayer) devices[0].getTransportLayer();
+
+        // Ports towards each other over their links
+        for (int i = 0; i < 2; i++) {
+            Link link = mock(Link.class);
+            when(link.getBandwidthBitPerNs()).thenReturn(10L);
+            when(link.getDelayNs()).thenReturn(100L);
+            OutputPort port = topology.getPort(i, 1 - i);
+            when(port.getLink()).thenReturn(link);
+            when(port.getTargetDevice()).thenReturn(devices[1 - i]);
+            devices[i].addConnection(port);
+        }
+        devices[0].addDestinationToNextSwitch(1, 1, 1.0);
+
+    }
+
+    @After
+    public void cleanup() {
+        Simulator.reset();
+    }
+
+    @Test
+    public void testSocketSelection() {
+        assertTrue(layer0.createSocket(0, 1, 999) instanceof SimpleDctcpSocket);
+        assertTrue(layer0.createSocket(1, 1, 1000) instanceof FluidSocket);
+        assertTrue(layer0.createSocket(2, 1, -1) instanceof SimpleDctcpSocket);
+    }
+
+    @Test
+    public void testBackgroundReservation() {
+
+        // The background flow is limited to half of the link, which is reserved until it departs
+        layer0.startFlow(0, 1, 1000);
+        Simulator.runNs(10000);
+        InOrder order = inOrder(topology.getPort(0, 1));
+        order.verify(topology.getPort(0, 1)).setReservedFraction(0.5);
+        order.verify(topology.getPort(0, 1)).setReservedFraction(0.0);
+
+    }
+
+}
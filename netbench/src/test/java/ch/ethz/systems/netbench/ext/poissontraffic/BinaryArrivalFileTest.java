@@ -0,0 +1,130 @@
+package ch.ethz.systems.netbench.ext.poissontraffic;
+
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryArrivalFileTest {
+
+    @Test
+    public void testConvertAndRead() throws IOException {
+
+        // Create temporary files
+        File tempCsv = File.createTempFile("temp-arrivals", ".csv");
+        File tempBinary = File.createTempFile("temp-arrivals", ".bin");
+
+        // Write temporary CSV arrival file
+        BufferedWriter writer = new BufferedWriter(new FileWriter(tempCsv));
+        writer.write("# time,src,dst,bytes\n");
+        writer.write("0,1,2,12800\n");
+        writer.write("591, 2, 1, 5000000000\n");
+        writer.write("\n");
+        writer.write("595,0,3,1\n");
+        writer.close();
+
+        // Convert
+        assertEquals(3, BinaryArrivalFile.convertFromCsv(tempCsv.getAbsolutePath(), tempBinary.getAbsolutePath()));
+        assertEquals(16 + 3 * 24, tempBinary.length());
+
+        // Read back
+        BinaryArrivalFile.Reader reader = new BinaryArrivalFile.Reader(tempBinary.getAbsolutePath());
+        assertEquals(3, reader.getNumArrivals());
+
+        assertTrue(reader.advance());
+        assertEquals(0, reader.getStartTime());
+        assertEquals(1, reader.getSrcId());
+        assertEquals(2, reader.getDstId());
+        assertEquals(12800, reader.getFlowSizeByte());
+
+        assertTrue(reader.advance());
+        assertEquals(591, reader.getStartTime());
+        assertEquals(2, reader.getSrcId());
+        assertEquals(1, reader.getDstId());
+        assertEquals(5000000000L, reader.getFlowSizeByte());
+
+        assertTrue(reader.advance());
+        assertEquals(595, reader.getStartTime());
+        assertEquals(0, reader.getSrcId());
+        assertEquals(3, reader.getDstId());
+        assertEquals(1, reader.getFlowSizeByte());
+
+        assertFalse(reader.advance());
+
+        // Delete temporary files
+        assertTrue(tempCsv.delete());
+        assertTrue(tempBinary.delete());
+
+    }
+
+    @Test
+    public void testReaderSerialization() throws IOException, ClassNotFoundException {
+
+        // Create temporary files
+        File tempCsv = File.createTempFile("temp-arrivals", ".csv");
+        File tempBinary = File.createTempFile("temp-arrivals", ".bin");
+        BufferedWriter writer = new BufferedWriter(new FileWriter(tempCsv));
+        writer.write("0,1,2,12800\n591,2,1,500\n595,0,3,1\n");
+        writer.close();
+        BinaryArrivalFile.convertFromCsv(tempCsv.getAbsolutePath(), tempBinary.getAbsolutePath());
+
+        // Serialize after the first arrival (as in a checkpoint)
+        BinaryArrivalFile.Reader reader = new BinaryArrivalFile.Reader(tempBinary.getAbsolutePath());
+        assertTrue(reader.advance());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(reader);
+        out.close();
+
+        // The restored reader continues with the second arrival
+        BinaryArrivalFile.Reader restored = (BinaryArrivalFile.Reader) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertTrue(restored.advance());
+        assertEquals(591, restored.getStartTime());
+        assertEquals(2, restored.getSrcId());
+        assertEquals(1, restored.getDstId());
+        assertEquals(500, restored.getFlowSizeByte());
+        assertTrue(restored.advance());
+        assertEquals(595, restored.getStartTime());
+        assertFalse(restored.advance());
+
+        // Read the original to the end, which closes it
+        assertTrue(reader.advance());
+        assertTrue(reader.advance());
+        assertFalse(reader.advance());
+
+        // Delete temporary files
+        assertTrue(tempCsv.delete());
+        assertTrue(tempBinary.delete());
+
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+
+        File tempBinary = File.createTempFile("temp-arrivals", ".bin");
+        BufferedWriter writer = new BufferedWriter(new FileWriter(tempBinary));
+        writer.write("0,1,2,12800\n0,1,2,12800\n");
+        writer.close();
+
+        boolean thrown = false;
+        try {
+            new BinaryArrivalFile.Reader(tempBinary.getAbsolutePath());
+        } catch (IOException e) {
+            thrown = true;
+        }
+        assertTrue(thrown);
+        assertTrue(tempBinary.delete());
+
+    }
+
+}
@@ -0,0 +1,293 @@
+package ch.ethz.systems.netbench.ext.poissontraffic;
+
+import ch.ethz.systems.netbench.core.SimulationCheckpoint;
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.config.BaseAllowedProperties;
+import ch.ethz.systems.netbench.core.config.NBProperties;
+import ch.ethz.systems.netbench.core.config.TopologyServerExtender;
+import ch.ethz.systems.netbench.core.network.NetworkDevice;
+import ch.ethz.systems.netbench.core.network.Socket;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.ext.poissontraffic.flowsize.ParetoFSD;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PoissonArrivalPlannerTest {
+
+    private static final String FAT_TREE_K4 = "example/topologies/fat_tree/fat_tree_k4.topology";
+    private static final long DURATION_NS = 100000000;
+    private static final double LAMBDA_FLOW_STARTS_PER_S = 100000;
+
+    // Flow starts (time, source, destination and size) in the order they happened
+    private static final List<String> flowStarts = new ArrayList<>();
+
+    // Transport layers of the servers of the last setup
+    private Map<Integer, TransportLayer> idToTransportLayer;
+
+    // ToR of each server of the topology of the last setup
+    private final Map<Integer, Integer> serverToTor = new HashMap<>();
+
+    /**
+     * Transport layer which only records the flows it is asked to start.
+     */
+    private static class RecordingTransportLayer extends TransportLayer {
+
+        RecordingTransportLayer(int identifier) {
+            super(identifier);
+        }
+
+        @Override
+        public void startFlow(int destination, long flowSizeByte) {
+            flowStarts.add(Simulator.getCurrentTime() + "," + identifier + "," + destination + "," + flowSizeByte);
+        }
+
+        @Override
+        public void startFlow(long flowId, int destination, long flowSizeByte) {
+            startFlow(destination, flowSizeByte);
+        }
+
+        @Override
+        protected Socket createSocket(long flowId, int destinationId, long flowSizeByte) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    /**
+     * Set up the simulator on the fat-tree (k=4) and create an all-to-all Poisson arrival planner.
+     *
+     * @param seed          Random seed
+     * @param properties    Additional properties as key-value pairs
+     *
+     * @return  Poisson arrival planner
+     */
+    private PoissonArrivalPlanner setup(long seed, String... properties) throws IOException {
+        return setup(seed, FAT_TREE_K4, PoissonArrivalPlanner.PairDistribution.ALL_TO_ALL, properties);
+    }
+
+    /**
+     * Set up the simulator and create a Poisson arrival planner.
+     *
+     * @param seed              Random seed
+     * @param topologyFileName  Topology file name
+     * @param pairDistribution  Pair distribution
+     * @param properties        Additional properties as key-value pairs
+     *
+     * @return  Poisson arrival planner
+     */
+    private PoissonArrivalPlanner setup(long seed, String topologyFileName, PoissonArrivalPlanner.PairDistribution pairDistribution, String... properties) throws IOException {
+        configure(seed, topologyFileName, properties);
+        idToTransportLayer = new HashMap<>();
+        serverToTor.clear();
+        for (int serverId : Simulator.getConfiguration().getGraphDetails().getServerNodeIds()) {
+            idToTransportLayer.put(serverId, new RecordingTransportLayer(serverId));
+            serverToTor.put(serverId, Simulator.getConfiguration().getGraphDetails().getTorIdOfServer(serverId));
+        }
+        return new PoissonArrivalPlanner(idToTransportLayer, LAMBDA_FLOW_STARTS_PER_S, new ParetoFSD(1.05, 100), pairDistribution);
+    }
+
+    /**
+     * Set up the simulator, without any planner.
+     *
+     * @param seed              Random seed
+     * @param topologyFileName  Topology file name
+     * @param properties        Additional properties as key-value pairs
+     */
+    private void configure(long seed, String topologyFileName, String... properties) throws IOException {
+        NBProperties configuration = new NBProperties(BaseAllowedProperties.LOG, BaseAllowedProperties.PROPERTIES_RUN, BaseAllowedProperties.EXTENSION);
+        configuration.overrideProperty("run_folder_base_dir", Files.createTempDirectory("poisson-plan").toFile().getAbsolutePath());
+        configuration.overrideProperty("run_folder_name", "run");
+        configuration.overrideProperty("scenario_topology_file", topologyFileName);
+        for (int i = 0; i < properties.length; i += 2) {
+            configuration.overrideProperty(properties[i], properties[i + 1]);
+        }
+        Simulator.setup(seed, configuration);
+    }
+
+    /**
+     * Run the simulator over the planned duration and reset it.
+     *
+     * @return  Flow starts which happened
+     */
+    private List<String> run() {
+        return run(DURATION_NS);
+    }
+
+    /**
+     * Run the simulator over the given planned duration and reset it.
+     *
+     * @param durationNs    Planned duration in nanoseconds
+     *
+     * @return  Flow starts which happened
+     */
+    private List<String> run(long durationNs) {
+        Simulator.runNs(durationNs + 1);
+        Simulator.reset();
+        List<String> result = new ArrayList<>(flowStarts);
+        flowStarts.clear();
+        return result;
+    }
+
+    @After
+    public void cleanup() {
+        flowStarts.clear();
+    }
+
+    @Test
+    public void testStreamedEqualsPlanned() throws IOException {
+
+        // Plan created up front
+        setup(7).createPlan(DURATION_NS);
+        List<String> planned = run();
+
+        // Plan streamed during the run
+        setup(7, "traffic_arrivals_streaming", "true").createPlan(DURATION_NS);
+        List<String> streamed = run();
+
+        assertTrue(planned.size() > 5000);
+        assertEquals(planned, streamed);
+
+    }
+
+    @Test
+    public void testStreamedCheckpoint() throws IOException {
+
+        // Uninterrupted streamed run
+        setup(19, "traffic_arrivals_streaming", "true").createPlan(DURATION_NS);
+        List<String> expected = run();
+
+        // Streamed run saved halfway
+        File tempCheckpoint = File.createTempFile("temp-checkpoint", ".tmp");
+        setup(19, "traffic_arrivals_streaming", "true").createPlan(DURATION_NS);
+        assertFalse(Simulator.resumeNs(DURATION_NS / 2, -1));
+        SimulationCheckpoint.save(tempCheckpoint.getAbsolutePath(), new HashMap<Integer, NetworkDevice>(), idToTransportLayer);
+        Simulator.reset();
+        int numBefore = flowStarts.size();
+
+        // Continued from the checkpoint, the stream is at the same arrival
+        configure(19, FAT_TREE_K4, "traffic_arrivals_streaming", "true");
+        SimulationCheckpoint.restore(tempCheckpoint.getAbsolutePath());
+        Simulator.resumeNs(DURATION_NS + 1, -1);
+        Simulator.reset();
+
+        assertTrue(numBefore > 1000 && numBefore < expected.size() - 1000);
+        assertEquals(expected, flowStarts);
+        assertTrue(tempCheckpoint.delete());
+
+    }
+
+    @Test
+    public void testSlicedPlanDeterministic() throws IOException {
+
+        setup(11, "traffic_plan_slices", "4").createPlan(DURATION_NS);
+        List<String> first = run();
+
+        setup(11, "traffic_plan_slices", "4").createPlan(DURATION_NS);
+        List<String> second = run();
+
+        assertTrue(first.size() > 5000);
+        assertEquals(first, second);
+
+    }
+
+    @Test
+    public void testSingleSliceEqualsSequential() throws IOException {
+
+        setup(13).createPlan(DURATION_NS);
+        List<String> sequential = run();
+
+        setup(13).createPlanInSlices(DURATION_NS, 1);
+        List<String> sliced = run();
+
+        assertTrue(sequential.size() > 5000);
+        assertEquals(sequential, sliced);
+
+    }
+
+    @Test
+    public void testHierarchicalPairsMatchFlat() throws IOException {
+
+        // Fat-tree (k=4) with four servers per ToR
+        File extendedTopology = File.createTempFile("temp-extended-topology", ".topology");
+        new TopologyServerExtender(FAT_TREE_K4, extendedTopology.getAbsolutePath()).extendRegular(4);
+        long durationNs = 10 * DURATION_NS;
+
+        // Flat: every server pair of each ToR pair is added
+        setup(17, extendedTopology.getAbsolutePath(), PoissonArrivalPlanner.PairDistribution.PARETO_SKEW_DISTRIBUTION,
+                "traffic_pareto_skew_shape", "1.5").createPlan(durationNs);
+        Map<String, Double> flatTorPairShares = new HashMap<>();
+        Map<Integer, Double> flatServerShares = new HashMap<>();
+        shares(run(durationNs), flatTorPairShares, flatServerShares);
+
+        // Hierarchical: ToR pair is drawn, and then a server of each
+        setup(17, extendedTopology.getAbsolutePath(), PoissonArrivalPlanner.PairDistribution.PARETO_SKEW_DISTRIBUTION,
+                "traffic_pareto_skew_shape", "1.5", "traffic_pair_sampling_hierarchical", "true").createPlan(durationNs);
+        Map<String, Double> hierTorPairShares = new HashMap<>();
+        Map<Integer, Double> hierServerShares = new HashMap<>();
+        shares(run(durationNs), hierTorPairShares, hierServerShares);
+
+        // ToR pair shares are the same
+        Set<String> torPairs = new HashSet<>(flatTorPairShares.keySet());
+        torPairs.addAll(hierTorPairShares.keySet());
+        assertEquals(56, torPairs.size());
+        for (String torPair : torPairs) {
+            assertEquals(getOrZero(flatTorPairShares, torPair), getOrZero(hierTorPairShares, torPair), 0.005);
+        }
+
+        // Servers are uniform within their ToR
+        assertEquals(32, hierServerShares.size());
+        for (int serverId : serverToTor.keySet()) {
+            assertEquals(getOrZero(flatServerShares, serverId), getOrZero(hierServerShares, serverId), 0.03);
+            assertEquals(0.25, getOrZero(hierServerShares, serverId), 0.03);
+        }
+
+        assertTrue(extendedTopology.delete());
+
+    }
+
+    /**
+     * Determine the share of the flows of each ToR pair, and the share of each server
+     * in the flows of its ToR (as source or destination).
+     *
+     * @param starts            Flow starts
+     * @param torPairShares     Share of the flows of each ToR pair "srcTor-dstTor" (output)
+     * @param serverShares      Share of each server in the flow ends of its ToR (output)
+     */
+    private void shares(List<String> starts, Map<String, Double> torPairShares, Map<Integer, Double> serverShares) {
+        Map<Integer, Double> torEnds = new HashMap<>();
+        for (String start : starts) {
+            String[] split = start.split(",");
+            int srcTor = serverToTor.get(Integer.parseInt(split[1]));
+            int dstTor = serverToTor.get(Integer.parseInt(split[2]));
+            torPairShares.put(srcTor + "-" + dstTor, getOrZero(torPairShares, srcTor + "-" + dstTor) + 1.0 / starts.size());
+            for (int k = 1; k <= 2; k++) {
+                int serverId = Integer.parseInt(split[k]);
+                serverShares.put(serverId, getOrZero(serverShares, serverId) + 1);
+                torEnds.put(serverToTor.get(serverId), getOrZero(torEnds, serverToTor.get(serverId)) + 1);
+            }
+        }
+        for (Map.Entry<Integer, Double> entry : serverShares.entrySet()) {
+            entry.setValue(entry.getValue() / torEnds.get(serverToTor.get(entry.getKey())));
+        }
+    }
+
+    private static <K> double getOrZero(Map<K, Double> map, K key) {
+        Double value = map.get(key);
+        return value == null ? 0.0 : value;
+    }
+
+}
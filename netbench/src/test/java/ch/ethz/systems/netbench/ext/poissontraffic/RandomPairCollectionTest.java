@@ -0,0 +1,106 @@
+package ch.ethz.systems.netbench.ext.poissontraffic;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RandomPairCollectionTest {
+
+    private static final double[] WEIGHTS = new double[]{0.1, 0.2, 0.3, 0.1, 0.2, 0.1};
+
+    @Test
+    public void testCumulativeIdenticalToRandomCollection() {
+
+        // Uneven weights, including ones which vanish in the cumulative sum
+        Random weightRandom = new Random(7);
+        double[] weights = new double[1000];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = i % 100 == 0 ? 1e-20 : weightRandom.nextDouble();
+            sum += weights[i];
+        }
+
+        RandomCollection<Pair<Integer, Integer>> reference = new RandomCollection<>(new Random(42));
+        RandomPairCollection collection = new RandomPairCollection(new Random(42), RandomPairCollection.Method.CUMULATIVE);
+        for (int i = 0; i < weights.length; i++) {
+            reference.add(weights[i] / sum, new ImmutablePair<>(i, i + 1));
+            collection.add(weights[i] / sum, i, i + 1);
+        }
+        assertEquals(weights.length, collection.size());
+
+        for (int i = 0; i < 100000; i++) {
+            Pair<Integer, Integer> expected = reference.next();
+            collection.next();
+            assertEquals((int) expected.getLeft(), collection.getDrawnSrcId());
+            assertEquals((int) expected.getRight(), collection.getDrawnDstId());
+        }
+
+    }
+
+    @Test
+    public void testAliasDistribution() {
+        RandomPairCollection collection = new RandomPairCollection(new Random(42), RandomPairCollection.Method.ALIAS);
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            collection.add(WEIGHTS[i], i, 10 + i);
+        }
+
+        int numDraws = 600000;
+        int[] counts = new int[WEIGHTS.length];
+        for (int i = 0; i < numDraws; i++) {
+            collection.next();
+            assertEquals(collection.getDrawnSrcId() + 10, collection.getDrawnDstId());
+            counts[collection.getDrawnSrcId()]++;
+        }
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            assertEquals(WEIGHTS[i], (double) counts[i] / numDraws, 0.003);
+        }
+    }
+
+    @Test
+    public void testSinglePair() {
+        for (RandomPairCollection.Method method : RandomPairCollection.Method.values()) {
+            RandomPairCollection collection = new RandomPairCollection(new Random(42), method);
+            collection.add(1.0, 3, 4);
+            for (int i = 0; i < 100; i++) {
+                collection.next();
+                assertEquals(3, collection.getDrawnSrcId());
+                assertEquals(4, collection.getDrawnDstId());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddInvalidNegativeWeight() {
+        new RandomPairCollection(new Random(42), RandomPairCollection.Method.ALIAS).add(-0.0001, 1, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTotalWeightNotOne() {
+        RandomPairCollection collection = new RandomPairCollection(new Random(42), RandomPairCollection.Method.CUMULATIVE);
+        collection.add(0.5, 1, 2);
+        collection.next();
+    }
+
+    @Test
+    public void testAddAfterDraw() {
+        RandomPairCollection collection = new RandomPairCollection(new Random(42), RandomPairCollection.Method.ALIAS);
+        collection.add(1.0, 1, 2);
+        collection.next();
+        boolean thrown = false;
+        try {
+            collection.add(0.1, 2, 3);
+        } catch (IllegalStateException e) {
+            thrown = true;
+        }
+        assertTrue(thrown);
+    }
+
+}
@@ -0,0 +1,176 @@
+package ch.ethz.systems.netbench.ext.poissontraffic.flowsize;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FlowSizeDistributionTest {
+
+    private static final int NUM_DRAWS = 1000000;
+
+    @Mock
+    private Random random;
+
+    @Before
+    public void setup() {
+        Simulator.setup(42);
+    }
+
+    @After
+    public void cleanup() {
+        Simulator.reset();
+    }
+
+    /**
+     * Set the simulator up again, such that the flow size random number generator can be selected again.
+     */
+    private static void setupAgain() {
+        Simulator.reset();
+        Simulator.setup(42);
+    }
+
+    /**
+     * Check that the empirical distribution of the bulk draws matches the
+     * probabilities of the flow sizes, and that the bulk draws are the same
+     * as the single draws for the same random number generator.
+     *
+     * @param distribution  Flow size distribution
+     * @param sizes         Flow sizes
+     * @param probabilities Probability of each flow size
+     */
+    private static void checkDistribution(FlowSizeDistribution distribution, long[] sizes, double[] probabilities) {
+        distribution.independentRng = new Random(42);
+
+        // Draw in blocks of different length
+        long[] drawn = new long[NUM_DRAWS];
+        int offset = 0;
+        int length = 1;
+        while (offset < NUM_DRAWS) {
+            int num = Math.min(length, NUM_DRAWS - offset);
+            distribution.generateFlowSizeBytes(drawn, offset, num);
+            offset += num;
+            length = (length * 7) % 1009 + 1;
+        }
+
+        // Identical to single draws
+        distribution.independentRng = new Random(42);
+        long[] expected = new long[NUM_DRAWS];
+        for (int i = 0; i < NUM_DRAWS; i++) {
+            expected[i] = distribution.generateFlowSizeByte();
+        }
+        assertArrayEquals(expected, drawn);
+
+        // Empirical distribution
+        Map<Long, Integer> counts = new HashMap<>();
+        for (long size : drawn) {
+            Integer count = counts.get(size);
+            counts.put(size, count == null ? 1 : count + 1);
+        }
+        assertEquals(sizes.length, counts.size());
+        for (int i = 0; i < sizes.length; i++) {
+            assertEquals(probabilities[i], (double) counts.get(sizes[i]) / NUM_DRAWS, 0.002);
+        }
+    }
+
+    @Test
+    public void testPFabricWebSearchLowerBound() {
+        checkDistribution(
+                new PFabricWebSearchLowerBoundFSD(),
+                new long[]{1, 10000, 20000, 30000, 50000, 80000, 200000, 1000000, 2000000, 5000000, 10000000},
+                new double[]{0.15, 0.05, 0.1, 0.1, 0.13, 0.07, 0.1, 0.1, 0.1, 0.07, 0.03}
+        );
+    }
+
+    @Test
+    public void testPFabricWebSearchUpperBound() {
+        checkDistribution(
+                new PFabricWebSearchUpperBoundFSD(),
+                new long[]{10000, 20000, 30000, 50000, 80000, 200000, 1000000, 2000000, 5000000, 10000000, 30000000},
+                new double[]{0.15, 0.05, 0.1, 0.1, 0.13, 0.07, 0.1, 0.1, 0.1, 0.07, 0.03}
+        );
+    }
+
+    @Test
+    public void testPFabricDataMiningLowerBound() {
+        checkDistribution(
+                new PFabricDataMiningLowerBoundFSD(),
+                new long[]{1, 180, 216, 560, 900, 1100, 1870, 3160, 10000, 400000, 3160000, 100000000},
+                new double[]{0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.05, 0.03, 0.02}
+        );
+    }
+
+    @Test
+    public void testPFabricDataMiningUpperBound() {
+        checkDistribution(
+                new PFabricDataMiningUpperBoundFSD(),
+                new long[]{180, 216, 560, 900, 1100, 1870, 3160, 10000, 400000, 3160000, 100000000, 1000000000},
+                new double[]{0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.1, 0.05, 0.03, 0.02}
+        );
+    }
+
+    @Test
+    public void testOriginalSimon() {
+        checkDistribution(
+                new OriginalSimonFSD(),
+                new long[]{10000, 100000, 1000000, 10000000, 100000000},
+                new double[]{0.2, 0.4, 0.13, 0.25, 0.02}
+        );
+    }
+
+    @Test
+    public void testBoundariesInclusive() {
+        FlowSizeDistribution distribution = new PFabricWebSearchLowerBoundFSD();
+        distribution.independentRng = random;
+
+        when(random.nextDouble()).thenReturn(0.0);
+        assertEquals(1, distribution.generateFlowSizeByte());
+
+        when(random.nextDouble()).thenReturn(0.15);
+        assertEquals(1, distribution.generateFlowSizeByte());
+
+        when(random.nextDouble()).thenReturn(0.15000001);
+        assertEquals(10000, distribution.generateFlowSizeByte());
+
+        when(random.nextDouble()).thenReturn(0.97);
+        assertEquals(5000000, distribution.generateFlowSizeByte());
+
+        when(random.nextDouble()).thenReturn(0.9999999999);
+        assertEquals(10000000, distribution.generateFlowSizeByte());
+    }
+
+    @Test
+    public void testParetoBulk() {
+        FlowSizeDistribution single = new ParetoFSD(1.05, 100);
+        long[] expected = new long[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = single.generateFlowSizeByte();
+        }
+        setupAgain();
+        long[] drawn = new long[1000];
+        FlowSizeDistribution bulk = new ParetoFSD(1.05, 100);
+        bulk.generateFlowSizeBytes(drawn, 0, 500);
+        bulk.generateFlowSizeBytes(drawn, 500, 500);
+        assertArrayEquals(expected, drawn);
+    }
+
+    @Test
+    public void testUniformBulk() {
+        long[] drawn = new long[10];
+        new UniformFSD(1234).generateFlowSizeBytes(drawn, 2, 5);
+        assertArrayEquals(new long[]{0, 0, 1234, 1234, 1234, 1234, 1234, 0, 0, 0}, drawn);
+    }
+
+}
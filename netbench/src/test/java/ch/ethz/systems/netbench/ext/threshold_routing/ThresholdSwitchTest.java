@@ -0,0 +1,182 @@
+package ch.ethz.systems.netbench.ext.threshold_routing;
+
+import ch.ethz.systems.netbench.core.Simulator;
+import ch.ethz.systems.netbench.core.network.TransportLayer;
+import ch.ethz.systems.netbench.ext.basic.TcpPacket;
+import ch.ethz.systems.netbench.ext.flowlet.IdentityFlowletIntermediary;
+import ch.ethz.systems.netbench.testutility.TestTopologyPortsConstruction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ThresholdSwitchTest {
+
+    /*
+     * Topology:
+     * 0---1
+     *  \ /
+     *   2
+     */
+    private TestTopologyPortsConstruction topology;
+
+    @Mock
+    private TcpPacket packet;
+
+    @Mock
+    private TransportLayer layer0;
+
+    private ThresholdSwitch device0;
+
+    @Before
+    public void setup() {
+
+        Simulator.setup(0);
+        topology = new TestTopologyPortsConstruction(
+                "0-1,0-2,1-2"
+        );
+
+        device0 = new ThresholdSwitch(0, layer0, 3, new IdentityFlowletIntermediary());
+        device0.addConnection(topology.getPort(0, 1));
+        device0.addConnection(topology.getPort(0, 2));
+
+        // Table 0 has no bandwidth on the direct path, table 1 has plenty
+        device0.addThresholdTableEntry(0, 0, 1, Collections.singletonList(2));
+        device0.addThresholdTableEntry(1, 1e12, 1, Collections.singletonList(2));
+        device0.addSrcDstToThresholdTableId(0, 1, 1);
+        device0.addSrcDstToThresholdTableId(0, 2, 0);
+        device0.compileThresholdRoutingTables();
+
+        when(packet.getSizeBit()).thenReturn(12000L);
+        when(packet.getFlowId()).thenReturn(7L);
+
+    }
+
+    @After
+    public void cleanup() {
+        Simulator.reset();
+    }
+
+    @Test
+    public void testDirectPath() {
+        when(packet.getSourceId()).thenReturn(0);
+        when(packet.getDestinationId()).thenReturn(1);
+        device0.receive(packet);
+        verify(topology.getPort(0, 1), times(1)).enqueue(packet);
+        verify(topology.getPort(0, 2), times(0)).enqueue(packet);
+    }
+
+    @Test
+    public void testEcmpPath() {
+        when(packet.getSourceId()).thenReturn(0);
+        when(packet.getDestinationId()).thenReturn(2);
+        device0.receive(packet);
+        verify(topology.getPort(0, 1), times(0)).enqueue(packet);
+        verify(topology.getPort(0, 2), times(1)).enqueue(packet);
+    }
+
+    @Test
+    public void testRecompileAfterChange() {
+
+        // Match added after compilation must be picked up
+        device0.addSrcDstToThresholdTableId(1, 2, 0);
+        when(packet.getSourceId()).thenReturn(1);
+        when(packet.getDestinationId()).thenReturn(2);
+        device0.receive(packet);
+        verify(topology.getPort(0, 1), times(0)).enqueue(packet);
+        verify(topology.getPort(0, 2), times(1)).enqueue(packet);
+
+    }
+
+    @Test
+    public void testPortAddedAfterCompile() {
+
+        // Compiled while only connected to 1
+        ThresholdSwitch device = new ThresholdSwitch(0, layer0, 3, new IdentityFlowletIntermediary());
+        device.addConnection(topology.getPort(0, 1));
+        device.addThresholdTableEntry(0, 0, 1, Collections.singletonList(2));
+        device.addSrcDstToThresholdTableId(0, 2, 0);
+        device.compileThresholdRoutingTables();
+
+        // Port added afterwards must be picked up
+        device.addConnection(topology.getPort(0, 2));
+        when(packet.getSourceId()).thenReturn(0);
+        when(packet.getDestinationId()).thenReturn(2);
+        device.receive(packet);
+        verify(topology.getPort(0, 2), times(1)).enqueue(packet);
+
+    }
+
+    @Test
+    public void testNextHopDrawnWhenMissing() {
+
+        // Without threshold routing tables, 0 sends to 2 via 1
+        ThresholdSwitch device = new ThresholdSwitch(0, layer0, 3, new IdentityFlowletIntermediary());
+        device.addConnection(topology.getPort(0, 1));
+        device.addConnection(topology.getPort(0, 2));
+        device.addDestinationToNextSwitch(2, 1, 1.0);
+
+        // Received without passing the intermediary, so no next hop was drawn yet
+        when(packet.getSourceId()).thenReturn(0);
+        when(packet.getDestinationId()).thenReturn(2);
+        device.receive(packet);
+        device.receive(packet);
+        verify(topology.getPort(0, 1), times(2)).enqueue(packet);
+        verify(topology.getPort(0, 2), times(0)).enqueue(packet);
+
+    }
+
+    @Test
+    public void testFlowStateRemovedWhenFinished() {
+
+        // Next hop of the flow is kept at its source, the ECMP path of table 0 is a hash of the flow
+        when(packet.getSourceId()).thenReturn(0);
+        when(packet.getDestinationId()).thenReturn(2);
+        device0.receiveFromIntermediary(packet);
+        assertEquals(1, device0.getNumFlowStates());
+
+        // Other flows are not affected
+        Simulator.registerFlowFinished(8, 0, 2);
+        assertEquals(1, device0.getNumFlowStates());
+
+        // Switches which are not an end point are not notified
+        Simulator.registerFlowFinished(7, 1, 2);
+        assertEquals(1, device0.getNumFlowStates());
+
+        // Its own finish drops its state
+        Simulator.registerFlowFinished(7, 2, 0);
+        assertEquals(0, device0.getNumFlowStates());
+
+    }
+
+    @Test
+    public void testEcmpPathSticky() {
+
+        // Without bandwidth on the direct path, all packets of the flow take the same ECMP path
+        ThresholdRouting routing = new ThresholdRouting(0, 1, Arrays.asList(2, 3, 4, 5));
+        int nextHop = routing.FindNextHopId(7, 12000);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(nextHop, routing.FindNextHopId(7, 12000));
+        }
+
+        // Different flows are spread over the paths
+        Set<Integer> nextHops = new HashSet<>();
+        for (long flowId = 0; flowId < 100; flowId++) {
+            nextHops.add(routing.FindNextHopId(flowId, 12000));
+        }
+        assertEquals(4, nextHops.size());
+
+    }
+
+}
@@ -0,0 +1,127 @@
+package ch.ethz.systems.netbench.xpt.tcpbase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SegmentSequenceSetTest {
+
+    @Test
+    public void testEmpty() {
+        SegmentSequenceSet set = new SegmentSequenceSet();
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.size());
+        assertEquals(SegmentSequenceSet.NONE, set.first());
+        assertEquals(SegmentSequenceSet.NONE, set.ceiling(0));
+        assertEquals(SegmentSequenceSet.NONE, set.higher(0));
+        assertFalse(set.contains(0));
+        assertFalse(set.remove(0));
+    }
+
+    @Test
+    public void testInOrder() {
+        SegmentSequenceSet set = new SegmentSequenceSet();
+
+        // Send out 100 segments
+        for (long seq = 1; seq <= 100 * 1380; seq += 1380) {
+            assertTrue(set.add(seq));
+        }
+        assertFalse(set.add(1 + 1380));
+        assertEquals(100, set.size());
+
+        // Cumulatively acknowledge the first 40 segments while walking
+        long seq = set.first();
+        while (seq != SegmentSequenceSet.NONE && seq < 1 + 40 * 1380) {
+            assertTrue(set.remove(seq));
+            seq = set.higher(seq);
+        }
+        assertEquals(60, set.size());
+        assertEquals(1 + 40 * 1380, set.first());
+        assertFalse(set.contains(1));
+        assertTrue(set.contains(1 + 40 * 1380));
+
+    }
+
+    @Test
+    public void testSelectiveRemoval() {
+        SegmentSequenceSet set = new SegmentSequenceSet();
+        for (long seq = 0; seq < 10; seq++) {
+            set.add(seq * 10);
+        }
+
+        // Selectively remove 30, 40 and 50
+        assertTrue(set.remove(30));
+        assertTrue(set.remove(40));
+        assertTrue(set.remove(50));
+        assertEquals(7, set.size());
+        assertEquals(60, set.ceiling(30));
+        assertEquals(60, set.ceiling(31));
+        assertEquals(60, set.higher(20));
+        assertEquals(60, set.higher(40));
+        assertEquals(20, set.ceiling(20));
+        assertEquals(0, set.first());
+
+        // Add back one of them
+        assertTrue(set.add(40));
+        assertEquals(40, set.higher(20));
+        assertEquals(40, set.ceiling(25));
+
+        // Insert one in between
+        assertTrue(set.add(45));
+        assertEquals(45, set.higher(40));
+        assertEquals(60, set.higher(45));
+        assertEquals(9, set.size());
+
+        // Remove the last
+        assertTrue(set.remove(90));
+        assertEquals(SegmentSequenceSet.NONE, set.higher(80));
+        assertEquals(SegmentSequenceSet.NONE, set.ceiling(81));
+
+    }
+
+    @Test
+    public void testRandomAgainstTreeSet() {
+        Random random = new Random(42);
+        SegmentSequenceSet set = new SegmentSequenceSet();
+        TreeSet<Long> reference = new TreeSet<>();
+
+        for (int i = 0; i < 100000; i++) {
+            long seq = random.nextInt(2000);
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1:
+                    assertEquals(reference.add(seq), set.add(seq));
+                    break;
+                case 2:
+                    assertEquals(reference.remove(seq), set.remove(seq));
+                    break;
+                case 3:
+                    assertEquals(reference.contains(seq), set.contains(seq));
+                    break;
+                default:
+                    Long ceiling = reference.ceiling(seq);
+                    Long higher = reference.higher(seq);
+                    assertEquals(ceiling == null ? SegmentSequenceSet.NONE : ceiling, set.ceiling(seq));
+                    assertEquals(higher == null ? SegmentSequenceSet.NONE : higher, set.higher(seq));
+            }
+            assertEquals(reference.size(), set.size());
+            assertEquals(reference.isEmpty() ? SegmentSequenceSet.NONE : reference.first(), set.first());
+        }
+
+        // Walk all in ascending order
+        long seq = set.first();
+        for (Long expected : reference) {
+            assertEquals((long) expected, seq);
+            seq = set.higher(seq);
+        }
+        assertEquals(SegmentSequenceSet.NONE, seq);
+
+    }
+
+}